@@ -0,0 +1,23 @@
+-- 映射记忆数据库迁移脚本
+-- 创建时间: 2026-10-17
+-- 功能: 记录各商家导入成功时确认的表头 -> 字段映射，自适应映射优先使用
+
+USE `meituan_product`;
+
+-- ============================================
+-- 创建映射记忆表
+-- ============================================
+CREATE TABLE IF NOT EXISTS `t_mapping_memory` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `merchant_id` BIGINT NOT NULL COMMENT '商家ID',
+  `column_name` VARCHAR(255) NOT NULL COMMENT 'Excel表头列名',
+  `field_name` VARCHAR(100) NOT NULL COMMENT '系统字段名',
+  `hit_count` INT NOT NULL DEFAULT 1 COMMENT '确认次数',
+  `created_time` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `updated_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_merchant_column` (`merchant_id`, `column_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='映射记忆表';
+
+-- 验证
+SHOW CREATE TABLE `t_mapping_memory`;
@@ -0,0 +1,27 @@
+-- 美团商品删除进度数据库迁移脚本
+-- 创建时间: 2026-10-17
+-- 功能: 按商家记录美团商品删除任务的进度，服务重启或失败后从断点继续
+
+USE `meituan_product`;
+
+-- ============================================
+-- 创建美团商品删除进度表
+-- ============================================
+CREATE TABLE IF NOT EXISTS `t_meituan_delete_progress` (
+  `merchant_id` BIGINT NOT NULL COMMENT '商家ID',
+  `state` VARCHAR(20) NOT NULL COMMENT '任务状态：QUEUED/RUNNING/INTERRUPTED/COMPLETED/FAILED',
+  `total_count` INT NOT NULL DEFAULT 0 COMMENT '商品总数',
+  `processed_count` INT NOT NULL DEFAULT 0 COMMENT '已处理数',
+  `deleted_count` INT NOT NULL DEFAULT 0 COMMENT '删除成功数',
+  `failed_count` INT NOT NULL DEFAULT 0 COMMENT '删除失败数',
+  `skipped_count` INT NOT NULL DEFAULT 0 COMMENT '跳过数',
+  `last_product_id` BIGINT NOT NULL DEFAULT 0 COMMENT '游标：ID不大于该值的商品均已处理',
+  `error_message` VARCHAR(500) DEFAULT NULL COMMENT '错误信息',
+  `started_time` DATETIME DEFAULT NULL COMMENT '开始时间',
+  `finished_time` DATETIME DEFAULT NULL COMMENT '完成时间',
+  `updated_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`merchant_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='美团商品删除进度表';
+
+-- 验证
+SHOW CREATE TABLE `t_meituan_delete_progress`;
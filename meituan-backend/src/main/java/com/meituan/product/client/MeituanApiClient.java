@@ -1,13 +1,15 @@
 package com.meituan.product.client;
 
+import com.meituan.product.dto.HttpPoolStats;
 import com.meituan.product.dto.MeituanApiResponse;
 import com.meituan.product.dto.ProductDTO;
 import com.meituan.product.exception.MeituanApiException;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
@@ -17,6 +19,8 @@ import java.util.Map;
 
 /**
  * 美团API客户端
+ * 请求通过连接池复用keep-alive连接，超时和连接池配置见MeituanHttpClientConfig；
+ * 上传和删除请求经过MeituanApiGuard的熔断器和重试预算
  */
 @Slf4j
 @Component
@@ -25,30 +29,37 @@ public class MeituanApiClient {
     @Value("${meituan.api.base-url}")
     private String baseUrl;
     
-    @Value("${meituan.api.timeout}")
-    private Integer timeout;
-    
     private final RestTemplate restTemplate;
     
-    public MeituanApiClient() {
-        this.restTemplate = new RestTemplate();
+    private final PoolingHttpClientConnectionManager connectionManager;
+    
+    private final MeituanApiGuard meituanApiGuard;
+    
+    public MeituanApiClient(@Qualifier("meituanRestTemplate") RestTemplate restTemplate,
+                            @Qualifier("meituanConnectionManager") PoolingHttpClientConnectionManager connectionManager,
+                            MeituanApiGuard meituanApiGuard) {
+        this.restTemplate = restTemplate;
+        this.connectionManager = connectionManager;
+        this.meituanApiGuard = meituanApiGuard;
     }
     
     /**
      * 批量上传商品到美团平台
+     * 限流和服务暂时不可用时在重试预算内退避重试，业务错误直接抛出
      * 
      * @param products 商品列表
      * @param accessToken 访问令牌
      * @return API响应
      */
-    @Retryable(
-        value = {MeituanApiException.class},
-        maxAttempts = 3,
-        backoff = @Backoff(delay = 1000, multiplier = 2)
-    )
     public MeituanApiResponse<Map<String, Object>> uploadProducts(
             List<ProductDTO> products, 
             String accessToken) {
+        return meituanApiGuard.execute("上传商品", () -> doUploadProducts(products, accessToken));
+    }
+    
+    private MeituanApiResponse<Map<String, Object>> doUploadProducts(
+            List<ProductDTO> products, 
+            String accessToken) {
         
         log.info("开始调用美团API上传商品，数量：{}", products.size());
         
@@ -92,19 +103,21 @@ public class MeituanApiClient {
     
     /**
      * 清空商家的所有商品
+     * 限流和服务暂时不可用时在重试预算内退避重试，业务错误直接抛出
      * 
      * @param merchantId 商家ID
      * @param accessToken 访问令牌
      * @return API响应
      */
-    @Retryable(
-        value = {MeituanApiException.class},
-        maxAttempts = 3,
-        backoff = @Backoff(delay = 1000, multiplier = 2)
-    )
     public MeituanApiResponse<Map<String, Object>> deleteAllProducts(
             String merchantId, 
             String accessToken) {
+        return meituanApiGuard.execute("清空商品", () -> doDeleteAllProducts(merchantId, accessToken));
+    }
+    
+    private MeituanApiResponse<Map<String, Object>> doDeleteAllProducts(
+            String merchantId, 
+            String accessToken) {
         
         log.info("开始调用美团API清空商品，商家ID：{}", merchantId);
         
@@ -186,6 +199,11 @@ public class MeituanApiClient {
      * @return API响应
      */
     public MeituanApiResponse<Map<String, Object>> deleteProduct(String appFoodCode, String accessToken) {
+        // 限流由删除任务的自适应限流器处理，这里只经过熔断器，不重试
+        return meituanApiGuard.execute("删除商品", 1, () -> doDeleteProduct(appFoodCode, accessToken));
+    }
+
+    private MeituanApiResponse<Map<String, Object>> doDeleteProduct(String appFoodCode, String accessToken) {
         log.info("开始调用美团API删除商品，商品ID：{}", appFoodCode);
 
         try {
@@ -227,6 +245,23 @@ public class MeituanApiClient {
         }
     }
 
+    /**
+     * 获取连接池统计
+     *
+     * @return 连接池使用情况
+     */
+    public HttpPoolStats getConnectionPoolStats() {
+        PoolStats totals = connectionManager.getTotalStats();
+        HttpPoolStats stats = new HttpPoolStats();
+        stats.setMaxTotal(connectionManager.getMaxTotal());
+        stats.setMaxPerRoute(connectionManager.getDefaultMaxPerRoute());
+        stats.setLeased(totals.getLeased());
+        stats.setAvailable(totals.getAvailable());
+        stats.setPending(totals.getPending());
+        stats.setRoutes(connectionManager.getRoutes().size());
+        return stats;
+    }
+
     /**
      * 创建请求头
      */
@@ -0,0 +1,173 @@
+package com.meituan.product.client;
+
+import com.meituan.product.dto.MeituanApiResilienceStats;
+import com.meituan.product.enums.CircuitBreakerState;
+import com.meituan.product.exception.MeituanApiException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 美团API调用保护
+ * 所有美团API调用共用一个熔断器：美团故障时直接失败，不再占用线程等待超时和重试；
+ * 只有限流和服务暂时不可用的错误才重试，重试次数受重试预算限制，退避时间加随机抖动避免并发请求同时重试
+ */
+@Slf4j
+@Component
+public class MeituanApiGuard {
+
+    @Value("${meituan.api.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${meituan.api.retry.backoff:500}")
+    private long backoffMillis;
+
+    @Value("${meituan.api.retry.max-backoff:5000}")
+    private long maxBackoffMillis;
+
+    @Value("${meituan.api.retry.budget-ratio:0.2}")
+    private double budgetRatio;
+
+    @Value("${meituan.api.retry.budget-min-per-second:1}")
+    private double budgetMinPerSecond;
+
+    @Value("${meituan.api.circuit-breaker.window-size:50}")
+    private int windowSize;
+
+    @Value("${meituan.api.circuit-breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${meituan.api.circuit-breaker.failure-rate-threshold:0.5}")
+    private double failureRateThreshold;
+
+    @Value("${meituan.api.circuit-breaker.open-duration:30000}")
+    private long openDurationMillis;
+
+    @Value("${meituan.api.circuit-breaker.half-open-probes:3}")
+    private int halfOpenProbes;
+
+    private MeituanCircuitBreaker circuitBreaker;
+    private RetryBudget retryBudget;
+
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong permanentFailureCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        circuitBreaker = new MeituanCircuitBreaker(windowSize, minimumCalls, failureRateThreshold,
+                openDurationMillis, halfOpenProbes);
+        retryBudget = new RetryBudget(budgetRatio, budgetMinPerSecond, Math.max(10, budgetMinPerSecond * 10));
+        log.info("美团API调用保护初始化完成，最多尝试：{}次，熔断失败率：{}，熔断时长：{}ms",
+                maxAttempts, failureRateThreshold, openDurationMillis);
+    }
+
+    /**
+     * 按配置的最多尝试次数调用美团API
+     *
+     * @param operation 操作名称（用于日志）
+     * @param call API调用
+     * @return 调用结果
+     */
+    public <T> T execute(String operation, Supplier<T> call) {
+        return execute(operation, maxAttempts, call);
+    }
+
+    /**
+     * 调用美团API，可重试的错误在预算内退避重试
+     *
+     * @param operation 操作名称（用于日志）
+     * @param attempts 最多尝试次数，1表示不重试（调用方自行处理限流等情况）
+     * @param call API调用
+     * @return 调用结果
+     */
+    public <T> T execute(String operation, int attempts, Supplier<T> call) {
+        callCount.incrementAndGet();
+        retryBudget.onRequest();
+
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquire()) {
+                throw new MeituanApiException("美团API暂时不可用（熔断中），请"
+                        + Math.max(1, circuitBreaker.getRemainingOpenMillis() / 1000) + "秒后重试",
+                        MeituanApiException.CIRCUIT_OPEN);
+            }
+
+            MeituanApiException failure;
+            try {
+                T result = call.get();
+                circuitBreaker.onSuccess();
+                return result;
+            } catch (MeituanApiException e) {
+                failure = e;
+            } catch (RuntimeException | Error e) {
+                // 非预期异常也要结束本次放行，否则半开状态的探测名额不会释放，熔断器无法恢复
+                circuitBreaker.onFailure();
+                throw e;
+            }
+
+            if (failure.isTransient()) {
+                circuitBreaker.onFailure();
+                if (circuitBreaker.getState() == CircuitBreakerState.OPEN) {
+                    log.error("美团API失败率过高，已熔断{}ms：{}", openDurationMillis, failure.getMessage());
+                    throw failure;
+                }
+            } else {
+                // 业务错误和限流说明美团服务正常响应
+                circuitBreaker.onSuccess();
+            }
+            if (!failure.isRetryable()) {
+                permanentFailureCount.incrementAndGet();
+                throw failure;
+            }
+            if (attempt >= attempts) {
+                throw failure;
+            }
+            if (!retryBudget.tryRetry()) {
+                log.warn("{}失败，重试预算不足，不再重试：{}", operation, failure.getMessage());
+                throw failure;
+            }
+
+            long delay = backoff(attempt);
+            log.warn("{}失败，{}ms后第{}次重试：{}", operation, delay, attempt, failure.getMessage());
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * 指数退避加全量随机抖动：在 [0, min(上限, 初始间隔 × 2^(n-1))] 内随机取值
+     */
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * 获取熔断与重试指标
+     *
+     * @return 运行指标
+     */
+    public MeituanApiResilienceStats getStats() {
+        MeituanApiResilienceStats stats = new MeituanApiResilienceStats();
+        stats.setState(circuitBreaker.getState());
+        stats.setFailureRate(circuitBreaker.getFailureRate());
+        stats.setWindowCalls(circuitBreaker.getWindowCalls());
+        stats.setRemainingOpenMillis(circuitBreaker.getRemainingOpenMillis());
+        stats.setOpenedCount(circuitBreaker.getOpenedCount());
+        stats.setRejectedCount(circuitBreaker.getRejectedCount());
+        stats.setCallCount(callCount.get());
+        stats.setRetriedCount(retryBudget.getRetriedCount());
+        stats.setBudgetExhaustedCount(retryBudget.getExhaustedCount());
+        stats.setRetryBudgetBalance(retryBudget.getBalance());
+        stats.setPermanentFailureCount(permanentFailureCount.get());
+        return stats;
+    }
+}
@@ -0,0 +1,161 @@
+package com.meituan.product.client;
+
+import com.meituan.product.enums.CircuitBreakerState;
+
+/**
+ * 美团API熔断器（线程安全）
+ * 按最近N次调用结果统计失败率，达到阈值后打开，打开期间请求直接失败；
+ * 打开一段时间后进入半开状态，放行少量探测请求，全部成功则关闭，任一失败则重新打开
+ */
+public final class MeituanCircuitBreaker {
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    // 最近调用结果（环形缓冲，true表示失败）
+    private final boolean[] outcomes;
+    private int outcomeCount;
+    private int failureCount;
+
+    private CircuitBreakerState state = CircuitBreakerState.CLOSED;
+    private long openedAtNanos;
+    private int probesInFlight;
+    private int probesSucceeded;
+
+    private long openedCount;
+    private long rejectedCount;
+
+    /**
+     * @param windowSize 统计失败率的最近调用数
+     * @param minimumCalls 调用数达到该值才计算失败率
+     * @param failureRateThreshold 打开熔断的失败率（0~1）
+     * @param openMillis 打开后多久进入半开状态
+     * @param halfOpenProbes 半开状态放行的探测请求数
+     */
+    public MeituanCircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                                 long openMillis, int halfOpenProbes) {
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openMillis * 1_000_000L;
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.outcomes = new boolean[this.windowSize];
+    }
+
+    /**
+     * 申请发送一次请求
+     *
+     * @return 是否放行；放行后必须调用onSuccess或onFailure
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == CircuitBreakerState.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openNanos) {
+                rejectedCount++;
+                return false;
+            }
+            state = CircuitBreakerState.HALF_OPEN;
+            probesInFlight = 0;
+            probesSucceeded = 0;
+        }
+        if (state == CircuitBreakerState.HALF_OPEN) {
+            if (probesInFlight + probesSucceeded >= halfOpenProbes) {
+                rejectedCount++;
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    /**
+     * 记录一次成功调用（美团有响应，包括业务错误和限流）
+     */
+    public synchronized void onSuccess() {
+        if (state == CircuitBreakerState.HALF_OPEN) {
+            probesInFlight--;
+            probesSucceeded++;
+            if (probesSucceeded >= halfOpenProbes) {
+                state = CircuitBreakerState.CLOSED;
+                resetWindow();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    /**
+     * 记录一次失败调用（网络异常、超时、服务端错误）
+     */
+    public synchronized void onFailure() {
+        if (state == CircuitBreakerState.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == CircuitBreakerState.CLOSED && outcomeCount >= minimumCalls
+                && getFailureRate() >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    private void record(boolean failed) {
+        int slot = outcomeCount % windowSize;
+        if (outcomeCount >= windowSize && outcomes[slot]) {
+            failureCount--;
+        }
+        outcomes[slot] = failed;
+        if (failed) {
+            failureCount++;
+        }
+        outcomeCount++;
+    }
+
+    private void open() {
+        state = CircuitBreakerState.OPEN;
+        openedAtNanos = System.nanoTime();
+        openedCount++;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        outcomeCount = 0;
+        failureCount = 0;
+    }
+
+    public synchronized CircuitBreakerState getState() {
+        return state;
+    }
+
+    /**
+     * 统计窗口内的失败率
+     */
+    public synchronized double getFailureRate() {
+        int calls = Math.min(outcomeCount, windowSize);
+        return calls == 0 ? 0 : (double) failureCount / calls;
+    }
+
+    public synchronized int getWindowCalls() {
+        return Math.min(outcomeCount, windowSize);
+    }
+
+    /**
+     * 距离进入半开状态的剩余时间（毫秒，仅打开时有值）
+     */
+    public synchronized long getRemainingOpenMillis() {
+        if (state != CircuitBreakerState.OPEN) {
+            return 0;
+        }
+        return Math.max(0, (openNanos - (System.nanoTime() - openedAtNanos)) / 1_000_000L);
+    }
+
+    public synchronized long getOpenedCount() {
+        return openedCount;
+    }
+
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+}
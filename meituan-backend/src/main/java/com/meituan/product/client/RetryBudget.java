@@ -0,0 +1,68 @@
+package com.meituan.product.client;
+
+/**
+ * 重试预算（线程安全）
+ * 每次首次请求存入ratio个令牌，每次重试消耗1个令牌，另外每秒固定补充minPerSecond个令牌保证低流量时也能重试；
+ * 重试总量因此不超过请求量的ratio倍，美团故障时不会因大量重试放大压力
+ */
+public final class RetryBudget {
+
+    private final double ratio;
+    private final double minPerSecond;
+    private final double maxBalance;
+
+    private double balance;
+    private long lastRefillNanos;
+    private long retriedCount;
+    private long exhaustedCount;
+
+    /**
+     * @param ratio 每次请求允许的重试比例（如0.2表示最多20%的额外请求）
+     * @param minPerSecond 每秒至少允许的重试次数
+     * @param maxBalance 最多累积的令牌数
+     */
+    public RetryBudget(double ratio, double minPerSecond, double maxBalance) {
+        this.ratio = Math.max(0, ratio);
+        this.minPerSecond = Math.max(0, minPerSecond);
+        this.maxBalance = Math.max(1, maxBalance);
+        this.balance = this.maxBalance;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 记录一次首次请求
+     */
+    public synchronized void onRequest() {
+        balance = Math.min(maxBalance, balance + ratio);
+    }
+
+    /**
+     * 申请一次重试
+     *
+     * @return 预算是否足够
+     */
+    public synchronized boolean tryRetry() {
+        long now = System.nanoTime();
+        balance = Math.min(maxBalance, balance + (now - lastRefillNanos) / 1e9 * minPerSecond);
+        lastRefillNanos = now;
+        if (balance < 1) {
+            exhaustedCount++;
+            return false;
+        }
+        balance -= 1;
+        retriedCount++;
+        return true;
+    }
+
+    public synchronized double getBalance() {
+        return balance;
+    }
+
+    public synchronized long getRetriedCount() {
+        return retriedCount;
+    }
+
+    public synchronized long getExhaustedCount() {
+        return exhaustedCount;
+    }
+}
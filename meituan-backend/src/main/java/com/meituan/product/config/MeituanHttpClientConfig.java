@@ -0,0 +1,99 @@
+package com.meituan.product.config;
+
+import com.meituan.product.client.GzipRequestInterceptor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Set;
+
+/**
+ * 美团API HTTP客户端配置
+ * 使用Apache HttpClient连接池复用keep-alive连接，连接、读取和从连接池获取连接都有超时；
+ * 批量上传请求体的gzip压缩需要服务端支持解压，默认关闭，通过 meituan.api.gzip.enabled=true 开启，
+ * 开启后请求体超过阈值时压缩
+ */
+@Slf4j
+@Configuration
+public class MeituanHttpClientConfig {
+
+    @Value("${meituan.api.connect-timeout:5000}")
+    private int connectTimeout;
+
+    @Value("${meituan.api.timeout:30000}")
+    private int readTimeout;
+
+    @Value("${meituan.api.pool.max-total:50}")
+    private int maxTotal;
+
+    @Value("${meituan.api.pool.max-per-route:20}")
+    private int maxPerRoute;
+
+    @Value("${meituan.api.pool.acquire-timeout:5000}")
+    private int acquireTimeout;
+
+    @Value("${meituan.api.pool.idle-timeout:30000}")
+    private int idleTimeout;
+
+    @Value("${meituan.api.gzip.enabled:false}")
+    private boolean gzipEnabled;
+
+    @Value("${meituan.api.gzip.min-bytes:2048}")
+    private int gzipMinBytes;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager meituanConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout))
+                        // 空闲超过2秒的连接复用前先检查是否已被服务端关闭
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient meituanHttpClient(
+            @Qualifier("meituanConnectionManager") PoolingHttpClientConnectionManager connectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(acquireTimeout))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeout))
+                        .build())
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                // 重试统一由MeituanApiGuard按重试预算处理，避免两层重试叠加
+                .disableAutomaticRetries()
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleTimeout))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate meituanRestTemplate(@Qualifier("meituanHttpClient") CloseableHttpClient httpClient) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        if (gzipEnabled) {
+            restTemplate.getInterceptors().add(
+                    new GzipRequestInterceptor(Set.of("/products/batch-upload"), gzipMinBytes));
+        }
+        log.info("美团API客户端初始化完成，连接池：{}（每个地址{}），连接超时：{}ms，读取超时：{}ms，请求体压缩：{}",
+                maxTotal, maxPerRoute, connectTimeout, readTimeout, gzipEnabled ? "开启" : "关闭");
+        return restTemplate;
+    }
+}
@@ -1,6 +1,7 @@
 package com.meituan.product.config;
 
 import com.meituan.product.filter.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -42,6 +43,8 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS) // 无状态会话
             )
             .authorizeHttpRequests(auth -> auth
+                // 流式响应（如ZIP导出）完成后的异步分派沿用原请求的鉴权结果
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // 允许匿名访问的接口（登录注册）
                 .requestMatchers("/api/auth/**").permitAll()
                 // 允许匿名访问公司信息接口（landing page需要）
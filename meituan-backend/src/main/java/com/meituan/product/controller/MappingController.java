@@ -0,0 +1,169 @@
+package com.meituan.product.controller;
+
+import com.meituan.product.common.ApiResponse;
+import com.meituan.product.dto.MappingCacheStats;
+import com.meituan.product.dto.MappingMemoryStats;
+import com.meituan.product.dto.MappingRulesInfo;
+import com.meituan.product.service.AdaptiveMappingEngine;
+import com.meituan.product.service.MappingMemoryService;
+import com.meituan.product.service.MappingRuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 自适应映射控制器
+ * 提供映射规则热加载、映射记忆的确认与清理，以及映射缓存、映射记忆等运行状态查询
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/mapping")
+@RequiredArgsConstructor
+public class MappingController {
+    
+    private final AdaptiveMappingEngine adaptiveMappingEngine;
+    private final MappingRuleRepository mappingRuleRepository;
+    private final MappingMemoryService mappingMemoryService;
+    
+    /**
+     * 获取当前映射规则版本
+     * 
+     * @return 规则快照信息
+     */
+    @GetMapping("/rules")
+    public ApiResponse<MappingRulesInfo> getRulesInfo() {
+        return ApiResponse.success(toRulesInfo(mappingRuleRepository.getSnapshot()));
+    }
+    
+    /**
+     * 重新加载映射规则
+     * 新规则发布前进行中的映射构建继续使用旧规则；配置有误时保留当前规则
+     * 
+     * @return 重新加载后的规则快照信息
+     */
+    @PostMapping("/rules/reload")
+    public ApiResponse<MappingRulesInfo> reloadRules() {
+        try {
+            long previousVersion = mappingRuleRepository.getRulesVersion();
+            MappingRuleRepository.RuleSnapshot snapshot = mappingRuleRepository.reloadRules();
+            if (snapshot.getVersion() == previousVersion) {
+                return ApiResponse.error(500, "映射规则配置加载失败，仍使用版本 " + previousVersion + " 的规则");
+            }
+            log.info("映射规则已重新加载，版本：{} -> {}", previousVersion, snapshot.getVersion());
+            return ApiResponse.success("映射规则已重新加载", toRulesInfo(snapshot));
+        } catch (Exception e) {
+            log.error("重新加载映射规则失败", e);
+            return ApiResponse.error(500, "重新加载映射规则失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取映射缓存统计
+     * 
+     * @return 命中、未命中次数及当前规则版本
+     */
+    @GetMapping("/cache-stats")
+    public ApiResponse<MappingCacheStats> getCacheStats() {
+        try {
+            return ApiResponse.success(adaptiveMappingEngine.getCacheStats());
+        } catch (Exception e) {
+            log.error("查询映射缓存统计失败", e);
+            return ApiResponse.error(500, "查询映射缓存统计失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取映射记忆统计
+     * 
+     * @return 记忆命中的列数与走完整匹配的列数
+     */
+    @GetMapping("/memory-stats")
+    public ApiResponse<MappingMemoryStats> getMemoryStats() {
+        try {
+            return ApiResponse.success(adaptiveMappingEngine.getMemoryStats());
+        } catch (Exception e) {
+            log.error("查询映射记忆统计失败", e);
+            return ApiResponse.error(500, "查询映射记忆统计失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 确认商家的表头映射
+     * 手动确认的映射写入映射记忆，之后导入同样表头时直接使用
+     * 
+     * @param merchantId 商家ID
+     * @param columnFields 表头列名 -> 系统字段名
+     * @return 操作结果
+     */
+    @PutMapping("/memory/{merchantId}")
+    public ApiResponse<Void> confirmMappings(@PathVariable Long merchantId,
+                                             @RequestBody Map<String, String> columnFields) {
+        for (String fieldName : columnFields.values()) {
+            if (mappingRuleRepository.getRule(fieldName) == null) {
+                return ApiResponse.error(400, "未知字段：" + fieldName);
+            }
+        }
+        try {
+            mappingMemoryService.confirmMappings(merchantId, columnFields);
+            return ApiResponse.success("映射已确认", null);
+        } catch (Exception e) {
+            log.error("确认映射失败，商家ID：{}", merchantId, e);
+            return ApiResponse.error(500, "确认映射失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 删除商家某一列的映射记忆
+     * 
+     * @param merchantId 商家ID
+     * @param columnName 表头列名
+     * @return 删除的记录数
+     */
+    @DeleteMapping("/memory/{merchantId}/columns")
+    public ApiResponse<Integer> forgetColumn(@PathVariable Long merchantId, @RequestParam String columnName) {
+        try {
+            return ApiResponse.success("映射记忆已删除", mappingMemoryService.forgetColumn(merchantId, columnName));
+        } catch (Exception e) {
+            log.error("删除映射记忆失败，商家ID：{}，列名：{}", merchantId, columnName, e);
+            return ApiResponse.error(500, "删除映射记忆失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 清空商家的全部映射记忆
+     * 
+     * @param merchantId 商家ID
+     * @return 删除的记录数
+     */
+    @DeleteMapping("/memory/{merchantId}")
+    public ApiResponse<Integer> resetMemory(@PathVariable Long merchantId) {
+        try {
+            return ApiResponse.success("映射记忆已清空", mappingMemoryService.resetMemory(merchantId));
+        } catch (Exception e) {
+            log.error("清空映射记忆失败，商家ID：{}", merchantId, e);
+            return ApiResponse.error(500, "清空映射记忆失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 清空映射缓存
+     * 
+     * @return 操作结果
+     */
+    @DeleteMapping("/cache")
+    public ApiResponse<Void> clearCache() {
+        adaptiveMappingEngine.clearCache();
+        return ApiResponse.success("映射缓存已清空", null);
+    }
+    
+    private MappingRulesInfo toRulesInfo(MappingRuleRepository.RuleSnapshot snapshot) {
+        MappingRulesInfo info = new MappingRulesInfo();
+        info.setVersion(snapshot.getVersion());
+        info.setRuleCount(snapshot.getRules().size());
+        info.setRequiredRuleCount(snapshot.getRequiredRules().size());
+        info.setLoadedTime(snapshot.getLoadedTime());
+        return info;
+    }
+}
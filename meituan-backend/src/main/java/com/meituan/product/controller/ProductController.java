@@ -1,16 +1,27 @@
 package com.meituan.product.controller;
 
+import com.meituan.product.client.MeituanApiClient;
+import com.meituan.product.client.MeituanApiGuard;
 import com.meituan.product.common.ApiResponse;
 import com.meituan.product.dto.ClearRequest;
 import com.meituan.product.dto.ClearResult;
 import com.meituan.product.dto.GenerateTemplateRequest;
 import com.meituan.product.dto.GenerateTemplateResponse;
+import com.meituan.product.dto.HttpPoolStats;
+import com.meituan.product.dto.ImportJobStatus;
 import com.meituan.product.dto.ImportResult;
+import com.meituan.product.dto.MeituanApiResilienceStats;
+import com.meituan.product.dto.MeituanDeleteStatus;
 import com.meituan.product.dto.ProductStats;
+import com.meituan.product.dto.UploadEngineStats;
 import com.meituan.product.dto.UploadRequest;
 import com.meituan.product.dto.UploadResult;
 import com.meituan.product.entity.OperationLog;
 import com.meituan.product.entity.Product;
+import com.meituan.product.exception.TooManyJobsException;
+import com.meituan.product.service.ImportJobService;
+import com.meituan.product.service.MeituanDeleteJobService;
+import com.meituan.product.service.MeituanUploadEngine;
 import com.meituan.product.service.OperationLogService;
 import com.meituan.product.service.ProductService;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +31,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -35,6 +47,11 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ImportJobService importJobService;
+    private final MeituanUploadEngine meituanUploadEngine;
+    private final MeituanDeleteJobService meituanDeleteJobService;
+    private final MeituanApiClient meituanApiClient;
+    private final MeituanApiGuard meituanApiGuard;
     private final OperationLogService operationLogService;
     private final com.meituan.product.service.FileStorageService fileStorageService;
     private final com.meituan.product.mapper.ProductMapper productMapper;
@@ -344,6 +361,53 @@ public class ProductController {
         return ApiResponse.success(message, result);
     }
     
+    /**
+     * 提交异步导入任务
+     * 文件保存后立即返回任务ID，导入在后台线程池执行，通过任务状态接口轮询进度
+     * 
+     * @param file Excel文件
+     * @param merchantId 商家ID
+     * @param debug 是否逐行输出详细诊断日志（排查问题时使用）
+     * @return 任务状态
+     */
+    @PostMapping("/import-jobs")
+    public ApiResponse<ImportJobStatus> submitImportJob(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam("merchantId") Long merchantId,
+            @RequestParam(value = "debug", required = false, defaultValue = "false") Boolean debug) {
+        
+        log.info("接收到异步导入请求，商家ID：{}，文件名：{}", merchantId, file.getOriginalFilename());
+        
+        if (file.isEmpty()) {
+            return ApiResponse.error(400, "文件不能为空");
+        }
+        
+        try {
+            ImportJobStatus status = importJobService.submit(file, merchantId, debug);
+            return ApiResponse.success("导入任务已提交", status);
+        } catch (TooManyJobsException e) {
+            return ApiResponse.error(429, e.getMessage());
+        }
+    }
+    
+    /**
+     * 查询导入任务状态
+     * 
+     * @param jobId 任务ID
+     * @param merchantId 商家ID
+     * @return 任务状态（已解析/已插入行数、错误数、预计剩余时间、各阶段耗时）
+     */
+    @GetMapping("/import-jobs/{jobId}")
+    public ApiResponse<ImportJobStatus> getImportJobStatus(
+            @PathVariable String jobId,
+            @RequestParam("merchantId") Long merchantId) {
+        ImportJobStatus status = importJobService.getStatus(jobId, merchantId);
+        if (status == null) {
+            return ApiResponse.error(404, "导入任务不存在或已过期");
+        }
+        return ApiResponse.success(status);
+    }
+    
     /**
      * 获取商品列表（支持分页、搜索和日期筛选）
      * 
@@ -487,13 +551,14 @@ public class ProductController {
 
     /**
      * 分批导出商品模板为ZIP文件（每个Excel最多2000条）
+     * ZIP边生成边写入响应，不在内存中缓存整个文件
      *
      * @param merchantId 商家ID（可选，默认为1）
      * @param limit 导出数量限制（可选，用于测试。默认为全部导出）
      * @return ZIP文件
      */
     @PostMapping("/export-as-zip")
-    public ResponseEntity<byte[]> exportProductsAsZip(
+    public ResponseEntity<StreamingResponseBody> exportProductsAsZip(
             @RequestParam(value = "merchantId", required = false) Long merchantId,
             @RequestParam(value = "limit", required = false, defaultValue = "0") Integer limit) {
         log.info("接收到分批导出请求，商家ID：{}，导出数量限制：{}", merchantId, limit);
@@ -504,24 +569,24 @@ public class ProductController {
                 merchantId = 1L;
             }
 
-            // 生成ZIP文件
-            byte[] zipData = productService.generateProductsTemplateAsZip(merchantId, limit);
+            // 校验参数并查询商品（写响应之前完成，失败时仍按错误状态码返回）
+            ProductService.ZipExport export = productService.prepareProductsZipExport(merchantId, limit);
 
             // 生成文件名
             String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
             String fileName = "meituan_products_" + timestamp + ".zip";
 
-            // 设置响应头
+            // 设置响应头（边生成边输出，长度未知）
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
             headers.setContentDispositionFormData("attachment", fileName);
-            headers.setContentLength(zipData.length);
 
-            log.info("成功生成ZIP文件：{}，大小：{}字节", fileName, zipData.length);
+            log.info("开始输出ZIP文件：{}，共{}个Excel文件", fileName, export.getFileCount());
 
+            StreamingResponseBody body = outputStream -> productService.writeProductsTemplateAsZip(export, outputStream);
             return ResponseEntity.ok()
                     .headers(headers)
-                    .body(zipData);
+                    .body(body);
 
         } catch (IllegalArgumentException e) {
             log.error("生成ZIP文件失败：{}", e.getMessage());
@@ -570,6 +635,51 @@ public class ProductController {
         );
     }
     
+    /**
+     * 获取美团上传引擎运行指标
+     * 
+     * @return 在途批次、吞吐量、批次耗时等指标
+     */
+    @GetMapping("/upload/stats")
+    public ApiResponse<UploadEngineStats> getUploadStats() {
+        try {
+            return ApiResponse.success(meituanUploadEngine.getStats());
+        } catch (Exception e) {
+            log.error("查询上传指标失败", e);
+            return ApiResponse.error(500, "查询上传指标失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取美团API连接池统计
+     * 
+     * @return 正在使用、空闲、等待中的连接数
+     */
+    @GetMapping("/upload/http-pool")
+    public ApiResponse<HttpPoolStats> getHttpPoolStats() {
+        try {
+            return ApiResponse.success(meituanApiClient.getConnectionPoolStats());
+        } catch (Exception e) {
+            log.error("查询连接池统计失败", e);
+            return ApiResponse.error(500, "查询连接池统计失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取美团API熔断与重试指标
+     * 
+     * @return 熔断器状态、失败率、重试次数等指标
+     */
+    @GetMapping("/upload/resilience")
+    public ApiResponse<MeituanApiResilienceStats> getResilienceStats() {
+        try {
+            return ApiResponse.success(meituanApiGuard.getStats());
+        } catch (Exception e) {
+            log.error("查询熔断指标失败", e);
+            return ApiResponse.error(500, "查询熔断指标失败：" + e.getMessage());
+        }
+    }
+    
     /**
      * 清空商品
      * 
@@ -601,10 +711,13 @@ public class ProductController {
 
     /**
      * 逐个删除美团平台的所有商品
+     * 提交删除任务后立即返回，不等待删除结束
      *
      * @param request 清空请求
-     * @return 删除结果
+     * @return 提交结果
+     * @deprecated 使用 POST /meituan-delete-jobs 提交任务，GET /meituan-delete-jobs/{merchantId} 查询进度
      */
+    @Deprecated
     @DeleteMapping("/delete-meituan")
     public ApiResponse<ClearResult> deleteProductsFromMeituan(@RequestBody ClearRequest request) {
         log.info("接收到删除美团商品请求，商家ID：{}", request.getMerchantId());
@@ -624,12 +737,70 @@ public class ProductController {
             );
 
             return ApiResponse.success(result.getMessage(), result);
+        } catch (TooManyJobsException e) {
+            return ApiResponse.error(429, e.getMessage());
         } catch (Exception e) {
             log.error("删除美团商品失败", e);
             return ApiResponse.error(500, "删除美团商品失败：" + e.getMessage());
         }
     }
 
+    /**
+     * 提交美团商品删除任务
+     * 立即返回任务状态，删除在后台并发、限流执行；上次任务未完成时默认从断点继续
+     *
+     * @param request 清空请求（商家ID和访问令牌）
+     * @param restart 是否忽略断点从头开始（可选，默认false）
+     * @return 任务状态
+     */
+    @PostMapping("/meituan-delete-jobs")
+    public ApiResponse<MeituanDeleteStatus> submitMeituanDeleteJob(
+            @RequestBody ClearRequest request,
+            @RequestParam(value = "restart", required = false, defaultValue = "false") Boolean restart) {
+        log.info("接收到美团商品删除任务请求，商家ID：{}，从头开始：{}", request.getMerchantId(), restart);
+
+        if (request.getMerchantId() == null) {
+            return ApiResponse.error(400, "商家ID不能为空");
+        }
+
+        if (request.getAccessToken() == null || request.getAccessToken().trim().isEmpty()) {
+            return ApiResponse.error(400, "访问令牌不能为空");
+        }
+
+        try {
+            MeituanDeleteStatus status = meituanDeleteJobService.submit(
+                request.getMerchantId(), request.getAccessToken(), restart);
+            return ApiResponse.success("删除任务已提交", status);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(400, e.getMessage());
+        } catch (TooManyJobsException e) {
+            return ApiResponse.error(429, e.getMessage());
+        } catch (Exception e) {
+            log.error("提交美团商品删除任务失败", e);
+            return ApiResponse.error(500, "提交删除任务失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询美团商品删除任务状态
+     *
+     * @param merchantId 商家ID
+     * @return 任务状态（已处理/成功/失败数、当前速率、断点游标、预计剩余时间）
+     */
+    @GetMapping("/meituan-delete-jobs/{merchantId}")
+    public ApiResponse<MeituanDeleteStatus> getMeituanDeleteJobStatus(@PathVariable Long merchantId) {
+        try {
+            MeituanDeleteStatus status = meituanDeleteJobService.getStatus(merchantId);
+            if (status == null) {
+                return ApiResponse.error(404, "没有该商家的删除任务");
+            }
+            return ApiResponse.success(status);
+        } catch (Exception e) {
+            log.error("查询美团商品删除任务状态失败", e);
+            return ApiResponse.error(500, "查询删除任务状态失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 删除单个商品
      *
@@ -1,8 +1,10 @@
 package com.meituan.product.controller;
 
 import com.meituan.product.common.ApiResponse;
+import com.meituan.product.dto.TemplateCacheStats;
 import com.meituan.product.dto.TemplateStatusDTO;
 import com.meituan.product.entity.Template;
+import com.meituan.product.service.TemplateCache;
 import com.meituan.product.service.TemplateService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,6 +27,7 @@ import java.util.Map;
 public class TemplateController {
     
     private final TemplateService templateService;
+    private final TemplateCache templateCache;
     
     /**
      * 获取模板列表
@@ -187,6 +190,37 @@ public class TemplateController {
         }
     }
     
+    /**
+     * 获取模板缓存统计
+     * 
+     * @return 缓存命中率等统计
+     */
+    @GetMapping("/cache-stats")
+    public ApiResponse<TemplateCacheStats> getCacheStats() {
+        try {
+            return ApiResponse.success(templateCache.getStats());
+        } catch (Exception e) {
+            log.error("查询模板缓存统计失败", e);
+            return ApiResponse.error(500, "查询模板缓存统计失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 清空模板缓存
+     * 
+     * @return 操作结果
+     */
+    @DeleteMapping("/cache")
+    public ApiResponse<String> clearCache() {
+        try {
+            templateCache.clear();
+            return ApiResponse.success("模板缓存已清空");
+        } catch (Exception e) {
+            log.error("清空模板缓存失败", e);
+            return ApiResponse.error(500, "清空模板缓存失败：" + e.getMessage());
+        }
+    }
+    
     /**
      * 预览模板
      * 
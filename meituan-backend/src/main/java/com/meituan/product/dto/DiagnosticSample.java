@@ -0,0 +1,29 @@
+package com.meituan.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 导入诊断样例（某类问题的示例行）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiagnosticSample {
+
+    /**
+     * 问题类型
+     */
+    private String type;
+
+    /**
+     * 行号
+     */
+    private Integer rowNum;
+
+    /**
+     * 问题描述（包含原始值）
+     */
+    private String message;
+}
@@ -0,0 +1,53 @@
+package com.meituan.product.dto;
+
+import com.meituan.product.enums.FormatType;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Excel流式解析汇总
+ * 商品数据逐行交给调用方处理，这里只保留格式和错误信息
+ */
+@Data
+public class ExcelParseSummary {
+    
+    /**
+     * 识别的格式类型
+     */
+    private FormatType formatType;
+    
+    /**
+     * 表头列表
+     */
+    private List<String> headers;
+    
+    /**
+     * 美团格式使用的列映射（字段名 -> 列索引），标准格式为null
+     */
+    private Map<String, Integer> columnMapping;
+    
+    /**
+     * 美团格式的自适应映射结果，回退到固定映射或标准格式时为null
+     */
+    private MappingResult mappingResult;
+    
+    /**
+     * 成功解析的行数
+     */
+    private int parsedCount;
+    
+    /**
+     * 解析失败的行
+     */
+    private List<ErrorDetail> errorDetails = new ArrayList<>();
+    
+    /**
+     * 是否存在解析错误
+     */
+    public boolean hasErrors() {
+        return !errorDetails.isEmpty();
+    }
+}
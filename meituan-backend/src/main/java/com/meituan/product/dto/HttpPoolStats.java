@@ -0,0 +1,40 @@
+package com.meituan.product.dto;
+
+import lombok.Data;
+
+/**
+ * HTTP连接池统计DTO
+ */
+@Data
+public class HttpPoolStats {
+
+    /**
+     * 连接池最大连接数
+     */
+    private Integer maxTotal;
+
+    /**
+     * 每个地址的最大连接数
+     */
+    private Integer maxPerRoute;
+
+    /**
+     * 正在使用的连接数
+     */
+    private Integer leased;
+
+    /**
+     * 空闲可复用的连接数
+     */
+    private Integer available;
+
+    /**
+     * 等待获取连接的请求数
+     */
+    private Integer pending;
+
+    /**
+     * 已建立连接的地址数
+     */
+    private Integer routes;
+}
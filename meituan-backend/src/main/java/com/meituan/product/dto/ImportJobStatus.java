@@ -0,0 +1,94 @@
+package com.meituan.product.dto;
+
+import com.meituan.product.enums.ImportJobState;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 导入任务状态DTO
+ */
+@Data
+public class ImportJobStatus {
+
+    /**
+     * 任务ID
+     */
+    private String jobId;
+
+    /**
+     * 商家ID
+     */
+    private Long merchantId;
+
+    /**
+     * 文件名
+     */
+    private String fileName;
+
+    /**
+     * 任务状态
+     */
+    private ImportJobState state;
+
+    /**
+     * 已解析行数
+     */
+    private Integer rowsParsed;
+
+    /**
+     * 已插入行数
+     */
+    private Integer rowsInserted;
+
+    /**
+     * 失败行数
+     */
+    private Integer rowsFailed;
+
+    /**
+     * 错误数量
+     */
+    private Integer errorCount;
+
+    /**
+     * 预估数据总行数（根据工作表尺寸估算，未知时为null）
+     */
+    private Integer estimatedRows;
+
+    /**
+     * 预计剩余时间（毫秒，无法估算时为null）
+     */
+    private Long etaMillis;
+
+    /**
+     * 各阶段耗时（毫秒）
+     */
+    private Map<String, Long> stageTimings;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdTime;
+
+    /**
+     * 开始执行时间
+     */
+    private LocalDateTime startedTime;
+
+    /**
+     * 结束时间
+     */
+    private LocalDateTime finishedTime;
+
+    /**
+     * 失败原因（任务失败时）
+     */
+    private String errorMessage;
+
+    /**
+     * 导入结果（任务完成后）
+     */
+    private ImportResult result;
+}
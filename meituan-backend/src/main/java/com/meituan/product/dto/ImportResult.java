@@ -7,6 +7,7 @@ import lombok.Data;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 导入结果DTO
@@ -64,6 +65,31 @@ public class ImportResult {
      */
     private Long duration;
     
+    /**
+     * 导入吞吐量（行/秒）
+     */
+    private Double rowsPerSecond;
+    
+    /**
+     * 导入过程中等待插入的最大批次数
+     */
+    private Integer maxQueueDepth;
+    
+    /**
+     * 等待插入的批次队列容量
+     */
+    private Integer queueCapacity;
+    
+    /**
+     * 诊断问题计数（问题类型 -> 行数）
+     */
+    private Map<String, Integer> diagnosticCounts;
+    
+    /**
+     * 诊断问题样例行（每类最多保留若干条）
+     */
+    private List<DiagnosticSample> diagnosticSamples;
+    
     public ImportResult() {
         this.products = new ArrayList<>();
         this.errors = new ArrayList<>();
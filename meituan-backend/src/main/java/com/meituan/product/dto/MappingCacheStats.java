@@ -0,0 +1,40 @@
+package com.meituan.product.dto;
+
+import lombok.Data;
+
+/**
+ * 映射缓存统计DTO
+ */
+@Data
+public class MappingCacheStats {
+
+    /**
+     * 命中次数
+     */
+    private Long hits;
+
+    /**
+     * 未命中次数
+     */
+    private Long misses;
+
+    /**
+     * 命中率
+     */
+    private Double hitRate;
+
+    /**
+     * 当前缓存条目数
+     */
+    private Integer size;
+
+    /**
+     * 缓存容量
+     */
+    private Integer capacity;
+
+    /**
+     * 当前规则版本
+     */
+    private Long rulesVersion;
+}
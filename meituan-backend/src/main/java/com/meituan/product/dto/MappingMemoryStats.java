@@ -0,0 +1,30 @@
+package com.meituan.product.dto;
+
+import lombok.Data;
+
+/**
+ * 映射记忆统计DTO
+ */
+@Data
+public class MappingMemoryStats {
+
+    /**
+     * 由映射记忆直接解析的列数
+     */
+    private Long memoryResolvedColumns;
+
+    /**
+     * 走完整匹配级联的列数
+     */
+    private Long cascadeColumns;
+
+    /**
+     * 跳过匹配级联的比例
+     */
+    private Double skipRate;
+
+    /**
+     * 已缓存映射记忆的商家数
+     */
+    private Integer cachedMerchants;
+}
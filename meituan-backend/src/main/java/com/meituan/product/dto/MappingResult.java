@@ -94,6 +94,25 @@ public class MappingResult {
         return indexMap;
     }
     
+    /**
+     * 复制映射结果
+     * 列映射逐个复制，警告和错误列表复制后共享元素
+     * 
+     * @return 新的映射结果
+     */
+    public MappingResult copy() {
+        MappingResult copy = new MappingResult(formatType);
+        for (ColumnMapping mapping : mappings.values()) {
+            copy.addMapping(new ColumnMapping(mapping.getFieldName(), mapping.getColumnName(),
+                mapping.getColumnIndex(), mapping.getConfidence(), mapping.getMatchType(), mapping.isRequired()));
+        }
+        copy.warnings.addAll(warnings);
+        copy.errors.addAll(errors);
+        copy.valid = valid;
+        copy.buildTime = buildTime;
+        return copy;
+    }
+    
     /**
      * 检查是否有警告
      */
@@ -0,0 +1,32 @@
+package com.meituan.product.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 映射规则快照信息DTO
+ */
+@Data
+public class MappingRulesInfo {
+
+    /**
+     * 规则版本号
+     */
+    private Long version;
+
+    /**
+     * 规则数量
+     */
+    private Integer ruleCount;
+
+    /**
+     * 必需规则数量
+     */
+    private Integer requiredRuleCount;
+
+    /**
+     * 加载时间
+     */
+    private LocalDateTime loadedTime;
+}
@@ -0,0 +1,66 @@
+package com.meituan.product.dto;
+
+import com.meituan.product.enums.CircuitBreakerState;
+import lombok.Data;
+
+/**
+ * 美团API熔断与重试指标DTO
+ */
+@Data
+public class MeituanApiResilienceStats {
+
+    /**
+     * 熔断器状态
+     */
+    private CircuitBreakerState state;
+
+    /**
+     * 统计窗口内的失败率（0~1）
+     */
+    private Double failureRate;
+
+    /**
+     * 统计窗口内的调用数
+     */
+    private Integer windowCalls;
+
+    /**
+     * 距离进入半开状态的剩余时间（毫秒，仅熔断时有值）
+     */
+    private Long remainingOpenMillis;
+
+    /**
+     * 累计熔断次数
+     */
+    private Long openedCount;
+
+    /**
+     * 熔断期间被拒绝的请求数
+     */
+    private Long rejectedCount;
+
+    /**
+     * 累计调用数（不含重试）
+     */
+    private Long callCount;
+
+    /**
+     * 累计重试次数
+     */
+    private Long retriedCount;
+
+    /**
+     * 因重试预算不足放弃的重试次数
+     */
+    private Long budgetExhaustedCount;
+
+    /**
+     * 当前可用的重试预算
+     */
+    private Double retryBudgetBalance;
+
+    /**
+     * 业务错误数（不重试，不计入失败率）
+     */
+    private Long permanentFailureCount;
+}
@@ -0,0 +1,93 @@
+package com.meituan.product.dto;
+
+import com.meituan.product.enums.MeituanDeleteState;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 美团商品删除任务状态DTO
+ */
+@Data
+public class MeituanDeleteStatus {
+
+    /**
+     * 商家ID
+     */
+    private Long merchantId;
+
+    /**
+     * 任务状态
+     */
+    private MeituanDeleteState state;
+
+    /**
+     * 商品总数
+     */
+    private Integer totalCount;
+
+    /**
+     * 已处理数
+     */
+    private Integer processedCount;
+
+    /**
+     * 删除成功数
+     */
+    private Integer deletedCount;
+
+    /**
+     * 删除失败数
+     */
+    private Integer failedCount;
+
+    /**
+     * 跳过数（没有可用的美团商品标识）
+     */
+    private Integer skippedCount;
+
+    /**
+     * 断点游标（ID不大于该值的商品均已处理）
+     */
+    private Long lastProductId;
+
+    /**
+     * 当前删除速率（每秒请求数）
+     */
+    private Double currentRate;
+
+    /**
+     * 累计收到的限流响应次数
+     */
+    private Long throttledCount;
+
+    /**
+     * 预计剩余时间（毫秒，仅删除中时有值）
+     */
+    private Long etaMillis;
+
+    /**
+     * 删除失败原因摘要（本次运行，最多500字符）
+     */
+    private String failedReasons;
+
+    /**
+     * 错误信息
+     */
+    private String errorMessage;
+
+    /**
+     * 开始时间
+     */
+    private LocalDateTime startedTime;
+
+    /**
+     * 完成时间
+     */
+    private LocalDateTime finishedTime;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedTime;
+}
@@ -0,0 +1,36 @@
+package com.meituan.product.dto;
+
+import lombok.Data;
+
+/**
+ * 商品图片导出信息DTO
+ * 只包含图片命名和下载需要的字段，不加载商品的其他大字段
+ */
+@Data
+public class ProductImageSource {
+
+    /**
+     * 商品ID
+     */
+    private Long id;
+
+    /**
+     * 商品名称（命名方式PRODUCT_NAME）
+     */
+    private String productName;
+
+    /**
+     * 条形码（命名方式BARCODE）
+     */
+    private String upcEan;
+
+    /**
+     * 店内码/货号（命名方式STORE_CODE）
+     */
+    private String storeCode;
+
+    /**
+     * 商品图片URL（JSON数组或单个URL）
+     */
+    private String productImages;
+}
@@ -0,0 +1,45 @@
+package com.meituan.product.dto;
+
+import lombok.Data;
+
+/**
+ * 模板缓存统计DTO
+ */
+@Data
+public class TemplateCacheStats {
+
+    /**
+     * 命中次数
+     */
+    private Long hits;
+
+    /**
+     * 未命中次数
+     */
+    private Long misses;
+
+    /**
+     * 命中率
+     */
+    private Double hitRate;
+
+    /**
+     * 淘汰和失效次数
+     */
+    private Long evictions;
+
+    /**
+     * 当前缓存条目数
+     */
+    private Integer size;
+
+    /**
+     * 缓存容量
+     */
+    private Integer capacity;
+
+    /**
+     * 当前缓存的模板文件总字节数
+     */
+    private Long totalBytes;
+}
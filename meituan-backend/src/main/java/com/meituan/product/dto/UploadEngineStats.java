@@ -0,0 +1,70 @@
+package com.meituan.product.dto;
+
+import lombok.Data;
+
+/**
+ * 美团上传引擎运行指标DTO
+ */
+@Data
+public class UploadEngineStats {
+
+    /**
+     * 最大并发批次数
+     */
+    private Integer maxInFlight;
+
+    /**
+     * 正在上传的批次数
+     */
+    private Integer inFlight;
+
+    /**
+     * 排队等待的批次数
+     */
+    private Integer queuedBatches;
+
+    /**
+     * 限流速率（每秒请求数，0表示不限流）
+     */
+    private Double rateLimit;
+
+    /**
+     * 上传成功的批次数
+     */
+    private Long batchesSucceeded;
+
+    /**
+     * 上传失败的批次数
+     */
+    private Long batchesFailed;
+
+    /**
+     * 上传成功的商品数
+     */
+    private Long productsUploaded;
+
+    /**
+     * 上传失败的商品数
+     */
+    private Long productsFailed;
+
+    /**
+     * 最近一分钟的吞吐量（商品数/秒）
+     */
+    private Double throughputPerSecond;
+
+    /**
+     * 最近批次的平均耗时（毫秒）
+     */
+    private Long avgLatencyMillis;
+
+    /**
+     * 最近批次耗时的95分位（毫秒）
+     */
+    private Long p95LatencyMillis;
+
+    /**
+     * 最近批次的最长耗时（毫秒）
+     */
+    private Long maxLatencyMillis;
+}
@@ -0,0 +1,51 @@
+package com.meituan.product.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 映射记忆实体类
+ * 记录商家导入成功时确认的表头列名与系统字段的对应关系
+ */
+@Data
+@TableName("t_mapping_memory")
+public class MappingMemory {
+    
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    
+    /**
+     * 商家ID
+     */
+    private Long merchantId;
+    
+    /**
+     * Excel表头列名
+     */
+    private String columnName;
+    
+    /**
+     * 系统字段名
+     */
+    private String fieldName;
+    
+    /**
+     * 确认次数
+     */
+    private Integer hitCount;
+    
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdTime;
+    
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedTime;
+}
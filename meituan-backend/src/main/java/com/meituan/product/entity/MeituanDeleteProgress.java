@@ -0,0 +1,79 @@
+package com.meituan.product.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.meituan.product.enums.MeituanDeleteState;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 美团商品删除进度实体类
+ * 每个商家一行，按商品ID升序处理，每处理完一页记录游标，中断后从游标之后继续
+ */
+@Data
+@TableName("t_meituan_delete_progress")
+public class MeituanDeleteProgress {
+    
+    /**
+     * 商家ID
+     */
+    @TableId(type = IdType.INPUT)
+    private Long merchantId;
+    
+    /**
+     * 任务状态
+     */
+    private MeituanDeleteState state;
+    
+    /**
+     * 商品总数（开始删除时统计）
+     */
+    private Integer totalCount;
+    
+    /**
+     * 已处理数
+     */
+    private Integer processedCount;
+    
+    /**
+     * 删除成功数
+     */
+    private Integer deletedCount;
+    
+    /**
+     * 删除失败数
+     */
+    private Integer failedCount;
+    
+    /**
+     * 跳过数（没有可用的美团商品标识）
+     */
+    private Integer skippedCount;
+    
+    /**
+     * 游标：ID不大于该值的商品均已处理
+     */
+    private Long lastProductId;
+    
+    /**
+     * 错误信息
+     */
+    private String errorMessage;
+    
+    /**
+     * 开始时间
+     */
+    private LocalDateTime startedTime;
+    
+    /**
+     * 完成时间
+     */
+    private LocalDateTime finishedTime;
+    
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedTime;
+}
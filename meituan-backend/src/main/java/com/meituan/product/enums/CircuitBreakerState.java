@@ -0,0 +1,31 @@
+package com.meituan.product.enums;
+
+/**
+ * 熔断器状态
+ */
+public enum CircuitBreakerState {
+    /**
+     * 关闭（正常放行请求）
+     */
+    CLOSED("正常"),
+
+    /**
+     * 打开（拒绝请求，直接失败）
+     */
+    OPEN("熔断"),
+
+    /**
+     * 半开（放行少量探测请求，成功后恢复）
+     */
+    HALF_OPEN("探测中");
+
+    private final String description;
+
+    CircuitBreakerState(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,52 @@
+package com.meituan.product.enums;
+
+/**
+ * 导入诊断问题类型
+ * 逐行解析时发现的非致命问题（取默认值继续导入），按类型汇总计数
+ */
+public enum ImportIssueType {
+    /**
+     * 类目属性为空
+     */
+    ATTRIBUTES_EMPTY("类目属性为空"),
+
+    /**
+     * 类目属性过短，可能不完整
+     */
+    ATTRIBUTES_SHORT("类目属性过短，可能不完整"),
+
+    /**
+     * 价格为空，使用默认值0
+     */
+    PRICE_EMPTY("价格为空，使用默认值0"),
+
+    /**
+     * 价格无法解析，使用默认值0
+     */
+    PRICE_INVALID("价格无法解析，使用默认值0"),
+
+    /**
+     * 数值无法解析（库存、整数、小数字段）
+     */
+    NUMBER_INVALID("数值无法解析"),
+
+    /**
+     * 日期无法解析
+     */
+    DATE_INVALID("日期无法解析"),
+
+    /**
+     * 无理由退货未匹配到标签，使用默认值
+     */
+    NO_REASON_RETURN_UNMATCHED("无理由退货未匹配到标签，使用默认值");
+
+    private final String description;
+
+    ImportIssueType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,43 @@
+package com.meituan.product.enums;
+
+/**
+ * 导入任务状态
+ */
+public enum ImportJobState {
+    /**
+     * 排队中
+     */
+    QUEUED("排队中"),
+
+    /**
+     * 导入中
+     */
+    RUNNING("导入中"),
+
+    /**
+     * 已完成
+     */
+    COMPLETED("已完成"),
+
+    /**
+     * 失败
+     */
+    FAILED("失败");
+
+    private final String description;
+
+    ImportJobState(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 是否为终态
+     */
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
@@ -33,7 +33,13 @@ public enum MatchType {
      * 手动指定 - 用户手动调整的映射
      * 置信度: 1.0
      */
-    MANUAL("手动指定", 1.0);
+    MANUAL("手动指定", 1.0),
+    
+    /**
+     * 历史确认 - 商家导入成功时确认过的映射
+     * 置信度: 0.9（另加历史加成）
+     */
+    HISTORY("历史确认", 0.9);
     
     private final String displayName;
     private final double baseConfidence;
@@ -0,0 +1,48 @@
+package com.meituan.product.enums;
+
+/**
+ * 美团商品删除任务状态
+ */
+public enum MeituanDeleteState {
+    /**
+     * 排队中
+     */
+    QUEUED("排队中"),
+
+    /**
+     * 删除中
+     */
+    RUNNING("删除中"),
+
+    /**
+     * 已中断（服务重启等原因停止，可从断点继续）
+     */
+    INTERRUPTED("已中断"),
+
+    /**
+     * 已完成
+     */
+    COMPLETED("已完成"),
+
+    /**
+     * 失败（可从断点继续）
+     */
+    FAILED("失败");
+
+    private final String description;
+
+    MeituanDeleteState(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 是否为终态
+     */
+    public boolean isFinished() {
+        return this == INTERRUPTED || this == COMPLETED || this == FAILED;
+    }
+}
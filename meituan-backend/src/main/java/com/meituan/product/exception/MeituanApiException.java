@@ -1,6 +1,11 @@
 package com.meituan.product.exception;
 
 import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.Set;
 
 /**
  * 美团API异常
@@ -8,6 +13,22 @@ import lombok.Getter;
 @Getter
 public class MeituanApiException extends RuntimeException {
     
+    /**
+     * 表示请求过于频繁的API错误码
+     */
+    private static final Set<String> THROTTLED_CODES = Set.of("429", "TOO_MANY_REQUESTS", "RATE_LIMITED");
+    
+    /**
+     * 表示美团服务暂时不可用的API错误码（空响应、系统繁忙等），可以重试
+     */
+    private static final Set<String> TRANSIENT_CODES = Set.of(
+        "UNKNOWN", "SYSTEM_ERROR", "SYSTEM_BUSY", "SERVICE_UNAVAILABLE", "TIMEOUT", "500", "502", "503", "504");
+    
+    /**
+     * 熔断器打开时的错误码
+     */
+    public static final String CIRCUIT_OPEN = "CIRCUIT_OPEN";
+    
     /**
      * API错误码
      */
@@ -22,4 +43,40 @@ public class MeituanApiException extends RuntimeException {
         super(message, cause);
         this.apiErrorCode = apiErrorCode;
     }
+    
+    /**
+     * 是否为限流错误（HTTP 429或限流错误码），调用方应降低请求速率后重试
+     */
+    public boolean isThrottled() {
+        if (apiErrorCode != null && THROTTLED_CODES.contains(apiErrorCode)) {
+            return true;
+        }
+        return getCause() instanceof HttpStatusCodeException
+            && ((HttpStatusCodeException) getCause()).getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+    
+    /**
+     * 是否为美团服务不可用导致的错误（网络异常、超时、HTTP 5xx或系统繁忙错误码），计入熔断器失败率
+     */
+    public boolean isTransient() {
+        if (getCause() instanceof HttpStatusCodeException) {
+            return ((HttpStatusCodeException) getCause()).getStatusCode().is5xxServerError();
+        }
+        return getCause() instanceof ResourceAccessException
+            || (apiErrorCode != null && TRANSIENT_CODES.contains(apiErrorCode));
+    }
+    
+    /**
+     * 是否可以重试（限流或服务暂时不可用）；参数错误、鉴权失败等业务错误重试也不会成功
+     */
+    public boolean isRetryable() {
+        return isThrottled() || isTransient();
+    }
+    
+    /**
+     * 是否因熔断器打开而未发送请求
+     */
+    public boolean isCircuitOpen() {
+        return CIRCUIT_OPEN.equals(apiErrorCode);
+    }
 }
@@ -0,0 +1,12 @@
+package com.meituan.product.exception;
+
+/**
+ * 任务过多异常
+ * 后台任务线程池已满、无法再接收新任务时抛出，接口返回429提示稍后重试
+ */
+public class TooManyJobsException extends RuntimeException {
+    
+    public TooManyJobsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,62 @@
+package com.meituan.product.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.meituan.product.entity.MappingMemory;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 映射记忆 Mapper
+ */
+@Mapper
+public interface MappingMemoryMapper extends BaseMapper<MappingMemory> {
+    
+    /**
+     * 查询商家的全部映射记忆
+     * 
+     * @param merchantId 商家ID
+     * @return 映射记忆列表
+     */
+    @Select("SELECT * FROM t_mapping_memory WHERE merchant_id = #{merchantId}")
+    List<MappingMemory> selectByMerchantId(@Param("merchantId") Long merchantId);
+    
+    /**
+     * 批量写入映射记忆，列名已存在时更新字段并累加确认次数
+     * 
+     * @param merchantId 商家ID
+     * @param items 映射记忆列表
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO t_mapping_memory (merchant_id, column_name, field_name, hit_count) VALUES " +
+            "<foreach collection='items' item='item' separator=','>" +
+            "(#{merchantId}, #{item.columnName}, #{item.fieldName}, 1)" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE field_name = VALUES(field_name), hit_count = hit_count + 1" +
+            "</script>")
+    int upsertBatch(@Param("merchantId") Long merchantId, @Param("items") List<MappingMemory> items);
+    
+    /**
+     * 删除商家某一列的映射记忆
+     * 
+     * @param merchantId 商家ID
+     * @param columnName 表头列名
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM t_mapping_memory WHERE merchant_id = #{merchantId} AND column_name = #{columnName}")
+    int deleteByMerchantAndColumn(@Param("merchantId") Long merchantId, @Param("columnName") String columnName);
+    
+    /**
+     * 删除商家的全部映射记忆
+     * 
+     * @param merchantId 商家ID
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM t_mapping_memory WHERE merchant_id = #{merchantId}")
+    int deleteByMerchantId(@Param("merchantId") Long merchantId);
+}
@@ -0,0 +1,12 @@
+package com.meituan.product.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.meituan.product.entity.MeituanDeleteProgress;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 美团商品删除进度 Mapper
+ */
+@Mapper
+public interface MeituanDeleteProgressMapper extends BaseMapper<MeituanDeleteProgress> {
+}
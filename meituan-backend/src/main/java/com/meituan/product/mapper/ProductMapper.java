@@ -1,6 +1,7 @@
 package com.meituan.product.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.meituan.product.dto.ProductImageSource;
 import com.meituan.product.dto.ProductStats;
 import com.meituan.product.entity.Product;
 import org.apache.ibatis.annotations.Mapper;
@@ -10,6 +11,7 @@ import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.session.ResultHandler;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -19,13 +21,21 @@ import java.util.List;
 public interface ProductMapper extends BaseMapper<Product> {
     
     /**
-     * 批量插入商品
+     * 批量插入商品，插入后回填自增ID
      * 
      * @param products 商品列表
      * @return 插入的记录数
      */
     int batchInsert(@Param("list") List<Product> products);
     
+    /**
+     * 插入单个商品（在BATCH执行器中使用，同一预编译语句重复执行）
+     * 
+     * @param product 商品
+     * @return 插入的记录数
+     */
+    int insertOne(@Param("item") Product product);
+    
     /**
      * 根据商家ID查询商品列表
      *
@@ -35,7 +45,7 @@ public interface ProductMapper extends BaseMapper<Product> {
     List<Product> selectByMerchantId(@Param("merchantId") Long merchantId);
 
     /**
-     * 根据商家ID分页查询商品列表（支持搜索和日期筛选）
+     * 根据商家ID分页查询商品列表（支持搜索和日期筛选，只查询列表展示的列）
      *
      * @param merchantId 商家ID
      * @param keyword 搜索关键词（可选）
@@ -90,6 +100,14 @@ public interface ProductMapper extends BaseMapper<Product> {
      */
     int deleteByMerchantId(@Param("merchantId") Long merchantId);
     
+    /**
+     * 根据ID物理删除商品
+     * 
+     * @param ids 商品ID列表
+     * @return 删除的记录数
+     */
+    int purgeByIds(@Param("ids") List<Long> ids);
+    
     /**
      * 获取商品统计信息
      * 
@@ -105,19 +123,83 @@ public interface ProductMapper extends BaseMapper<Product> {
     ProductStats getStats(@Param("merchantId") Long merchantId);
     
     /**
-     * 获取最近导入的商品
+     * 获取最近导入的商品（只查询列表展示的列）
      * 
      * @param merchantId 商家ID
      * @param limit 限制数量
      * @return 商品列表
      */
-    @Select("SELECT * FROM t_product " +
-            "WHERE merchant_id = #{merchantId} " +
-            "ORDER BY created_time DESC " +
-            "LIMIT #{limit}")
     List<Product> selectRecent(@Param("merchantId") Long merchantId, 
                                @Param("limit") int limit);
     
+    /**
+     * 查询商家商品ID（按ID倒序，即最新导入的在前）
+     * 导出时只保留ID列表用于拆分批次，商品内容按键集分页读取
+     * 
+     * @param merchantId 商家ID
+     * @param limit 限制数量（为null时返回全部）
+     * @return 商品ID列表
+     */
+    @Select("<script>" +
+            "SELECT id FROM t_product WHERE merchant_id = #{merchantId} AND deleted = 0 " +
+            "ORDER BY id DESC " +
+            "<if test='limit != null'>LIMIT #{limit}</if>" +
+            "</script>")
+    List<Long> selectIdsByMerchantId(@Param("merchantId") Long merchantId,
+                                     @Param("limit") Integer limit);
+    
+    /**
+     * 按 (merchant_id, id) 键集分页查询商品（按ID倒序，只查询导出模板读取的列）
+     * 
+     * @param merchantId 商家ID
+     * @param beforeId 上一页最后一个ID（不包含）
+     * @param minId 最小ID（包含）
+     * @param limit 每页数量
+     * @return 商品列表
+     */
+    List<Product> selectPageBeforeId(@Param("merchantId") Long merchantId,
+                                     @Param("beforeId") long beforeId,
+                                     @Param("minId") long minId,
+                                     @Param("limit") int limit);
+    
+    /**
+     * 根据ID列表查询导出商品（只查询导出模板读取的列）
+     * 
+     * @param ids 商品ID列表
+     * @return 商品列表
+     */
+    List<Product> selectForExportByIds(@Param("ids") List<Long> ids);
+    
+    /**
+     * 根据ID列表查询待上传商品（只查询上传DTO需要的列）
+     * 
+     * @param ids 商品ID列表
+     * @return 商品列表
+     */
+    List<Product> selectForUploadByIds(@Param("ids") List<Long> ids);
+    
+    /**
+     * 查询商家商品的图片导出信息
+     * 
+     * @param merchantId 商家ID
+     * @param ids 商品ID列表（为空时查询全部）
+     * @return 图片导出信息列表
+     */
+    List<ProductImageSource> selectImageSources(@Param("merchantId") Long merchantId,
+                                                @Param("ids") List<Long> ids);
+    
+    /**
+     * 按ID升序键集分页查询待从美团删除的商品（只查询确定美团商品标识的列）
+     * 
+     * @param merchantId 商家ID
+     * @param afterId 上一页最后一个ID（不包含）
+     * @param limit 每页数量
+     * @return 商品列表
+     */
+    List<Product> selectDeleteCandidates(@Param("merchantId") Long merchantId,
+                                         @Param("afterId") long afterId,
+                                         @Param("limit") int limit);
+    
     /**
      * 流式查询所有商品（用于生成模板）
      * 使用ResultHandler避免一次性加载所有数据到内存
@@ -140,4 +222,16 @@ public interface ProductMapper extends BaseMapper<Product> {
     @org.apache.ibatis.annotations.Update("UPDATE t_product SET status = #{status} WHERE merchant_id = #{merchantId}")
     int updateStatusByMerchantId(@Param("merchantId") Long merchantId, 
                                   @Param("status") Integer status);
+    
+    /**
+     * 按ID批量更新商品状态（调用方负责分块，见ProductStatusUpdater）
+     * 
+     * @param ids 商品ID列表
+     * @param status 新状态（0-待上传，1-已上传，2-失败）
+     * @param updatedTime 更新时间
+     * @return 更新的记录数
+     */
+    int updateStatusByIds(@Param("ids") List<Long> ids,
+                          @Param("status") Integer status,
+                          @Param("updatedTime") LocalDateTime updatedTime);
 }
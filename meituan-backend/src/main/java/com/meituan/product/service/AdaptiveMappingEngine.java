@@ -4,29 +4,54 @@ import com.meituan.product.dto.*;
 import com.meituan.product.enums.FormatType;
 import com.meituan.product.enums.MatchType;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 自适应映射引擎
- * 协调整个自适应映射过程，是核心协调器
+ * 协调整个自适应映射过程，是核心协调器；
+ * 同一模板的表头反复上传时，按表头指纹缓存映射结果，规则重新加载后缓存自动失效；
+ * 指定商家时先查该商家的映射记忆，已确认过的表头直接映射，不再走匹配级联
  */
 @Slf4j
 @Component
 public class AdaptiveMappingEngine {
     
+    private static final String SYSTEM_ERROR_FIELD = "系统错误";
+    
     private final MappingRuleRepository ruleRepository;
     private final SemanticMatcher semanticMatcher;
     private final ConfidenceCalculator confidenceCalculator;
+    private final MappingMemoryService mappingMemoryService;
+    
+    @Value("${meituan.adaptive-mapping.cache-size:256}")
+    private int cacheSize;
+    
+    // 映射结果缓存（按访问顺序淘汰最久未使用的表头）
+    private final LinkedHashMap<HeaderFingerprint, MappingResult> mappingCache = new LinkedHashMap<>(16, 0.75f, true);
+    
+    // 缓存对应的规则版本
+    private long cachedRulesVersion = -1;
+    
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    
+    // 由映射记忆直接解析的列数 / 走完整匹配级联的列数
+    private final AtomicLong memoryResolvedColumns = new AtomicLong();
+    private final AtomicLong cascadeColumns = new AtomicLong();
     
     public AdaptiveMappingEngine(
             MappingRuleRepository ruleRepository,
             SemanticMatcher semanticMatcher,
-            ConfidenceCalculator confidenceCalculator) {
+            ConfidenceCalculator confidenceCalculator,
+            MappingMemoryService mappingMemoryService) {
         this.ruleRepository = ruleRepository;
         this.semanticMatcher = semanticMatcher;
         this.confidenceCalculator = confidenceCalculator;
+        this.mappingMemoryService = mappingMemoryService;
     }
     
     /**
@@ -37,6 +62,128 @@ public class AdaptiveMappingEngine {
      * @return 映射结果
      */
     public MappingResult buildMapping(List<String> headers, FormatType formatType) {
+        return buildMapping(headers, formatType, null);
+    }
+    
+    /**
+     * 构建字段映射（优先使用商家的映射记忆）
+     * 
+     * @param headers Excel表头列表
+     * @param formatType 格式类型（MEITUAN / STANDARD）
+     * @param merchantId 商家ID（为null时不使用映射记忆）
+     * @return 映射结果
+     */
+    public MappingResult buildMapping(List<String> headers, FormatType formatType, Long merchantId) {
+        // 整个构建过程使用同一份规则快照，重新加载不会影响进行中的构建
+        MappingRuleRepository.RuleSnapshot snapshot = ruleRepository.getSnapshot();
+        long rulesVersion = snapshot.getVersion();
+        MappingMemoryService.MerchantMemory memory = mappingMemoryService.getMemory(merchantId);
+        // 没有记忆的商家共用同一组缓存条目
+        long memoryVersion = memory.isEmpty() ? 0L : memory.getVersion();
+        HeaderFingerprint fingerprint = new HeaderFingerprint(formatType, rulesVersion, memoryVersion, headers);
+        
+        MappingResult cached = getCached(fingerprint);
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+            log.debug("映射缓存命中: 格式={}, 列数={}, 规则版本={}", formatType, headers.size(), rulesVersion);
+            return cached.copy();
+        }
+        cacheMisses.incrementAndGet();
+        
+        MappingResult result = computeMapping(headers, formatType, memory, snapshot);
+        // 构建过程异常时不缓存，下次重新计算
+        if (result.getErrors().stream().noneMatch(error -> SYSTEM_ERROR_FIELD.equals(error.getFieldName()))) {
+            putCached(fingerprint, result.copy());
+        }
+        return result;
+    }
+    
+    /**
+     * 获取映射缓存统计
+     * 
+     * @return 缓存统计
+     */
+    public MappingCacheStats getCacheStats() {
+        MappingCacheStats stats = new MappingCacheStats();
+        long hits = cacheHits.get();
+        long misses = cacheMisses.get();
+        stats.setHits(hits);
+        stats.setMisses(misses);
+        stats.setHitRate(hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        synchronized (mappingCache) {
+            stats.setSize(mappingCache.size());
+        }
+        stats.setCapacity(cacheSize);
+        stats.setRulesVersion(ruleRepository.getRulesVersion());
+        return stats;
+    }
+    
+    /**
+     * 获取映射记忆统计
+     * 
+     * @return 记忆命中的列数与走完整匹配的列数
+     */
+    public MappingMemoryStats getMemoryStats() {
+        MappingMemoryStats stats = new MappingMemoryStats();
+        long resolved = memoryResolvedColumns.get();
+        long cascade = cascadeColumns.get();
+        stats.setMemoryResolvedColumns(resolved);
+        stats.setCascadeColumns(cascade);
+        stats.setSkipRate(resolved + cascade > 0 ? (double) resolved / (resolved + cascade) : 0.0);
+        stats.setCachedMerchants(mappingMemoryService.getCachedMerchantCount());
+        return stats;
+    }
+    
+    /**
+     * 清空映射缓存
+     */
+    public void clearCache() {
+        synchronized (mappingCache) {
+            mappingCache.clear();
+        }
+        log.info("映射缓存已清空");
+    }
+    
+    private MappingResult getCached(HeaderFingerprint fingerprint) {
+        if (cacheSize <= 0) {
+            return null;
+        }
+        synchronized (mappingCache) {
+            // 持有旧快照的构建不读写缓存
+            if (fingerprint.rulesVersion < cachedRulesVersion) {
+                return null;
+            }
+            // 规则版本变化后旧条目不会再命中，直接整体清空
+            if (cachedRulesVersion != fingerprint.rulesVersion) {
+                if (!mappingCache.isEmpty()) {
+                    log.info("映射规则版本变化 {} -> {}，清空映射缓存", cachedRulesVersion, fingerprint.rulesVersion);
+                }
+                mappingCache.clear();
+                cachedRulesVersion = fingerprint.rulesVersion;
+            }
+            return mappingCache.get(fingerprint);
+        }
+    }
+    
+    private void putCached(HeaderFingerprint fingerprint, MappingResult result) {
+        if (cacheSize <= 0) {
+            return;
+        }
+        synchronized (mappingCache) {
+            if (cachedRulesVersion != fingerprint.rulesVersion) {
+                return;
+            }
+            mappingCache.put(fingerprint, result);
+            LruEviction.evictEldest(mappingCache, cacheSize);
+        }
+    }
+    
+    /**
+     * 执行完整的映射匹配
+     */
+    private MappingResult computeMapping(List<String> headers, FormatType formatType,
+                                         MappingMemoryService.MerchantMemory memory,
+                                         MappingRuleRepository.RuleSnapshot snapshot) {
         long startTime = System.currentTimeMillis();
         
         log.info("开始构建字段映射: 格式={}, 列数={}", formatType, headers.size());
@@ -45,8 +192,9 @@ public class AdaptiveMappingEngine {
         
         try {
             // 1. 加载映射规则
-            Map<String, FieldMappingRule> rules = ruleRepository.getAllRules();
-            log.info("加载了 {} 个映射规则", rules.size());
+            Map<String, FieldMappingRule> rules = snapshot.getRules();
+            MappingRuleIndex ruleIndex = snapshot.getIndex();
+            log.info("加载了 {} 个映射规则（版本 {}）", rules.size(), snapshot.getVersion());
             
             // 2. 为每个表头列寻找最佳匹配
             Map<String, List<ColumnMapping>> candidateMappings = new HashMap<>();
@@ -59,9 +207,23 @@ public class AdaptiveMappingEngine {
                 
                 log.debug("处理列[{}]: '{}'", i, columnName);
                 
+                // 列名只标准化和扫描一次，记忆校验和各规则的匹配都基于同一份分析结果
+                MappingRuleIndex.ColumnProfile profile = ruleIndex.profile(columnName);
+                
+                // 商家确认过的表头直接使用记忆的字段
+                ColumnMapping remembered = findRememberedMatch(profile, i, memory, rules);
+                if (remembered != null) {
+                    memoryResolvedColumns.incrementAndGet();
+                    candidateMappings
+                        .computeIfAbsent(remembered.getFieldName(), k -> new ArrayList<>())
+                        .add(remembered);
+                    continue;
+                }
+                cascadeColumns.incrementAndGet();
+                
                 // 尝试匹配每个规则
                 for (FieldMappingRule rule : rules.values()) {
-                    ColumnMapping mapping = findBestMatch(columnName, i, rule);
+                    ColumnMapping mapping = findBestMatch(profile, i, rule);
                     if (mapping != null) {
                         candidateMappings
                             .computeIfAbsent(rule.getFieldName(), k -> new ArrayList<>())
@@ -83,7 +245,7 @@ public class AdaptiveMappingEngine {
             }
             
             // 5. 验证映射结果
-            validateMapping(result, rules);
+            validateMapping(result, rules, snapshot.getRequiredRules());
             
             // 6. 记录耗时
             long duration = System.currentTimeMillis() - startTime;
@@ -96,34 +258,70 @@ public class AdaptiveMappingEngine {
         } catch (Exception e) {
             log.error("构建映射失败: {}", e.getMessage(), e);
             result.setValid(false);
-            result.addError(new MappingError("系统错误", "映射构建过程中发生异常: " + e.getMessage()));
+            result.addError(new MappingError(SYSTEM_ERROR_FIELD, "映射构建过程中发生异常: " + e.getMessage()));
         }
         
         return result;
     }
     
+    /**
+     * 从商家映射记忆中查找列名对应的字段
+     * 记忆的字段已不在规则中，或列名精确匹配到其他字段时忽略记忆，交给匹配级联处理
+     * 
+     * @param profile 列名分析结果
+     * @param columnIndex 列索引
+     * @param memory 商家映射记忆
+     * @param rules 映射规则
+     * @return 列映射，没有可用记忆时返回null
+     */
+    private ColumnMapping findRememberedMatch(MappingRuleIndex.ColumnProfile profile, int columnIndex,
+                                              MappingMemoryService.MerchantMemory memory,
+                                              Map<String, FieldMappingRule> rules) {
+        String columnName = profile.getColumnName();
+        String fieldName = memory.getFieldName(columnName);
+        FieldMappingRule rule = fieldName != null ? rules.get(fieldName) : null;
+        if (rule == null) {
+            return null;
+        }
+        
+        // 精确匹配比记忆更可信：早先记住的猜测与当前规则矛盾时以规则为准
+        Set<String> exactFields = profile.getExactFields();
+        if (!exactFields.isEmpty() && !exactFields.contains(fieldName)) {
+            log.info("列名 '{}' 的映射记忆 {} 与精确匹配 {} 不一致，忽略记忆", columnName, fieldName, exactFields);
+            return null;
+        }
+        
+        double confidence = confidenceCalculator.adjustByHistory(
+            MatchType.HISTORY.getBaseConfidence(), columnName, fieldName);
+        confidence = confidenceCalculator.adjustByPriority(confidence, rule);
+        log.debug("  -> 历史确认: {} (置信度: {})", fieldName, confidence);
+        
+        return new ColumnMapping(fieldName, columnName, columnIndex, confidence, MatchType.HISTORY, rule.isRequired());
+    }
+    
     /**
      * 为单个列名寻找最佳匹配
      * 
-     * @param columnName 列名
+     * @param profile 列名分析结果
      * @param columnIndex 列索引
      * @param rule 映射规则
      * @return 列映射，如果不匹配返回null
      */
-    private ColumnMapping findBestMatch(String columnName, int columnIndex, FieldMappingRule rule) {
+    private ColumnMapping findBestMatch(MappingRuleIndex.ColumnProfile profile, int columnIndex, FieldMappingRule rule) {
+        String columnName = profile.getColumnName();
         ColumnMapping bestMapping = null;
         double bestConfidence = 0.0;
         MatchType bestMatchType = null;
         
         // 1. 尝试精确匹配
-        if (semanticMatcher.exactMatch(columnName, rule)) {
+        if (semanticMatcher.exactMatch(profile, rule)) {
             bestConfidence = MatchType.EXACT.getBaseConfidence();
             bestMatchType = MatchType.EXACT;
             log.debug("  -> 精确匹配: {} (置信度: {})", rule.getFieldName(), bestConfidence);
         }
         
         // 2. 尝试标准化匹配
-        if (bestMatchType == null && semanticMatcher.normalizedMatch(columnName, rule)) {
+        if (bestMatchType == null && semanticMatcher.normalizedMatch(profile, rule)) {
             bestConfidence = MatchType.NORMALIZED.getBaseConfidence();
             bestMatchType = MatchType.NORMALIZED;
             log.debug("  -> 标准化匹配: {} (置信度: {})", rule.getFieldName(), bestConfidence);
@@ -131,7 +329,7 @@ public class AdaptiveMappingEngine {
         
         // 3. 尝试关键词匹配
         if (bestMatchType == null) {
-            double keywordScore = semanticMatcher.keywordMatch(columnName, rule);
+            double keywordScore = semanticMatcher.keywordMatch(profile, rule);
             if (keywordScore > 0) {
                 bestConfidence = confidenceCalculator.calculateKeywordConfidence(keywordScore);
                 bestMatchType = MatchType.KEYWORD;
@@ -141,7 +339,7 @@ public class AdaptiveMappingEngine {
         
         // 4. 尝试模糊匹配
         if (bestMatchType == null) {
-            double fuzzyScore = semanticMatcher.fuzzyMatch(columnName, rule);
+            double fuzzyScore = semanticMatcher.fuzzyMatch(profile, rule);
             if (fuzzyScore > 0) {
                 bestConfidence = confidenceCalculator.calculateFuzzyConfidence(fuzzyScore);
                 bestMatchType = MatchType.FUZZY;
@@ -219,10 +417,11 @@ public class AdaptiveMappingEngine {
      * 
      * @param result 映射结果
      * @param rules 映射规则
+     * @param requiredRules 必需字段的规则
      */
-    private void validateMapping(MappingResult result, Map<String, FieldMappingRule> rules) {
+    private void validateMapping(MappingResult result, Map<String, FieldMappingRule> rules,
+                                 List<FieldMappingRule> requiredRules) {
         // 检查必需字段
-        List<FieldMappingRule> requiredRules = ruleRepository.getRequiredRules();
         boolean allRequiredMapped = true;
         
         for (FieldMappingRule rule : requiredRules) {
@@ -284,4 +483,51 @@ public class AdaptiveMappingEngine {
         
         return true;
     }
+    
+    /**
+     * 表头指纹
+     * 由格式类型、规则版本、映射记忆版本和原始表头组成；表头按原文比较，
+     * 因为精确匹配与标准化匹配的置信度不同，只差空白的表头不能共用结果
+     */
+    private static final class HeaderFingerprint {
+        
+        private final FormatType formatType;
+        private final long rulesVersion;
+        private final long memoryVersion;
+        private final String[] headers;
+        private final int hash;
+        
+        HeaderFingerprint(FormatType formatType, long rulesVersion, long memoryVersion, List<String> headers) {
+            this.formatType = formatType;
+            this.rulesVersion = rulesVersion;
+            this.memoryVersion = memoryVersion;
+            this.headers = new String[headers.size()];
+            for (int i = 0; i < this.headers.length; i++) {
+                String header = headers.get(i);
+                // 空列在匹配时被跳过，统一按空串参与比较
+                this.headers[i] = header == null || header.trim().isEmpty() ? "" : header;
+            }
+            this.hash = 31 * (31 * (31 * Objects.hashCode(formatType) + Long.hashCode(rulesVersion))
+                + Long.hashCode(memoryVersion)) + Arrays.hashCode(this.headers);
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HeaderFingerprint)) {
+                return false;
+            }
+            HeaderFingerprint other = (HeaderFingerprint) o;
+            return hash == other.hash && formatType == other.formatType
+                && rulesVersion == other.rulesVersion && memoryVersion == other.memoryVersion
+                && Arrays.equals(headers, other.headers);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
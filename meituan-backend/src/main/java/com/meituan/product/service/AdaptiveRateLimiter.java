@@ -0,0 +1,74 @@
+package com.meituan.product.service;
+
+/**
+ * 自适应限流器（线程安全）
+ * 在令牌桶之上按加性增、乘性减调整速率：每次成功速率增加 1/当前速率（满速运行时每秒约增加1次/秒），
+ * 遇到限流响应时速率减半；同一冷却期内的多个限流响应只减速一次，避免并发请求同时被限流时速率骤降
+ */
+public final class AdaptiveRateLimiter {
+
+    // 两次减速之间的最小间隔
+    private static final long DECREASE_COOLDOWN_NANOS = 1_000_000_000L;
+
+    private final TokenBucket tokenBucket;
+    private final double minRate;
+    private final double maxRate;
+
+    private double rate;
+    private long lastDecreaseNanos;
+    private long throttledCount;
+
+    /**
+     * @param initialRate 初始速率（每秒请求数）
+     * @param minRate 最低速率
+     * @param maxRate 最高速率
+     */
+    public AdaptiveRateLimiter(double initialRate, double minRate, double maxRate) {
+        this.minRate = Math.max(0.1, minRate);
+        this.maxRate = Math.max(this.minRate, maxRate);
+        this.rate = Math.min(this.maxRate, Math.max(this.minRate, initialRate));
+        this.tokenBucket = new TokenBucket(rate, 1);
+        this.lastDecreaseNanos = System.nanoTime() - DECREASE_COOLDOWN_NANOS;
+    }
+
+    /**
+     * 获取一个令牌，令牌不足时阻塞等待
+     *
+     * @throws InterruptedException 等待期间线程被中断
+     */
+    public void acquire() throws InterruptedException {
+        tokenBucket.acquire();
+    }
+
+    /**
+     * 记录一次成功请求（加性增）
+     */
+    public synchronized void onSuccess() {
+        if (rate < maxRate) {
+            rate = Math.min(maxRate, rate + 1.0 / rate);
+            tokenBucket.setRate(rate);
+        }
+    }
+
+    /**
+     * 记录一次限流响应（乘性减）
+     */
+    public synchronized void onThrottled() {
+        throttledCount++;
+        long now = System.nanoTime();
+        if (now - lastDecreaseNanos < DECREASE_COOLDOWN_NANOS) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        rate = Math.max(minRate, rate / 2);
+        tokenBucket.setRate(rate);
+    }
+
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    public synchronized long getThrottledCount() {
+        return throttledCount;
+    }
+}
@@ -72,7 +72,7 @@ public class ConfidenceCalculator {
     
     /**
      * 根据历史数据调整置信度
-     * 如果该列名历史上成功映射过，增加置信度
+     * 该列名历史上成功映射过该字段时调用，增加置信度
      * 
      * @param baseConfidence 基础置信度
      * @param columnName 列名
@@ -80,18 +80,13 @@ public class ConfidenceCalculator {
      * @return 调整后的置信度
      */
     public double adjustByHistory(double baseConfidence, String columnName, String fieldName) {
-        // TODO: 实现历史数据查询（任务14）
-        // 目前暂不调整，直接返回基础置信度
+        // 历史记录由调用方从映射记忆（MappingMemoryService）中查得，这里只负责加成
+        double adjusted = ensureValidRange(baseConfidence + HISTORY_BONUS);
         
-        // 未来实现：
-        // 1. 查询mapping_history表
-        // 2. 检查该列名是否成功映射过该字段
-        // 3. 如果成功次数 > 0，增加HISTORY_BONUS
+        log.debug("历史调整: 列名='{}', 字段='{}', 调整前={}, 调整后={}", 
+            columnName, fieldName, baseConfidence, adjusted);
         
-        log.debug("历史调整（未实现）: 列名='{}', 字段='{}', 基础置信度={}", 
-            columnName, fieldName, baseConfidence);
-        
-        return baseConfidence;
+        return adjusted;
     }
     
     /**
@@ -2,6 +2,8 @@ package com.meituan.product.service;
 
 import com.meituan.product.config.TemplateConfig;
 import com.meituan.product.dto.ErrorDetail;
+import com.meituan.product.dto.ExcelParseSummary;
+import com.meituan.product.dto.MappingResult;
 import com.meituan.product.entity.Product;
 import com.meituan.product.enums.FormatType;
 import com.meituan.product.exception.DataValidationException;
@@ -12,20 +14,28 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFFont;
 import org.apache.poi.xssf.usermodel.XSSFColor;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Excel文件处理服务
@@ -35,11 +45,23 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ExcelService {
     
+    // 美团模板前7行是表头、说明和示例，数据从第8行开始
+    private static final int DATA_START_ROW_INDEX = 7;
+    
     private final TemplateConfig templateConfig;
     private final FormatDetector formatDetector;
     private final MeituanFormatParser meituanFormatParser;
     private final com.meituan.product.mapper.TemplateMapper templateMapper;
     private final MinioService minioService;
+    private final StreamingExcelReader streamingExcelReader;
+    private final ParallelRowParser parallelRowParser;
+    private final TemplateCache templateCache;
+    
+    @Value("${meituan.import.streaming:true}")
+    private boolean streamingImport;
+    
+    @Value("${meituan.export.row-access-window:200}")
+    private int rowAccessWindow;
     
     /**
      * 解析Excel文件
@@ -54,10 +76,7 @@ public class ExcelService {
         }
         
         try (InputStream inputStream = file.getInputStream()) {
-            String fileName = file.getOriginalFilename();
-            String fileExtension = fileName.substring(fileName.lastIndexOf(".") + 1).toLowerCase();
-            
-            return parseExcel(inputStream, fileExtension);
+            return parseExcel(inputStream, getFileExtension(file));
         } catch (IOException e) {
             log.error("读取Excel文件失败", e);
             throw new FileFormatException("读取Excel文件失败：" + e.getMessage(), e);
@@ -72,8 +91,143 @@ public class ExcelService {
      * @return 商品列表
      */
     public List<Product> parseExcel(InputStream inputStream, String fileType) {
-        try {
-            Workbook workbook = createWorkbook(inputStream, fileType);
+        List<Product> products = new ArrayList<>();
+        ExcelParseSummary summary = streamExcel(inputStream, fileType, products::add);
+        
+        // 如果有验证错误，抛出异常
+        if (summary.hasErrors()) {
+            List<DataValidationException.ValidationError> validationErrors = new ArrayList<>();
+            for (ErrorDetail errorDetail : summary.getErrorDetails()) {
+                validationErrors.add(new DataValidationException.ValidationError(
+                    errorDetail.getRowNum(),
+                    errorDetail.getFieldName(),
+                    errorDetail.getErrorMessage()
+                ));
+            }
+            throw new DataValidationException("Excel数据验证失败", validationErrors);
+        }
+        
+        log.info("成功解析Excel文件，格式：{}，共{}条商品数据", summary.getFormatType().getDescription(), products.size());
+        return products;
+    }
+    
+    /**
+     * 逐行解析Excel文件，每解析出一个商品就交给sink处理
+     * xlsx文件在启用流式导入时走SAX事件模型，内存占用与行数无关；xls文件仍使用HSSF用户模型
+     * 
+     * @param file Excel文件
+     * @param sink 商品处理器
+     * @return 解析汇总（格式类型和行级错误）
+     */
+    public ExcelParseSummary streamExcel(MultipartFile file, Consumer<Product> sink) {
+        if (!isValidExcelFile(file)) {
+            throw new FileFormatException("不支持的文件格式，仅支持xlsx和xls格式");
+        }
+        
+        try (InputStream inputStream = file.getInputStream()) {
+            return streamExcel(inputStream, getFileExtension(file), sink);
+        } catch (IOException e) {
+            log.error("读取Excel文件失败", e);
+            throw new FileFormatException("读取Excel文件失败：" + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 逐行解析Excel输入流
+     * 
+     * @param inputStream 输入流
+     * @param fileType 文件类型（xlsx或xls）
+     * @param sink 商品处理器
+     * @return 解析汇总（格式类型和行级错误）
+     */
+    public ExcelParseSummary streamExcel(InputStream inputStream, String fileType, Consumer<Product> sink) {
+        return streamExcel(inputStream, fileType, sink, null, new ImportDiagnostics(false));
+    }
+    
+    /**
+     * 逐行解析Excel输入流，在识别表头后回调预估的数据行数，并把非致命问题汇总到诊断中
+     * 
+     * @param inputStream 输入流
+     * @param fileType 文件类型（xlsx或xls）
+     * @param sink 商品处理器
+     * @param rowCountHint 预估数据行数回调（可为null），工作表未记录尺寸时不回调
+     * @param diagnostics 导入诊断（汇总逐行的非致命问题）
+     * @return 解析汇总（格式类型、行级错误和诊断信息）
+     */
+    public ExcelParseSummary streamExcel(InputStream inputStream, String fileType, Consumer<Product> sink,
+                                         IntConsumer rowCountHint, ImportDiagnostics diagnostics) {
+        return streamExcel(inputStream, fileType, sink, rowCountHint, diagnostics, null);
+    }
+    
+    /**
+     * 逐行解析Excel输入流，美团格式的列映射优先使用商家的映射记忆
+     * 
+     * @param inputStream 输入流
+     * @param fileType 文件类型（xlsx或xls）
+     * @param sink 商品处理器
+     * @param rowCountHint 预估数据行数回调（可为null），工作表未记录尺寸时不回调
+     * @param diagnostics 导入诊断（汇总逐行的非致命问题）
+     * @param merchantId 商家ID（可为null）
+     * @return 解析汇总（格式类型、列映射、行级错误和诊断信息）
+     */
+    public ExcelParseSummary streamExcel(InputStream inputStream, String fileType, Consumer<Product> sink,
+                                         IntConsumer rowCountHint, ImportDiagnostics diagnostics, Long merchantId) {
+        return streamExcelRows(inputStream, fileType, (product, rowNum) -> sink.accept(product),
+            rowCountHint, diagnostics, merchantId);
+    }
+    
+    /**
+     * 逐行解析Excel输入流，商品连同所在的Excel行号（从1开始）一起交给处理器
+     * 
+     * @param inputStream 输入流
+     * @param fileType 文件类型（xlsx或xls）
+     * @param sink 商品处理器（商品，Excel行号）
+     * @param rowCountHint 预估数据行数回调（可为null），工作表未记录尺寸时不回调
+     * @param diagnostics 导入诊断（汇总逐行的非致命问题）
+     * @param merchantId 商家ID（可为null）
+     * @return 解析汇总（格式类型、列映射、行级错误和诊断信息）
+     */
+    public ExcelParseSummary streamExcelRows(InputStream inputStream, String fileType, ObjIntConsumer<Product> sink,
+                                             IntConsumer rowCountHint, ImportDiagnostics diagnostics,
+                                             Long merchantId) {
+        SheetParseContext context = new SheetParseContext(sink, rowCountHint, diagnostics, merchantId);
+        
+        if (streamingImport && "xlsx".equalsIgnoreCase(fileType)) {
+            log.info("使用流式模式解析xlsx文件");
+            streamingExcelReader.read(inputStream, new StreamingExcelReader.RowHandler() {
+                @Override
+                public void handleRow(int rowIndex, String[] values) {
+                    if (rowIndex == 0) {
+                        context.initHeaders(Arrays.asList(values));
+                        if (parallelRowParser.isEnabled()) {
+                            context.enableParallelParse();
+                        }
+                    } else {
+                        context.parseDataRow(rowIndex, values);
+                    }
+                }
+                
+                @Override
+                public void onDimension(int lastRowIndex) {
+                    context.lastRowIndex = lastRowIndex;
+                }
+            });
+            context.finish();
+        } else {
+            parseWithWorkbook(inputStream, fileType, context);
+        }
+        
+        if (context.summary.getFormatType() == null) {
+            throw new FileFormatException("Excel文件表头为空");
+        }
+        return context.summary;
+    }
+    
+    /**
+     * 使用POI用户模型解析（xls文件或关闭流式导入时）
+     */
+    private void parseWithWorkbook(InputStream inputStream, String fileType, SheetParseContext context) {
+        try (Workbook workbook = createWorkbook(inputStream, fileType)) {
             Sheet sheet = workbook.getSheetAt(0);
             
             // 读取表头
@@ -88,42 +242,15 @@ public class ExcelService {
                 String headerValue = getCellValueAsString(cell);
                 headers.add(headerValue);
             }
+            context.lastRowIndex = sheet.getLastRowNum();
+            context.initHeaders(headers);
             
-            // 检测文件格式
-            FormatType formatType = formatDetector.detectFormat(headers);
-            log.info("检测到文件格式：{}", formatType.getDescription());
-            
-            List<Product> products = new ArrayList<>();
-            List<ErrorDetail> errorDetails = new ArrayList<>();
-            
-            // 根据格式类型选择解析方式
-            if (formatType == FormatType.MEITUAN) {
-                // 美团格式解析
-                Map<String, Integer> columnMapping = formatDetector.getMeituanColumnMapping(headers);
-                products = parseMeituanFormat(sheet, columnMapping, errorDetails);
-            } else {
-                // 标准格式解析（保持原有逻辑）
-                products = parseStandardFormat(sheet, errorDetails);
-            }
-            
-            workbook.close();
-            
-            // 如果有验证错误，抛出异常
-            if (!errorDetails.isEmpty()) {
-                List<DataValidationException.ValidationError> validationErrors = new ArrayList<>();
-                for (ErrorDetail errorDetail : errorDetails) {
-                    validationErrors.add(new DataValidationException.ValidationError(
-                        errorDetail.getRowNum(),
-                        errorDetail.getFieldName(),
-                        errorDetail.getErrorMessage()
-                    ));
-                }
-                throw new DataValidationException("Excel数据验证失败", validationErrors);
+            // 按最后行号遍历：中间有空行时物理行数小于最后行号，按物理行数会漏掉末尾的数据行
+            int lastRowNum = sheet.getLastRowNum();
+            for (int i = 1; i <= lastRowNum; i++) {
+                Row row = sheet.getRow(i);
+                context.parseDataRow(i, row, isEmptyRow(row));
             }
-            
-            log.info("成功解析Excel文件，格式：{}，共{}条商品数据", formatType.getDescription(), products.size());
-            return products;
-            
         } catch (IOException e) {
             log.error("解析Excel文件失败", e);
             throw new FileFormatException("解析Excel文件失败：" + e.getMessage(), e);
@@ -131,96 +258,171 @@ public class ExcelService {
     }
     
     /**
-     * 解析美团格式
+     * 工作表解析上下文
+     * 表头行确定格式与列映射后，数据行逐行解析并交给sink；
+     * 流式读取启用并行解析时，数据行分块在线程池中解析，结果仍按行顺序交给sink
      */
-    private List<Product> parseMeituanFormat(Sheet sheet, Map<String, Integer> columnMapping, 
-                                             List<ErrorDetail> errorDetails) {
-        List<Product> products = new ArrayList<>();
-        int rowCount = sheet.getPhysicalNumberOfRows();
+    private class SheetParseContext {
+        
+        private final ObjIntConsumer<Product> sink;
+        private final IntConsumer rowCountHint;
+        private final ImportDiagnostics diagnostics;
+        private final Long merchantId;
+        private final ExcelParseSummary summary = new ExcelParseSummary();
         
-        // 从第3行开始读取（第1行是表头，第2行是描述）
-        for (int i = 2; i < rowCount; i++) {
-            Row row = sheet.getRow(i);
+        private Map<String, Integer> columnMapping;
+        private MeituanFormatParser.RowPlan meituanRowPlan;
+        private int firstDataRowIndex;
+        private int lastRowIndex = -1;
+        private ParallelRowParser.Session parallelSession;
+        
+        SheetParseContext(ObjIntConsumer<Product> sink, IntConsumer rowCountHint, ImportDiagnostics diagnostics,
+                          Long merchantId) {
+            this.sink = sink;
+            this.rowCountHint = rowCountHint;
+            this.diagnostics = diagnostics;
+            this.merchantId = merchantId;
+        }
+        
+        /**
+         * 根据表头检测文件格式并建立列映射
+         */
+        void initHeaders(List<String> headers) {
+            FormatType formatType = formatDetector.detectFormat(headers);
+            log.info("检测到文件格式：{}", formatType.getDescription());
+            
+            summary.setFormatType(formatType);
+            summary.setHeaders(headers);
             
-            // 跳过空行
-            if (isEmptyRow(row)) {
-                continue;
+            // 根据格式类型选择解析方式
+            if (formatType == FormatType.MEITUAN) {
+                // 美团格式：第1行是表头，第2行是描述，从第3行开始是数据
+                MappingResult mappingResult = formatDetector.buildAdaptiveMapping(headers, merchantId);
+                columnMapping = mappingResult != null
+                    ? mappingResult.getColumnIndexMap() : formatDetector.getFixedColumnMapping(headers);
+                summary.setColumnMapping(columnMapping);
+                summary.setMappingResult(mappingResult);
+                meituanRowPlan = meituanFormatParser.compile(columnMapping);
+                firstDataRowIndex = 2;
+            } else {
+                // 标准格式：从第2行开始是数据
+                columnMapping = buildStandardColumnMapping(headers);
+                firstDataRowIndex = 1;
+                log.info("标准格式列映射：{}", columnMapping);
             }
             
-            try {
-                Product product = meituanFormatParser.parseRow(row, columnMapping, i + 1);
-                products.add(product);
-            } catch (Exception e) {
-                // 记录错误但继续处理其他行
-                errorDetails.add(new ErrorDetail(i + 1, "整行", e.getMessage()));
-                log.debug("第{}行解析失败：{}", i + 1, e.getMessage());
+            if (rowCountHint != null && lastRowIndex >= firstDataRowIndex) {
+                rowCountHint.accept(lastRowIndex - firstDataRowIndex + 1);
             }
         }
         
-        return products;
-    }
-    
-    /**
-     * 解析标准格式（改进版 - 支持灵活列顺序）
-     */
-    private List<Product> parseStandardFormat(Sheet sheet, List<ErrorDetail> errorDetails) {
-        List<Product> products = new ArrayList<>();
-        int rowCount = sheet.getPhysicalNumberOfRows();
+        /**
+         * 启用并行解析（需在表头识别之后调用）
+         */
+        void enableParallelParse() {
+            parallelSession = parallelRowParser.openSession(
+                (rowIndex, values) -> parseValues(rowIndex, RowValueAccessor.of(values)),
+                new ParallelRowParser.ResultHandler() {
+                    @Override
+                    public void onProduct(int rowIndex, Product product) {
+                        emit(rowIndex, product);
+                    }
+                    
+                    @Override
+                    public void onError(int rowIndex, Exception e) {
+                        recordError(rowIndex, e);
+                    }
+                });
+        }
         
-        // 读取表头，建立列映射
-        Row headerRow = sheet.getRow(0);
-        Map<String, Integer> columnMapping = buildStandardColumnMapping(headerRow);
+        /**
+         * 解析SAX读取的数据行
+         */
+        void parseDataRow(int rowIndex, String[] values) {
+            if (!acceptRow(rowIndex, isEmptyRow(values))) {
+                return;
+            }
+            
+            if (parallelSession != null) {
+                parallelSession.submit(rowIndex, values);
+            } else {
+                parseAndEmit(rowIndex, () -> parseValues(rowIndex, RowValueAccessor.of(values)));
+            }
+        }
         
-        log.info("标准格式列映射：{}", columnMapping);
+        /**
+         * 等待并行解析的剩余数据行输出
+         */
+        void finish() {
+            if (parallelSession != null) {
+                parallelSession.finish();
+            }
+        }
         
-        // 从第2行开始读取（第1行是表头）
-        for (int i = 1; i < rowCount; i++) {
-            Row row = sheet.getRow(i);
-            
-            // 跳过空行
-            if (isEmptyRow(row)) {
-                continue;
+        private Product parseValues(int rowIndex, RowValueAccessor row) {
+            return summary.getFormatType() == FormatType.MEITUAN
+                ? meituanFormatParser.parseRow(row, meituanRowPlan, rowIndex + 1, diagnostics)
+                : parseStandardRow(row, columnMapping, rowIndex + 1);
+        }
+        
+        /**
+         * 解析POI用户模型的数据行
+         */
+        void parseDataRow(int rowIndex, Row row, boolean emptyRow) {
+            if (!acceptRow(rowIndex, emptyRow)) {
+                return;
             }
             
+            parseAndEmit(rowIndex, () -> summary.getFormatType() == FormatType.MEITUAN
+                ? meituanFormatParser.parseRow(row, meituanRowPlan, rowIndex + 1, diagnostics)
+                : parseStandardRow(toStandardAccessor(row), columnMapping, rowIndex + 1));
+        }
+        
+        private boolean acceptRow(int rowIndex, boolean emptyRow) {
+            if (summary.getFormatType() == null) {
+                throw new FileFormatException("Excel文件表头为空");
+            }
+            // 跳过说明行和空行
+            return rowIndex >= firstDataRowIndex && !emptyRow;
+        }
+        
+        private void parseAndEmit(int rowIndex, java.util.function.Supplier<Product> parser) {
+            Product product;
             try {
-                Product product = parseStandardRow(row, columnMapping, i + 1);
-                products.add(product);
+                product = parser.get();
             } catch (Exception e) {
-                // 记录错误但继续处理其他行
-                errorDetails.add(new ErrorDetail(i + 1, "整行", e.getMessage()));
-                log.debug("第{}行解析失败：{}", i + 1, e.getMessage());
+                recordError(rowIndex, e);
+                return;
             }
+            emit(rowIndex, product);
         }
         
-        return products;
+        private void emit(int rowIndex, Product product) {
+            summary.setParsedCount(summary.getParsedCount() + 1);
+            sink.accept(product, rowIndex + 1);
+        }
+        
+        private void recordError(int rowIndex, Exception e) {
+            // 记录错误但继续处理其他行
+            summary.getErrorDetails().add(new ErrorDetail(rowIndex + 1, "整行", e.getMessage()));
+            log.debug("第{}行解析失败：{}", rowIndex + 1, e.getMessage());
+        }
     }
     
     /**
      * 建立标准格式的列映射
      * 
-     * @param headerRow 表头行
+     * @param headers 表头列表
      * @return 列映射（字段名 -> 列索引）
      */
-    private Map<String, Integer> buildStandardColumnMapping(Row headerRow) {
+    private Map<String, Integer> buildStandardColumnMapping(List<String> headers) {
         Map<String, Integer> mapping = new HashMap<>();
         
-        if (headerRow == null) {
-            // 如果没有表头，使用默认顺序
-            mapping.put("productName", 0);
-            mapping.put("categoryId", 1);
-            mapping.put("price", 2);
-            mapping.put("stock", 3);
-            mapping.put("description", 4);
-            mapping.put("imageUrl", 5);
-            return mapping;
-        }
-        
         // 遍历表头，建立映射
-        for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-            Cell cell = headerRow.getCell(i);
-            if (cell != null) {
-                String header = cell.getStringCellValue().trim();
-                String normalizedHeader = header.replaceAll("\\s+", "").toLowerCase();
+        for (int i = 0; i < headers.size(); i++) {
+            String header = headers.get(i);
+            if (header != null) {
+                String normalizedHeader = header.trim().replaceAll("\\s+", "").toLowerCase();
                 
                 // 匹配商品名称
                 if (normalizedHeader.contains("商品名称") || normalizedHeader.contains("名称") || 
@@ -270,39 +472,52 @@ public class ExcelService {
         return mapping;
     }
     
+    /**
+     * 将POI行包装为标准格式的行数据访问器
+     * 标准格式的字符串取值沿用本类的转换规则，数值列直接读取单元格数值
+     */
+    private RowValueAccessor toStandardAccessor(Row row) {
+        return new PoiRowAccessor(row) {
+            @Override
+            public String getString(int columnIndex) {
+                return getCellValueAsString(row.getCell(columnIndex));
+            }
+        };
+    }
+    
     /**
      * 解析标准格式的单行数据（使用列映射）
      * 
-     * @param row 行对象
+     * @param row 行数据访问器
      * @param columnMapping 列映射
      * @param rowNum 行号
      * @return 商品对象
      */
-    private Product parseStandardRow(Row row, Map<String, Integer> columnMapping, int rowNum) {
+    private Product parseStandardRow(RowValueAccessor row, Map<String, Integer> columnMapping, int rowNum) {
         Product product = new Product();
         
         // 商品名称
-        String productName = getCellValueAsString(row.getCell(columnMapping.get("productName")));
+        String productName = row.getString(columnMapping.get("productName"));
         product.setProductName(productName != null ? productName.trim() : "");
         
         // 类目ID
-        String categoryId = getCellValueAsString(row.getCell(columnMapping.get("categoryId")));
+        String categoryId = row.getString(columnMapping.get("categoryId"));
         product.setCategoryId(categoryId != null ? categoryId.trim() : "");
         
         // 价格
-        Double priceValue = getCellValueAsDouble(row.getCell(columnMapping.get("price")));
-        product.setPrice(priceValue != null ? BigDecimal.valueOf(priceValue) : BigDecimal.ZERO);
+        BigDecimal priceValue = row.getDecimal(columnMapping.get("price"));
+        product.setPrice(priceValue != null ? priceValue : BigDecimal.ZERO);
         
         // 库存
-        Double stockValue = getCellValueAsDouble(row.getCell(columnMapping.get("stock")));
-        product.setStock(stockValue != null ? stockValue.intValue() : 0);
+        Integer stockValue = row.getInteger(columnMapping.get("stock"));
+        product.setStock(stockValue != null ? stockValue : 0);
         
         // 商品描述
-        String description = getCellValueAsString(row.getCell(columnMapping.get("description")));
+        String description = row.getString(columnMapping.get("description"));
         product.setDescription(description);
         
         // 商品图片URL
-        String imageUrl = getCellValueAsString(row.getCell(columnMapping.get("imageUrl")));
+        String imageUrl = row.getString(columnMapping.get("imageUrl"));
         product.setImageUrl(imageUrl);
         
         // 设置默认状态为待上传
@@ -381,6 +596,14 @@ public class ExcelService {
         return "xlsx".equals(extension) || "xls".equals(extension);
     }
     
+    /**
+     * 获取文件扩展名（小写）
+     */
+    public String getFileExtension(MultipartFile file) {
+        String fileName = file.getOriginalFilename();
+        return fileName.substring(fileName.lastIndexOf(".") + 1).toLowerCase();
+    }
+    
     /**
      * 判断是否为空行
      */
@@ -401,6 +624,18 @@ public class ExcelService {
         return true;
     }
     
+    /**
+     * 判断流式读取的行是否为空行
+     */
+    private boolean isEmptyRow(String[] values) {
+        for (String value : values) {
+            if (value != null && !value.trim().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
     /**
      * 获取单元格的字符串值
      */
@@ -714,16 +949,13 @@ public class ExcelService {
     }
     
     /**
-     * 使用用户上传的模板生成美团上传文件
+     * 查找商家最新上传的美团模板
      * 
-     * @param products 商品列表
      * @param merchantId 商家ID
-     * @return Excel文件字节数组
+     * @return 模板记录
+     * @throws TemplateNotFoundException 商家没有上传美团模板
      */
-    public byte[] generateMeituanTemplateFromUserTemplate(List<Product> products, Long merchantId) {
-        log.info("使用用户模板生成美团上传文件，商家ID：{}，商品数量：{}", merchantId, products.size());
-        
-        // 1. 查找商家的美团模板
+    public com.meituan.product.entity.Template findMeituanTemplate(Long merchantId) {
         com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<com.meituan.product.entity.Template> queryWrapper = 
             new com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<>();
         queryWrapper.eq(com.meituan.product.entity.Template::getMerchantId, merchantId)
@@ -732,55 +964,62 @@ public class ExcelService {
                    .last("LIMIT 1");
         
         com.meituan.product.entity.Template template = templateMapper.selectOne(queryWrapper);
-        
-        // 2. 如果没有找到用户模板，抛出异常（移除默认模板回退）
         if (template == null) {
             log.error("未找到商家的美团模板，商家ID：{}", merchantId);
             throw new TemplateNotFoundException(merchantId);
         }
         
         log.info("找到用户模板：{}，模板ID：{}", template.getTemplateName(), template.getId());
-        
-        // 3. 从MinIO下载模板文件
+        return template;
+    }
+    
+    /**
+     * 预先加载商家的美团模板到缓存（分批并行导出前调用，避免各批次同时下载）
+     * 
+     * @param merchantId 商家ID
+     */
+    public void preloadMeituanTemplate(Long merchantId) {
+        loadTemplate(findMeituanTemplate(merchantId), merchantId);
+    }
+    
+    /**
+     * 获取模板文件和表头
+     * 以模板ID + 文件ETag查缓存，未命中时下载并解析表头后放入缓存
+     */
+    private TemplateCache.CachedTemplate loadTemplate(com.meituan.product.entity.Template template, Long merchantId) {
         String objectName = getObjectNameFromTemplate(template);
-        InputStream templateStream;
+        String etag;
         try {
-            templateStream = minioService.downloadFile(objectName);
+            etag = minioService.getFileEtag(objectName);
         } catch (Exception e) {
             log.error("模板文件下载失败，商家ID：{}，文件路径：{}，错误：{}", 
                     merchantId, objectName, e.getMessage(), e);
             throw new TemplateFileException("模板文件丢失，请重新上传");
         }
         
-        // 4. 读取模板文件
-        Workbook templateWorkbook;
-        try {
-            templateWorkbook = new XSSFWorkbook(templateStream);
+        TemplateCache.CachedTemplate cached = templateCache.get(template.getId(), etag);
+        if (cached != null) {
+            return cached;
+        }
+        
+        // 从MinIO下载模板文件
+        byte[] content;
+        try (InputStream templateStream = minioService.downloadFile(objectName)) {
+            content = templateStream.readAllBytes();
         } catch (Exception e) {
-            log.error("模板文件读取失败，商家ID：{}，文件大小：{}，错误：{}", 
-                    merchantId, template.getFileSize(), e.getMessage(), e);
-            try {
-                templateStream.close();
-            } catch (IOException ignored) {
-            }
-            throw new TemplateFileException("模板文件损坏，请重新上传");
+            log.error("模板文件下载失败，商家ID：{}，文件路径：{}，错误：{}", 
+                    merchantId, objectName, e.getMessage(), e);
+            throw new TemplateFileException("模板文件丢失，请重新上传");
         }
         
-        try {
-            Sheet templateSheet = templateWorkbook.getSheetAt(0);
-            
-            // 5. 美团模板前7行是说明和示例，第1行是表头，从第8行开始是数据
-            // 获取表头行（第1行，索引0）
-            Row headerRow = templateSheet.getRow(0);
+        // 读取表头列名（第1行，索引0）
+        List<String> headers = new ArrayList<>();
+        try (XSSFWorkbook workbook = openTemplateWorkbook(new ByteArrayInputStream(content), template, merchantId)) {
+            Row headerRow = workbook.getSheetAt(0).getRow(0);
             if (headerRow == null) {
                 log.error("模板文件没有表头，商家ID：{}", merchantId);
-                templateWorkbook.close();
-                templateStream.close();
                 throw new TemplateFileException("模板文件格式错误：缺少表头");
             }
-            
-            // 6. 读取表头列名
-            List<String> headers = new ArrayList<>();
             for (int i = 0; i < headerRow.getLastCellNum(); i++) {
                 Cell cell = headerRow.getCell(i);
                 if (cell != null) {
@@ -789,385 +1028,118 @@ public class ExcelService {
                     headers.add("");
                 }
             }
-            
-            log.info("模板表头：{}", headers);
-            
-            // 7. 删除模板中第8行之后的所有旧数据行（如果有的话）
-            int lastRowNum = templateSheet.getLastRowNum();
-            for (int i = lastRowNum; i >= 7; i--) {
-                Row row = templateSheet.getRow(i);
-                if (row != null) {
-                    templateSheet.removeRow(row);
-                }
-            }
-            
-            // 8. 从第8行开始填充商品数据（索引7）
-            int startRowIndex = 7;
-            for (int i = 0; i < products.size(); i++) {
-                Row dataRow = templateSheet.createRow(startRowIndex + i);
-                Product product = products.get(i);
-                
-                for (int j = 0; j < headers.size(); j++) {
-                    Cell cell = dataRow.createCell(j);
-                    String header = headers.get(j);
-                    
-                    // 根据表头名称填充对应的商品数据
-                    fillCellByHeaderName(cell, product, header);
-                }
-            }
-            
-            // 9. 转换为字节数组
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            templateWorkbook.write(outputStream);
-            
-            // 10. 关闭资源
-            templateWorkbook.close();
-            templateStream.close();
-            
-            log.info("成功使用用户模板生成文件，保留前7行模板说明，从第8行开始填充{}条商品数据", products.size());
-            return outputStream.toByteArray();
-            
         } catch (TemplateFileException e) {
-            // 重新抛出模板文件异常
             throw e;
         } catch (Exception e) {
             log.error("使用用户模板生成文件失败，商家ID：{}", merchantId, e);
-            try {
-                templateWorkbook.close();
-                templateStream.close();
-            } catch (Exception ignored) {
-            }
             throw new TemplateFileException("模板文件处理失败：" + e.getMessage());
         }
-    }
-    
-    /**
-     * 根据表头名称填充单元格数据
-     * 
-     * @param cell 单元格
-     * @param product 商品对象
-     * @param headerName 表头名称
-     */
-    private void fillCellByHeaderName(Cell cell, Product product, String headerName) {
-        if (headerName == null || headerName.trim().isEmpty()) {
-            return;
-        }
         
-        String header = headerName.trim();
+        log.info("模板表头：{}", headers);
         
-        // 基础信息
-        if (header.contains("SKU") || header.contains("sku")) {
-            setStringValue(cell, product.getSkuId());
-        } else if (header.contains("条形码") || header.contains("UPC") || header.contains("EAN")) {
-            // 美团要求：无条形码商品需填写"无条形码"
-            String upcEan = product.getUpcEan();
-            if (upcEan == null || upcEan.trim().isEmpty()) {
-                cell.setCellValue("无条形码");
-            } else {
-                cell.setCellValue(upcEan);
-            }
-        } else if (header.contains("商品类目名称") || header.contains("类目名称")) {
-            setStringValue(cell, product.getCategoryName());
-        } else if (header.contains("商品类目ID") || header.contains("类目ID") || header.contains("类目") || header.contains("分类") || header.equalsIgnoreCase("category_id") || header.equalsIgnoreCase("categoryId")) {
-            setStringValue(cell, product.getCategoryId());
-        } else if (header.contains("APP") && header.contains("SPU")) {
-            setStringValue(cell, product.getAppSpuCode());
-        } else if (header.contains("商品名称") || (header.contains("名称") && !header.contains("类目") && !header.contains("规格")) || header.equalsIgnoreCase("product_name") || header.equalsIgnoreCase("productName")) {
-            setStringValue(cell, product.getProductName());
-        }
-        // 图片视频
-        else if (header.contains("商品图片") || (header.contains("图片") && !header.contains("规格"))) {
-            setStringValue(cell, product.getProductImage());
-        } else if (header.contains("封面视频")) {
-            setStringValue(cell, product.getCoverVideo());
-        } else if (header.contains("规格图")) {
-            setStringValue(cell, product.getSpecImage());
-        }
-        // 分类库存
-        else if (header.contains("店内分类") && !header.contains("数量")) {
-            setStringValue(cell, product.getStoreCategory());
-        } else if (header.contains("店内分类数量")) {
-            setIntegerValue(cell, product.getStoreCategoryCount());
-        } else if (header.contains("规格名称")) {
-            setStringValue(cell, product.getSpecName());
-        } else if (header.contains("店内码") || header.contains("货号")) {
-            setStringValue(cell, product.getStoreCode());
-        } else if (header.contains("价格") || header.equalsIgnoreCase("price")) {
-            setBigDecimalValue(cell, product.getPrice());
-        } else if (header.contains("库存") || header.equalsIgnoreCase("stock")) {
-            setIntegerValue(cell, product.getStock());
-        } else if (header.contains("售卖状态") || header.contains("销售状态")) {
-            // 售卖状态必须严格为 0 或 1，否则美团平台无法识别
-            // 美团定义：立即上架=0，下架=1
-            String statusValue = "0"; // 默认为立即上架
-            if (product.getSaleStatus() != null) {
-                String status = product.getSaleStatus().trim();
-                // 如果已经是 0 或 1，直接使用
-                if ("0".equals(status)) {
-                    statusValue = "0";
-                } else if ("1".equals(status)) {
-                    statusValue = "1";
-                } else if ("上架".equals(status) || "在售".equals(status) || "销售中".equals(status) || "正常".equals(status)) {
-                    statusValue = "0"; // 上架状态 = 0
-                } else if ("下架".equals(status) || "停售".equals(status) || "已下架".equals(status)) {
-                    statusValue = "1"; // 下架状态 = 1
-                }
-                // 其他情况使用默认值 0（立即上架）
-            }
-            cell.setCellValue(statusValue);
-        } else if (header.contains("月售")) {
-            setIntegerValue(cell, product.getMonthlySales());
-        } else if ((header.contains("重量") || header.contains("毛重")) && !header.contains("单位")) {
-            // 毛重/重量：如果为空，设置默认值1000g（约1kg）
-            if (product.getWeight() != null) {
-                setBigDecimalValue(cell, product.getWeight());
-            } else {
-                cell.setCellValue("1000"); // 默认毛重1000g
-            }
-        } else if (header.contains("重量单位") || header.contains("毛重单位")) {
-            // 毛重单位/重量单位：如果为空，默认"g"
-            if (product.getWeightUnit() != null && !product.getWeightUnit().trim().isEmpty()) {
-                setStringValue(cell, product.getWeightUnit());
-            } else {
-                cell.setCellValue("g"); // 默认单位g
-            }
-        } else if (header.contains("品牌") && !header.contains("图片")) {
-            // 品牌 - 总是从productAttributes（商品属性）中提取"品牌：xxx"的值
-            // 不使用已存储的brand字段，因为可能被错误映射到"品牌商图片详情"列
-            String brand = extractBrandFromAttributes(product.getProductAttributes());
-            setStringValue(cell, brand);
-        } else if (header.contains("商品属性") || header.contains("类目属性")) {
-            // 商品属性/类目属性 - 导出完整的类目属性字符串
-            setStringValue(cell, product.getProductAttributes());
-        } else if (header.contains("起购数")) {
-            setIntegerValue(cell, product.getMinPurchase());
-        } else if (header.contains("货架码") || header.contains("位置码")) {
-            setStringValue(cell, product.getShelfCode());
-        }
-        // 详情描述
-        else if (header.contains("商品卖点") || header.contains("卖点") && !header.contains("展示期")) {
-            setStringValue(cell, product.getSellingPoint());
-        } else if (header.contains("卖点展示期")) {
-            setStringValue(cell, product.getSellingPointPeriod());
-        } else if (header.contains("文字详情") || (header.contains("详情") && !header.contains("图片"))) {
-            setStringValue(cell, product.getTextDetail());
-        }
-        // 日期相关
-        else if (header.contains("生产日期")) {
-            setLocalDateValue(cell, product.getProductionDate());
-        } else if (header.contains("到期日期")) {
-            setLocalDateValue(cell, product.getExpiryDate());
-        } else if (header.contains("是否临期")) {
-            // 美团要求：填写"临期"或"非临期"
-            String valueStr = "非临期"; // 默认非临期
-            if (product.getIsNearExpiry() != null && product.getIsNearExpiry() == 1) {
-                valueStr = "临期";
-            }
-            cell.setCellValue(valueStr);
-        } else if (header.contains("是否过期")) {
-            // 是否过期必须严格为 0 或 1
-            String valueStr = "0";
-            if (product.getIsExpired() != null && product.getIsExpired() == 1) {
-                valueStr = "1";
-            }
-            cell.setCellValue(valueStr);
-        }
-        // 配送时间
-        else if (header.contains("发货模式")) {
-            setStringValue(cell, product.getDeliveryMode());
-        } else if (header.contains("预售配送时间")) {
-            setStringValue(cell, product.getPresaleDeliveryTime());
-        } else if (header.contains("可售时间")) {
-            // 可售时间格式要求：
-            // 1. 指定时间点开售：HH:mm（如 09:00）
-            // 2. 指定时间段售卖：HH:mm-HH:mm（如 09:00-22:00）
-            // 3. 营业全时段可售：填写"营业全时段可售"
-            // 4. 周期性可售：时间段1，时间段2;周一，周二（用中文分号隔开）
-            // 5. 不填写则默认"营业全时段可售"
-            String timeValue = "营业全时段可售"; // 默认营业全时段可售
-            
-            if (product.getAvailableTime() != null && !product.getAvailableTime().trim().isEmpty()) {
-                String time = product.getAvailableTime().trim();
-                
-                // 如果是"全天"或"营业全时段可售"，使用标准格式
-                if ("全天".equals(time) || "营业全时段可售".equals(time)) {
-                    timeValue = "营业全时段可售";
-                }
-                // 验证时间点格式：HH:mm
-                else if (time.matches("^(0?[0-9]|1[0-9]|2[0-3]):([0-5][0-9])$")) {
-                    timeValue = time;
-                }
-                // 验证时间段格式：HH:mm-HH:mm
-                else if (time.matches("^(0?[0-9]|1[0-9]|2[0-3]):([0-5][0-9])-(0?[0-9]|1[0-9]|2[0-3]):([0-5][0-9])$")) {
-                    timeValue = time;
-                }
-                // 验证周期性可售格式：包含中文分号
-                else if (time.contains("；") || time.contains(";")) {
-                    timeValue = time;
-                }
-                // 其他格式，使用默认值
-            }
-            cell.setCellValue(timeValue);
-        }
-        // 商品属性
-        else if (header.contains("力荐")) {
-            // 力荐必须严格为 0 或 1
-            String valueStr = "0";
-            if (product.getIsRecommended() != null && product.getIsRecommended() == 1) {
-                valueStr = "1";
-            }
-            cell.setCellValue(valueStr);
-        } else if (header.contains("无理由退货")) {
-            // 无理由退货需要填写标签ID
-            // 优先使用 noReasonReturnTagId 字段
-            String tagId = product.getNoReasonReturnTagId();
-            
-            // 如果 tagId 为空，根据 noReasonReturn 字段映射
-            if (tagId == null || tagId.trim().isEmpty()) {
-                if (product.getNoReasonReturn() != null && product.getNoReasonReturn() == 1) {
-                    tagId = "1300030901"; // 7天无理由退货
-                } else {
-                    tagId = "1300030895"; // 不支持7天无理由退货
-                }
-            }
-            
-            cell.setCellValue(tagId);
-        } else if (header.contains("组合商品")) {
-            // 组合商品必须严格为 0 或 1
-            String valueStr = "0";
-            if (product.getIsCombo() != null && product.getIsCombo() == 1) {
-                valueStr = "1";
-            }
-            cell.setCellValue(valueStr);
-        } else if (header.contains("四轮配送")) {
-            // 四轮配送必须严格为 0 或 1
-            String valueStr = "0";
-            if (product.getIsFourWheelDelivery() != null && product.getIsFourWheelDelivery() == 1) {
-                valueStr = "1";
-            }
-            cell.setCellValue(valueStr);
-        }
-        // 合规审核
-        else if (header.contains("合规状态")) {
-            setStringValue(cell, product.getComplianceStatus());
-        } else if (header.contains("违规下架")) {
-            // 违规下架必须严格为 0 或 1
-            String valueStr = "0";
-            if (product.getViolationOffline() != null && product.getViolationOffline() == 1) {
-                valueStr = "1";
-            }
-            cell.setCellValue(valueStr);
-        } else if (header.contains("必填信息缺失")) {
-            // 必填信息缺失必须严格为 0 或 1
-            String valueStr = "0";
-            if (product.getMissingRequiredInfo() != null && product.getMissingRequiredInfo() == 1) {
-                valueStr = "1";
-            }
-            cell.setCellValue(valueStr);
-        } else if (header.contains("审核状态")) {
-            setStringValue(cell, product.getAuditStatus());
-        }
-        // 兼容旧字段
-        else if (header.contains("描述") || header.contains("说明") || header.equalsIgnoreCase("description")) {
-            setStringValue(cell, product.getDescription());
-        } else if (header.contains("URL") || header.equalsIgnoreCase("image_url") || header.equalsIgnoreCase("imageUrl")) {
-            setStringValue(cell, product.getImageUrl());
-        } else {
-            // 未匹配的列，留空
-            cell.setCellValue("");
-        }
+        cached = new TemplateCache.CachedTemplate(template.getId(), merchantId, etag, content, headers);
+        templateCache.put(cached);
+        return cached;
     }
     
-    /**
-     * 设置字符串值
-     */
-    private void setStringValue(Cell cell, String value) {
-        if (value != null && !value.isEmpty()) {
-            cell.setCellValue(value);
-        } else {
-            cell.setCellValue("");
+    private XSSFWorkbook openTemplateWorkbook(InputStream content, com.meituan.product.entity.Template template,
+                                              Long merchantId) {
+        try {
+            return new XSSFWorkbook(content);
+        } catch (Exception e) {
+            log.error("模板文件读取失败，商家ID：{}，文件大小：{}，错误：{}", 
+                    merchantId, template.getFileSize(), e.getMessage(), e);
+            throw new TemplateFileException("模板文件损坏，请重新上传");
         }
     }
     
     /**
-     * 设置整数值
+     * 使用用户上传的模板生成美团上传文件
+     * 
+     * @param products 商品列表
+     * @param merchantId 商家ID
+     * @return Excel文件字节数组
      */
-    private void setIntegerValue(Cell cell, Integer value) {
-        if (value != null) {
-            cell.setCellValue(value);
-        } else {
-            cell.setCellValue("");
-        }
+    public byte[] generateMeituanTemplateFromUserTemplate(List<Product> products, Long merchantId) {
+        log.info("使用用户模板生成美团上传文件，商家ID：{}，商品数量：{}", merchantId, products.size());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeMeituanTemplateFromUserTemplate(products, merchantId, outputStream);
+        return outputStream.toByteArray();
     }
     
     /**
-     * 设置BigDecimal值
-     */
-    private void setBigDecimalValue(Cell cell, BigDecimal value) {
-        if (value != null) {
-            cell.setCellValue(value.doubleValue());
-        } else {
-            cell.setCellValue("");
-        }
-    }
-
-    /**
-     * 从类目属性中提取第一个品牌
-     * 格式如："品牌：小宁电器。类型：茶杯消毒柜。能效等级：一级能效。容量：10L。层数：3层及以上。安装方式：柜式。"
-     * 返回第一个品牌，如："小宁电器"
+     * 使用用户上传的模板生成美团上传文件，直接写入输出流
+     * 模板前7行（表头、说明和示例）原样保留，数据行通过SXSSF滑动窗口写出：
+     * 内存中最多保留rowAccessWindow行，其余行刷到压缩临时文件，堆占用与商品数量无关
+     * 
+     * @param products 商品（按顺序遍历一次，可以是游标等流式来源）
+     * @param merchantId 商家ID
+     * @param outputStream 输出流（不会被关闭）
+     * @return 写入的商品数量
      */
-    private String extractBrandFromAttributes(String productAttributes) {
-        if (productAttributes == null || productAttributes.trim().isEmpty()) {
-            return null;
-        }
-
+    public int writeMeituanTemplateFromUserTemplate(Iterable<Product> products, Long merchantId, OutputStream outputStream) {
+        // 1-2. 查找商家的美团模板，没有找到时抛出异常（移除默认模板回退）
+        com.meituan.product.entity.Template template = findMeituanTemplate(merchantId);
+        
+        // 3. 获取模板文件和列写入计划（优先使用缓存，文件变化或未缓存时从MinIO下载）
+        TemplateCache.CachedTemplate cachedTemplate = loadTemplate(template, merchantId);
+        
+        // 4. 读取模板文件（每次生成使用独立的工作簿）
+        XSSFWorkbook templateWorkbook = openTemplateWorkbook(cachedTemplate.openContent(), template, merchantId);
+        
+        SXSSFWorkbook streamingWorkbook = null;
         try {
-            // 使用正则表达式匹配第一个"品牌："或"品牌:"后面的内容（直到句号）
-            java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("品牌[：:]([^。]+)");
-            java.util.regex.Matcher matcher = pattern.matcher(productAttributes);
-
-            // 只取第一个匹配
-            if (matcher.find()) {
-                return matcher.group(1).trim();
+            Sheet templateSheet = templateWorkbook.getSheetAt(0);
+            
+            // 5. 删除模板中第8行之后的所有旧数据行（如果有的话）
+            int lastRowNum = templateSheet.getLastRowNum();
+            for (int i = lastRowNum; i >= DATA_START_ROW_INDEX; i--) {
+                Row row = templateSheet.getRow(i);
+                if (row != null) {
+                    templateSheet.removeRow(row);
+                }
             }
-
+            
+            // 6. 包装为SXSSF工作簿：前7行留在模板DOM中，之后新建的行只保留滑动窗口
+            streamingWorkbook = new SXSSFWorkbook(templateWorkbook, rowAccessWindow);
+            streamingWorkbook.setCompressTempFiles(true);
+            Sheet dataSheet = streamingWorkbook.getSheetAt(0);
+            
+            // 7. 从第8行开始填充商品数据（索引7），按预先编译的列写入计划逐列写入
+            MeituanColumnPlan columnPlan = cachedTemplate.getColumnPlan();
+            long fillStart = System.nanoTime();
+            int rowIndex = DATA_START_ROW_INDEX;
+            for (Product product : products) {
+                columnPlan.writeRow(dataSheet.createRow(rowIndex++), product);
+            }
+            long fillNanos = System.nanoTime() - fillStart;
+            
+            // 8. 写出（模板部分与临时文件中的数据行拼接为最终文件）
+            streamingWorkbook.write(outputStream);
+            
+            int productCount = rowIndex - DATA_START_ROW_INDEX;
+            long cellCount = (long) productCount * columnPlan.getColumnCount();
+            log.info("成功使用用户模板生成文件，保留前7行模板说明，从第8行开始填充{}条商品数据，{}个单元格，填充耗时：{}ms，{}格/秒",
+                    productCount, cellCount, fillNanos / 1_000_000,
+                    fillNanos > 0 ? cellCount * 1_000_000_000L / fillNanos : 0);
+            return productCount;
+            
+        } catch (TemplateFileException e) {
+            // 重新抛出模板文件异常
+            throw e;
         } catch (Exception e) {
-            log.debug("从类目属性提取品牌失败: {}", e.getMessage());
-        }
-
-        return null;
-    }
-
-    /**
-     * 设置布尔值
-     */
-    private void setBooleanValue(Cell cell, Boolean value) {
-        if (value != null) {
-            cell.setCellValue(value ? "是" : "否");
-        } else {
-            cell.setCellValue("");
-        }
-    }
-    
-    /**
-     * 设置LocalDate值
-     */
-    private void setLocalDateValue(Cell cell, java.time.LocalDate value) {
-        if (value != null) {
-            cell.setCellValue(value.toString());
-        } else {
-            cell.setCellValue("");
-        }
-    }
-    
-    /**
-     * 设置Integer类型的布尔值（0-否，1-是）
-     */
-    private void setIntegerBooleanValue(Cell cell, Integer value) {
-        if (value != null) {
-            cell.setCellValue(value == 1 ? "是" : "否");
-        } else {
-            cell.setCellValue("");
+            log.error("使用用户模板生成文件失败，商家ID：{}", merchantId, e);
+            throw new TemplateFileException("模板文件处理失败：" + e.getMessage());
+        } finally {
+            // 9. 删除临时文件并关闭资源
+            try {
+                if (streamingWorkbook != null) {
+                    streamingWorkbook.dispose();
+                    streamingWorkbook.close();
+                }
+                templateWorkbook.close();
+            } catch (Exception ignored) {
+            }
         }
     }
     
@@ -13,6 +13,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -45,10 +46,7 @@ public class FileStorageService {
     public GeneratedFile saveTemplateFile(String fileName, byte[] fileData, Long merchantId, Integer productCount) {
         try {
             // 确保目录存在
-            Path dirPath = Paths.get(templatePath);
-            if (!Files.exists(dirPath)) {
-                Files.createDirectories(dirPath);
-            }
+            ensureTemplateDirectory();
             
             // 保存文件
             String filePath = templatePath + fileName;
@@ -56,29 +54,74 @@ public class FileStorageService {
                 fos.write(fileData);
             }
             
-            // 记录到数据库
-            GeneratedFile file = new GeneratedFile();
-            file.setMerchantId(merchantId);
-            file.setFileName(fileName);
-            file.setFilePath(filePath);
-            file.setFileSize((long) fileData.length);
-            file.setFileType("TEMPLATE");
-            file.setProductCount(productCount);
-            file.setCreatedAt(LocalDateTime.now());
-            file.setExpiresAt(LocalDateTime.now().plusDays(retentionDays));
-            file.setDownloadCount(0);
-            
-            generatedFileMapper.insert(file);
-            
-            log.info("文件保存成功：{}，大小：{} 字节", fileName, fileData.length);
+            return recordTemplateFile(fileName, filePath, fileData.length, merchantId, productCount);
+        } catch (IOException e) {
+            log.error("保存文件失败：{}", fileName, e);
+            throw new RuntimeException("保存文件失败", e);
+        }
+    }
+    
+    /**
+     * 在模板目录下创建临时文件，供边生成边写入的导出使用
+     * 写入完成后通过 {@link #saveTemplateFile(String, Path, Long, Integer)} 登记，失败时调用方负责删除
+     * 
+     * @return 临时文件路径
+     * @throws IOException 创建失败
+     */
+    public Path createTempTemplateFile() throws IOException {
+        return Files.createTempFile(ensureTemplateDirectory(), "export-", ".tmp");
+    }
+    
+    /**
+     * 保存已写入临时文件的模板文件（移动到正式文件名，不再读入内存）
+     * 
+     * @param fileName 文件名
+     * @param tempFile 临时文件（须由 {@link #createTempTemplateFile()} 创建）
+     * @param merchantId 商家ID
+     * @param productCount 商品数量
+     * @return 文件记录
+     */
+    public GeneratedFile saveTemplateFile(String fileName, Path tempFile, Long merchantId, Integer productCount) {
+        try {
+            String filePath = templatePath + fileName;
+            Files.move(tempFile, Paths.get(filePath), StandardCopyOption.REPLACE_EXISTING);
             
-            return file;
+            return recordTemplateFile(fileName, filePath, Files.size(Paths.get(filePath)), merchantId, productCount);
         } catch (IOException e) {
             log.error("保存文件失败：{}", fileName, e);
             throw new RuntimeException("保存文件失败", e);
         }
     }
     
+    private Path ensureTemplateDirectory() throws IOException {
+        Path dirPath = Paths.get(templatePath);
+        if (!Files.exists(dirPath)) {
+            Files.createDirectories(dirPath);
+        }
+        return dirPath;
+    }
+    
+    private GeneratedFile recordTemplateFile(String fileName, String filePath, long fileSize,
+                                             Long merchantId, Integer productCount) {
+        // 记录到数据库
+        GeneratedFile file = new GeneratedFile();
+        file.setMerchantId(merchantId);
+        file.setFileName(fileName);
+        file.setFilePath(filePath);
+        file.setFileSize(fileSize);
+        file.setFileType("TEMPLATE");
+        file.setProductCount(productCount);
+        file.setCreatedAt(LocalDateTime.now());
+        file.setExpiresAt(LocalDateTime.now().plusDays(retentionDays));
+        file.setDownloadCount(0);
+        
+        generatedFileMapper.insert(file);
+        
+        log.info("文件保存成功：{}，大小：{} 字节", fileName, fileSize);
+        
+        return file;
+    }
+    
     /**
      * 获取最近生成的文件列表
      * 
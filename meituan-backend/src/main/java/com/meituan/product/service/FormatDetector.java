@@ -272,11 +272,39 @@ public class FormatDetector {
      * @return 列名到索引的映射（系统字段名 -> 列索引）
      */
     public Map<String, Integer> getMeituanColumnMapping(List<String> headers) {
+        return getMeituanColumnMapping(headers, null);
+    }
+    
+    /**
+     * 获取美团格式的列索引映射（优先使用商家的映射记忆）
+     * 
+     * @param headers Excel文件的表头行
+     * @param merchantId 商家ID（为null时不使用映射记忆）
+     * @return 列名到索引的映射（系统字段名 -> 列索引）
+     */
+    public Map<String, Integer> getMeituanColumnMapping(List<String> headers, Long merchantId) {
+        MappingResult mappingResult = buildAdaptiveMapping(headers, merchantId);
+        if (mappingResult != null) {
+            return mappingResult.getColumnIndexMap();
+        }
+        
+        // 回退到固定映射
+        return getFixedColumnMapping(headers);
+    }
+    
+    /**
+     * 使用自适应映射引擎构建美团格式的映射（优先使用商家的映射记忆）
+     * 
+     * @param headers Excel文件的表头行
+     * @param merchantId 商家ID（为null时不使用映射记忆）
+     * @return 有效的映射结果；自适应映射已禁用、失败或无效时返回null，由调用方回退到固定映射
+     */
+    public MappingResult buildAdaptiveMapping(List<String> headers, Long merchantId) {
         // 如果启用了自适应映射且引擎可用，使用自适应映射
         if (adaptiveMappingEnabled && adaptiveMappingEngine != null) {
             try {
                 log.info("使用自适应映射引擎构建列映射");
-                MappingResult mappingResult = adaptiveMappingEngine.buildMapping(headers, FormatType.MEITUAN);
+                MappingResult mappingResult = adaptiveMappingEngine.buildMapping(headers, FormatType.MEITUAN, merchantId);
                 
                 // 记录映射结果
                 log.info("自适应映射完成: 成功={}, 警告={}, 错误={}", 
@@ -286,7 +314,7 @@ public class FormatDetector {
                 
                 // 如果映射有效，返回映射结果
                 if (mappingResult.isValid()) {
-                    return mappingResult.getColumnIndexMap();
+                    return mappingResult;
                 } else {
                     log.warn("自适应映射无效，回退到固定映射");
                 }
@@ -296,9 +324,7 @@ public class FormatDetector {
         } else {
             log.info("使用固定映射（自适应映射已禁用或不可用）");
         }
-        
-        // 回退到固定映射
-        return getFixedColumnMapping(headers);
+        return null;
     }
     
     /**
@@ -308,7 +334,7 @@ public class FormatDetector {
      * @param headers Excel文件的表头行
      * @return 列名到索引的映射（系统字段名 -> 列索引）
      */
-    private Map<String, Integer> getFixedColumnMapping(List<String> headers) {
+    public Map<String, Integer> getFixedColumnMapping(List<String> headers) {
         Map<String, Integer> columnIndexMap = new HashMap<>();
         
         // 遍历表头，找到美团列名对应的索引
@@ -0,0 +1,93 @@
+package com.meituan.product.service;
+
+import com.meituan.product.dto.DiagnosticSample;
+import com.meituan.product.enums.ImportIssueType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 导入诊断
+ * 逐行解析中的非致命问题只累加计数，并为每类问题保留少量样例行附加到导入结果；
+ * 仅当开启详细模式（按任务设置）时才逐行写日志。可被并行解析线程同时调用
+ */
+@Slf4j
+public class ImportDiagnostics {
+
+    /**
+     * 每类问题保留的样例数
+     */
+    public static final int MAX_SAMPLES_PER_TYPE = 5;
+
+    private final boolean verbose;
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(ImportIssueType.values().length);
+    private final Map<ImportIssueType, List<DiagnosticSample>> samples = new EnumMap<>(ImportIssueType.class);
+
+    public ImportDiagnostics(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * 是否逐行输出详细日志
+     */
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    /**
+     * 记录一个问题
+     *
+     * @param type 问题类型
+     * @param rowNum 行号
+     * @param value 原始值（可为null）
+     */
+    public void record(ImportIssueType type, int rowNum, Object value) {
+        int count = counts.incrementAndGet(type.ordinal());
+        if (verbose) {
+            log.info("第{}行：{}，原始值：{}", rowNum, type.getDescription(), value);
+        }
+        if (count <= MAX_SAMPLES_PER_TYPE) {
+            DiagnosticSample sample = new DiagnosticSample(type.name(), rowNum,
+                    value != null ? type.getDescription() + "：" + value : type.getDescription());
+            synchronized (samples) {
+                samples.computeIfAbsent(type, key -> new ArrayList<>()).add(sample);
+            }
+        }
+    }
+
+    /**
+     * 获取各类问题的计数（只包含出现过的类型）
+     */
+    public Map<String, Integer> getCounts() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (ImportIssueType type : ImportIssueType.values()) {
+            int count = counts.get(type.ordinal());
+            if (count > 0) {
+                result.put(type.name(), count);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取样例行（按问题类型、行号排序）
+     */
+    public List<DiagnosticSample> getSamples() {
+        List<DiagnosticSample> result = new ArrayList<>();
+        synchronized (samples) {
+            // EnumMap按问题类型的声明顺序遍历；并行解析时同类样例按行号重新排序
+            for (List<DiagnosticSample> typeSamples : samples.values()) {
+                List<DiagnosticSample> sorted = new ArrayList<>(typeSamples);
+                sorted.sort(Comparator.comparing(DiagnosticSample::getRowNum));
+                result.addAll(sorted);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,221 @@
+package com.meituan.product.service;
+
+import com.meituan.product.dto.ImportJobStatus;
+import com.meituan.product.dto.ImportResult;
+import com.meituan.product.enums.ImportJobState;
+import com.meituan.product.exception.FileFormatException;
+import com.meituan.product.exception.TooManyJobsException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步导入任务服务
+ * 上传文件先落盘，随后在独立的有界线程池中执行导入流水线，请求线程立即返回任务ID；
+ * 任务状态保存在内存中，结束后保留一段时间供多个页面轮询
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportJobService {
+
+    private final ExcelService excelService;
+    private final ProductImportPipeline productImportPipeline;
+
+    @Value("${meituan.import.job.max-concurrent:2}")
+    private Integer maxConcurrentJobs;
+
+    @Value("${meituan.import.job.queue-capacity:10}")
+    private Integer jobQueueCapacity;
+
+    @Value("${meituan.import.job.retention-minutes:30}")
+    private Integer retentionMinutes;
+
+    private final ConcurrentHashMap<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor jobExecutor;
+
+    @PostConstruct
+    public void init() {
+        jobExecutor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(jobQueueCapacity), new CustomizableThreadFactory("import-job-"));
+        log.info("导入任务线程池初始化完成，并发任务数：{}，排队容量：{}", maxConcurrentJobs, jobQueueCapacity);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * 提交导入任务
+     *
+     * @param file Excel文件
+     * @param merchantId 商家ID
+     * @param debug 是否为该任务逐行输出详细诊断日志
+     * @return 任务状态（排队中）
+     */
+    public ImportJobStatus submit(MultipartFile file, Long merchantId, boolean debug) {
+        if (!excelService.isValidExcelFile(file)) {
+            throw new FileFormatException("不支持的文件格式，仅支持xlsx和xls格式");
+        }
+        evictExpiredJobs();
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString().replace("-", ""), merchantId,
+                file.getOriginalFilename(), excelService.getFileExtension(file), debug);
+
+        // 请求返回后MultipartFile的临时文件会被清理，先复制一份
+        long spoolStart = System.currentTimeMillis();
+        try {
+            job.file = Files.createTempFile("import-job-", "." + job.fileType);
+            file.transferTo(job.file);
+        } catch (IOException e) {
+            job.deleteFile();
+            log.error("保存导入文件失败", e);
+            throw new FileFormatException("读取Excel文件失败：" + e.getMessage(), e);
+        }
+        job.progress.addStageTime(ImportProgress.STAGE_SPOOL, System.currentTimeMillis() - spoolStart);
+
+        jobs.put(job.jobId, job);
+        try {
+            jobExecutor.execute(() -> execute(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.jobId);
+            job.deleteFile();
+            throw new TooManyJobsException("导入任务过多，请稍后再试");
+        }
+
+        log.info("导入任务已提交，任务ID：{}，商家ID：{}，文件名：{}", job.jobId, merchantId, job.fileName);
+        return job.toStatus();
+    }
+
+    /**
+     * 查询任务状态
+     *
+     * @param jobId 任务ID
+     * @param merchantId 商家ID（只能查询本商家提交的任务）
+     * @return 任务状态，不存在、已过期或不属于该商家时返回null
+     */
+    public ImportJobStatus getStatus(String jobId, Long merchantId) {
+        evictExpiredJobs();
+        ImportJob job = jobs.get(jobId);
+        if (job == null || !job.merchantId.equals(merchantId)) {
+            return null;
+        }
+        return job.toStatus();
+    }
+
+    private void execute(ImportJob job) {
+        job.startedTime = LocalDateTime.now();
+        job.progress.addStageTime(ImportProgress.STAGE_QUEUED, System.currentTimeMillis() - job.createdMillis);
+        job.state = ImportJobState.RUNNING;
+        log.info("开始执行导入任务，任务ID：{}，详细诊断日志：{}", job.jobId, job.debug);
+
+        try (InputStream inputStream = Files.newInputStream(job.file)) {
+            ImportResult result = productImportPipeline.run(inputStream, job.fileType, job.merchantId, job.progress,
+                    new ImportDiagnostics(job.debug));
+            result.setDuration(System.currentTimeMillis() - job.createdMillis);
+            job.result = result;
+            job.state = ImportJobState.COMPLETED;
+        } catch (Exception e) {
+            log.error("导入任务失败，任务ID：{}", job.jobId, e);
+            int remaining = job.progress.getRowsInserted();
+            job.errorMessage = remaining > 0
+                ? e.getMessage() + "（已写入的" + remaining + "条商品未能回滚，重试前请先清理）"
+                : e.getMessage();
+            job.state = ImportJobState.FAILED;
+        } finally {
+            job.finishedTime = LocalDateTime.now();
+            job.finishedMillis = System.currentTimeMillis();
+            job.deleteFile();
+        }
+    }
+
+    /**
+     * 清理已结束且超过保留时间的任务
+     */
+    private void evictExpiredJobs() {
+        long expireBefore = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retentionMinutes);
+        jobs.values().removeIf(job -> job.state.isFinished() && job.finishedMillis < expireBefore);
+    }
+
+    /**
+     * 导入任务
+     */
+    private static class ImportJob {
+
+        private final String jobId;
+        private final Long merchantId;
+        private final String fileName;
+        private final String fileType;
+        private final boolean debug;
+        private final ImportProgress progress = new ImportProgress();
+        private final LocalDateTime createdTime = LocalDateTime.now();
+        private final long createdMillis = System.currentTimeMillis();
+
+        private Path file;
+        private volatile ImportJobState state = ImportJobState.QUEUED;
+        private volatile LocalDateTime startedTime;
+        private volatile LocalDateTime finishedTime;
+        private volatile long finishedMillis;
+        private volatile ImportResult result;
+        private volatile String errorMessage;
+
+        ImportJob(String jobId, Long merchantId, String fileName, String fileType, boolean debug) {
+            this.jobId = jobId;
+            this.merchantId = merchantId;
+            this.fileName = fileName;
+            this.fileType = fileType;
+            this.debug = debug;
+        }
+
+        void deleteFile() {
+            if (file == null) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("删除临时文件失败：{}", file);
+            }
+        }
+
+        ImportJobStatus toStatus() {
+            ImportJobStatus status = new ImportJobStatus();
+            status.setJobId(jobId);
+            status.setMerchantId(merchantId);
+            status.setFileName(fileName);
+            status.setState(state);
+            status.setRowsParsed(progress.getRowsParsed());
+            status.setRowsInserted(progress.getRowsInserted());
+            status.setRowsFailed(progress.getRowsFailed());
+            status.setErrorCount(progress.getErrorCount());
+            status.setEstimatedRows(progress.getEstimatedRows() >= 0 ? progress.getEstimatedRows() : null);
+            status.setEtaMillis(state == ImportJobState.RUNNING ? progress.estimateRemainingMillis() : null);
+            status.setStageTimings(progress.getStageTimings());
+            status.setCreatedTime(createdTime);
+            status.setStartedTime(startedTime);
+            status.setFinishedTime(finishedTime);
+            status.setErrorMessage(errorMessage);
+            status.setResult(result);
+            return status;
+        }
+    }
+}
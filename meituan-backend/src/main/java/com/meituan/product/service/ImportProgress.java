@@ -0,0 +1,148 @@
+package com.meituan.product.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 导入进度
+ * 由导入流水线的解析线程和插入线程并发更新，状态查询线程随时读取
+ */
+public class ImportProgress {
+
+    /**
+     * 阶段：排队等待
+     */
+    public static final String STAGE_QUEUED = "queued";
+
+    /**
+     * 阶段：上传文件落盘
+     */
+    public static final String STAGE_SPOOL = "spool";
+
+    /**
+     * 阶段：解析（含等待插入队列的时间）
+     */
+    public static final String STAGE_PARSE = "parse";
+
+    /**
+     * 阶段：解析线程因插入队列已满而阻塞的时间
+     */
+    public static final String STAGE_BACKPRESSURE = "backpressure";
+
+    /**
+     * 阶段：数据库插入（各插入线程耗时之和）
+     */
+    public static final String STAGE_INSERT = "insert";
+
+    /**
+     * 阶段：解析结束后等待剩余批次插入完成
+     */
+    public static final String STAGE_DRAIN = "drain";
+
+    private final AtomicInteger rowsParsed = new AtomicInteger();
+    private final AtomicInteger rowsInserted = new AtomicInteger();
+    private final AtomicInteger rowsFailed = new AtomicInteger();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private final Map<String, AtomicLong> stageTimings = new ConcurrentHashMap<>();
+
+    private volatile int estimatedRows = -1;
+    private volatile long startTime;
+
+    /**
+     * 标记导入开始（用于计算预计剩余时间）
+     */
+    public void start() {
+        this.startTime = System.currentTimeMillis();
+    }
+
+    public void setEstimatedRows(int estimatedRows) {
+        this.estimatedRows = estimatedRows;
+    }
+
+    public void rowParsed() {
+        rowsParsed.incrementAndGet();
+    }
+
+    public void rowsInserted(int count) {
+        rowsInserted.addAndGet(count);
+    }
+
+    /**
+     * 导入失败后回滚了已写入的商品
+     *
+     * @param count 删除的商品数
+     */
+    public void rowsRolledBack(int count) {
+        rowsInserted.addAndGet(-count);
+    }
+
+    public void rowsFailed(int count, int errors) {
+        rowsFailed.addAndGet(count);
+        errorCount.addAndGet(errors);
+    }
+
+    /**
+     * 累加阶段耗时
+     *
+     * @param stage 阶段名称
+     * @param millis 耗时（毫秒）
+     */
+    public void addStageTime(String stage, long millis) {
+        stageTimings.computeIfAbsent(stage, key -> new AtomicLong()).addAndGet(millis);
+    }
+
+    public int getRowsParsed() {
+        return rowsParsed.get();
+    }
+
+    public int getRowsInserted() {
+        return rowsInserted.get();
+    }
+
+    public int getRowsFailed() {
+        return rowsFailed.get();
+    }
+
+    public int getErrorCount() {
+        return errorCount.get();
+    }
+
+    public int getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    /**
+     * 获取各阶段耗时快照（毫秒）
+     */
+    public Map<String, Long> getStageTimings() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        for (String stage : new String[]{STAGE_QUEUED, STAGE_SPOOL, STAGE_PARSE, STAGE_BACKPRESSURE,
+                STAGE_INSERT, STAGE_DRAIN}) {
+            AtomicLong value = stageTimings.get(stage);
+            if (value != null) {
+                snapshot.put(stage, value.get());
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 按已处理行数的速率估算剩余时间
+     *
+     * @return 预计剩余毫秒数，无法估算时返回null
+     */
+    public Long estimateRemainingMillis() {
+        int processed = rowsInserted.get() + rowsFailed.get();
+        int total = estimatedRows;
+        if (startTime == 0 || total <= 0 || processed <= 0) {
+            return null;
+        }
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        int remaining = Math.max(total - processed, 0);
+        return elapsed * remaining / processed;
+    }
+}
@@ -0,0 +1,32 @@
+package com.meituan.product.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * 按访问顺序排列的LinkedHashMap的LRU淘汰
+ * 模板缓存和映射结果缓存共用，调用方负责同步
+ */
+final class LruEviction {
+
+    private LruEviction() {
+    }
+
+    /**
+     * 淘汰最久未使用的条目，直到条目数不超过容量
+     *
+     * @param cache 按访问顺序排列的缓存（accessOrder为true）
+     * @param capacity 容量
+     * @return 淘汰的条目数
+     */
+    static int evictEldest(LinkedHashMap<?, ?> cache, int capacity) {
+        int evicted = 0;
+        Iterator<?> iterator = cache.keySet().iterator();
+        while (cache.size() > capacity && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evicted++;
+        }
+        return evicted;
+    }
+}
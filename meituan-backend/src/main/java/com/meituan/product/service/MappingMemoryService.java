@@ -0,0 +1,239 @@
+package com.meituan.product.service;
+
+import com.meituan.product.dto.ColumnMapping;
+import com.meituan.product.dto.MappingResult;
+import com.meituan.product.entity.MappingMemory;
+import com.meituan.product.enums.MatchType;
+import com.meituan.product.mapper.MappingMemoryMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 映射记忆服务
+ * 商家导入成功后记录可靠的表头 -> 字段映射（持久化到t_mapping_memory），
+ * 进程内按商家缓存为不可变快照；自适应映射先查记忆，已知表头无需再走匹配级联
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MappingMemoryService {
+
+    // 列名长度上限（与表字段长度一致）
+    private static final int MAX_COLUMN_NAME_LENGTH = 255;
+
+    private final MappingMemoryMapper mappingMemoryMapper;
+
+    @Value("${meituan.adaptive-mapping.memory.enabled:true}")
+    private boolean enabled;
+
+    // 关键词、模糊匹配达到该置信度才记住
+    @Value("${meituan.adaptive-mapping.memory.min-confidence:0.9}")
+    private double minConfidence;
+
+    // 商家ID -> 映射记忆快照
+    private final ConcurrentHashMap<Long, MerchantMemory> memories = new ConcurrentHashMap<>();
+
+    // 快照版本序号（全局递增，快照内容变化时分配新版本）
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    /**
+     * 获取商家的映射记忆
+     * 首次访问时从数据库加载；加载失败时返回空记忆且不缓存，下次重试
+     *
+     * @param merchantId 商家ID（为null时返回空记忆）
+     * @return 映射记忆快照
+     */
+    public MerchantMemory getMemory(Long merchantId) {
+        if (!enabled || merchantId == null) {
+            return MerchantMemory.EMPTY;
+        }
+
+        MerchantMemory memory = memories.get(merchantId);
+        if (memory != null) {
+            return memory;
+        }
+
+        try {
+            Map<String, String> fields = new HashMap<>();
+            for (MappingMemory item : mappingMemoryMapper.selectByMerchantId(merchantId)) {
+                fields.put(item.getColumnName(), item.getFieldName());
+            }
+            MerchantMemory loaded = new MerchantMemory(fields, versionSequence.incrementAndGet());
+            MerchantMemory existing = memories.putIfAbsent(merchantId, loaded);
+            log.info("加载映射记忆，商家ID：{}，记忆列数：{}", merchantId, fields.size());
+            return existing != null ? existing : loaded;
+        } catch (Exception e) {
+            log.warn("加载映射记忆失败，商家ID：{}，错误：{}", merchantId, e.getMessage());
+            return MerchantMemory.EMPTY;
+        }
+    }
+
+    /**
+     * 记录导入成功时使用的映射
+     * 只记住可靠的匹配：精确/标准化匹配、手动指定、已有记忆，或置信度不低于阈值的匹配；
+     * 关键词、模糊匹配的猜测和固定映射回退不写入记忆，下次导入仍走匹配级联
+     *
+     * @param merchantId 商家ID
+     * @param mappingResult 自适应映射结果（回退到固定映射时为null）
+     */
+    public void recordMappings(Long merchantId, MappingResult mappingResult) {
+        if (mappingResult == null) {
+            return;
+        }
+
+        // 同一列映射到多个字段时记住置信度最高的
+        Map<String, ColumnMapping> reliable = new HashMap<>();
+        for (ColumnMapping mapping : mappingResult.getMappings().values()) {
+            if (isReliable(mapping)) {
+                reliable.merge(mapping.getColumnName(), mapping,
+                    (a, b) -> b.getConfidence() > a.getConfidence() ? b : a);
+            }
+        }
+        Map<String, String> confirmed = new HashMap<>();
+        reliable.forEach((columnName, mapping) -> confirmed.put(columnName, mapping.getFieldName()));
+        saveMappings(merchantId, confirmed);
+    }
+
+    /**
+     * 记录用户手动确认的映射
+     *
+     * @param merchantId 商家ID
+     * @param columnFields 表头列名 -> 系统字段名
+     */
+    public void confirmMappings(Long merchantId, Map<String, String> columnFields) {
+        if (columnFields == null) {
+            return;
+        }
+        saveMappings(merchantId, new HashMap<>(columnFields));
+    }
+
+    /**
+     * 删除商家某一列的映射记忆
+     *
+     * @param merchantId 商家ID
+     * @param columnName 表头列名
+     * @return 删除的记录数
+     */
+    public int forgetColumn(Long merchantId, String columnName) {
+        int deleted = mappingMemoryMapper.deleteByMerchantAndColumn(merchantId, columnName);
+        // 新快照分配新版本，按旧版本缓存的映射结果不再命中
+        memories.computeIfPresent(merchantId, (id, current) -> {
+            if (!current.fields.containsKey(columnName)) {
+                return current;
+            }
+            Map<String, String> fields = new HashMap<>(current.fields);
+            fields.remove(columnName);
+            return new MerchantMemory(fields, versionSequence.incrementAndGet());
+        });
+        log.info("删除映射记忆，商家ID：{}，列名：{}，删除记录数：{}", merchantId, columnName, deleted);
+        return deleted;
+    }
+
+    /**
+     * 清空商家的全部映射记忆
+     *
+     * @param merchantId 商家ID
+     * @return 删除的记录数
+     */
+    public int resetMemory(Long merchantId) {
+        int deleted = mappingMemoryMapper.deleteByMerchantId(merchantId);
+        memories.remove(merchantId);
+        log.info("清空映射记忆，商家ID：{}，删除记录数：{}", merchantId, deleted);
+        return deleted;
+    }
+
+    private boolean isReliable(ColumnMapping mapping) {
+        MatchType matchType = mapping.getMatchType();
+        return matchType == MatchType.EXACT || matchType == MatchType.NORMALIZED
+            || matchType == MatchType.MANUAL || matchType == MatchType.HISTORY
+            || mapping.getConfidence() >= minConfidence;
+    }
+
+    private void saveMappings(Long merchantId, Map<String, String> confirmed) {
+        if (!enabled || merchantId == null) {
+            return;
+        }
+        confirmed.keySet().removeIf(columnName ->
+            columnName == null || columnName.trim().isEmpty() || columnName.length() > MAX_COLUMN_NAME_LENGTH);
+        confirmed.values().removeIf(Objects::isNull);
+        if (confirmed.isEmpty()) {
+            return;
+        }
+
+        List<MappingMemory> items = new ArrayList<>(confirmed.size());
+        for (Map.Entry<String, String> entry : confirmed.entrySet()) {
+            MappingMemory item = new MappingMemory();
+            item.setColumnName(entry.getKey());
+            item.setFieldName(entry.getValue());
+            items.add(item);
+        }
+
+        try {
+            mappingMemoryMapper.upsertBatch(merchantId, items);
+        } catch (Exception e) {
+            // 记忆只是加速手段，写入失败不影响导入结果
+            log.warn("保存映射记忆失败，商家ID：{}，错误：{}", merchantId, e.getMessage());
+            return;
+        }
+
+        // 尚未加载的商家下次访问时从数据库完整加载；内容没有变化时保留原快照，下游按版本缓存的结果继续有效
+        memories.computeIfPresent(merchantId, (id, current) -> {
+            Map<String, String> fields = new HashMap<>(current.fields);
+            fields.putAll(confirmed);
+            if (current.fields.equals(fields)) {
+                return current;
+            }
+            return new MerchantMemory(fields, versionSequence.incrementAndGet());
+        });
+        log.info("记录映射记忆，商家ID：{}，确认列数：{}", merchantId, confirmed.size());
+    }
+
+    /**
+     * 获取已缓存记忆的商家数
+     *
+     * @return 商家数
+     */
+    public int getCachedMerchantCount() {
+        return memories.size();
+    }
+
+    /**
+     * 商家映射记忆快照（不可变）
+     */
+    public static final class MerchantMemory {
+
+        static final MerchantMemory EMPTY = new MerchantMemory(Collections.emptyMap(), 0L);
+
+        private final Map<String, String> fields;
+        private final long version;
+
+        private MerchantMemory(Map<String, String> fields, long version) {
+            this.fields = Collections.unmodifiableMap(fields);
+            this.version = version;
+        }
+
+        /**
+         * 查找列名记住的字段
+         *
+         * @param columnName 表头列名
+         * @return 系统字段名，没有记忆时返回null
+         */
+        public String getFieldName(String columnName) {
+            return fields.get(columnName);
+        }
+
+        public boolean isEmpty() {
+            return fields.isEmpty();
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.meituan.product.service;
+
+import com.meituan.product.dto.FieldMappingRule;
+
+import java.util.*;
+
+/**
+ * 映射规则索引（不可变）
+ * 在规则加载时一次性完成标准化：精确匹配和同义词建立哈希索引，
+ * 全部规则的关键词编译为一个Aho-Corasick自动机，匹配一个列名只需一次查表加一次扫描
+ */
+public final class MappingRuleIndex {
+
+    private static final int[] NO_KEYWORDS = new int[0];
+    private static final FuzzyCandidate[] NO_CANDIDATES = new FuzzyCandidate[0];
+
+    // 原始精确匹配串 -> 字段名集合
+    private final Map<String, Set<String>> exactIndex = new HashMap<>();
+
+    // 标准化后的精确匹配串和同义词 -> 字段名集合
+    private final Map<String, Set<String>> normalizedIndex = new HashMap<>();
+
+    // 字段名 -> 规则的关键词编号
+    private final Map<String, RuleKeywords> ruleKeywords = new HashMap<>();
+
+    // 字段名 -> 标准化后的模糊匹配候选（精确匹配串在前，同义词在后）
+    private final Map<String, FuzzyCandidate[]> fuzzyCandidates = new HashMap<>();
+
+    // 最长候选串长度，用于分配编辑距离的滚动行
+    private int maxCandidateLength;
+
+    private final KeywordAutomaton automaton;
+
+    /**
+     * 根据规则集合构建索引
+     *
+     * @param rules 映射规则（字段名 -> 规则）
+     */
+    public MappingRuleIndex(Map<String, FieldMappingRule> rules) {
+        Map<String, Integer> keywordIds = new LinkedHashMap<>();
+
+        for (FieldMappingRule rule : rules.values()) {
+            String fieldName = rule.getFieldName();
+            List<FuzzyCandidate> candidates = new ArrayList<>();
+
+            if (rule.getExactMatches() != null) {
+                for (String exactMatch : rule.getExactMatches()) {
+                    if (exactMatch == null) {
+                        continue;
+                    }
+                    exactIndex.computeIfAbsent(exactMatch, k -> new HashSet<>()).add(fieldName);
+                    String normalized = SemanticMatcher.normalize(exactMatch);
+                    normalizedIndex.computeIfAbsent(normalized, k -> new HashSet<>()).add(fieldName);
+                    candidates.add(new FuzzyCandidate(normalized));
+                }
+            }
+            if (rule.getSynonyms() != null) {
+                for (String synonym : rule.getSynonyms()) {
+                    String normalized = SemanticMatcher.normalize(synonym);
+                    normalizedIndex.computeIfAbsent(normalized, k -> new HashSet<>()).add(fieldName);
+                    candidates.add(new FuzzyCandidate(normalized));
+                }
+            }
+            for (FuzzyCandidate candidate : candidates) {
+                maxCandidateLength = Math.max(maxCandidateLength, candidate.text.length());
+            }
+            fuzzyCandidates.put(fieldName, candidates.toArray(NO_CANDIDATES));
+
+            int[] keywords = NO_KEYWORDS;
+            if (rule.getKeywords() != null && !rule.getKeywords().isEmpty()) {
+                keywords = toKeywordIds(rule.getKeywords(), keywordIds);
+            }
+            int[][] combinations = new int[0][];
+            if (rule.getKeywordCombinations() != null) {
+                combinations = new int[rule.getKeywordCombinations().size()][];
+                for (int i = 0; i < combinations.length; i++) {
+                    combinations[i] = toKeywordIds(rule.getKeywordCombinations().get(i), keywordIds);
+                }
+            }
+            ruleKeywords.put(fieldName, new RuleKeywords(keywords, combinations));
+        }
+
+        automaton = new KeywordAutomaton(keywordIds);
+    }
+
+    private static int[] toKeywordIds(List<String> keywords, Map<String, Integer> keywordIds) {
+        int[] ids = new int[keywords.size()];
+        for (int i = 0; i < ids.length; i++) {
+            String normalized = SemanticMatcher.normalize(keywords.get(i));
+            Integer id = keywordIds.get(normalized);
+            if (id == null) {
+                id = keywordIds.size();
+                keywordIds.put(normalized, id);
+            }
+            ids[i] = id;
+        }
+        return ids;
+    }
+
+    /**
+     * 分析列名：标准化一次、查一次哈希、扫描一遍自动机
+     *
+     * @param columnName 列名
+     * @return 列名分析结果
+     */
+    public ColumnProfile profile(String columnName) {
+        String normalized = SemanticMatcher.normalize(columnName);
+        return new ColumnProfile(
+            columnName,
+            normalized,
+            exactIndex.getOrDefault(columnName, Collections.emptySet()),
+            normalizedIndex.getOrDefault(normalized, Collections.emptySet()),
+            automaton.scan(normalized));
+    }
+
+    /**
+     * 获取规则的关键词编号，规则不在索引中时返回null
+     */
+    RuleKeywords getRuleKeywords(String fieldName) {
+        return ruleKeywords.get(fieldName);
+    }
+
+    /**
+     * 获取规则的模糊匹配候选，规则不在索引中时返回null
+     */
+    FuzzyCandidate[] getFuzzyCandidates(String fieldName) {
+        return fuzzyCandidates.get(fieldName);
+    }
+
+    /**
+     * 计算字符二元组（两个字符编码为一个int），排序后返回，便于归并求交集
+     */
+    static int[] bigrams(String text) {
+        if (text.length() < 2) {
+            return NO_KEYWORDS;
+        }
+        int[] bigrams = new int[text.length() - 1];
+        for (int i = 0; i < bigrams.length; i++) {
+            bigrams[i] = (text.charAt(i) << 16) | text.charAt(i + 1);
+        }
+        Arrays.sort(bigrams);
+        return bigrams;
+    }
+
+    /**
+     * 模糊匹配候选（标准化文本及其二元组）
+     */
+    static final class FuzzyCandidate {
+
+        final String text;
+        final int[] bigrams;
+
+        FuzzyCandidate(String text) {
+            this.text = text;
+            this.bigrams = bigrams(text);
+        }
+    }
+
+    /**
+     * 列名分析结果
+     * 同一列名与各规则比较时共用，编辑距离的滚动行也挂在这里复用（非线程安全）
+     */
+    public final class ColumnProfile {
+
+        private final String columnName;
+        private final String normalized;
+        private final Set<String> exactFields;
+        private final Set<String> normalizedFields;
+        private final boolean[] keywordHits;
+        private int[] bigrams;
+        private int[] previousRow;
+        private int[] currentRow;
+
+        private ColumnProfile(String columnName, String normalized, Set<String> exactFields,
+                              Set<String> normalizedFields, boolean[] keywordHits) {
+            this.columnName = columnName;
+            this.normalized = normalized;
+            this.exactFields = exactFields;
+            this.normalizedFields = normalizedFields;
+            this.keywordHits = keywordHits;
+        }
+
+        public String getColumnName() {
+            return columnName;
+        }
+
+        public String getNormalized() {
+            return normalized;
+        }
+
+        boolean isExact(String fieldName) {
+            return exactFields.contains(fieldName);
+        }
+
+        /**
+         * 列名原文精确匹配的字段（可能多个，如"文字详情"）
+         */
+        Set<String> getExactFields() {
+            return exactFields;
+        }
+
+        boolean isNormalized(String fieldName) {
+            return normalizedFields.contains(fieldName);
+        }
+
+        boolean hasKeyword(int keywordId) {
+            return keywordHits[keywordId];
+        }
+
+        int[] getBigrams() {
+            if (bigrams == null) {
+                bigrams = MappingRuleIndex.bigrams(normalized);
+            }
+            return bigrams;
+        }
+
+        int[] getPreviousRow() {
+            if (previousRow == null) {
+                previousRow = new int[maxCandidateLength + 1];
+            }
+            return previousRow;
+        }
+
+        int[] getCurrentRow() {
+            if (currentRow == null) {
+                currentRow = new int[maxCandidateLength + 1];
+            }
+            return currentRow;
+        }
+
+        MappingRuleIndex getIndex() {
+            return MappingRuleIndex.this;
+        }
+    }
+
+    /**
+     * 规则的关键词编号
+     */
+    static final class RuleKeywords {
+
+        final int[] keywords;
+        final int[][] combinations;
+
+        RuleKeywords(int[] keywords, int[][] combinations) {
+            this.keywords = keywords;
+            this.combinations = combinations;
+        }
+    }
+
+    /**
+     * 关键词自动机（Aho-Corasick）
+     * 节点的转移按字符排序存放在数组中，扫描时二分查找，不产生装箱对象
+     */
+    private static final class KeywordAutomaton {
+
+        private final char[][] transitionChars;
+        private final int[][] transitionTargets;
+        private final int[] failure;
+        private final int[][] outputs;
+        private final int keywordCount;
+        private final int[] emptyKeywords;
+
+        KeywordAutomaton(Map<String, Integer> keywordIds) {
+            keywordCount = keywordIds.size();
+
+            List<TreeMap<Character, Integer>> gotoTable = new ArrayList<>();
+            List<List<Integer>> outputTable = new ArrayList<>();
+            gotoTable.add(new TreeMap<>());
+            outputTable.add(new ArrayList<>());
+            List<Integer> empty = new ArrayList<>();
+
+            // 1. 构建字典树
+            for (Map.Entry<String, Integer> entry : keywordIds.entrySet()) {
+                String keyword = entry.getKey();
+                if (keyword.isEmpty()) {
+                    // 空关键词被任何列名包含
+                    empty.add(entry.getValue());
+                    continue;
+                }
+                int node = 0;
+                for (int i = 0; i < keyword.length(); i++) {
+                    Integer next = gotoTable.get(node).get(keyword.charAt(i));
+                    if (next == null) {
+                        next = gotoTable.size();
+                        gotoTable.add(new TreeMap<>());
+                        outputTable.add(new ArrayList<>());
+                        gotoTable.get(node).put(keyword.charAt(i), next);
+                    }
+                    node = next;
+                }
+                outputTable.get(node).add(entry.getValue());
+            }
+
+            int nodeCount = gotoTable.size();
+            transitionChars = new char[nodeCount][];
+            transitionTargets = new int[nodeCount][];
+            for (int node = 0; node < nodeCount; node++) {
+                TreeMap<Character, Integer> transitions = gotoTable.get(node);
+                transitionChars[node] = new char[transitions.size()];
+                transitionTargets[node] = new int[transitions.size()];
+                int i = 0;
+                for (Map.Entry<Character, Integer> transition : transitions.entrySet()) {
+                    transitionChars[node][i] = transition.getKey();
+                    transitionTargets[node][i] = transition.getValue();
+                    i++;
+                }
+            }
+
+            // 2. 广度优先计算失败指针，并合并后缀节点的输出
+            failure = new int[nodeCount];
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int target : transitionTargets[0]) {
+                queue.add(target);
+            }
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                for (int i = 0; i < transitionChars[node].length; i++) {
+                    char c = transitionChars[node][i];
+                    int child = transitionTargets[node][i];
+                    int fallback = failure[node];
+                    while (fallback != 0 && next(fallback, c) < 0) {
+                        fallback = failure[fallback];
+                    }
+                    int target = next(fallback, c);
+                    failure[child] = target >= 0 && target != child ? target : 0;
+                    outputTable.get(child).addAll(outputTable.get(failure[child]));
+                    queue.add(child);
+                }
+            }
+
+            outputs = new int[nodeCount][];
+            for (int node = 0; node < nodeCount; node++) {
+                outputs[node] = outputTable.get(node).stream().mapToInt(Integer::intValue).toArray();
+            }
+            emptyKeywords = empty.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private int next(int node, char c) {
+            int i = Arrays.binarySearch(transitionChars[node], c);
+            return i >= 0 ? transitionTargets[node][i] : -1;
+        }
+
+        /**
+         * 扫描文本，返回每个关键词是否出现
+         */
+        boolean[] scan(String text) {
+            boolean[] hits = new boolean[keywordCount];
+            for (int id : emptyKeywords) {
+                hits[id] = true;
+            }
+            int node = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                int target = next(node, c);
+                while (target < 0 && node != 0) {
+                    node = failure[node];
+                    target = next(node, c);
+                }
+                node = target >= 0 ? target : 0;
+                for (int id : outputs[node]) {
+                    hits[id] = true;
+                }
+            }
+            return hits;
+        }
+    }
+}
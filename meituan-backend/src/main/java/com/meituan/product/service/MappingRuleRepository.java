@@ -4,17 +4,26 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.meituan.product.dto.FieldMappingRule;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.*;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 映射规则仓库
- * 负责加载和管理字段映射规则配置
+ * 负责加载和管理字段映射规则配置；
+ * 规则以不可变快照（规则、必需规则、索引、版本号）通过原子引用发布，重新加载时整体替换，
+ * 正在进行的映射构建继续使用旧快照，读取方无需加锁。配置文件位于文件系统时可监听变更自动重新加载
  */
 @Slf4j
 @Component
@@ -22,14 +31,28 @@ public class MappingRuleRepository {
     
     private static final String DEFAULT_CONFIG_PATH = "mapping-rules.json";
     
+    // 文件变更后等待的时间，合并编辑器保存时产生的多次事件
+    private static final long WATCH_DEBOUNCE_MILLIS = 500;
+    
     private final ObjectMapper objectMapper;
     
-    // 缓存的映射规则（字段名 -> 规则）
-    private Map<String, FieldMappingRule> rulesCache;
+    // 当前规则快照
+    private final AtomicReference<RuleSnapshot> snapshot = new AtomicReference<>();
+    
+    // 规则版本号，每次发布快照时递增，供下游缓存判断规则是否变化
+    private final AtomicLong versionSequence = new AtomicLong();
     
-    // 配置文件路径
+    // 配置文件路径（支持classpath:和file:前缀，无前缀时从classpath加载）
+    @Value("${meituan.adaptive-mapping.config-file:" + DEFAULT_CONFIG_PATH + "}")
     private String configPath = DEFAULT_CONFIG_PATH;
     
+    // 是否监听配置文件变更
+    @Value("${meituan.adaptive-mapping.watch:true}")
+    private boolean watchEnabled;
+    
+    private WatchService watchService;
+    private Thread watchThread;
+    
     public MappingRuleRepository(ObjectMapper objectMapper) {
         this.objectMapper = objectMapper;
     }
@@ -40,24 +63,65 @@ public class MappingRuleRepository {
     @PostConstruct
     public void init() {
         loadRules();
+        if (watchEnabled) {
+            startWatcher();
+        }
+    }
+    
+    /**
+     * 停止监听配置文件
+     */
+    @PreDestroy
+    public void destroy() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("关闭映射规则文件监听失败: {}", e.getMessage());
+            }
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
     }
     
     /**
-     * 加载映射规则
+     * 加载映射规则并发布新快照
+     * 配置读取失败时：首次加载使用默认规则，之后保留当前快照不变
      * 
      * @return 映射规则集合（字段名 -> 规则）
      */
-    public Map<String, FieldMappingRule> loadRules() {
+    public synchronized Map<String, FieldMappingRule> loadRules() {
+        Map<String, FieldMappingRule> rules = readRules();
+        RuleSnapshot current = snapshot.get();
+        if (rules == null) {
+            if (current != null) {
+                log.warn("映射规则加载失败，继续使用版本 {} 的规则", current.getVersion());
+                return current.getRules();
+            }
+            rules = createDefaultRules();
+        }
+        
+        RuleSnapshot published = new RuleSnapshot(rules, versionSequence.incrementAndGet());
+        snapshot.set(published);
+        log.info("映射规则版本: {}，规则数: {}", published.getVersion(), rules.size());
+        return published.getRules();
+    }
+    
+    /**
+     * 读取映射规则配置
+     * 
+     * @return 映射规则集合，读取失败时返回null
+     */
+    private Map<String, FieldMappingRule> readRules() {
         log.info("开始加载映射规则配置: {}", configPath);
         
         try {
-            // 尝试从classpath加载配置文件
-            ClassPathResource resource = new ClassPathResource(configPath);
+            Resource resource = new DefaultResourceLoader().getResource(configPath);
             
             if (!resource.exists()) {
-                log.warn("配置文件不存在: {}，使用默认规则", configPath);
-                rulesCache = createDefaultRules();
-                return rulesCache;
+                log.warn("配置文件不存在: {}", configPath);
+                return null;
             }
             
             try (InputStream inputStream = resource.getInputStream()) {
@@ -65,9 +129,8 @@ public class MappingRuleRepository {
                 
                 // 验证配置文件格式
                 if (!rootNode.has("rules")) {
-                    log.error("配置文件格式错误：缺少'rules'节点，使用默认规则");
-                    rulesCache = createDefaultRules();
-                    return rulesCache;
+                    log.error("配置文件格式错误：缺少'rules'节点");
+                    return null;
                 }
                 
                 // 解析规则
@@ -90,14 +153,12 @@ public class MappingRuleRepository {
                 }
                 
                 log.info("成功加载 {} 个映射规则", rules.size());
-                rulesCache = rules;
                 return rules;
                 
             }
         } catch (IOException e) {
-            log.error("加载配置文件失败: {}, 错误: {}, 使用默认规则", configPath, e.getMessage());
-            rulesCache = createDefaultRules();
-            return rulesCache;
+            log.error("加载配置文件失败: {}, 错误: {}", configPath, e.getMessage());
+            return null;
         }
     }
     
@@ -149,10 +210,47 @@ public class MappingRuleRepository {
     
     /**
      * 重新加载规则（热加载）
+     * 新快照构建完成后才替换旧快照，不阻塞正在进行的映射构建
+     * 
+     * @return 重新加载后的规则快照（加载失败时为原快照）
      */
-    public void reloadRules() {
+    public RuleSnapshot reloadRules() {
         log.info("重新加载映射规则");
         loadRules();
+        return getSnapshot();
+    }
+    
+    /**
+     * 获取当前规则快照
+     * 同一次映射构建应只获取一次快照，保证规则、索引和版本号一致
+     * 
+     * @return 规则快照
+     */
+    public RuleSnapshot getSnapshot() {
+        RuleSnapshot current = snapshot.get();
+        if (current == null) {
+            loadRules();
+            current = snapshot.get();
+        }
+        return current;
+    }
+    
+    /**
+     * 获取当前规则版本号
+     * 
+     * @return 规则版本号（每次加载规则后递增）
+     */
+    public long getRulesVersion() {
+        return getSnapshot().getVersion();
+    }
+    
+    /**
+     * 获取规则索引
+     * 
+     * @return 与当前规则对应的索引
+     */
+    public MappingRuleIndex getRuleIndex() {
+        return getSnapshot().getIndex();
     }
     
     /**
@@ -162,10 +260,7 @@ public class MappingRuleRepository {
      * @return 映射规则，如果不存在返回null
      */
     public FieldMappingRule getRule(String fieldName) {
-        if (rulesCache == null) {
-            loadRules();
-        }
-        return rulesCache.get(fieldName);
+        return getSnapshot().getRules().get(fieldName);
     }
     
     /**
@@ -174,10 +269,7 @@ public class MappingRuleRepository {
      * @return 所有映射规则
      */
     public Map<String, FieldMappingRule> getAllRules() {
-        if (rulesCache == null) {
-            loadRules();
-        }
-        return new HashMap<>(rulesCache);
+        return new HashMap<>(getSnapshot().getRules());
     }
     
     /**
@@ -186,17 +278,7 @@ public class MappingRuleRepository {
      * @return 必需字段的规则列表
      */
     public List<FieldMappingRule> getRequiredRules() {
-        if (rulesCache == null) {
-            loadRules();
-        }
-        
-        List<FieldMappingRule> requiredRules = new ArrayList<>();
-        for (FieldMappingRule rule : rulesCache.values()) {
-            if (rule.isRequired()) {
-                requiredRules.add(rule);
-            }
-        }
-        return requiredRules;
+        return new ArrayList<>(getSnapshot().getRequiredRules());
     }
     
     /**
@@ -208,6 +290,68 @@ public class MappingRuleRepository {
         this.configPath = configPath;
     }
     
+    /**
+     * 监听配置文件所在目录，文件变更后重新加载
+     * 配置打包在jar中（不是文件系统上的文件）时不监听
+     */
+    private void startWatcher() {
+        Path file;
+        try {
+            Resource resource = new DefaultResourceLoader().getResource(configPath);
+            if (!resource.exists() || !resource.isFile()) {
+                log.info("映射规则配置不在文件系统上，不监听变更: {}", configPath);
+                return;
+            }
+            file = resource.getFile().toPath().toAbsolutePath();
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+        } catch (IOException e) {
+            log.warn("无法监听映射规则配置文件: {}, 错误: {}", configPath, e.getMessage());
+            return;
+        }
+        
+        Path fileName = file.getFileName();
+        watchThread = new Thread(() -> watchLoop(fileName), "mapping-rules-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        log.info("开始监听映射规则配置文件: {}", file);
+    }
+    
+    private void watchLoop(Path fileName) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (fileName.equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+                
+                // 等待写入完成并丢弃这段时间内的重复事件
+                Thread.sleep(WATCH_DEBOUNCE_MILLIS);
+                WatchKey pending = watchService.poll();
+                if (pending != null) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+                log.info("检测到映射规则配置文件变更");
+                try {
+                    reloadRules();
+                } catch (Exception e) {
+                    log.error("自动重新加载映射规则失败: {}", e.getMessage(), e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.info("映射规则配置文件监听已停止");
+        }
+    }
+    
     /**
      * 创建默认规则（当配置文件加载失败时使用）
      * 
@@ -285,4 +429,49 @@ public class MappingRuleRepository {
         log.info("创建了 {} 个默认规则", rules.size());
         return rules;
     }
+    
+    /**
+     * 规则快照（不可变）
+     */
+    public static final class RuleSnapshot {
+        
+        private final Map<String, FieldMappingRule> rules;
+        private final List<FieldMappingRule> requiredRules;
+        private final MappingRuleIndex index;
+        private final long version;
+        private final LocalDateTime loadedTime = LocalDateTime.now();
+        
+        RuleSnapshot(Map<String, FieldMappingRule> rules, long version) {
+            this.rules = Collections.unmodifiableMap(new HashMap<>(rules));
+            List<FieldMappingRule> required = new ArrayList<>();
+            for (FieldMappingRule rule : rules.values()) {
+                if (rule.isRequired()) {
+                    required.add(rule);
+                }
+            }
+            this.requiredRules = Collections.unmodifiableList(required);
+            this.index = new MappingRuleIndex(rules);
+            this.version = version;
+        }
+        
+        public Map<String, FieldMappingRule> getRules() {
+            return rules;
+        }
+        
+        public List<FieldMappingRule> getRequiredRules() {
+            return requiredRules;
+        }
+        
+        public MappingRuleIndex getIndex() {
+            return index;
+        }
+        
+        public long getVersion() {
+            return version;
+        }
+        
+        public LocalDateTime getLoadedTime() {
+            return loadedTime;
+        }
+    }
 }
@@ -0,0 +1,332 @@
+package com.meituan.product.service;
+
+import com.meituan.product.entity.Product;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 美团模板列写入计划（不可变，可在多个导出任务间共享）
+ * 模板加载时把每个表头解析为一个列写入器，生成数据行时按列下标直接调用，
+ * 表头文字匹配（包括售卖状态、无条形码等特殊规则）每个模板只做一次
+ */
+public final class MeituanColumnPlan {
+
+    // 品牌：从类目属性中取第一个"品牌："或"品牌:"后面的内容（直到句号），导入解析时同样使用
+    static final Pattern BRAND_PATTERN = Pattern.compile("品牌[：:]([^。]+)");
+
+    // 可售时间：时间点 HH:mm
+    private static final Pattern TIME_POINT_PATTERN = Pattern.compile("^(0?[0-9]|1[0-9]|2[0-3]):([0-5][0-9])$");
+
+    // 可售时间：时间段 HH:mm-HH:mm
+    private static final Pattern TIME_RANGE_PATTERN = Pattern.compile(
+            "^(0?[0-9]|1[0-9]|2[0-3]):([0-5][0-9])-(0?[0-9]|1[0-9]|2[0-3]):([0-5][0-9])$");
+
+    // 表头为空的列：创建空单元格，不写值
+    private static final ColumnWriter SKIP = (cell, product) -> { };
+
+    // 未匹配的列：留空
+    private static final ColumnWriter EMPTY = (cell, product) -> cell.setCellValue("");
+
+    /**
+     * 列写入器
+     */
+    @FunctionalInterface
+    public interface ColumnWriter {
+
+        void write(Cell cell, Product product);
+    }
+
+    private final ColumnWriter[] writers;
+
+    private MeituanColumnPlan(ColumnWriter[] writers) {
+        this.writers = writers;
+    }
+
+    /**
+     * 根据模板表头编译写入计划
+     *
+     * @param headers 表头列表（下标即列索引）
+     * @return 写入计划
+     */
+    public static MeituanColumnPlan compile(List<String> headers) {
+        ColumnWriter[] writers = new ColumnWriter[headers.size()];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = resolve(headers.get(i));
+        }
+        return new MeituanColumnPlan(writers);
+    }
+
+    /**
+     * 列数
+     */
+    public int getColumnCount() {
+        return writers.length;
+    }
+
+    /**
+     * 写入一行商品数据（为每一列创建单元格）
+     *
+     * @param row 数据行
+     * @param product 商品
+     */
+    public void writeRow(Row row, Product product) {
+        for (int i = 0; i < writers.length; i++) {
+            writers[i].write(row.createCell(i), product);
+        }
+    }
+
+    /**
+     * 根据表头名称确定列写入器（匹配顺序即优先级）
+     *
+     * @param headerName 表头名称
+     * @return 列写入器
+     */
+    static ColumnWriter resolve(String headerName) {
+        if (headerName == null || headerName.trim().isEmpty()) {
+            return SKIP;
+        }
+
+        String header = headerName.trim();
+
+        // 基础信息
+        if (header.contains("SKU") || header.contains("sku")) {
+            return string(Product::getSkuId);
+        } else if (header.contains("条形码") || header.contains("UPC") || header.contains("EAN")) {
+            // 美团要求：无条形码商品需填写"无条形码"
+            return (cell, product) -> {
+                String upcEan = product.getUpcEan();
+                cell.setCellValue(upcEan == null || upcEan.trim().isEmpty() ? "无条形码" : upcEan);
+            };
+        } else if (header.contains("商品类目名称") || header.contains("类目名称")) {
+            return string(Product::getCategoryName);
+        } else if (header.contains("商品类目ID") || header.contains("类目ID") || header.contains("类目") || header.contains("分类") || header.equalsIgnoreCase("category_id") || header.equalsIgnoreCase("categoryId")) {
+            return string(Product::getCategoryId);
+        } else if (header.contains("APP") && header.contains("SPU")) {
+            return string(Product::getAppSpuCode);
+        } else if (header.contains("商品名称") || (header.contains("名称") && !header.contains("类目") && !header.contains("规格")) || header.equalsIgnoreCase("product_name") || header.equalsIgnoreCase("productName")) {
+            return string(Product::getProductName);
+        }
+        // 图片视频
+        else if (header.contains("商品图片") || (header.contains("图片") && !header.contains("规格"))) {
+            return string(Product::getProductImage);
+        } else if (header.contains("封面视频")) {
+            return string(Product::getCoverVideo);
+        } else if (header.contains("规格图")) {
+            return string(Product::getSpecImage);
+        }
+        // 分类库存
+        else if (header.contains("店内分类") && !header.contains("数量")) {
+            return string(Product::getStoreCategory);
+        } else if (header.contains("店内分类数量")) {
+            return integer(Product::getStoreCategoryCount);
+        } else if (header.contains("规格名称")) {
+            return string(Product::getSpecName);
+        } else if (header.contains("店内码") || header.contains("货号")) {
+            return string(Product::getStoreCode);
+        } else if (header.contains("价格") || header.equalsIgnoreCase("price")) {
+            return decimal(Product::getPrice);
+        } else if (header.contains("库存") || header.equalsIgnoreCase("stock")) {
+            return integer(Product::getStock);
+        } else if (header.contains("售卖状态") || header.contains("销售状态")) {
+            return (cell, product) -> cell.setCellValue(toSaleStatus(product.getSaleStatus()));
+        } else if (header.contains("月售")) {
+            return integer(Product::getMonthlySales);
+        } else if ((header.contains("重量") || header.contains("毛重")) && !header.contains("单位")) {
+            // 毛重/重量：如果为空，设置默认值1000g（约1kg）
+            return (cell, product) -> {
+                if (product.getWeight() != null) {
+                    setBigDecimalValue(cell, product.getWeight());
+                } else {
+                    cell.setCellValue("1000");
+                }
+            };
+        } else if (header.contains("重量单位") || header.contains("毛重单位")) {
+            // 毛重单位/重量单位：如果为空，默认"g"
+            return (cell, product) -> {
+                String weightUnit = product.getWeightUnit();
+                cell.setCellValue(weightUnit != null && !weightUnit.trim().isEmpty() ? weightUnit : "g");
+            };
+        } else if (header.contains("品牌") && !header.contains("图片")) {
+            // 品牌 - 总是从productAttributes（商品属性）中提取"品牌：xxx"的值
+            // 不使用已存储的brand字段，因为可能被错误映射到"品牌商图片详情"列
+            return string(product -> extractBrandFromAttributes(product.getProductAttributes()));
+        } else if (header.contains("商品属性") || header.contains("类目属性")) {
+            // 商品属性/类目属性 - 导出完整的类目属性字符串
+            return string(Product::getProductAttributes);
+        } else if (header.contains("起购数")) {
+            return integer(Product::getMinPurchase);
+        } else if (header.contains("货架码") || header.contains("位置码")) {
+            return string(Product::getShelfCode);
+        }
+        // 详情描述
+        else if (header.contains("商品卖点") || header.contains("卖点") && !header.contains("展示期")) {
+            return string(Product::getSellingPoint);
+        } else if (header.contains("卖点展示期")) {
+            return string(Product::getSellingPointPeriod);
+        } else if (header.contains("文字详情") || (header.contains("详情") && !header.contains("图片"))) {
+            return string(Product::getTextDetail);
+        }
+        // 日期相关
+        else if (header.contains("生产日期")) {
+            return date(Product::getProductionDate);
+        } else if (header.contains("到期日期")) {
+            return date(Product::getExpiryDate);
+        } else if (header.contains("是否临期")) {
+            // 美团要求：填写"临期"或"非临期"
+            return (cell, product) -> cell.setCellValue(
+                    product.getIsNearExpiry() != null && product.getIsNearExpiry() == 1 ? "临期" : "非临期");
+        } else if (header.contains("是否过期")) {
+            return flag(Product::getIsExpired);
+        }
+        // 配送时间
+        else if (header.contains("发货模式")) {
+            return string(Product::getDeliveryMode);
+        } else if (header.contains("预售配送时间")) {
+            return string(Product::getPresaleDeliveryTime);
+        } else if (header.contains("可售时间")) {
+            return (cell, product) -> cell.setCellValue(toAvailableTime(product.getAvailableTime()));
+        }
+        // 商品属性
+        else if (header.contains("力荐")) {
+            return flag(Product::getIsRecommended);
+        } else if (header.contains("无理由退货")) {
+            // 无理由退货需要填写标签ID，优先使用 noReasonReturnTagId 字段，为空时根据 noReasonReturn 字段映射
+            return (cell, product) -> {
+                String tagId = product.getNoReasonReturnTagId();
+                if (tagId == null || tagId.trim().isEmpty()) {
+                    if (product.getNoReasonReturn() != null && product.getNoReasonReturn() == 1) {
+                        tagId = "1300030901"; // 7天无理由退货
+                    } else {
+                        tagId = "1300030895"; // 不支持7天无理由退货
+                    }
+                }
+                cell.setCellValue(tagId);
+            };
+        } else if (header.contains("组合商品")) {
+            return flag(Product::getIsCombo);
+        } else if (header.contains("四轮配送")) {
+            return flag(Product::getIsFourWheelDelivery);
+        }
+        // 合规审核
+        else if (header.contains("合规状态")) {
+            return string(Product::getComplianceStatus);
+        } else if (header.contains("违规下架")) {
+            return flag(Product::getViolationOffline);
+        } else if (header.contains("必填信息缺失")) {
+            return flag(Product::getMissingRequiredInfo);
+        } else if (header.contains("审核状态")) {
+            return string(Product::getAuditStatus);
+        }
+        // 兼容旧字段
+        else if (header.contains("描述") || header.contains("说明") || header.equalsIgnoreCase("description")) {
+            return string(Product::getDescription);
+        } else if (header.contains("URL") || header.equalsIgnoreCase("image_url") || header.equalsIgnoreCase("imageUrl")) {
+            return string(Product::getImageUrl);
+        }
+        return EMPTY;
+    }
+
+    private static ColumnWriter string(Function<Product, String> getter) {
+        return (cell, product) -> {
+            String value = getter.apply(product);
+            cell.setCellValue(value != null ? value : "");
+        };
+    }
+
+    private static ColumnWriter integer(Function<Product, Integer> getter) {
+        return (cell, product) -> {
+            Integer value = getter.apply(product);
+            if (value != null) {
+                cell.setCellValue(value);
+            } else {
+                cell.setCellValue("");
+            }
+        };
+    }
+
+    private static ColumnWriter decimal(Function<Product, BigDecimal> getter) {
+        return (cell, product) -> setBigDecimalValue(cell, getter.apply(product));
+    }
+
+    private static ColumnWriter date(Function<Product, LocalDate> getter) {
+        return (cell, product) -> {
+            LocalDate value = getter.apply(product);
+            cell.setCellValue(value != null ? value.toString() : "");
+        };
+    }
+
+    /**
+     * 0/1标记列：必须严格为 0 或 1
+     */
+    private static ColumnWriter flag(Function<Product, Integer> getter) {
+        return (cell, product) -> {
+            Integer value = getter.apply(product);
+            cell.setCellValue(value != null && value == 1 ? "1" : "0");
+        };
+    }
+
+    private static void setBigDecimalValue(Cell cell, BigDecimal value) {
+        if (value != null) {
+            cell.setCellValue(value.doubleValue());
+        } else {
+            cell.setCellValue("");
+        }
+    }
+
+    /**
+     * 售卖状态必须严格为 0 或 1，否则美团平台无法识别
+     * 美团定义：立即上架=0，下架=1，无法识别时默认立即上架
+     */
+    private static String toSaleStatus(String saleStatus) {
+        if (saleStatus == null) {
+            return "0";
+        }
+        String status = saleStatus.trim();
+        if ("1".equals(status) || "下架".equals(status) || "停售".equals(status) || "已下架".equals(status)) {
+            return "1";
+        }
+        return "0";
+    }
+
+    /**
+     * 可售时间格式要求：
+     * 1. 指定时间点开售：HH:mm（如 09:00）
+     * 2. 指定时间段售卖：HH:mm-HH:mm（如 09:00-22:00）
+     * 3. 营业全时段可售：填写"营业全时段可售"
+     * 4. 周期性可售：时间段1，时间段2;周一，周二（用中文分号隔开）
+     * 5. 不填写或其他格式则默认"营业全时段可售"
+     */
+    private static String toAvailableTime(String availableTime) {
+        if (availableTime == null || availableTime.trim().isEmpty()) {
+            return "营业全时段可售";
+        }
+        String time = availableTime.trim();
+        if ("全天".equals(time) || "营业全时段可售".equals(time)) {
+            return "营业全时段可售";
+        }
+        if (TIME_POINT_PATTERN.matcher(time).matches() || TIME_RANGE_PATTERN.matcher(time).matches()
+                || time.contains("；") || time.contains(";")) {
+            return time;
+        }
+        return "营业全时段可售";
+    }
+
+    /**
+     * 从类目属性中提取第一个品牌（导入解析与导出共用）
+     * 格式如："品牌：小宁电器。类型：茶杯消毒柜。能效等级：一级能效。"，返回"小宁电器"
+     */
+    static String extractBrandFromAttributes(String productAttributes) {
+        if (productAttributes == null || productAttributes.trim().isEmpty()) {
+            return null;
+        }
+        Matcher matcher = BRAND_PATTERN.matcher(productAttributes);
+        return matcher.find() ? matcher.group(1).trim() : null;
+    }
+}
@@ -0,0 +1,469 @@
+package com.meituan.product.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.meituan.product.client.MeituanApiClient;
+import com.meituan.product.dto.MeituanDeleteStatus;
+import com.meituan.product.entity.MeituanDeleteProgress;
+import com.meituan.product.entity.Product;
+import com.meituan.product.enums.MeituanDeleteState;
+import com.meituan.product.exception.MeituanApiException;
+import com.meituan.product.exception.TooManyJobsException;
+import com.meituan.product.mapper.MeituanDeleteProgressMapper;
+import com.meituan.product.mapper.ProductMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 美团商品删除任务服务
+ * 每个商家同时只有一个删除任务：按商品ID升序分页，每页的删除请求并发提交到共用的删除线程池，
+ * 请求速率由自适应限流器控制（收到限流响应时减速并重试）；每页处理完后把游标和计数写入t_meituan_delete_progress，
+ * 服务重启或任务失败后再次提交时从游标之后继续
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MeituanDeleteJobService {
+
+    // 单个商品被限流时的最大尝试次数
+    private static final int MAX_ATTEMPTS = 3;
+
+    // 失败原因摘要的最大长度
+    private static final int MAX_FAILED_REASONS_LENGTH = 500;
+
+    private final ProductMapper productMapper;
+    private final MeituanApiClient meituanApiClient;
+    private final ProductStatusUpdater productStatusUpdater;
+    private final MeituanDeleteProgressMapper progressMapper;
+
+    @Value("${meituan.delete.concurrency:8}")
+    private int concurrency;
+
+    @Value("${meituan.delete.rate-limit:10}")
+    private double initialRate;
+
+    @Value("${meituan.delete.min-rate:1}")
+    private double minRate;
+
+    @Value("${meituan.delete.max-rate:20}")
+    private double maxRate;
+
+    @Value("${meituan.delete.page-size:200}")
+    private int pageSize;
+
+    @Value("${meituan.delete.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+
+    // 商家ID -> 本进程中提交过的删除任务
+    private final ConcurrentHashMap<Long, DeleteJob> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor jobExecutor;
+    private ThreadPoolExecutor deleteExecutor;
+    private AdaptiveRateLimiter rateLimiter;
+
+    @PostConstruct
+    public void init() {
+        jobExecutor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(10), new CustomizableThreadFactory("meituan-delete-job-"));
+        deleteExecutor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("meituan-delete-"));
+        rateLimiter = new AdaptiveRateLimiter(initialRate, minRate, maxRate);
+        log.info("美团删除线程池初始化完成，并发请求数：{}，初始速率：{}次/秒（{}~{}）",
+                concurrency, rateLimiter.getRate(), minRate, maxRate);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        jobExecutor.shutdownNow();
+        deleteExecutor.shutdownNow();
+    }
+
+    /**
+     * 提交删除任务
+     * 商家已有进行中的任务时直接返回其状态；上次任务未完成时默认从断点继续
+     *
+     * @param merchantId 商家ID
+     * @param accessToken 访问令牌
+     * @param restart 是否忽略断点从头开始
+     * @return 任务状态
+     */
+    public synchronized MeituanDeleteStatus submit(Long merchantId, String accessToken, boolean restart) {
+        // 验证访问令牌（简单验证，实际应该更严格）
+        if (!"admin123".equals(accessToken)) {
+            throw new IllegalArgumentException("访问令牌无效");
+        }
+
+        DeleteJob existing = jobs.get(merchantId);
+        if (existing != null && !existing.isFinished()) {
+            return existing.toStatus();
+        }
+
+        MeituanDeleteProgress progress = progressMapper.selectById(merchantId);
+        boolean resume = !restart && progress != null && progress.getState() != MeituanDeleteState.COMPLETED;
+        if (resume) {
+            log.info("从断点继续删除美团商品，商家ID：{}，游标：{}，已处理：{}/{}",
+                    merchantId, progress.getLastProductId(), progress.getProcessedCount(), progress.getTotalCount());
+        } else {
+            progress = new MeituanDeleteProgress();
+            progress.setMerchantId(merchantId);
+            progress.setTotalCount(Math.toIntExact(productMapper.selectCount(
+                    new LambdaQueryWrapper<Product>().eq(Product::getMerchantId, merchantId))));
+            progress.setProcessedCount(0);
+            progress.setDeletedCount(0);
+            progress.setFailedCount(0);
+            progress.setSkippedCount(0);
+            progress.setLastProductId(0L);
+            progress.setStartedTime(LocalDateTime.now());
+        }
+        progress.setState(MeituanDeleteState.QUEUED);
+        progress.setErrorMessage(null);
+        progress.setFinishedTime(null);
+        progress.setUpdatedTime(LocalDateTime.now());
+        // 整行重写，清除上次运行的错误信息和完成时间
+        progressMapper.deleteById(merchantId);
+        progressMapper.insert(progress);
+
+        DeleteJob job = new DeleteJob(progress, accessToken);
+        jobs.put(merchantId, job);
+        try {
+            jobExecutor.execute(() -> execute(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(merchantId);
+            progress.setState(MeituanDeleteState.INTERRUPTED);
+            progressMapper.updateById(progress);
+            throw new TooManyJobsException("删除任务过多，请稍后再试");
+        }
+
+        log.info("美团商品删除任务已提交，商家ID：{}，商品总数：{}", merchantId, progress.getTotalCount());
+        return job.toStatus();
+    }
+
+    /**
+     * 查询删除任务状态
+     *
+     * @param merchantId 商家ID
+     * @return 任务状态，没有删除记录时返回null
+     */
+    public MeituanDeleteStatus getStatus(Long merchantId) {
+        DeleteJob job = jobs.get(merchantId);
+        if (job != null) {
+            return job.toStatus();
+        }
+        MeituanDeleteProgress progress = progressMapper.selectById(merchantId);
+        if (progress == null) {
+            return null;
+        }
+        // 数据库中未结束但本进程没有对应任务，说明上次运行时服务已停止
+        if (!progress.getState().isFinished()) {
+            progress.setState(MeituanDeleteState.INTERRUPTED);
+        }
+        return toStatus(progress, null, null);
+    }
+
+    /**
+     * 等待商家的删除任务结束
+     *
+     * @param merchantId 商家ID
+     * @return 结束时的任务状态
+     */
+    public MeituanDeleteStatus awaitCompletion(Long merchantId) {
+        DeleteJob job = jobs.get(merchantId);
+        if (job == null) {
+            return getStatus(merchantId);
+        }
+        try {
+            job.done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待删除任务已中断", e);
+        }
+        return job.toStatus();
+    }
+
+    private void execute(DeleteJob job) {
+        MeituanDeleteProgress progress = job.progress;
+        Long merchantId = progress.getMerchantId();
+        job.update(() -> progress.setState(MeituanDeleteState.RUNNING));
+        saveProgress(job);
+        log.info("开始删除美团商品，商家ID：{}，游标：{}", merchantId, progress.getLastProductId());
+
+        try {
+            long cursor = progress.getLastProductId();
+            while (true) {
+                List<Product> page = productMapper.selectDeleteCandidates(merchantId, cursor, pageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                List<Future<String>> futures = new ArrayList<>(page.size());
+                for (Product product : page) {
+                    futures.add(deleteExecutor.submit(() -> deleteOne(product, job.accessToken)));
+                }
+
+                // 整页处理完才推进游标，中断后最多重做一页
+                List<Long> deletedIds = new ArrayList<>();
+                int deleted = 0;
+                int failed = 0;
+                int skipped = 0;
+                RuntimeException abort = null;
+                try {
+                    for (int i = 0; i < page.size(); i++) {
+                        String outcome;
+                        try {
+                            outcome = await(futures.get(i));
+                        } catch (CancellationException e) {
+                            continue;
+                        } catch (RuntimeException e) {
+                            // 熔断等错误终止任务：取消本页尚未发送的请求，已发送的请求仍等待结果
+                            if (abort == null) {
+                                abort = e;
+                                cancelAll(futures, false);
+                            }
+                            continue;
+                        }
+                        if (outcome == null) {
+                            deleted++;
+                            deletedIds.add(page.get(i).getId());
+                        } else if (outcome.isEmpty()) {
+                            skipped++;
+                        } else {
+                            failed++;
+                            job.appendFailedReason(outcome);
+                        }
+                    }
+                } finally {
+                    // 任务中断时不再等待本页剩余的请求
+                    cancelAll(futures, true);
+                    // 已从美团删除的商品恢复为待上传（任务终止时同样处理已完成的部分）
+                    productStatusUpdater.updateStatus(deletedIds, Product.Status.PENDING);
+                }
+                if (abort != null) {
+                    log.warn("删除美团商品终止，商家ID：{}，本页已删除{}个商品，游标保持在{}",
+                            merchantId, deletedIds.size(), cursor);
+                    throw abort;
+                }
+
+                cursor = page.get(page.size() - 1).getId();
+                long pageCursor = cursor;
+                int pageDeleted = deleted;
+                int pageFailed = failed;
+                int pageSkipped = skipped;
+                job.update(() -> {
+                    progress.setLastProductId(pageCursor);
+                    progress.setProcessedCount(progress.getProcessedCount() + page.size());
+                    progress.setDeletedCount(progress.getDeletedCount() + pageDeleted);
+                    progress.setFailedCount(progress.getFailedCount() + pageFailed);
+                    progress.setSkippedCount(progress.getSkippedCount() + pageSkipped);
+                });
+                saveProgress(job);
+                log.info("已处理 {}/{} 个美团商品，成功：{}，失败：{}，跳过：{}，当前速率：{}次/秒",
+                        progress.getProcessedCount(), progress.getTotalCount(), progress.getDeletedCount(),
+                        progress.getFailedCount(), progress.getSkippedCount(), String.format("%.1f", rateLimiter.getRate()));
+
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+
+            job.update(() -> progress.setState(MeituanDeleteState.COMPLETED));
+            log.info("处理美团商品完成，商家ID：{}，总数：{}，成功：{}，失败：{}，跳过：{}",
+                    merchantId, progress.getProcessedCount(), progress.getDeletedCount(),
+                    progress.getFailedCount(), progress.getSkippedCount());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("删除美团商品已中断，商家ID：{}，游标：{}", merchantId, progress.getLastProductId());
+            job.update(() -> progress.setState(MeituanDeleteState.INTERRUPTED));
+        } catch (Exception e) {
+            log.error("删除美团商品失败，商家ID：{}", merchantId, e);
+            job.update(() -> {
+                progress.setState(MeituanDeleteState.FAILED);
+                String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                progress.setErrorMessage(message.length() > 500 ? message.substring(0, 500) : message);
+            });
+        } finally {
+            job.update(() -> progress.setFinishedTime(LocalDateTime.now()));
+            saveProgress(job);
+            job.done.countDown();
+        }
+    }
+
+    /**
+     * 删除单个美团商品（在删除线程池中执行）
+     *
+     * @return 成功返回null，跳过返回空串，失败返回失败原因
+     */
+    private String deleteOne(Product product, String accessToken) throws InterruptedException {
+        // 获取美团商品标识符：优先使用 meituanProductId，其次使用 skuId，最后使用 categoryId
+        String meituanProductId = product.getMeituanProductId();
+        if (meituanProductId == null || meituanProductId.trim().isEmpty()) {
+            meituanProductId = product.getSkuId();
+        }
+        if (meituanProductId == null || meituanProductId.trim().isEmpty()) {
+            meituanProductId = product.getCategoryId();
+        }
+        if (meituanProductId == null || meituanProductId.trim().isEmpty()) {
+            log.warn("商品ID {} 没有任何标识符可用于删除，跳过", product.getId());
+            return "";
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            rateLimiter.acquire();
+            try {
+                meituanApiClient.deleteProduct(meituanProductId, accessToken);
+                rateLimiter.onSuccess();
+                return null;
+            } catch (MeituanApiException e) {
+                if (e.isCircuitOpen()) {
+                    // 美团不可用时终止任务，不推进游标，稍后可从断点继续
+                    throw e;
+                }
+                if (e.isThrottled() && attempt < MAX_ATTEMPTS) {
+                    rateLimiter.onThrottled();
+                    log.debug("删除商品被限流，商品ID：{}，第{}次重试，当前速率：{}次/秒",
+                            product.getId(), attempt, rateLimiter.getRate());
+                    continue;
+                }
+                return failedReason(product, meituanProductId, e);
+            } catch (RuntimeException e) {
+                return failedReason(product, meituanProductId, e);
+            }
+        }
+    }
+
+    private String failedReason(Product product, String meituanProductId, Exception e) {
+        log.warn("删除商品失败，商品ID：{}，标识符：{}，原因：{}", product.getId(), meituanProductId, e.getMessage());
+        return "商品ID " + product.getId() + " (标识符: " + meituanProductId + ") 失败: " + e.getMessage() + "; ";
+    }
+
+    private String await(Future<String> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        }
+    }
+
+    private static void cancelAll(List<Future<String>> futures, boolean mayInterrupt) {
+        for (Future<String> future : futures) {
+            future.cancel(mayInterrupt);
+        }
+    }
+
+    private void saveProgress(DeleteJob job) {
+        try {
+            MeituanDeleteProgress snapshot;
+            synchronized (job) {
+                job.progress.setUpdatedTime(LocalDateTime.now());
+                snapshot = copy(job.progress);
+            }
+            progressMapper.updateById(snapshot);
+        } catch (Exception e) {
+            // 进度只影响断点续删，保存失败不中断删除
+            log.warn("保存删除进度失败，商家ID：{}，错误：{}", job.progress.getMerchantId(), e.getMessage());
+        }
+    }
+
+    private static MeituanDeleteProgress copy(MeituanDeleteProgress progress) {
+        MeituanDeleteProgress copy = new MeituanDeleteProgress();
+        copy.setMerchantId(progress.getMerchantId());
+        copy.setState(progress.getState());
+        copy.setTotalCount(progress.getTotalCount());
+        copy.setProcessedCount(progress.getProcessedCount());
+        copy.setDeletedCount(progress.getDeletedCount());
+        copy.setFailedCount(progress.getFailedCount());
+        copy.setSkippedCount(progress.getSkippedCount());
+        copy.setLastProductId(progress.getLastProductId());
+        copy.setErrorMessage(progress.getErrorMessage());
+        copy.setStartedTime(progress.getStartedTime());
+        copy.setFinishedTime(progress.getFinishedTime());
+        copy.setUpdatedTime(progress.getUpdatedTime());
+        return copy;
+    }
+
+    private MeituanDeleteStatus toStatus(MeituanDeleteProgress progress, Long etaMillis, String failedReasons) {
+        MeituanDeleteStatus status = new MeituanDeleteStatus();
+        status.setMerchantId(progress.getMerchantId());
+        status.setState(progress.getState());
+        status.setTotalCount(progress.getTotalCount());
+        status.setProcessedCount(progress.getProcessedCount());
+        status.setDeletedCount(progress.getDeletedCount());
+        status.setFailedCount(progress.getFailedCount());
+        status.setSkippedCount(progress.getSkippedCount());
+        status.setLastProductId(progress.getLastProductId());
+        status.setCurrentRate(rateLimiter.getRate());
+        status.setThrottledCount(rateLimiter.getThrottledCount());
+        status.setEtaMillis(etaMillis);
+        status.setFailedReasons(failedReasons);
+        status.setErrorMessage(progress.getErrorMessage());
+        status.setStartedTime(progress.getStartedTime());
+        status.setFinishedTime(progress.getFinishedTime());
+        status.setUpdatedTime(progress.getUpdatedTime());
+        return status;
+    }
+
+    /**
+     * 删除任务（进度对象只在持有任务锁时修改和读取）
+     */
+    private class DeleteJob {
+
+        private final MeituanDeleteProgress progress;
+        private final String accessToken;
+        private final StringBuilder failedReasons = new StringBuilder();
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        DeleteJob(MeituanDeleteProgress progress, String accessToken) {
+            this.progress = progress;
+            this.accessToken = accessToken;
+        }
+
+        synchronized void update(Runnable change) {
+            change.run();
+        }
+
+        boolean isFinished() {
+            return done.getCount() == 0;
+        }
+
+        synchronized void appendFailedReason(String reason) {
+            if (failedReasons.length() < MAX_FAILED_REASONS_LENGTH) {
+                failedReasons.append(reason);
+            }
+        }
+
+        synchronized MeituanDeleteStatus toStatus() {
+            Long etaMillis = null;
+            if (progress.getState() == MeituanDeleteState.RUNNING) {
+                int remaining = Math.max(0, progress.getTotalCount() - progress.getProcessedCount());
+                etaMillis = (long) (remaining * 1000 / rateLimiter.getRate());
+            }
+            String reasons = failedReasons.length() > MAX_FAILED_REASONS_LENGTH
+                    ? failedReasons.substring(0, MAX_FAILED_REASONS_LENGTH) : failedReasons.toString();
+            return MeituanDeleteJobService.this.toStatus(copy(progress), etaMillis, reasons);
+        }
+    }
+}
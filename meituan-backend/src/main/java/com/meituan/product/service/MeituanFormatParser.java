@@ -1,10 +1,8 @@
 package com.meituan.product.service;
 
 import com.meituan.product.entity.Product;
+import com.meituan.product.enums.ImportIssueType;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.CellType;
-import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.usermodel.Row;
 import org.springframework.stereotype.Component;
 
@@ -12,7 +10,9 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 /**
  * 美团格式Excel解析器
@@ -22,6 +22,124 @@ import java.util.Map;
 @Component
 public class MeituanFormatParser {
     
+    /**
+     * 支持的日期格式
+     */
+    private static final DateTimeFormatter[] DATE_FORMATTERS = {
+        DateTimeFormatter.ofPattern("yyyy-MM-dd"),
+        DateTimeFormatter.ofPattern("yyyy/MM/dd"),
+        DateTimeFormatter.ofPattern("yyyy年MM月dd日"),
+        DateTimeFormatter.ofPattern("yyyyMMdd")
+    };
+    
+    /**
+     * 按列映射解析的字段（顺序与写入Product的顺序一致，品牌、类目属性、无理由退货在其后单独处理）
+     */
+    private final List<FieldBinding> fieldBindings = List.of(
+        // 基础信息字段
+        text("skuId", Product::setSkuId),
+        text("upcEan", Product::setUpcEan),
+        text("categoryName", Product::setCategoryName),
+        text("categoryId", Product::setCategoryId),
+        text("appSpuCode", Product::setAppSpuCode),
+        text("productName", Product::setProductName),
+        // 图片视频字段
+        text("productImage", Product::setProductImage),
+        text("coverVideo", Product::setCoverVideo),
+        text("specImage", Product::setSpecImage),
+        text("specImageUrl", Product::setSpecImageUrl),
+        text("imageUrl", Product::setImageUrl),
+        // 分类库存字段
+        text("storeCategory", Product::setStoreCategory),
+        new FieldBinding("storeCategoryCount", (product, row, column, diagnostics, rowNum) ->
+            product.setStoreCategoryCount(readInteger(row, column, diagnostics, rowNum))),
+        text("specName", Product::setSpecName),
+        text("storeCode", Product::setStoreCode),
+        new FieldBinding("price", (product, row, column, diagnostics, rowNum) -> product.setPrice(readPrice(row, column, diagnostics, rowNum))),
+        new FieldBinding("stock", (product, row, column, diagnostics, rowNum) -> {
+            // 库存默认为0
+            Integer stock = readInteger(row, column, diagnostics, rowNum);
+            product.setStock(stock != null ? stock : 0);
+        }),
+        text("saleStatus", Product::setSaleStatus),
+        new FieldBinding("monthlySales", (product, row, column, diagnostics, rowNum) ->
+            product.setMonthlySales(readInteger(row, column, diagnostics, rowNum))),
+        new FieldBinding("weight", (product, row, column, diagnostics, rowNum) -> product.setWeight(readDecimal(row, column, diagnostics, rowNum))),
+        text("weightUnit", Product::setWeightUnit),
+        text("brand", Product::setBrand),
+        new FieldBinding("minPurchase", (product, row, column, diagnostics, rowNum) ->
+            product.setMinPurchase(readInteger(row, column, diagnostics, rowNum))),
+        text("shelfCode", Product::setShelfCode),
+        // 详情描述字段
+        text("description", Product::setDescription),
+        text("sellingPoint", Product::setSellingPoint),
+        text("sellingPointPeriod", Product::setSellingPointPeriod),
+        text("textDetail", Product::setTextDetail),
+        text("imageDetail", Product::setImageDetail),
+        text("brandImageDetail", Product::setBrandImageDetail),
+        // 日期相关字段
+        new FieldBinding("productionDate", (product, row, column, diagnostics, rowNum) ->
+            product.setProductionDate(parseDate(row.getString(column), diagnostics, rowNum))),
+        new FieldBinding("expiryDate", (product, row, column, diagnostics, rowNum) ->
+            product.setExpiryDate(parseDate(row.getString(column), diagnostics, rowNum))),
+        flag("isNearExpiry", Product::setIsNearExpiry),
+        flag("isExpired", Product::setIsExpired),
+        // 配送时间字段
+        text("deliveryMode", Product::setDeliveryMode),
+        text("presaleDeliveryTime", Product::setPresaleDeliveryTime),
+        text("availableTime", Product::setAvailableTime),
+        // 商品属性字段
+        flag("isRecommended", Product::setIsRecommended),
+        flag("isCombo", Product::setIsCombo),
+        text("comboProducts", Product::setComboProducts),
+        flag("isFourWheelDelivery", Product::setIsFourWheelDelivery),
+        // 合规审核字段
+        text("complianceStatus", Product::setComplianceStatus),
+        flag("violationOffline", Product::setViolationOffline),
+        flag("missingRequiredInfo", Product::setMissingRequiredInfo),
+        text("auditStatus", Product::setAuditStatus)
+    );
+    
+    private static FieldBinding text(String fieldName, BiConsumer<Product, String> setter) {
+        return new FieldBinding(fieldName,
+            (product, row, column, diagnostics, rowNum) -> setter.accept(product, row.getString(column)));
+    }
+    
+    private static FieldBinding flag(String fieldName, BiConsumer<Product, Integer> setter) {
+        return new FieldBinding(fieldName,
+            (product, row, column, diagnostics, rowNum) -> setter.accept(product, row.getFlag(column)));
+    }
+    
+    /**
+     * 将列映射编译为解析计划（每个文件编译一次，逐行解析时不再查找映射）
+     * 
+     * @param columnMapping 列映射（系统字段名 -> 列索引）
+     * @return 解析计划（不可变，可在多线程间共享）
+     */
+    public RowPlan compile(Map<String, Integer> columnMapping) {
+        int[] columns = new int[fieldBindings.size()];
+        for (int i = 0; i < columns.length; i++) {
+            String fieldName = fieldBindings.get(i).fieldName;
+            columns[i] = resolveColumn(fieldName, columnMapping);
+            if (columns[i] < 0) {
+                log.debug("字段 {} 在列映射中不存在", fieldName);
+            }
+        }
+        
+        return new RowPlan(
+            fieldBindings.toArray(new FieldBinding[0]),
+            columns,
+            resolveColumn("productAttributes", columnMapping),
+            resolveColumn("brand", columnMapping),
+            resolveColumn("noReasonReturnTagId", columnMapping)
+        );
+    }
+    
+    private int resolveColumn(String fieldName, Map<String, Integer> columnMapping) {
+        Integer columnIndex = columnMapping.get(fieldName);
+        return columnIndex != null ? columnIndex : -1;
+    }
+    
     /**
      * 解析美团格式的Excel行（支持50+字段）
      * 
@@ -31,132 +149,99 @@ public class MeituanFormatParser {
      * @return 商品对象
      */
     public Product parseRow(Row row, Map<String, Integer> columnMapping, int rowNum) {
+        return parseRow(row, compile(columnMapping), rowNum, new ImportDiagnostics(false));
+    }
+    
+    /**
+     * 按解析计划解析美团格式的Excel行
+     * 
+     * @param row Excel行数据
+     * @param plan 解析计划
+     * @param rowNum 行号
+     * @param diagnostics 导入诊断
+     * @return 商品对象
+     */
+    public Product parseRow(Row row, RowPlan plan, int rowNum, ImportDiagnostics diagnostics) {
+        return parseRow(new PoiRowAccessor(row), plan, rowNum, diagnostics);
+    }
+    
+    /**
+     * 解析美团格式的行数据（与数据来源无关，供POI用户模型和SAX流式读取共用）
+     * 
+     * @param row 行数据访问器
+     * @param columnMapping 列映射（系统字段名 -> 列索引）
+     * @param rowNum 行号
+     * @return 商品对象
+     */
+    public Product parseRow(RowValueAccessor row, Map<String, Integer> columnMapping, int rowNum) {
+        return parseRow(row, compile(columnMapping), rowNum, new ImportDiagnostics(false));
+    }
+    
+    /**
+     * 按解析计划解析美团格式的行数据
+     * 非致命问题（取默认值）记录到diagnostics，只有详细模式才逐行输出日志
+     * 
+     * @param row 行数据访问器
+     * @param plan 解析计划
+     * @param rowNum 行号
+     * @param diagnostics 导入诊断
+     * @return 商品对象
+     */
+    public Product parseRow(RowValueAccessor row, RowPlan plan, int rowNum, ImportDiagnostics diagnostics) {
         Product product = new Product();
         
         try {
-            // ============================================
-            // 基础信息字段
-            // ============================================
-            product.setSkuId(extractField(row, "skuId", columnMapping));
-            product.setUpcEan(extractField(row, "upcEan", columnMapping));
-            product.setCategoryName(extractField(row, "categoryName", columnMapping));
-            product.setCategoryId(extractField(row, "categoryId", columnMapping));
-            product.setAppSpuCode(extractField(row, "appSpuCode", columnMapping));
-            product.setProductName(extractField(row, "productName", columnMapping));
-            
-            // ============================================
-            // 图片视频字段
-            // ============================================
-            product.setProductImage(extractField(row, "productImage", columnMapping));
-            product.setCoverVideo(extractField(row, "coverVideo", columnMapping));
-            product.setSpecImage(extractField(row, "specImage", columnMapping));
-            product.setSpecImageUrl(extractField(row, "specImageUrl", columnMapping));
-            product.setImageUrl(extractField(row, "imageUrl", columnMapping));
-            
-            // ============================================
-            // 分类库存字段
-            // ============================================
-            product.setStoreCategory(extractField(row, "storeCategory", columnMapping));
-            product.setStoreCategoryCount(parseInteger(extractField(row, "storeCategoryCount", columnMapping)));
-            product.setSpecName(extractField(row, "specName", columnMapping));
-            product.setStoreCode(extractField(row, "storeCode", columnMapping));
-            
-            // 价格字段 - 添加详细日志
-            String priceStr = extractField(row, "price", columnMapping);
-            log.debug("第{}行：价格字符串 = '{}'", rowNum, priceStr);
-            BigDecimal price = parsePrice(priceStr);
-            log.debug("第{}行：解析后价格 = {}", rowNum, price);
-            product.setPrice(price != null ? price : BigDecimal.ZERO);
-            
-            product.setStock(parseStock(extractField(row, "stock", columnMapping)));
-            product.setSaleStatus(extractField(row, "saleStatus", columnMapping));
-            product.setMonthlySales(parseInteger(extractField(row, "monthlySales", columnMapping)));
-            product.setWeight(parseDecimal(extractField(row, "weight", columnMapping)));
-            product.setWeightUnit(extractField(row, "weightUnit", columnMapping));
-            product.setBrand(extractField(row, "brand", columnMapping));
-            product.setMinPurchase(parseInteger(extractField(row, "minPurchase", columnMapping)));
-            product.setShelfCode(extractField(row, "shelfCode", columnMapping));
-            
-            // ============================================
-            // 详情描述字段
-            // ============================================
-            product.setDescription(extractField(row, "description", columnMapping));
-            product.setSellingPoint(extractField(row, "sellingPoint", columnMapping));
-            product.setSellingPointPeriod(extractField(row, "sellingPointPeriod", columnMapping));
-            product.setTextDetail(extractField(row, "textDetail", columnMapping));
-            product.setImageDetail(extractField(row, "imageDetail", columnMapping));
-            product.setBrandImageDetail(extractField(row, "brandImageDetail", columnMapping));
-            
-            // ============================================
-            // 日期相关字段
-            // ============================================
-            product.setProductionDate(parseDate(extractField(row, "productionDate", columnMapping)));
-            product.setExpiryDate(parseDate(extractField(row, "expiryDate", columnMapping)));
-            product.setIsNearExpiry(parseBoolean(extractField(row, "isNearExpiry", columnMapping)));
-            product.setIsExpired(parseBoolean(extractField(row, "isExpired", columnMapping)));
-            
-            // ============================================
-            // 配送时间字段
-            // ============================================
-            product.setDeliveryMode(extractField(row, "deliveryMode", columnMapping));
-            product.setPresaleDeliveryTime(extractField(row, "presaleDeliveryTime", columnMapping));
-            product.setAvailableTime(extractField(row, "availableTime", columnMapping));
+            // 按列索引逐个字段赋值（未映射的列为-1，取值为空，由各字段给出默认值）
+            FieldBinding[] bindings = plan.bindings;
+            int[] columns = plan.columns;
+            for (int i = 0; i < bindings.length; i++) {
+                bindings[i].setter.apply(product, row, columns[i], diagnostics, rowNum);
+            }
 
             // ============================================
             // 商品属性字段 - 完全依赖列映射
             // ============================================
             // 优先从列映射读取
-            String productAttrs = extractField(row, "productAttributes", columnMapping);
+            String productAttrs = extractFieldByIndex(row, plan.productAttributesColumn);
             // 如果映射失败，尝试从常见索引读取（作为最后的备选）
             if (productAttrs == null || productAttrs.trim().isEmpty()) {
                 productAttrs = extractFieldByIndex(row, 50);
             }
             product.setProductAttributes(productAttrs);
-            log.info("第{}行：类目属性 = {}", rowNum, productAttrs);
+            if (diagnostics.isVerbose()) {
+                log.info("第{}行：类目属性 = {}", rowNum, productAttrs);
+            }
             
-            // 添加诊断日志
+            // 记录诊断信息
             if (productAttrs == null || productAttrs.trim().isEmpty()) {
-                log.warn("第{}行：类目属性为空！类目名称：{}，类目ID：{}", 
-                    rowNum, product.getCategoryName(), product.getCategoryId());
+                diagnostics.record(ImportIssueType.ATTRIBUTES_EMPTY, rowNum,
+                    "类目名称：" + product.getCategoryName() + "，类目ID：" + product.getCategoryId());
             } else if (productAttrs.length() < 50) {
-                log.warn("第{}行：类目属性过短（{}字符），可能不完整：{}", 
-                    rowNum, productAttrs.length(), productAttrs);
+                diagnostics.record(ImportIssueType.ATTRIBUTES_SHORT, rowNum, productAttrs);
             }
 
-            // 从productAttributes中提取品牌（优先）
-            String extractedBrand = extractBrandFromAttributes(productAttrs);
+            // 从productAttributes中提取品牌（优先），与导出共用预编译的正则
+            String extractedBrand = MeituanColumnPlan.extractBrandFromAttributes(productAttrs);
             if (extractedBrand != null && !extractedBrand.isEmpty()) {
                 product.setBrand(extractedBrand);
             } else {
                 // 如果没有从productAttributes中提取到品牌，检查brand列
-                String brandColumn = extractField(row, "brand", columnMapping);
+                String brandColumn = extractFieldByIndex(row, plan.brandColumn);
                 if (brandColumn != null && !brandColumn.trim().isEmpty() && !"无".equals(brandColumn)) {
                     product.setBrand(brandColumn);
                 }
             }
-            log.info("第{}行：提取的品牌 = {}", rowNum, product.getBrand());
-
-            product.setIsRecommended(parseBoolean(extractField(row, "isRecommended", columnMapping)));
+            if (diagnostics.isVerbose()) {
+                log.info("第{}行：提取的品牌 = {}", rowNum, product.getBrand());
+            }
             
             // 解析无理由退货标签ID
-            String noReasonReturnValue = extractField(row, "noReasonReturnTagId", columnMapping);
-            String tagId = parseNoReasonReturnTagId(noReasonReturnValue);
+            String noReasonReturnValue = extractFieldByIndex(row, plan.noReasonReturnColumn);
+            String tagId = parseNoReasonReturnTagId(noReasonReturnValue, diagnostics, rowNum);
             product.setNoReasonReturnTagId(tagId);
             // 同时设置旧的布尔字段（向后兼容）
             product.setNoReasonReturn("1300030901".equals(tagId) ? 1 : 0);
             
-            product.setIsCombo(parseBoolean(extractField(row, "isCombo", columnMapping)));
-            product.setComboProducts(extractField(row, "comboProducts", columnMapping));
-            product.setIsFourWheelDelivery(parseBoolean(extractField(row, "isFourWheelDelivery", columnMapping)));
-            
-            // ============================================
-            // 合规审核字段
-            // ============================================
-            product.setComplianceStatus(extractField(row, "complianceStatus", columnMapping));
-            product.setViolationOffline(parseBoolean(extractField(row, "violationOffline", columnMapping)));
-            product.setMissingRequiredInfo(parseBoolean(extractField(row, "missingRequiredInfo", columnMapping)));
-            product.setAuditStatus(extractField(row, "auditStatus", columnMapping));
-            
             // ============================================
             // 系统字段
             // ============================================
@@ -167,254 +252,98 @@ public class MeituanFormatParser {
             return product;
             
         } catch (Exception e) {
-            log.error("第{}行：解析美团格式数据失败 - {}", rowNum, e.getMessage());
+            // 失败行会作为错误详情返回，这里不再逐行输出错误日志
+            log.debug("第{}行：解析美团格式数据失败 - {}", rowNum, e.getMessage());
             throw e;
         }
     }
     
-    /**
-     * 从行中提取指定字段的值
-     * 
-     * @param row Excel行数据
-     * @param fieldName 系统字段名
-     * @param columnMapping 列映射
-     * @return 字段值
-     */
-    private String extractField(Row row, String fieldName, Map<String, Integer> columnMapping) {
-        Integer columnIndex = columnMapping.get(fieldName);
-        if (columnIndex == null) {
-            log.debug("字段 {} 在列映射中不存在", fieldName);
-            return null;
-        }
-        
-        Cell cell = row.getCell(columnIndex);
-        return getCellValueAsString(cell);
-    }
-    
     /**
      * 从指定列索引提取值（不依赖映射）
      */
-    private String extractFieldByIndex(Row row, int columnIndex) {
+    private String extractFieldByIndex(RowValueAccessor row, int columnIndex) {
         if (columnIndex < 0) {
             return null;
         }
-        Cell cell = row.getCell(columnIndex);
-        return getCellValueAsString(cell);
+        return row.getString(columnIndex);
     }
 
     /**
-     * 获取单元格的字符串值
-     *
-     * @param cell 单元格
-     * @return 字符串值
-     */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return null;
-        }
-
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    // 避免科学计数法
-                    double numericValue = cell.getNumericCellValue();
-                    // 如果是整数，返回整数字符串
-                    if (numericValue == (long) numericValue) {
-                        return String.valueOf((long) numericValue);
-                    } else {
-                        return String.valueOf(numericValue);
-                    }
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                // 对于公式单元格，尝试获取计算后的值
-                try {
-                    return cell.getStringCellValue();
-                } catch (Exception e) {
-                    try {
-                        double numericValue = cell.getNumericCellValue();
-                        if (numericValue == (long) numericValue) {
-                            return String.valueOf((long) numericValue);
-                        } else {
-                            return String.valueOf(numericValue);
-                        }
-                    } catch (Exception ex) {
-                        return null;
-                    }
-                }
-            case BLANK:
-                return null;
-            default:
-                return null;
-        }
-    }
-    
-    /**
-     * 解析价格字符串
-     * 
-     * @param priceStr 价格字符串
-     * @return 价格（如果解析失败返回0）
+     * 读取价格（为空或无法解析时返回0）
      */
-    private BigDecimal parsePrice(String priceStr) {
-        if (priceStr == null || priceStr.trim().isEmpty()) {
-            log.warn("价格字符串为空，使用默认值0");
-            return BigDecimal.ZERO;
+    private BigDecimal readPrice(RowValueAccessor row, int columnIndex, ImportDiagnostics diagnostics, int rowNum) {
+        BigDecimal price = row.getDecimal(columnIndex);
+        if (price != null) {
+            return price;
         }
         
-        try {
-            return new BigDecimal(priceStr.trim());
-        } catch (NumberFormatException e) {
-            log.warn("无法解析价格：{}，使用默认值0", priceStr);
-            return BigDecimal.ZERO;
-        }
-    }
-    
-    /**
-     * 解析库存字符串
-     * 
-     * @param stockStr 库存字符串
-     * @return 库存
-     */
-    private Integer parseStock(String stockStr) {
-        if (stockStr == null || stockStr.trim().isEmpty()) {
-            return 0; // 默认为0
-        }
-        
-        try {
-            double stockValue = Double.parseDouble(stockStr.trim());
-            return (int) stockValue;
-        } catch (NumberFormatException e) {
-            log.warn("无法解析库存：{}，使用默认值0", stockStr);
-            return 0;
+        String priceStr = row.getString(columnIndex);
+        if (RowValueAccessor.isBlank(priceStr)) {
+            diagnostics.record(ImportIssueType.PRICE_EMPTY, rowNum, null);
+        } else {
+            diagnostics.record(ImportIssueType.PRICE_INVALID, rowNum, priceStr);
         }
+        return BigDecimal.ZERO;
     }
     
     /**
-     * 解析整数字符串
-     * 
-     * @param str 整数字符串
-     * @return 整数
+     * 读取整数（为空或无法解析时返回null）
      */
-    private Integer parseInteger(String str) {
-        if (str == null || str.trim().isEmpty()) {
-            return null;
-        }
-        
-        try {
-            double value = Double.parseDouble(str.trim());
-            return (int) value;
-        } catch (NumberFormatException e) {
-            log.warn("无法解析整数：{}", str);
-            return null;
+    private Integer readInteger(RowValueAccessor row, int columnIndex, ImportDiagnostics diagnostics, int rowNum) {
+        Integer value = row.getInteger(columnIndex);
+        if (value == null) {
+            recordIfUnparseable(row, columnIndex, diagnostics, rowNum);
         }
+        return value;
     }
     
     /**
-     * 解析小数字符串
-     * 
-     * @param str 小数字符串
-     * @return 小数
+     * 读取小数（为空或无法解析时返回null）
      */
-    private BigDecimal parseDecimal(String str) {
-        if (str == null || str.trim().isEmpty()) {
-            return null;
-        }
-        
-        try {
-            return new BigDecimal(str.trim());
-        } catch (NumberFormatException e) {
-            log.warn("无法解析小数：{}", str);
-            return null;
+    private BigDecimal readDecimal(RowValueAccessor row, int columnIndex, ImportDiagnostics diagnostics, int rowNum) {
+        BigDecimal value = row.getDecimal(columnIndex);
+        if (value == null) {
+            recordIfUnparseable(row, columnIndex, diagnostics, rowNum);
         }
+        return value;
     }
     
     /**
-     * 解析布尔值字符串
-     * 
-     * @param str 布尔值字符串
-     * @return 布尔值（0或1）
+     * 类型化取值为空时，区分空单元格与无法解析的内容（仅后者记录诊断）
      */
-    private Integer parseBoolean(String str) {
-        if (str == null || str.trim().isEmpty()) {
-            return 0;
+    private void recordIfUnparseable(RowValueAccessor row, int columnIndex, ImportDiagnostics diagnostics, int rowNum) {
+        String raw = row.getString(columnIndex);
+        if (!RowValueAccessor.isBlank(raw)) {
+            diagnostics.record(ImportIssueType.NUMBER_INVALID, rowNum, raw);
         }
-        
-        String value = str.trim().toLowerCase();
-        if ("是".equals(value) || "true".equals(value) || "1".equals(value) || "yes".equals(value)) {
-            return 1;
-        }
-        return 0;
     }
     
     /**
      * 解析日期字符串
      * 
      * @param str 日期字符串
+     * @param diagnostics 导入诊断
+     * @param rowNum 行号
      * @return 日期
      */
-    private LocalDate parseDate(String str) {
+    private LocalDate parseDate(String str, ImportDiagnostics diagnostics, int rowNum) {
         if (str == null || str.trim().isEmpty()) {
             return null;
         }
         
-        try {
-            // 尝试多种日期格式
-            String[] patterns = {
-                "yyyy-MM-dd",
-                "yyyy/MM/dd",
-                "yyyy年MM月dd日",
-                "yyyyMMdd"
-            };
-            
-            for (String pattern : patterns) {
-                try {
-                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
-                    return LocalDate.parse(str.trim(), formatter);
-                } catch (Exception e) {
-                    // 继续尝试下一个格式
-                }
+        // 尝试多种日期格式
+        for (DateTimeFormatter formatter : DATE_FORMATTERS) {
+            try {
+                return LocalDate.parse(str.trim(), formatter);
+            } catch (Exception e) {
+                // 继续尝试下一个格式
             }
-            
-            log.warn("无法解析日期：{}", str);
-            return null;
-        } catch (Exception e) {
-            log.warn("无法解析日期：{}", str);
-            return null;
-        }
-    }
-
-    /**
-     * 从类目属性中提取第一个品牌
-     * 格式如："品牌：小宁电器。类型：茶杯消毒柜。能效等级：一级能效..."
-     * 返回第一个品牌，如："小宁电器"
-     */
-    private String extractBrandFromAttributes(String productAttributes) {
-        if (productAttributes == null || productAttributes.trim().isEmpty()) {
-            return null;
         }
-
-        try {
-            // 使用正则表达式匹配第一个"品牌："或"品牌:"后面的内容（直到句号）
-            java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("品牌[：:]([^。]+)");
-            java.util.regex.Matcher matcher = pattern.matcher(productAttributes);
-
-            // 只取第一个匹配
-            if (matcher.find()) {
-                return matcher.group(1).trim();
-            }
-
-        } catch (Exception e) {
-            log.debug("从类目属性提取品牌失败: {}", e.getMessage());
-        }
-
+        
+        diagnostics.record(ImportIssueType.DATE_INVALID, rowNum, str);
         return null;
     }
-    
+
     /**
      * 解析无理由退货标签ID
      * 支持以下格式：
@@ -432,9 +361,11 @@ public class MeituanFormatParser {
      * 1300030901 - 7天无理由退货
      *
      * @param value 输入值
+     * @param diagnostics 导入诊断
+     * @param rowNum 行号
      * @return 标签ID
      */
-    private String parseNoReasonReturnTagId(String value) {
+    private String parseNoReasonReturnTagId(String value, ImportDiagnostics diagnostics, int rowNum) {
         if (value == null || value.trim().isEmpty()) {
             log.debug("无理由退货字段为空，使用默认值: 1300030895");
             return "1300030895"; // 默认：不支持7天无理由退货
@@ -454,37 +385,37 @@ public class MeituanFormatParser {
 
         // 1300030902 - 7天无理由退货（一次性包装破损不支持）
         if (trimmedValue.contains("一次性包装破损") && trimmedValue.contains("不支持")) {
-            log.info("匹配到: 7天无理由退货（一次性包装破损不支持）-> 1300030902");
+            log.debug("匹配到: 7天无理由退货（一次性包装破损不支持）-> 1300030902");
             return "1300030902";
         }
 
         // 1300030903 - 7天无理由退货（激活后不支持）
         if (trimmedValue.contains("激活后") && trimmedValue.contains("不支持")) {
-            log.info("匹配到: 7天无理由退货（激活后不支持）-> 1300030903");
+            log.debug("匹配到: 7天无理由退货（激活后不支持）-> 1300030903");
             return "1300030903";
         }
 
         // 1300030904 - 7天无理由退货（使用后不支持）
         if (trimmedValue.contains("使用后") && trimmedValue.contains("不支持")) {
-            log.info("匹配到: 7天无理由退货（使用后不支持）-> 1300030904");
+            log.debug("匹配到: 7天无理由退货（使用后不支持）-> 1300030904");
             return "1300030904";
         }
 
         // 1300030905 - 7天无理由退货（安装后不支持）
         if (trimmedValue.contains("安装后") && trimmedValue.contains("不支持")) {
-            log.info("匹配到: 7天无理由退货（安装后不支持）-> 1300030905");
+            log.debug("匹配到: 7天无理由退货（安装后不支持）-> 1300030905");
             return "1300030905";
         }
 
         // 1300030906 - 7天无理由退货（定制类不支持）
         if (trimmedValue.contains("定制类") && trimmedValue.contains("不支持")) {
-            log.info("匹配到: 7天无理由退货（定制类不支持）-> 1300030906");
+            log.debug("匹配到: 7天无理由退货（定制类不支持）-> 1300030906");
             return "1300030906";
         }
 
         // 1300030901 - 7天无理由退货（通用）
         if (trimmedValue.contains("7天无理由退货") || trimmedValue.contains("七天无理由退货")) {
-            log.info("匹配到: 7天无理由退货 -> 1300030901");
+            log.debug("匹配到: 7天无理由退货 -> 1300030901");
             return "1300030901";
         }
 
@@ -493,7 +424,7 @@ public class MeituanFormatParser {
             trimmedValue.equals("0") ||
             trimmedValue.equalsIgnoreCase("false") ||
             trimmedValue.equals("否")) {
-            log.info("匹配到: 不支持7天无理由退货 -> 1300030895");
+            log.debug("匹配到: 不支持7天无理由退货 -> 1300030895");
             return "1300030895";
         }
 
@@ -501,12 +432,56 @@ public class MeituanFormatParser {
         if (trimmedValue.equals("1") ||
             trimmedValue.equalsIgnoreCase("true") ||
             trimmedValue.equals("是")) {
-            log.info("匹配到: 布尔值true -> 1300030901");
+            log.debug("匹配到: 布尔值true -> 1300030901");
             return "1300030901";
         }
 
         // 默认：不支持7天无理由退货
-        log.warn("无理由退货字段未匹配到任何标签，使用默认值。输入值: [{}], 长度: {}", trimmedValue, trimmedValue.length());
+        diagnostics.record(ImportIssueType.NO_REASON_RETURN_UNMATCHED, rowNum, trimmedValue);
         return "1300030895";
     }
+
+    /**
+     * 字段绑定：系统字段名 + 类型化取值并赋值给Product属性
+     */
+    private static final class FieldBinding {
+        
+        private final String fieldName;
+        private final ColumnSetter setter;
+        
+        FieldBinding(String fieldName, ColumnSetter setter) {
+            this.fieldName = fieldName;
+            this.setter = setter;
+        }
+    }
+    
+    /**
+     * 按列读取类型化的值并写入Product
+     */
+    @FunctionalInterface
+    private interface ColumnSetter {
+        void apply(Product product, RowValueAccessor row, int columnIndex, ImportDiagnostics diagnostics, int rowNum);
+    }
+    
+    /**
+     * 解析计划
+     * 由列映射编译而来，字段绑定与列索引按数组下标一一对应，未映射的列为-1
+     */
+    public static final class RowPlan {
+        
+        private final FieldBinding[] bindings;
+        private final int[] columns;
+        private final int productAttributesColumn;
+        private final int brandColumn;
+        private final int noReasonReturnColumn;
+        
+        private RowPlan(FieldBinding[] bindings, int[] columns, int productAttributesColumn,
+                        int brandColumn, int noReasonReturnColumn) {
+            this.bindings = bindings;
+            this.columns = columns;
+            this.productAttributesColumn = productAttributesColumn;
+            this.brandColumn = brandColumn;
+            this.noReasonReturnColumn = noReasonReturnColumn;
+        }
+    }
 }
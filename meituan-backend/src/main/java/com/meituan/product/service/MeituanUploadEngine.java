@@ -0,0 +1,301 @@
+package com.meituan.product.service;
+
+import com.meituan.product.client.MeituanApiClient;
+import com.meituan.product.dto.ProductDTO;
+import com.meituan.product.dto.UploadEngineStats;
+import com.meituan.product.dto.UploadResult;
+import com.meituan.product.entity.Product;
+import com.meituan.product.exception.MeituanApiException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 美团批量上传引擎
+ * 所有上传请求共用一个有界线程池，同时在途的批次数不超过配置值；每个批次发送前先从令牌桶取令牌，
+ * 整体请求速率不超过美团API配额。批次上传完成后在独立的短事务中更新商品状态，不再为整个上传过程持有事务
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MeituanUploadEngine {
+
+    // 统计耗时分位数保留的最近批次数
+    private static final int LATENCY_SAMPLES = 256;
+
+    // 吞吐量统计窗口
+    private static final long THROUGHPUT_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final MeituanApiClient meituanApiClient;
+    private final ProductStatusUpdater productStatusUpdater;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${meituan.upload.max-in-flight:4}")
+    private int maxInFlight;
+
+    @Value("${meituan.upload.rate-limit:5}")
+    private double rateLimit;
+
+    private ThreadPoolExecutor uploadExecutor;
+    private TokenBucket tokenBucket;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong batchesSucceeded = new AtomicLong();
+    private final AtomicLong batchesFailed = new AtomicLong();
+    private final AtomicLong productsUploaded = new AtomicLong();
+    private final AtomicLong productsFailed = new AtomicLong();
+
+    // 最近批次耗时（环形缓冲）
+    private final long[] latencySamples = new long[LATENCY_SAMPLES];
+    private int latencySampleCount;
+
+    // 最近一分钟完成的批次：{完成时间, 商品数}
+    private final Deque<long[]> recentCompletions = new ArrayDeque<>();
+
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(1, maxInFlight);
+        uploadExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("meituan-upload-"));
+        tokenBucket = new TokenBucket(rateLimit, (int) Math.ceil(rateLimit));
+        log.info("美团上传线程池初始化完成，并发批次数：{}，限流：{}次/秒", threads, rateLimit > 0 ? rateLimit : "不限");
+    }
+
+    @PreDestroy
+    public void destroy() {
+        uploadExecutor.shutdownNow();
+    }
+
+    /**
+     * 并发上传商品批次
+     * 批次按顺序提交，请求线程按顺序等待结果，单个批次失败不影响其他批次
+     *
+     * @param batches 商品批次
+     * @param accessToken 访问令牌
+     * @return 上传结果
+     */
+    public UploadResult upload(List<List<Product>> batches, String accessToken) {
+        long startTime = System.currentTimeMillis();
+
+        List<Future<BatchOutcome>> futures = new ArrayList<>(batches.size());
+        for (int i = 0; i < batches.size(); i++) {
+            List<Product> batch = batches.get(i);
+            int batchNumber = i + 1;
+            futures.add(uploadExecutor.submit(() -> uploadBatch(batch, batchNumber, batches.size(), accessToken)));
+        }
+
+        int totalCount = 0;
+        int successCount = 0;
+        long maxLatency = 0;
+        List<Product> failedProducts = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        try {
+            for (int i = 0; i < batches.size(); i++) {
+                List<Product> batch = batches.get(i);
+                BatchOutcome outcome = awaitBatch(futures.get(i));
+                totalCount += batch.size();
+                maxLatency = Math.max(maxLatency, outcome.latencyMillis);
+                if (outcome.error == null) {
+                    successCount += batch.size();
+                } else {
+                    failedProducts.addAll(batch);
+                    errors.add(String.format("第%d批上传失败：%s", i + 1, outcome.error));
+                }
+                if (outcome.statusError != null) {
+                    errors.add(String.format("第%d批状态更新失败：%s", i + 1, outcome.statusError));
+                }
+            }
+        } finally {
+            // 请求线程出错或被中断时取消尚未开始的批次
+            for (Future<BatchOutcome> future : futures) {
+                future.cancel(false);
+            }
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("批量上传完成，总数：{}，成功：{}，失败：{}，批次数：{}，单批最长：{}ms，耗时：{}ms，吞吐量：{}条/秒",
+                totalCount, successCount, failedProducts.size(), batches.size(), maxLatency, duration,
+                duration > 0 ? totalCount * 1000L / duration : totalCount);
+
+        if (failedProducts.isEmpty() && errors.isEmpty()) {
+            return UploadResult.success(totalCount, duration);
+        }
+        return UploadResult.partial(totalCount, successCount, failedProducts, errors, duration);
+    }
+
+    /**
+     * 上传一个批次并更新商品状态（在上传线程池中执行）
+     * 状态写回失败只记录到本批次结果中，不影响其他批次；已上传到美团的批次仍计为成功，避免重复上传
+     */
+    private BatchOutcome uploadBatch(List<Product> batch, int batchNumber, int batchCount, String accessToken)
+            throws InterruptedException {
+        tokenBucket.acquire();
+
+        inFlight.incrementAndGet();
+        long start = System.currentTimeMillis();
+        String error = null;
+        try {
+            List<ProductDTO> productDTOs = batch.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+            meituanApiClient.uploadProducts(productDTOs, accessToken);
+        } catch (MeituanApiException e) {
+            log.error("第{}/{}批上传失败", batchNumber, batchCount, e);
+            error = e.getMessage();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        long latency = System.currentTimeMillis() - start;
+
+        Product.Status status = error == null ? Product.Status.UPLOADED : Product.Status.FAILED;
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (Product product : batch) {
+            product.setStatus(status.getCode());
+            ids.add(product.getId());
+        }
+        String statusError = null;
+        try {
+            transactionTemplate.executeWithoutResult(tx -> productStatusUpdater.updateStatus(ids, status));
+        } catch (RuntimeException e) {
+            log.error("第{}/{}批商品状态更新为{}失败", batchNumber, batchCount, status.getDescription(), e);
+            statusError = e.getMessage();
+        }
+
+        recordBatch(batch.size(), latency, error == null);
+        if (error == null) {
+            log.info("第{}/{}批上传成功，数量：{}，耗时：{}ms", batchNumber, batchCount, batch.size(), latency);
+        }
+        return new BatchOutcome(latency, error, statusError);
+    }
+
+    /**
+     * 等待批次上传完成，任务异常原样抛出
+     */
+    private BatchOutcome awaitBatch(Future<BatchOutcome> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("上传已中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * 转换Product为ProductDTO
+     */
+    private ProductDTO convertToDTO(Product product) {
+        ProductDTO dto = new ProductDTO();
+        dto.setProductName(product.getProductName());
+        dto.setCategoryId(product.getCategoryId());
+        dto.setPrice(product.getPrice());
+        dto.setStock(product.getStock());
+        dto.setDescription(product.getDescription());
+        dto.setImageUrl(product.getImageUrl());
+        return dto;
+    }
+
+    private void recordBatch(int productCount, long latencyMillis, boolean success) {
+        if (success) {
+            batchesSucceeded.incrementAndGet();
+            productsUploaded.addAndGet(productCount);
+        } else {
+            batchesFailed.incrementAndGet();
+            productsFailed.addAndGet(productCount);
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            latencySamples[latencySampleCount % LATENCY_SAMPLES] = latencyMillis;
+            latencySampleCount++;
+            recentCompletions.addLast(new long[]{now, productCount});
+            pruneCompletions(now);
+        }
+    }
+
+    private void pruneCompletions(long now) {
+        while (!recentCompletions.isEmpty() && recentCompletions.peekFirst()[0] < now - THROUGHPUT_WINDOW_MILLIS) {
+            recentCompletions.removeFirst();
+        }
+    }
+
+    /**
+     * 获取上传引擎运行指标
+     *
+     * @return 运行指标
+     */
+    public UploadEngineStats getStats() {
+        UploadEngineStats stats = new UploadEngineStats();
+        stats.setMaxInFlight(uploadExecutor.getMaximumPoolSize());
+        stats.setInFlight(inFlight.get());
+        stats.setQueuedBatches(uploadExecutor.getQueue().size());
+        stats.setRateLimit(tokenBucket.getRate());
+        stats.setBatchesSucceeded(batchesSucceeded.get());
+        stats.setBatchesFailed(batchesFailed.get());
+        stats.setProductsUploaded(productsUploaded.get());
+        stats.setProductsFailed(productsFailed.get());
+
+        long[] samples;
+        long windowProducts = 0;
+        synchronized (this) {
+            samples = Arrays.copyOf(latencySamples, Math.min(latencySampleCount, LATENCY_SAMPLES));
+            pruneCompletions(System.currentTimeMillis());
+            for (long[] completion : recentCompletions) {
+                windowProducts += completion[1];
+            }
+        }
+        stats.setThroughputPerSecond(windowProducts * 1000.0 / THROUGHPUT_WINDOW_MILLIS);
+
+        if (samples.length > 0) {
+            Arrays.sort(samples);
+            stats.setAvgLatencyMillis(Arrays.stream(samples).sum() / samples.length);
+            stats.setP95LatencyMillis(samples[(int) Math.ceil(samples.length * 0.95) - 1]);
+            stats.setMaxLatencyMillis(samples[samples.length - 1]);
+        } else {
+            stats.setAvgLatencyMillis(0L);
+            stats.setP95LatencyMillis(0L);
+            stats.setMaxLatencyMillis(0L);
+        }
+        return stats;
+    }
+
+    /**
+     * 批次上传结果
+     */
+    private static final class BatchOutcome {
+
+        private final long latencyMillis;
+        private final String error;
+        private final String statusError;
+
+        BatchOutcome(long latencyMillis, String error, String statusError) {
+            this.latencyMillis = latencyMillis;
+            this.error = error;
+            this.statusError = statusError;
+        }
+    }
+}
@@ -248,6 +248,26 @@ public class MinioService {
         }
     }
     
+    /**
+     * 获取文件ETag（文件内容变化时ETag随之变化）
+     * 
+     * @param objectName 对象名称
+     * @return ETag
+     */
+    public String getFileEtag(String objectName) {
+        try {
+            return minioClient.statObject(
+                    StatObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectName)
+                            .build()
+            ).etag();
+        } catch (Exception e) {
+            log.error("获取文件信息失败", e);
+            throw new RuntimeException("获取文件信息失败: " + e.getMessage());
+        }
+    }
+    
     /**
      * 检查文件是否存在
      * 
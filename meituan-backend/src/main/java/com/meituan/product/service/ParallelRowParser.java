@@ -0,0 +1,185 @@
+package com.meituan.product.service;
+
+import com.meituan.product.entity.Product;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 并行行解析器
+ * 把流式读取的数据行按块提交到ForkJoinPool并行解析，结果按行顺序回到提交线程，
+ * 行号与错误信息保持与单线程解析一致；同时在途的块数有上限，内存占用可控
+ */
+@Slf4j
+@Component
+public class ParallelRowParser {
+
+    @Value("${meituan.import.parallel-parse.enabled:false}")
+    private boolean enabled;
+
+    @Value("${meituan.import.parallel-parse.parallelism:0}")
+    private int parallelism;
+
+    @Value("${meituan.import.parallel-parse.chunk-size:500}")
+    private int chunkSize;
+
+    private ForkJoinPool pool;
+    private int maxInFlightChunks;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads);
+        maxInFlightChunks = threads * 2;
+        log.info("并行解析已启用，并行度：{}，分块大小：{}", threads, chunkSize);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 单行解析函数（需线程安全）
+     */
+    @FunctionalInterface
+    public interface RowParser {
+        Product parse(int rowIndex, String[] values);
+    }
+
+    /**
+     * 解析结果处理器（在提交线程中按行顺序回调）
+     */
+    public interface ResultHandler {
+
+        void onProduct(int rowIndex, Product product);
+
+        void onError(int rowIndex, Exception e);
+    }
+
+    /**
+     * 开启一次解析会话
+     *
+     * @param parser 单行解析函数
+     * @param handler 结果处理器
+     * @return 解析会话
+     */
+    public Session openSession(RowParser parser, ResultHandler handler) {
+        return new Session(parser, handler);
+    }
+
+    /**
+     * 解析会话（非线程安全，由读取线程独占使用）
+     */
+    public class Session {
+
+        private final RowParser parser;
+        private final ResultHandler handler;
+        private final Deque<ForkJoinTask<ChunkResult>> inFlight = new ArrayDeque<>();
+
+        private int[] rowIndexes = new int[chunkSize];
+        private String[][] rows = new String[chunkSize][];
+        private int size;
+
+        private Session(RowParser parser, ResultHandler handler) {
+            this.parser = parser;
+            this.handler = handler;
+        }
+
+        /**
+         * 提交一行数据，块满时提交到线程池
+         */
+        public void submit(int rowIndex, String[] values) {
+            rowIndexes[size] = rowIndex;
+            rows[size] = values;
+            size++;
+            if (size == chunkSize) {
+                submitChunk();
+            }
+        }
+
+        /**
+         * 提交剩余数据并等待全部结果回调完成
+         */
+        public void finish() {
+            if (size > 0) {
+                submitChunk();
+            }
+            while (!inFlight.isEmpty()) {
+                emit(inFlight.pollFirst().join());
+            }
+        }
+
+        private void submitChunk() {
+            int[] chunkIndexes = rowIndexes;
+            String[][] chunkRows = rows;
+            int chunkLength = size;
+            rowIndexes = new int[chunkSize];
+            rows = new String[chunkSize][];
+            size = 0;
+
+            inFlight.addLast(pool.submit(() -> parseChunk(chunkIndexes, chunkRows, chunkLength)));
+
+            // 队首已完成的块立即输出；在途块过多时阻塞等待队首
+            while (!inFlight.isEmpty() && (inFlight.peekFirst().isDone() || inFlight.size() > maxInFlightChunks)) {
+                emit(inFlight.pollFirst().join());
+            }
+        }
+
+        private ChunkResult parseChunk(int[] chunkIndexes, String[][] chunkRows, int chunkLength) {
+            ChunkResult result = new ChunkResult(chunkIndexes, chunkLength);
+            for (int i = 0; i < chunkLength; i++) {
+                try {
+                    result.products[i] = parser.parse(chunkIndexes[i], chunkRows[i]);
+                } catch (Exception e) {
+                    result.errors[i] = e;
+                }
+            }
+            return result;
+        }
+
+        private void emit(ChunkResult result) {
+            for (int i = 0; i < result.length; i++) {
+                if (result.errors[i] != null) {
+                    handler.onError(result.rowIndexes[i], result.errors[i]);
+                } else {
+                    handler.onProduct(result.rowIndexes[i], result.products[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 块解析结果（下标与块内行顺序一致）
+     */
+    private static class ChunkResult {
+
+        private final int[] rowIndexes;
+        private final int length;
+        private final Product[] products;
+        private final Exception[] errors;
+
+        ChunkResult(int[] rowIndexes, int length) {
+            this.rowIndexes = rowIndexes;
+            this.length = length;
+            this.products = new Product[length];
+            this.errors = new Exception[length];
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.meituan.product.service;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+
+import java.math.BigDecimal;
+
+/**
+ * 基于POI用户模型（Row）的行数据访问器
+ * 字符串取值规则与SAX流式读取保持一致；数值单元格的类型化取值直接读取double，
+ * 不经过“数值 -> 字符串 -> 数值”的往返转换
+ */
+public class PoiRowAccessor implements RowValueAccessor {
+
+    private final Row row;
+
+    public PoiRowAccessor(Row row) {
+        this.row = row;
+    }
+
+    @Override
+    public String getString(int columnIndex) {
+        return getCellValueAsString(getCell(columnIndex));
+    }
+
+    @Override
+    public BigDecimal getDecimal(int columnIndex) {
+        Cell cell = getCell(columnIndex);
+        if (isPlainNumeric(cell)) {
+            double value = cell.getNumericCellValue();
+            return value == (long) value ? BigDecimal.valueOf((long) value) : BigDecimal.valueOf(value);
+        }
+        return RowValueAccessor.super.getDecimal(columnIndex);
+    }
+
+    @Override
+    public Integer getInteger(int columnIndex) {
+        Cell cell = getCell(columnIndex);
+        if (isPlainNumeric(cell)) {
+            return (int) cell.getNumericCellValue();
+        }
+        return RowValueAccessor.super.getInteger(columnIndex);
+    }
+
+    @Override
+    public int getFlag(int columnIndex) {
+        Cell cell = getCell(columnIndex);
+        if (cell != null && cell.getCellType() == CellType.BOOLEAN) {
+            return cell.getBooleanCellValue() ? 1 : 0;
+        }
+        if (isPlainNumeric(cell)) {
+            return cell.getNumericCellValue() == 1 ? 1 : 0;
+        }
+        return RowValueAccessor.super.getFlag(columnIndex);
+    }
+
+    private Cell getCell(int columnIndex) {
+        return columnIndex >= 0 ? row.getCell(columnIndex) : null;
+    }
+
+    /**
+     * 是否为非日期格式的数值单元格
+     */
+    private static boolean isPlainNumeric(Cell cell) {
+        return cell != null && cell.getCellType() == CellType.NUMERIC && !DateUtil.isCellDateFormatted(cell);
+    }
+
+    /**
+     * 获取单元格的字符串值
+     *
+     * @param cell 单元格
+     * @return 字符串值
+     */
+    public static String getCellValueAsString(Cell cell) {
+        if (cell == null) {
+            return null;
+        }
+
+        switch (cell.getCellType()) {
+            case STRING:
+                return cell.getStringCellValue();
+            case NUMERIC:
+                if (DateUtil.isCellDateFormatted(cell)) {
+                    return cell.getDateCellValue().toString();
+                } else {
+                    // 避免科学计数法
+                    return formatNumeric(cell.getNumericCellValue());
+                }
+            case BOOLEAN:
+                return String.valueOf(cell.getBooleanCellValue());
+            case FORMULA:
+                // 对于公式单元格，尝试获取计算后的值
+                try {
+                    return cell.getStringCellValue();
+                } catch (Exception e) {
+                    try {
+                        return formatNumeric(cell.getNumericCellValue());
+                    } catch (Exception ex) {
+                        return null;
+                    }
+                }
+            case BLANK:
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 数值转字符串，整数返回整数字符串
+     */
+    private static String formatNumeric(double numericValue) {
+        if (numericValue == (long) numericValue) {
+            return String.valueOf((long) numericValue);
+        }
+        return String.valueOf(numericValue);
+    }
+}
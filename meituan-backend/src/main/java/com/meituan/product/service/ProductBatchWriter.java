@@ -0,0 +1,120 @@
+package com.meituan.product.service;
+
+import com.meituan.product.entity.Product;
+import com.meituan.product.mapper.ProductMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * 商品批量写入器
+ * 支持两种插入方式（meituan.import.insert-mode）：
+ * multi-values —— ProductMapper.batchInsert 拼接一条多行VALUES语句；
+ * jdbc-batch —— BATCH执行器复用同一条预编译的单行INSERT，配合连接参数
+ * rewriteBatchedStatements=true 由驱动改写为多行VALUES发送，省去MyBatis拼装大SQL的开销
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductBatchWriter {
+
+    /**
+     * 插入方式：多行VALUES
+     */
+    public static final String MODE_MULTI_VALUES = "multi-values";
+
+    /**
+     * 插入方式：JDBC批处理
+     */
+    public static final String MODE_JDBC_BATCH = "jdbc-batch";
+
+    // 回滚时每条DELETE语句最多包含的ID数
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    private final ProductMapper productMapper;
+    private final SqlSessionFactory sqlSessionFactory;
+
+    @Value("${meituan.import.insert-mode:" + MODE_MULTI_VALUES + "}")
+    private String insertMode;
+
+    @PostConstruct
+    public void init() {
+        if (!MODE_MULTI_VALUES.equals(insertMode) && !MODE_JDBC_BATCH.equals(insertMode)) {
+            throw new IllegalArgumentException("不支持的插入方式：" + insertMode);
+        }
+        log.info("商品批量插入方式：{}", insertMode);
+    }
+
+    /**
+     * 批量插入商品
+     *
+     * @param products 商品列表（插入后回填自增ID）
+     * @return 插入的记录数
+     */
+    public int insert(List<Product> products) {
+        if (products.isEmpty()) {
+            return 0;
+        }
+        if (MODE_JDBC_BATCH.equals(insertMode)) {
+            return insertWithJdbcBatch(products);
+        }
+        return productMapper.batchInsert(products);
+    }
+
+    /**
+     * 物理删除已插入的商品（导入失败时回滚已写入的批次）
+     *
+     * @param ids 商品ID列表
+     * @return 删除的记录数
+     */
+    public int delete(List<Long> ids) {
+        int total = 0;
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+            total += productMapper.purgeByIds(ids.subList(from, Math.min(ids.size(), from + DELETE_CHUNK_SIZE)));
+        }
+        return total;
+    }
+
+    /**
+     * 使用BATCH执行器插入，一个批次一个事务
+     */
+    private int insertWithJdbcBatch(List<Product> products) {
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            ProductMapper batchMapper = session.getMapper(ProductMapper.class);
+            for (Product product : products) {
+                batchMapper.insertOne(product);
+            }
+
+            List<BatchResult> results = session.flushStatements();
+            session.commit();
+            return countUpdates(results);
+        }
+    }
+
+    /**
+     * 统计批处理影响行数
+     * 驱动改写批处理后可能返回SUCCESS_NO_INFO，按成功一行计
+     */
+    private int countUpdates(List<BatchResult> results) {
+        int total = 0;
+        for (BatchResult result : results) {
+            for (int count : result.getUpdateCounts()) {
+                if (count > 0) {
+                    total += count;
+                } else if (count == Statement.SUCCESS_NO_INFO) {
+                    total++;
+                }
+            }
+        }
+        return total;
+    }
+}
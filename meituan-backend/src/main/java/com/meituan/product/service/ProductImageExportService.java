@@ -2,7 +2,7 @@ package com.meituan.product.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.meituan.product.entity.Product;
+import com.meituan.product.dto.ProductImageSource;
 import com.meituan.product.mapper.ProductMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -48,18 +48,23 @@ public class ProductImageExportService {
      * @return ZIP文件路径
      */
     public File exportProductImages(Long merchantId, String namingType, List<Long> productIds) throws Exception {
-        // 获取商品列表
-        List<Product> products;
+        // 获取商品列表（只查询命名和图片字段）
+        List<ProductImageSource> products;
         if (productIds != null && !productIds.isEmpty()) {
+            // 保持请求中的ID顺序（同名商品取第一个）
+            java.util.Map<Long, ProductImageSource> byId = new java.util.HashMap<>();
+            for (ProductImageSource product : productMapper.selectImageSources(merchantId, productIds)) {
+                byId.put(product.getId(), product);
+            }
             products = new ArrayList<>();
             for (Long productId : productIds) {
-                Product product = productMapper.selectById(productId);
-                if (product != null && product.getMerchantId().equals(merchantId)) {
+                ProductImageSource product = byId.remove(productId);
+                if (product != null) {
                     products.add(product);
                 }
             }
         } else {
-            products = productMapper.selectByMerchantId(merchantId);
+            products = productMapper.selectImageSources(merchantId, null);
         }
 
         if (products.isEmpty()) {
@@ -79,7 +84,7 @@ public class ProductImageExportService {
             // 按商品名称分组，每个名称只取第一个商品的图片
             java.util.Map<String, List<String>> productImageMap = new java.util.LinkedHashMap<>();
 
-            for (Product product : products) {
+            for (ProductImageSource product : products) {
                 // 获取商品命名基础
                 String baseName = getProductBaseName(product, namingType);
                 if (baseName == null || baseName.isEmpty()) {
@@ -208,7 +213,7 @@ public class ProductImageExportService {
     /**
      * 获取商品命名基础
      */
-    private String getProductBaseName(Product product, String namingType) {
+    private String getProductBaseName(ProductImageSource product, String namingType) {
         switch (namingType) {
             case "PRODUCT_NAME":
                 return product.getProductName();
@@ -0,0 +1,301 @@
+package com.meituan.product.service;
+
+import com.meituan.product.dto.ErrorDetail;
+import com.meituan.product.dto.ExcelParseSummary;
+import com.meituan.product.dto.ImportResult;
+import com.meituan.product.entity.Product;
+import com.meituan.product.enums.FormatType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 商品导入流水线
+ * 解析线程逐行解析Excel并按批次投递，插入线程池通过ProductBatchWriter并发写入，
+ * 每次导入最多有 queue-capacity + insert-threads 个批次在内存中，解析与数据库写入相互重叠
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductImportPipeline {
+
+    private final ExcelService excelService;
+    private final ProductBatchWriter productBatchWriter;
+    private final MappingMemoryService mappingMemoryService;
+
+    @Value("${meituan.upload.batch-size:500}")
+    private Integer batchSize;
+
+    @Value("${meituan.import.insert-threads:4}")
+    private Integer insertThreads;
+
+    @Value("${meituan.import.queue-capacity:8}")
+    private Integer queueCapacity;
+
+    private ExecutorService insertExecutor;
+
+    @PostConstruct
+    public void init() {
+        insertExecutor = new ThreadPoolExecutor(insertThreads, insertThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("import-insert-"));
+        log.info("导入流水线初始化完成，插入线程数：{}，队列容量：{}，批次大小：{}", insertThreads, queueCapacity, batchSize);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        insertExecutor.shutdown();
+    }
+
+    /**
+     * 执行导入：解析Excel并并发分批插入数据库
+     * 行级解析错误和失败的批次记录在结果中，不中断其他数据的导入；
+     * 解析中途失败（文件损坏、表头无法识别等）时删除已写入的批次后抛出异常，重试不会重复导入
+     *
+     * @param inputStream Excel输入流
+     * @param fileType 文件类型（xlsx或xls）
+     * @param merchantId 商家ID
+     * @return 导入结果
+     */
+    public ImportResult run(InputStream inputStream, String fileType, Long merchantId) {
+        return run(inputStream, fileType, merchantId, new ImportProgress());
+    }
+
+    /**
+     * 执行导入，并把解析、插入进度实时写入progress
+     *
+     * @param inputStream Excel输入流
+     * @param fileType 文件类型（xlsx或xls）
+     * @param merchantId 商家ID
+     * @param progress 导入进度
+     * @return 导入结果
+     */
+    public ImportResult run(InputStream inputStream, String fileType, Long merchantId, ImportProgress progress) {
+        return run(inputStream, fileType, merchantId, progress, new ImportDiagnostics(false));
+    }
+
+    /**
+     * 执行导入，并把进度写入progress、逐行的非致命问题汇总到diagnostics
+     *
+     * @param inputStream Excel输入流
+     * @param fileType 文件类型（xlsx或xls）
+     * @param merchantId 商家ID
+     * @param progress 导入进度
+     * @param diagnostics 导入诊断
+     * @return 导入结果（包含诊断计数和样例）
+     */
+    public ImportResult run(InputStream inputStream, String fileType, Long merchantId, ImportProgress progress,
+                            ImportDiagnostics diagnostics) {
+        long startTime = System.currentTimeMillis();
+        progress.start();
+        ImportRun run = new ImportRun(merchantId, progress);
+
+        ExcelParseSummary summary = null;
+        try {
+            summary = excelService.streamExcelRows(inputStream, fileType, run::accept, progress::setEstimatedRows,
+                    diagnostics, merchantId);
+            run.flush();
+        } finally {
+            long parseEnd = System.currentTimeMillis();
+            progress.addStageTime(ImportProgress.STAGE_PARSE, parseEnd - startTime);
+            // 解析异常时也要等待已投递的批次结束，再回滚已写入的商品
+            run.awaitCompletion();
+            progress.addStageTime(ImportProgress.STAGE_DRAIN, System.currentTimeMillis() - parseEnd);
+            if (summary == null) {
+                run.rollback();
+            }
+        }
+        progress.rowsFailed(summary.getErrorDetails().size(), summary.getErrorDetails().size());
+
+        long duration = System.currentTimeMillis() - startTime;
+        ImportResult result = run.toResult(summary, duration);
+        result.setDiagnosticCounts(diagnostics.getCounts());
+        result.setDiagnosticSamples(diagnostics.getSamples());
+        if (!result.getDiagnosticCounts().isEmpty()) {
+            log.info("导入诊断汇总，商家ID：{}，{}", merchantId, result.getDiagnosticCounts());
+        }
+        // 有商品成功入库说明本次列映射可用，其中可靠的匹配记入商家的映射记忆
+        if (summary.getFormatType() == FormatType.MEITUAN && result.getSuccessCount() > 0) {
+            mappingMemoryService.recordMappings(merchantId, summary.getMappingResult());
+        }
+        log.info("导入完成，商家ID：{}，解析{}条，成功{}条，失败{}条，耗时{}ms，吞吐{}行/秒，最大队列深度{}",
+                merchantId, summary.getParsedCount(), result.getSuccessCount(), result.getFailedCount(),
+                duration, result.getRowsPerSecond(), result.getMaxQueueDepth());
+        return result;
+    }
+
+    /**
+     * 单次导入的运行状态
+     */
+    private class ImportRun {
+
+        private final Long merchantId;
+        private final ImportProgress progress;
+        private final Semaphore inFlight = new Semaphore(queueCapacity + insertThreads);
+        private final AtomicInteger queuedBatches = new AtomicInteger();
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+        private final AtomicInteger insertedCount = new AtomicInteger();
+        private final AtomicInteger insertFailedCount = new AtomicInteger();
+        private final List<Future<?>> futures = new ArrayList<>();
+        private final List<ErrorDetail> insertErrors = new ArrayList<>();
+        private final List<Long> insertedIds = new ArrayList<>();
+
+        private List<Product> buffer;
+        private int bufferFirstRow;
+        private int bufferLastRow;
+        private int batchCount;
+
+        ImportRun(Long merchantId, ImportProgress progress) {
+            this.merchantId = merchantId;
+            this.progress = progress;
+            this.buffer = new ArrayList<>(batchSize);
+        }
+
+        void accept(Product product, int rowNum) {
+            product.setMerchantId(merchantId);
+            progress.rowParsed();
+            if (buffer.isEmpty()) {
+                bufferFirstRow = rowNum;
+            }
+            bufferLastRow = rowNum;
+            buffer.add(product);
+            if (buffer.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        /**
+         * 投递当前缓冲的批次，插入线程全忙且队列已满时阻塞解析线程
+         */
+        void flush() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+
+            List<Product> batch = buffer;
+            int batchNo = ++batchCount;
+            int firstRow = bufferFirstRow;
+            int lastRow = bufferLastRow;
+            buffer = new ArrayList<>(batchSize);
+
+            try {
+                if (!inFlight.tryAcquire()) {
+                    long blockStart = System.currentTimeMillis();
+                    inFlight.acquire();
+                    progress.addStageTime(ImportProgress.STAGE_BACKPRESSURE, System.currentTimeMillis() - blockStart);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("导入被中断", e);
+            }
+
+            maxQueueDepth.accumulateAndGet(queuedBatches.incrementAndGet(), Math::max);
+            try {
+                futures.add(insertExecutor.submit(() -> insertBatch(batchNo, firstRow, lastRow, batch)));
+            } catch (RuntimeException e) {
+                queuedBatches.decrementAndGet();
+                inFlight.release();
+                throw e;
+            }
+        }
+
+        private void insertBatch(int batchNo, int firstRow, int lastRow, List<Product> batch) {
+            queuedBatches.decrementAndGet();
+            long insertStart = System.currentTimeMillis();
+            try {
+                int insertCount = productBatchWriter.insert(batch);
+                synchronized (insertedIds) {
+                    for (Product product : batch) {
+                        if (product.getId() != null) {
+                            insertedIds.add(product.getId());
+                        }
+                    }
+                }
+                insertedCount.addAndGet(insertCount);
+                progress.rowsInserted(insertCount);
+                log.debug("批次 {}（第{}-{}行）导入成功 {} 条", batchNo, firstRow, lastRow, insertCount);
+            } catch (Exception e) {
+                insertFailedCount.addAndGet(batch.size());
+                progress.rowsFailed(batch.size(), 1);
+                log.error("批次 {}（第{}-{}行）导入失败，共{}条", batchNo, firstRow, lastRow, batch.size(), e);
+                synchronized (insertErrors) {
+                    insertErrors.add(new ErrorDetail(firstRow, "批次" + batchNo,
+                        String.format("第%d-%d行数据库写入失败：%s", firstRow, lastRow, e.getMessage())));
+                }
+            } finally {
+                progress.addStageTime(ImportProgress.STAGE_INSERT, System.currentTimeMillis() - insertStart);
+                inFlight.release();
+            }
+        }
+
+        /**
+         * 删除本次导入已写入的商品
+         * 删除失败时保留已写入的记录，已写入数仍体现在导入进度中
+         */
+        void rollback() {
+            List<Long> ids;
+            synchronized (insertedIds) {
+                ids = new ArrayList<>(insertedIds);
+            }
+            if (ids.isEmpty()) {
+                return;
+            }
+            try {
+                int deleted = productBatchWriter.delete(ids);
+                insertedCount.addAndGet(-deleted);
+                progress.rowsRolledBack(deleted);
+                log.warn("导入失败，已回滚写入的商品，商家ID：{}，删除{}条", merchantId, deleted);
+            } catch (Exception e) {
+                log.error("导入失败后回滚写入的商品失败，商家ID：{}，已写入{}条", merchantId, ids.size(), e);
+            }
+        }
+
+        void awaitCompletion() {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("导入被中断", e);
+                } catch (ExecutionException e) {
+                    // insertBatch内部已处理异常，这里只记录意外情况
+                    log.error("导入批次执行异常", e.getCause());
+                }
+            }
+        }
+
+        ImportResult toResult(ExcelParseSummary summary, long duration) {
+            ImportResult result = new ImportResult();
+            result.setFormatType(summary.getFormatType());
+            result.setDuration(duration);
+
+            int parseFailed = summary.getErrorDetails().size();
+            result.setTotalCount(summary.getParsedCount() + parseFailed);
+            result.setSuccessCount(insertedCount.get());
+            result.setFailedCount(parseFailed + insertFailedCount.get());
+
+            summary.getErrorDetails().forEach(result::addErrorDetail);
+            insertErrors.forEach(result::addErrorDetail);
+
+            result.setRowsPerSecond(duration > 0 ? insertedCount.get() * 1000.0 / duration : insertedCount.get());
+            result.setMaxQueueDepth(maxQueueDepth.get());
+            result.setQueueCapacity(queueCapacity);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.meituan.product.service;
+
+import com.meituan.product.entity.Product;
+import com.meituan.product.mapper.ProductMapper;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 商品键集分页读取器
+ * 按 (merchant_id, id) 倒序分页读取一段ID范围内的商品，下一页从上一页最后一个ID继续，不使用OFFSET；
+ * 同一时刻内存中只有一页商品，每页查询完即释放数据库连接，可在多个线程中各自读取不同的范围；
+ * 每页只查询导出列，读取器累计查询次数和耗时，便于和写入耗时对比（单个读取器只在一个线程中使用）
+ */
+public class ProductKeysetReader implements Iterable<Product> {
+
+    private final ProductMapper productMapper;
+    private final Long merchantId;
+    private final long maxId;
+    private final long minId;
+    private final int pageSize;
+
+    private int queryCount;
+    private long queryNanos;
+
+    /**
+     * @param productMapper 商品Mapper
+     * @param merchantId 商家ID
+     * @param maxId 最大ID（包含）
+     * @param minId 最小ID（包含）
+     * @param pageSize 每页数量
+     */
+    public ProductKeysetReader(ProductMapper productMapper, Long merchantId, long maxId, long minId, int pageSize) {
+        this.productMapper = productMapper;
+        this.merchantId = merchantId;
+        this.maxId = maxId;
+        this.minId = minId;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public Iterator<Product> iterator() {
+        return new Iterator<>() {
+
+            private List<Product> page = Collections.emptyList();
+            private int position;
+            private long beforeId = maxId == Long.MAX_VALUE ? Long.MAX_VALUE : maxId + 1;
+            private boolean lastPage;
+
+            @Override
+            public boolean hasNext() {
+                if (position < page.size()) {
+                    return true;
+                }
+                if (lastPage) {
+                    return false;
+                }
+                long queryStart = System.nanoTime();
+                page = productMapper.selectPageBeforeId(merchantId, beforeId, minId, pageSize);
+                queryNanos += System.nanoTime() - queryStart;
+                queryCount++;
+                position = 0;
+                lastPage = page.size() < pageSize;
+                if (!page.isEmpty()) {
+                    beforeId = page.get(page.size() - 1).getId();
+                }
+                return !page.isEmpty();
+            }
+
+            @Override
+            public Product next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(position++);
+            }
+        };
+    }
+
+    /**
+     * 获取已执行的分页查询次数
+     */
+    public int getQueryCount() {
+        return queryCount;
+    }
+
+    /**
+     * 获取分页查询累计耗时（毫秒）
+     */
+    public long getQueryMillis() {
+        return queryNanos / 1_000_000;
+    }
+}
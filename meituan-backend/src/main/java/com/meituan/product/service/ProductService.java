@@ -1,28 +1,44 @@
 package com.meituan.product.service;
 
-import com.meituan.product.client.MeituanApiClient;
 import com.meituan.product.dto.ClearResult;
 import com.meituan.product.dto.ImportResult;
-import com.meituan.product.dto.ProductDTO;
+import com.meituan.product.dto.MeituanDeleteStatus;
 import com.meituan.product.dto.ProductStats;
 import com.meituan.product.dto.UploadResult;
 import com.meituan.product.entity.OperationLog;
 import com.meituan.product.entity.Product;
 import com.meituan.product.exception.DataValidationException;
-import com.meituan.product.exception.MeituanApiException;
+import com.meituan.product.exception.FileFormatException;
 import com.meituan.product.mapper.ProductMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -36,16 +52,41 @@ public class ProductService {
     
     private final ExcelService excelService;
     private final ProductMapper productMapper;
-    private final MeituanApiClient meituanApiClient;
     private final OperationLogService operationLogService;
     private final com.meituan.product.mapper.OperationLogMapper operationLogMapper;
     private final FileStorageService fileStorageService;
+    private final ProductImportPipeline productImportPipeline;
+    private final MeituanUploadEngine meituanUploadEngine;
+    private final ProductStatusUpdater productStatusUpdater;
+    private final MeituanDeleteJobService meituanDeleteJobService;
     
     @Value("${meituan.upload.batch-size:500}")
     private Integer batchSize;
 
     @Value("${meituan.export.max-rows-per-file:2000}")
     private Integer maxRowsPerFile;
+
+    @Value("${meituan.export.page-size:500}")
+    private int exportPageSize;
+
+    @Value("${meituan.export.parallel-threads:0}")
+    private int exportThreads;
+
+    // ZIP导出批次生成线程池（所有导出请求共用，并发生成的Excel数量有上限）
+    private ThreadPoolExecutor exportExecutor;
+
+    @PostConstruct
+    public void init() {
+        int threads = exportThreads > 0 ? exportThreads : Runtime.getRuntime().availableProcessors();
+        exportExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("export-part-"));
+        log.info("导出线程池初始化完成，线程数：{}", threads);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        exportExecutor.shutdownNow();
+    }
     
     /**
      * 获取商品统计信息
@@ -158,39 +199,20 @@ public class ProductService {
      * @param merchantId 商家ID
      * @return 导入结果
      */
-    @Transactional(rollbackFor = Exception.class)
     public ImportResult importFromExcel(MultipartFile file, Long merchantId) {
         log.info("开始导入Excel文件，商家ID：{}，文件名：{}", merchantId, file.getOriginalFilename());
         
-        try {
-            // 1. 解析Excel文件
-            List<Product> products = excelService.parseExcel(file);
-            log.info("成功解析{}条商品数据", products.size());
-            
-            // 2. 设置商家ID
-            products.forEach(product -> product.setMerchantId(merchantId));
-            
-            // 3. 分批插入数据库
-            if (!products.isEmpty()) {
-                int totalInserted = 0;
-                int totalBatches = (products.size() + batchSize - 1) / batchSize;
-                log.info("开始分批导入，总共{}条数据，批次大小{}，共{}批", products.size(), batchSize, totalBatches);
-
-                for (int i = 0; i < products.size(); i += batchSize) {
-                    int end = Math.min(i + batchSize, products.size());
-                    List<Product> batch = products.subList(i, end);
-                    int insertCount = productMapper.batchInsert(batch);
-                    totalInserted += insertCount;
-                    log.info("批次 {}/{} 导入成功 {} 条", (i / batchSize) + 1, totalBatches, insertCount);
-                }
-                log.info("成功导入{}条商品到数据库", totalInserted);
-            }
-            
-            return ImportResult.success(products);
-            
-        } catch (DataValidationException e) {
-            log.error("数据验证失败", e);
-            return ImportResult.failure(e.getErrors());
+        // 验证文件格式
+        if (!excelService.isValidExcelFile(file)) {
+            throw new FileFormatException("不支持的文件格式，仅支持xlsx和xls格式");
+        }
+        
+        // 解析与分批插入以流水线方式并发执行
+        try (InputStream inputStream = file.getInputStream()) {
+            return productImportPipeline.run(inputStream, excelService.getFileExtension(file), merchantId);
+        } catch (IOException e) {
+            log.error("读取Excel文件失败", e);
+            throw new FileFormatException("读取Excel文件失败：" + e.getMessage(), e);
         } catch (Exception e) {
             log.error("导入失败", e);
             throw e;
@@ -256,10 +278,13 @@ public class ProductService {
         // 查询总数
         int total = productMapper.countByMerchantId(merchantId, keyword, startDate, endDate);
 
-        // 查询分页数据
+        // 查询分页数据（只查询列表展示的列）
+        long queryStart = System.currentTimeMillis();
         List<Product> products = productMapper.selectByMerchantIdPage(
             merchantId, keyword, startDate, endDate, offset, size
         );
+        log.debug("分页查询商品完成，商家ID：{}，第{}页，{}条，查询耗时：{}ms",
+            merchantId, page, products.size(), System.currentTimeMillis() - queryStart);
 
         // 构建结果
         java.util.Map<String, Object> result = new java.util.HashMap<>();
@@ -305,8 +330,8 @@ public class ProductService {
             throw new IllegalArgumentException("商品ID列表不能为空");
         }
         
-        // 查询商品数据
-        List<Product> products = productMapper.selectBatchIds(productIds);
+        // 查询商品数据（只查询导出模板读取的列）
+        List<Product> products = productMapper.selectForExportByIds(productIds);
         
         if (products.isEmpty()) {
             throw new IllegalArgumentException("未找到指定的商品数据");
@@ -346,23 +371,23 @@ public class ProductService {
 
         log.info("商家共有{}个商品，开始生成模板", stats.getTotalCount());
 
-        // 查询商品（如果指定了limit，则只查询指定数量）
-        List<Product> products;
+        // 查询商品ID（如果指定了limit，则只查询指定数量），商品内容生成时按键集分页读取
+        List<Long> productIds = productMapper.selectIdsByMerchantId(merchantId, isTestMode ? limit : null);
         if (isTestMode) {
-            // 测试模式：只查询指定数量的商品
-            products = productMapper.selectRecent(merchantId, limit);
-            log.info("测试模式：只导出{}个商品进行测试", products.size());
-        } else {
-            // 正式模式：查询所有商品
-            products = productMapper.selectByMerchantId(merchantId);
+            log.info("测试模式：只导出{}个商品进行测试", productIds.size());
         }
 
-        if (products.isEmpty()) {
+        if (productIds.isEmpty()) {
             throw new IllegalArgumentException("未找到商品数据");
         }
 
         // 生成模板（使用用户上传的模板）
-        byte[] excelData = excelService.generateMeituanTemplateFromUserTemplate(products, merchantId);
+        ByteArrayOutputStream excelStream = new ByteArrayOutputStream();
+        int productCount = excelService.writeMeituanTemplateFromUserTemplate(
+            new ProductKeysetReader(productMapper, merchantId, productIds.get(0),
+                productIds.get(productIds.size() - 1), exportPageSize),
+            merchantId, excelStream);
+        byte[] excelData = excelStream.toByteArray();
 
         // 生成文件名
         String timestamp = LocalDateTime.now()
@@ -376,18 +401,18 @@ public class ProductService {
 
         // 保存文件到服务器
         try {
-            fileStorageService.saveTemplateFile(fileName, excelData, merchantId, products.size());
+            fileStorageService.saveTemplateFile(fileName, excelData, merchantId, productCount);
             log.info("文件保存成功：{}", fileName);
         } catch (Exception e) {
             log.error("保存文件记录失败", e);
             // 不影响主流程
         }
 
-        // 生成成功后，如果是正式模式（非测试），将所有商品状态更新为"已上传"（status = 1）
+        // 生成成功后，如果是正式模式（非测试），将导出的商品状态更新为"已上传"（status = 1）
         // 测试模式不更新状态
         if (!isTestMode) {
             try {
-                int updatedCount = productMapper.updateStatusByMerchantId(merchantId, 1);
+                int updatedCount = productStatusUpdater.updateStatus(productIds, Product.Status.UPLOADED);
                 log.info("成功更新{}个商品状态为已上传", updatedCount);
             } catch (Exception e) {
                 log.error("更新商品状态失败", e);
@@ -403,7 +428,7 @@ public class ProductService {
             operationLog.setUsername("admin"); // 默认用户名，实际应从上下文获取
             operationLog.setOperationType(isTestMode ? "GENERATE_TEST" : "GENERATE_ALL");
             operationLog.setOperationDesc(String.format("生成商品模板，%s共%d个商品",
-                isTestMode ? "测试模式 " : "", products.size()));
+                isTestMode ? "测试模式 " : "", productCount));
             operationLog.setTargetType("PRODUCT");
             operationLog.setTargetId(String.valueOf(merchantId));
             operationLog.setResult(1); // 1-成功
@@ -428,15 +453,27 @@ public class ProductService {
      * @return ZIP文件字节数组
      */
     public byte[] generateProductsTemplateAsZip(Long merchantId, Integer limit) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeProductsTemplateAsZip(prepareProductsZipExport(merchantId, limit), outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * 准备分批导出：校验参数、查询商品ID和模板
+     * 在开始写响应之前调用，参数或数据问题仍可以按普通错误返回
+     *
+     * @param merchantId 商家ID
+     * @param limit 导出数量限制（可选，用于测试。null或<=0表示导出全部）
+     * @return 导出任务
+     */
+    public ZipExport prepareProductsZipExport(Long merchantId, Integer limit) {
         log.info("开始分批导出商品模板为ZIP，商家ID：{}，导出数量限制：{}", merchantId, limit);
 
         if (merchantId == null) {
             throw new IllegalArgumentException("商家ID不能为空");
         }
 
-        long startTime = System.currentTimeMillis();
-
-        // 判断是否���测试模式（指定了limit）
+        // 判断是否为测试模式（指定了limit）
         boolean isTestMode = limit != null && limit > 0;
 
         // 查询商品总数
@@ -449,77 +486,130 @@ public class ProductService {
         int totalCount = totalCountLong != null ? totalCountLong.intValue() : 0;
         log.info("商家共有{}个商品，每个Excel最多{}条", totalCount, maxRowsPerFile);
 
-        // 计算需要拆分成多少个文件
-        int fileCount = (int) Math.ceil((double) totalCount / maxRowsPerFile);
-        log.info("需要拆分成{}个Excel文件", fileCount);
-
-        // 查询所有商品
-        List<Product> allProducts;
+        // 只查询商品ID用于拆分批次，商品内容在生成时按键集分页读取
+        long[] productIds = productMapper.selectIdsByMerchantId(merchantId, isTestMode ? limit : null)
+            .stream().mapToLong(Long::longValue).toArray();
         if (isTestMode) {
-            allProducts = productMapper.selectRecent(merchantId, limit);
-            log.info("测试模式：只导出{}个商品进行测试", allProducts.size());
-        } else {
-            allProducts = productMapper.selectByMerchantId(merchantId);
+            log.info("测试模式：只导出{}个商品进行测试", productIds.length);
         }
 
-        if (allProducts.isEmpty()) {
+        if (productIds.length == 0) {
             throw new IllegalArgumentException("未找到商品数据");
         }
 
-        // 生成ZIP文件
-        try (ByteArrayOutputStream zipOutputStream = new ByteArrayOutputStream();
-             ZipOutputStream zip = new ZipOutputStream(zipOutputStream)) {
+        // 按实际查询到的商品ID计算文件数（统计总数可能在查询ID前后发生变化），
+        // 保证每个ID都会写入某个Excel，生成后按这些ID更新状态
+        int fileCount = (productIds.length + maxRowsPerFile - 1) / maxRowsPerFile;
+        log.info("需要拆分成{}个Excel文件", fileCount);
+
+        // 提前确认模板存在并加载到缓存，避免响应已开始后才失败，也避免各批次同时下载
+        excelService.preloadMeituanTemplate(merchantId);
+
+        return new ZipExport(merchantId, isTestMode, productIds, totalCount, fileCount);
+    }
+
+    /**
+     * 把分批导出的ZIP写入输出流
+     * 各批次在导出线程池中并行生成（每个任务各自加载模板）并写入临时文件，再按顺序拷贝进ZIP；
+     * ZIP同时旁路写一份到磁盘临时文件，完成后登记为生成文件，整个过程不在内存中保留Excel或ZIP的完整字节
+     *
+     * @param export 导出任务（由 {@link #prepareProductsZipExport(Long, Integer)} 准备）
+     * @param outputStream 输出流（如HTTP响应，不会被关闭）
+     */
+    public void writeProductsTemplateAsZip(ZipExport export, OutputStream outputStream) {
+        long startTime = System.currentTimeMillis();
+        Long merchantId = export.merchantId;
+        boolean isTestMode = export.testMode;
+        long[] productIds = export.productIds;
+        int fileCount = export.fileCount;
+
+        Path archiveFile = null;
+        try {
+            archiveFile = fileStorageService.createTempTemplateFile();
 
             // 生成时间戳
             String timestamp = LocalDateTime.now()
                 .format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
 
-            // 分批生成Excel并添加到ZIP
-            for (int i = 0; i < fileCount; i++) {
-                int fromIndex = i * maxRowsPerFile;
-                int toIndex = Math.min((i + 1) * maxRowsPerFile, allProducts.size());
-                List<Product> batchProducts = allProducts.subList(fromIndex, toIndex);
-
-                log.info("生成第{}/{}个Excel文件，包含{}条数据", i + 1, fileCount, batchProducts.size());
-
-                // 生成Excel字节数组
-                byte[] excelData = excelService.generateMeituanTemplateFromUserTemplate(batchProducts, merchantId);
-
-                // 添加到ZIP
-                String excelFileName;
-                if (isTestMode) {
-                    excelFileName = String.format("meituan_test_part%d_%d_products_%s.xlsx",
-                        i + 1, batchProducts.size(), timestamp);
-                } else {
-                    excelFileName = String.format("meituan_products_part%d_%d_products_%s.xlsx",
-                        i + 1, batchProducts.size(), timestamp);
+            // 各批次互相独立，提交到导出线程池并行生成，每个Excel先写入各自的临时文件
+            int partCount = fileCount;
+            List<Future<RenderedPart>> futures = new ArrayList<>(partCount);
+            ConcurrentLinkedQueue<Path> partFiles = new ConcurrentLinkedQueue<>();
+            AtomicBoolean aborted = new AtomicBoolean();
+            long renderStart = System.currentTimeMillis();
+            long totalRenderMillis = 0;
+            long maxRenderMillis = 0;
+
+            try (OutputStream archiveStream = Files.newOutputStream(archiveFile);
+                 ZipOutputStream zip = new ZipOutputStream(new TeeOutputStream(outputStream, archiveStream))) {
+
+                for (int i = 0; i < partCount; i++) {
+                    int fromIndex = i * maxRowsPerFile;
+                    int toIndex = Math.min((i + 1) * maxRowsPerFile, productIds.length);
+                    // ID倒序排列，批次对应一段连续的ID范围
+                    ProductKeysetReader batchProducts = new ProductKeysetReader(productMapper, merchantId,
+                        productIds[fromIndex], productIds[toIndex - 1], exportPageSize);
+                    futures.add(exportExecutor.submit(() -> renderPart(batchProducts, merchantId, partFiles, aborted)));
                 }
 
-                ZipEntry entry = new ZipEntry(excelFileName);
-                zip.putNextEntry(entry);
-                zip.write(excelData);
-                zip.closeEntry();
+                // 按批次顺序等待生成结果并添加到ZIP（前面的批次完成后即开始输出）
+                for (int i = 0; i < partCount; i++) {
+                    RenderedPart part = awaitPart(futures.get(i));
+
+                    String excelFileName;
+                    if (isTestMode) {
+                        excelFileName = String.format("meituan_test_part%d_%d_products_%s.xlsx",
+                            i + 1, part.productCount, timestamp);
+                    } else {
+                        excelFileName = String.format("meituan_products_part%d_%d_products_%s.xlsx",
+                            i + 1, part.productCount, timestamp);
+                    }
 
-                log.info("成功添加{}到ZIP，大小：{}字节", excelFileName, excelData.length);
+                    ZipEntry entry = new ZipEntry(excelFileName);
+                    zip.putNextEntry(entry);
+                    Files.copy(part.file, zip);
+                    zip.closeEntry();
+                    Files.deleteIfExists(part.file);
+
+                    totalRenderMillis += part.renderMillis;
+                    maxRenderMillis = Math.max(maxRenderMillis, part.renderMillis);
+                    log.info("成功添加第{}/{}个Excel：{}，包含{}条数据，大小：{}字节，生成耗时：{}ms（其中{}次分页查询耗时：{}ms）",
+                        i + 1, partCount, excelFileName, part.productCount, entry.getSize(), part.renderMillis,
+                        part.queryCount, part.queryMillis);
+                }
+
+                zip.finish();
+            } finally {
+                // 出错或客户端断开时取消未完成的批次并清理它们的临时文件
+                aborted.set(true);
+                for (Future<RenderedPart> future : futures) {
+                    future.cancel(true);
+                }
+                for (Path partFile : partFiles) {
+                    deleteQuietly(partFile);
+                }
             }
 
-            zip.finish();
-            byte[] zipData = zipOutputStream.toByteArray();
+            log.info("{}个Excel生成完成，累计生成耗时：{}ms，单个最长：{}ms，实际耗时：{}ms，导出线程数：{}",
+                partCount, totalRenderMillis, maxRenderMillis, System.currentTimeMillis() - renderStart,
+                exportExecutor.getMaximumPoolSize());
 
             // 保存文件记录到数据库
+            long zipSize = Files.size(archiveFile);
             try {
                 String zipFileName = String.format("meituan_products_%d_files_%s.zip",
                     fileCount, timestamp);
-                fileStorageService.saveTemplateFile(zipFileName, zipData, merchantId, totalCount);
+                fileStorageService.saveTemplateFile(zipFileName, archiveFile, merchantId, export.totalCount);
                 log.info("ZIP文件记录已保存：{}", zipFileName);
             } catch (Exception e) {
                 log.error("保存文件记录失败", e);
             }
 
-            // 生成成功后，如果是正式模式（非测试），将所有商品状态更新为"已上传"（status = 1）
+            // 生成成功后，如果是正式模式（非测试），将导出的商品状态更新为"已上传"（status = 1）
             if (!isTestMode) {
                 try {
-                    int updatedCount = productMapper.updateStatusByMerchantId(merchantId, 1);
+                    int updatedCount = productStatusUpdater.updateStatus(
+                        Arrays.stream(productIds).boxed().toList(), Product.Status.UPLOADED);
                     log.info("成功更新{}个商品状态为已上传", updatedCount);
                 } catch (Exception e) {
                     log.error("更新商品状态失败", e);
@@ -534,7 +624,7 @@ public class ProductService {
                 operationLog.setUsername("admin");
                 operationLog.setOperationType(isTestMode ? "GENERATE_ZIP_TEST" : "GENERATE_ZIP_ALL");
                 operationLog.setOperationDesc(String.format("分批导出商品模板为ZIP，%s共%d个商品，拆分为%d个Excel文件",
-                    isTestMode ? "测试模式 " : "", allProducts.size(), fileCount));
+                    isTestMode ? "测试模式 " : "", productIds.length, fileCount));
                 operationLog.setTargetType("PRODUCT");
                 operationLog.setTargetId(String.valueOf(merchantId));
                 operationLog.setResult(1);
@@ -547,14 +637,159 @@ public class ProductService {
                 log.error("记录操作日志失败", e);
             }
 
-            log.info("成功生成ZIP文件，总大小：{}字节，耗时：{}ms", zipData.length,
+            log.info("成功生成ZIP文件，总大小：{}字节，耗时：{}ms", zipSize,
                 System.currentTimeMillis() - startTime);
 
-            return zipData;
-
         } catch (Exception e) {
             log.error("生成ZIP文件失败", e);
             throw new RuntimeException("生成ZIP文件失败：" + e.getMessage(), e);
+        } finally {
+            // 登记成功时临时文件已被移走；失败（包括客户端断开）时删除不完整的副本
+            if (archiveFile != null) {
+                deleteQuietly(archiveFile);
+            }
+        }
+    }
+
+    /**
+     * 生成一个批次的Excel到临时文件（在导出线程池中执行）
+     */
+    private RenderedPart renderPart(ProductKeysetReader batchProducts, Long merchantId,
+                                    ConcurrentLinkedQueue<Path> partFiles, AtomicBoolean aborted) throws IOException {
+        long start = System.currentTimeMillis();
+        Path file = fileStorageService.createTempTemplateFile();
+        // 先登记再检查是否已中止：中止方在置位后清理登记的文件，两边总有一方负责删除
+        partFiles.add(file);
+        if (aborted.get()) {
+            deleteQuietly(file);
+            return null;
+        }
+
+        // 不带CREATE打开，文件已被中止方删除时直接失败，不会重新创建出无人清理的文件
+        int productCount;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.WRITE))) {
+            productCount = excelService.writeMeituanTemplateFromUserTemplate(batchProducts, merchantId, out);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+        return new RenderedPart(file, productCount, System.currentTimeMillis() - start,
+            batchProducts.getQueryCount(), batchProducts.getQueryMillis());
+    }
+
+    /**
+     * 等待批次生成完成，任务异常原样抛出
+     */
+    private RenderedPart awaitPart(Future<RenderedPart> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("导出已中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除临时文件失败：{}", file);
+        }
+    }
+
+    /**
+     * 已生成的批次
+     */
+    private static final class RenderedPart {
+
+        private final Path file;
+        private final int productCount;
+        private final long renderMillis;
+        private final int queryCount;
+        private final long queryMillis;
+
+        RenderedPart(Path file, int productCount, long renderMillis, int queryCount, long queryMillis) {
+            this.file = file;
+            this.productCount = productCount;
+            this.renderMillis = renderMillis;
+            this.queryCount = queryCount;
+            this.queryMillis = queryMillis;
+        }
+    }
+
+    /**
+     * 分批导出任务（校验通过、商品ID已查询）
+     */
+    public static final class ZipExport {
+
+        private final Long merchantId;
+        private final boolean testMode;
+        private final long[] productIds;
+        private final int totalCount;
+        private final int fileCount;
+
+        private ZipExport(Long merchantId, boolean testMode, long[] productIds, int totalCount, int fileCount) {
+            this.merchantId = merchantId;
+            this.testMode = testMode;
+            this.productIds = productIds;
+            this.totalCount = totalCount;
+            this.fileCount = fileCount;
+        }
+
+        public int getFileCount() {
+            return fileCount;
+        }
+
+        public int getProductCount() {
+            return productIds.length;
+        }
+    }
+
+    /**
+     * 同时写入两个输出流：主输出流（响应）和副本流（磁盘）
+     * 关闭时只关闭副本流，主输出流由调用方管理
+     */
+    private static final class TeeOutputStream extends OutputStream {
+
+        private final OutputStream primary;
+        private final OutputStream copy;
+
+        TeeOutputStream(OutputStream primary, OutputStream copy) {
+            this.primary = primary;
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            primary.write(b);
+            copy.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            primary.write(b, off, len);
+            copy.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            primary.flush();
+            copy.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                primary.flush();
+            } finally {
+                copy.close();
+            }
         }
     }
 
@@ -565,12 +800,9 @@ public class ProductService {
      * @param accessToken 访问令牌
      * @return 上传结果
      */
-    @Transactional(rollbackFor = Exception.class)
     public UploadResult uploadToMeituan(List<Long> productIds, String accessToken) {
         log.info("开始批量上传商品到美团，商品数量：{}", productIds.size());
         
-        long startTime = System.currentTimeMillis();
-        
         if (productIds == null || productIds.isEmpty()) {
             throw new IllegalArgumentException("商品ID列表不能为空");
         }
@@ -579,85 +811,18 @@ public class ProductService {
             throw new IllegalArgumentException("访问令牌不能为空");
         }
         
-        // 查询商品数据
-        List<Product> products = productMapper.selectBatchIds(productIds);
+        // 查询商品数据（只查询上传DTO需要的列，状态更新按非空字段写回）
+        List<Product> products = productMapper.selectForUploadByIds(productIds);
         
         if (products.isEmpty()) {
             throw new IllegalArgumentException("未找到指定的商品数据");
         }
         
-        // 分批上传
+        // 分批并发上传（批次状态在各自的短事务中更新）
         List<List<Product>> batches = partitionList(products, batchSize);
         log.info("商品分为{}批上传，每批{}条", batches.size(), batchSize);
         
-        int totalCount = products.size();
-        int successCount = 0;
-        List<Product> failedProducts = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
-        
-        for (int i = 0; i < batches.size(); i++) {
-            List<Product> batch = batches.get(i);
-            log.info("正在上传第{}/{}批，数量：{}", i + 1, batches.size(), batch.size());
-            
-            try {
-                // 转换为DTO
-                List<ProductDTO> productDTOs = batch.stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
-                
-                // 调用美团API
-                meituanApiClient.uploadProducts(productDTOs, accessToken);
-                
-                // 更新商品状态为已上传
-                batch.forEach(product -> {
-                    product.setStatus(Product.Status.UPLOADED.getCode());
-                    productMapper.updateById(product);
-                });
-                
-                successCount += batch.size();
-                log.info("第{}批上传成功", i + 1);
-                
-            } catch (MeituanApiException e) {
-                log.error("第{}批上传失败", i + 1, e);
-                
-                // 更新商品状态为上传失败
-                batch.forEach(product -> {
-                    product.setStatus(Product.Status.FAILED.getCode());
-                    productMapper.updateById(product);
-                    failedProducts.add(product);
-                });
-                
-                errors.add(String.format("第%d批上传失败：%s", i + 1, e.getMessage()));
-                
-                // 继续上传剩余批次
-                continue;
-            }
-        }
-        
-        long duration = System.currentTimeMillis() - startTime;
-        
-        log.info("批量上传完成，总数：{}，成功：{}，失败：{}，耗时：{}ms", 
-                totalCount, successCount, failedProducts.size(), duration);
-        
-        if (failedProducts.isEmpty()) {
-            return UploadResult.success(totalCount, duration);
-        } else {
-            return UploadResult.partial(totalCount, successCount, failedProducts, errors, duration);
-        }
-    }
-    
-    /**
-     * 转换Product为ProductDTO
-     */
-    private ProductDTO convertToDTO(Product product) {
-        ProductDTO dto = new ProductDTO();
-        dto.setProductName(product.getProductName());
-        dto.setCategoryId(product.getCategoryId());
-        dto.setPrice(product.getPrice());
-        dto.setStock(product.getStock());
-        dto.setDescription(product.getDescription());
-        dto.setImageUrl(product.getImageUrl());
-        return dto;
+        return meituanUploadEngine.upload(batches, accessToken);
     }
     
     /**
@@ -710,14 +875,18 @@ public class ProductService {
     }
 
     /**
-     * 逐个删除美团平台的所有商品
+     * 删除美团平台的所有商品
+     * 提交（或从断点继续）商家的删除任务后立即返回，不等待删除结束；
+     * 进度通过 {@link MeituanDeleteJobService#getStatus(Long)} 查询
      *
      * @param merchantId 商家ID
      * @param accessToken 访问令牌
-     * @return 删除结果
+     * @return 提交结果
+     * @deprecated 使用 {@link MeituanDeleteJobService#submit(Long, String, boolean)} 提交任务并轮询状态
      */
+    @Deprecated
     public ClearResult deleteAllProductsFromMeituan(Long merchantId, String accessToken) {
-        log.info("开始逐个删除美团平台商品，商家ID：{}", merchantId);
+        log.info("开始删除美团平台商品，商家ID：{}", merchantId);
 
         if (merchantId == null) {
             throw new IllegalArgumentException("商家ID不能为空");
@@ -727,88 +896,15 @@ public class ProductService {
             throw new IllegalArgumentException("访问令牌不能为空");
         }
 
-        // 验证访问令牌
-        if (!"admin123".equals(accessToken)) {
-            throw new IllegalArgumentException("访问令牌无效");
+        MeituanDeleteStatus status = meituanDeleteJobService.submit(merchantId, accessToken, false);
+        if (status.getTotalCount() == 0) {
+            return ClearResult.success(0, 0, 0, "没有商品需要处理");
         }
 
-        try {
-            // 查询商家的所有商品
-            List<Product> allProducts = productMapper.selectList(
-                new com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<Product>()
-                    .eq(Product::getMerchantId, merchantId)
-            );
-
-            int totalCount = allProducts.size();
-            log.info("需要处理的美团商品数量：{}", totalCount);
-
-            if (totalCount == 0) {
-                return ClearResult.success(0, 0, 0, "没有商品需要处理");
-            }
-
-            int successCount = 0;
-            int failedCount = 0;
-            int skippedCount = 0;
-            StringBuilder failedReasons = new StringBuilder();
-
-            // 逐个删除
-            for (int i = 0; i < allProducts.size(); i++) {
-                Product product = allProducts.get(i);
-
-                // 获取美团商品标识符：优先使用 meituanProductId，其次使用 skuId，最后使用 categoryId
-                String meituanProductId = product.getMeituanProductId();
-                if (meituanProductId == null || meituanProductId.trim().isEmpty()) {
-                    meituanProductId = product.getSkuId();
-                }
-                if (meituanProductId == null || meituanProductId.trim().isEmpty()) {
-                    meituanProductId = product.getCategoryId();
-                }
-                if (meituanProductId == null || meituanProductId.trim().isEmpty()) {
-                    // 如果没有任何标识符，跳过
-                    skippedCount++;
-                    log.warn("商品ID {} 没有任何标识符可用于删除，跳过", product.getId());
-                    continue;
-                }
-
-                try {
-                    meituanApiClient.deleteProduct(meituanProductId, accessToken);
-                    successCount++;
-
-                    // 每删除10个打印一次日志
-                    if (successCount % 10 == 0) {
-                        log.info("已删除 {}/{} 个美团商品", successCount, totalCount);
-                    }
-
-                    // 美团API有频率限制，添加短暂延迟
-                    Thread.sleep(100);
-
-                } catch (Exception e) {
-                    failedCount++;
-                    log.warn("删除商品失败，商品ID：{}，标识符：{}，原因：{}",
-                        product.getId(), meituanProductId, e.getMessage());
-                    failedReasons.append("商品ID ").append(product.getId())
-                        .append(" (标识符: ").append(meituanProductId).append(") 失败: ")
-                        .append(e.getMessage()).append("; ");
-                }
-            }
-
-            log.info("处理美团商品完成，总数：{}，成功：{}，失败：{}，跳过：{}",
-                totalCount, successCount, failedCount, skippedCount);
-
-            String message = String.format("处理完成：共 %d 个，成功 %d 个，失败 %d 个，跳过 %d 个",
-                totalCount, successCount, failedCount, skippedCount);
-
-            if (failedCount > 0) {
-                return ClearResult.failure(message, successCount, failedCount,
-                    failedReasons.length() > 500 ? failedReasons.substring(0, 500) : failedReasons.toString());
-            } else {
-                return ClearResult.success(totalCount, successCount, failedCount, message);
-            }
-
-        } catch (Exception e) {
-            log.error("删除美团商品失败，商家ID：{}", merchantId, e);
-            throw new RuntimeException("删除美团商品失败：" + e.getMessage(), e);
-        }
+        String message = String.format("删除任务已提交：共 %d 个，已处理 %d 个，请通过删除任务状态查询进度",
+            status.getTotalCount(), status.getProcessedCount());
+        return ClearResult.success(status.getProcessedCount(), status.getDeletedCount(),
+            status.getFailedCount(), message);
     }
     
     /**
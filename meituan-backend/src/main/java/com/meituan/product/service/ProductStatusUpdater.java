@@ -0,0 +1,55 @@
+package com.meituan.product.service;
+
+import com.meituan.product.entity.Product;
+import com.meituan.product.mapper.ProductMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 商品状态批量更新
+ * 按ID分块执行 UPDATE ... SET status, updated_time WHERE id IN (...)，
+ * 每块一条语句，只写状态和更新时间两列，代替逐个商品updateById写回整行
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductStatusUpdater {
+
+    private final ProductMapper productMapper;
+
+    @Value("${meituan.status-update.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * 批量更新商品状态
+     *
+     * @param ids 商品ID列表
+     * @param status 新状态
+     * @return 更新的记录数
+     */
+    public int updateStatus(List<Long> ids, Product.Status status) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        int size = Math.max(1, chunkSize);
+        int updated = 0;
+        int statements = 0;
+        for (int from = 0; from < ids.size(); from += size) {
+            List<Long> chunk = ids.subList(from, Math.min(from + size, ids.size()));
+            updated += productMapper.updateStatusByIds(chunk, status.getCode(), now);
+            statements++;
+        }
+
+        log.debug("批量更新商品状态为{}，商品数：{}，更新数：{}，语句数：{}，耗时：{}ms",
+            status.getDescription(), ids.size(), updated, statements, System.currentTimeMillis() - start);
+        return updated;
+    }
+}
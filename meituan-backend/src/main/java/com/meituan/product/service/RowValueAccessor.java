@@ -0,0 +1,125 @@
+package com.meituan.product.service;
+
+import java.math.BigDecimal;
+
+/**
+ * 行数据访问器
+ * 屏蔽POI用户模型（Row）与SAX流式读取之间的差异，解析器只按列索引取值；
+ * 类型化取值方法默认从字符串解析，POI实现可直接读取单元格数值，省去数值与字符串之间的往返转换
+ */
+@FunctionalInterface
+public interface RowValueAccessor {
+
+    /**
+     * 获取指定列的字符串值
+     *
+     * @param columnIndex 列索引（从0开始，负数表示列不存在）
+     * @return 字符串值，列不存在或为空时返回null
+     */
+    String getString(int columnIndex);
+
+    /**
+     * 获取指定列的小数值
+     *
+     * @param columnIndex 列索引
+     * @return 小数值，为空或无法解析时返回null
+     */
+    default BigDecimal getDecimal(int columnIndex) {
+        String value = getString(columnIndex);
+        if (isBlank(value)) {
+            return null;
+        }
+
+        try {
+            // trim()在没有首尾空白时返回原字符串，不产生新对象
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 获取指定列的整数值（小数部分截断）
+     *
+     * @param columnIndex 列索引
+     * @return 整数值，为空或无法解析时返回null
+     */
+    default Integer getInteger(int columnIndex) {
+        String value = getString(columnIndex);
+        if (isBlank(value)) {
+            return null;
+        }
+
+        value = value.trim();
+        int digits = value.length();
+        if (digits <= 9) {
+            // 纯数字走快速路径，避免经过double
+            int result = 0;
+            int start = value.charAt(0) == '-' ? 1 : 0;
+            boolean plain = start < digits;
+            for (int i = start; i < digits && plain; i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    plain = false;
+                } else {
+                    result = result * 10 + (c - '0');
+                }
+            }
+            if (plain) {
+                return start == 1 ? -result : result;
+            }
+        }
+
+        try {
+            return (int) Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 获取指定列的是否标记
+     * “是”、“1”、“true”、“yes”（忽略大小写和首尾空白）为1，其余为0
+     *
+     * @param columnIndex 列索引
+     * @return 1或0
+     */
+    default int getFlag(int columnIndex) {
+        String value = getString(columnIndex);
+        if (isBlank(value)) {
+            return 0;
+        }
+
+        value = value.trim();
+        return "是".equals(value) || "1".equals(value)
+                || "true".equalsIgnoreCase(value) || "yes".equalsIgnoreCase(value) ? 1 : 0;
+    }
+
+    /**
+     * 判断字符串是否为空白（不分配新字符串）
+     *
+     * @param value 字符串
+     * @return 为null或只包含空白字符时返回true
+     */
+    static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 基于字符串数组创建访问器（用于SAX流式读取的行）
+     *
+     * @param values 行数据（下标即列索引）
+     * @return 行数据访问器
+     */
+    static RowValueAccessor of(String[] values) {
+        return columnIndex -> columnIndex >= 0 && columnIndex < values.length ? values[columnIndex] : null;
+    }
+}
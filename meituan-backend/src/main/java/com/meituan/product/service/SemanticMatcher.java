@@ -8,12 +8,16 @@ import java.util.List;
 
 /**
  * 语义匹配器
- * 实现多种匹配算法来识别列名与字段的对应关系
+ * 实现多种匹配算法来识别列名与字段的对应关系；
+ * 基于ColumnProfile的重载使用MappingRuleIndex中预先标准化的规则，每个列名只分析一次
  */
 @Slf4j
 @Component
 public class SemanticMatcher {
     
+    // 模糊匹配的最低相似度
+    private static final double MIN_FUZZY_SIMILARITY = 0.6;
+    
     /**
      * 精确匹配
      * 列名完全等于规则中的exactMatches
@@ -50,12 +54,12 @@ public class SemanticMatcher {
             return false;
         }
         
-        String normalizedColumn = normalizeString(columnName);
+        String normalizedColumn = normalize(columnName);
         
         // 检查精确匹配列表
         if (rule.getExactMatches() != null) {
             for (String exactMatch : rule.getExactMatches()) {
-                String normalizedExact = normalizeString(exactMatch);
+                String normalizedExact = normalize(exactMatch);
                 if (normalizedColumn.equals(normalizedExact)) {
                     log.debug("标准化匹配成功: '{}' -> '{}' == '{}' -> '{}'", 
                         columnName, normalizedColumn, exactMatch, normalizedExact);
@@ -67,7 +71,7 @@ public class SemanticMatcher {
         // 检查同义词列表
         if (rule.getSynonyms() != null) {
             for (String synonym : rule.getSynonyms()) {
-                String normalizedSynonym = normalizeString(synonym);
+                String normalizedSynonym = normalize(synonym);
                 if (normalizedColumn.equals(normalizedSynonym)) {
                     log.debug("标准化匹配成功（同义词）: '{}' -> '{}' == '{}' -> '{}'", 
                         columnName, normalizedColumn, synonym, normalizedSynonym);
@@ -92,7 +96,7 @@ public class SemanticMatcher {
             return 0.0;
         }
         
-        String normalizedColumn = normalizeString(columnName);
+        String normalizedColumn = normalize(columnName);
         double maxScore = 0.0;
         
         // 1. 检查关键词组合（所有关键词都必须存在）
@@ -100,7 +104,7 @@ public class SemanticMatcher {
             for (List<String> combination : rule.getKeywordCombinations()) {
                 boolean allMatch = true;
                 for (String keyword : combination) {
-                    String normalizedKeyword = normalizeString(keyword);
+                    String normalizedKeyword = normalize(keyword);
                     if (!normalizedColumn.contains(normalizedKeyword)) {
                         allMatch = false;
                         break;
@@ -122,7 +126,7 @@ public class SemanticMatcher {
         if (rule.getKeywords() != null && !rule.getKeywords().isEmpty()) {
             int matchedCount = 0;
             for (String keyword : rule.getKeywords()) {
-                String normalizedKeyword = normalizeString(keyword);
+                String normalizedKeyword = normalize(keyword);
                 if (normalizedColumn.contains(normalizedKeyword)) {
                     matchedCount++;
                 }
@@ -154,13 +158,13 @@ public class SemanticMatcher {
             return 0.0;
         }
         
-        String normalizedColumn = normalizeString(columnName);
+        String normalizedColumn = normalize(columnName);
         double maxSimilarity = 0.0;
         
         // 与精确匹配列表比较
         if (rule.getExactMatches() != null) {
             for (String exactMatch : rule.getExactMatches()) {
-                String normalizedExact = normalizeString(exactMatch);
+                String normalizedExact = normalize(exactMatch);
                 double similarity = calculateSimilarity(normalizedColumn, normalizedExact);
                 if (similarity > maxSimilarity) {
                     maxSimilarity = similarity;
@@ -173,7 +177,7 @@ public class SemanticMatcher {
         // 与同义词列表比较
         if (rule.getSynonyms() != null) {
             for (String synonym : rule.getSynonyms()) {
-                String normalizedSynonym = normalizeString(synonym);
+                String normalizedSynonym = normalize(synonym);
                 double similarity = calculateSimilarity(normalizedColumn, normalizedSynonym);
                 if (similarity > maxSimilarity) {
                     maxSimilarity = similarity;
@@ -183,9 +187,15 @@ public class SemanticMatcher {
             }
         }
         
-        // 模糊匹配的得分范围是0.5-0.8
-        // 只有相似度超过0.6才认为是有效的模糊匹配
-        if (maxSimilarity >= 0.6) {
+        return toFuzzyScore(maxSimilarity);
+    }
+    
+    /**
+     * 把相似度换算为模糊匹配得分
+     * 模糊匹配的得分范围是0.5-0.8，只有相似度超过0.6才认为是有效的模糊匹配
+     */
+    private double toFuzzyScore(double maxSimilarity) {
+        if (maxSimilarity >= MIN_FUZZY_SIMILARITY) {
             double score = 0.5 + (maxSimilarity - 0.6) * 0.75; // 映射到0.5-0.8范围
             return Math.min(score, 0.8);
         }
@@ -193,28 +203,210 @@ public class SemanticMatcher {
         return 0.0;
     }
     
+    /**
+     * 精确匹配（基于规则索引）
+     * 
+     * @param profile 列名分析结果
+     * @param rule 映射规则
+     * @return 是否匹配
+     */
+    public boolean exactMatch(MappingRuleIndex.ColumnProfile profile, FieldMappingRule rule) {
+        return rule != null && profile.isExact(rule.getFieldName());
+    }
+    
+    /**
+     * 标准化匹配（基于规则索引）
+     * 
+     * @param profile 列名分析结果
+     * @param rule 映射规则
+     * @return 是否匹配
+     */
+    public boolean normalizedMatch(MappingRuleIndex.ColumnProfile profile, FieldMappingRule rule) {
+        return rule != null && profile.isNormalized(rule.getFieldName());
+    }
+    
+    /**
+     * 关键词匹配（基于规则索引）
+     * 关键词是否出现已由自动机一次扫描得出，这里只按编号汇总得分
+     * 
+     * @param profile 列名分析结果
+     * @param rule 映射规则
+     * @return 匹配得分（0-1），0表示不匹配
+     */
+    public double keywordMatch(MappingRuleIndex.ColumnProfile profile, FieldMappingRule rule) {
+        if (rule == null) {
+            return 0.0;
+        }
+        
+        MappingRuleIndex.RuleKeywords ruleKeywords = profile.getIndex().getRuleKeywords(rule.getFieldName());
+        if (ruleKeywords == null) {
+            // 规则不在索引中（例如规则刚刚重新加载），退回逐条匹配
+            return keywordMatch(profile.getColumnName(), rule);
+        }
+        
+        double maxScore = 0.0;
+        
+        // 1. 检查关键词组合（所有关键词都必须存在）
+        for (int[] combination : ruleKeywords.combinations) {
+            boolean allMatch = true;
+            for (int keywordId : combination) {
+                if (!profile.hasKeyword(keywordId)) {
+                    allMatch = false;
+                    break;
+                }
+            }
+            
+            if (allMatch) {
+                double score = Math.min(0.8 + (combination.length * 0.05), 0.95);
+                maxScore = Math.max(maxScore, score);
+            }
+        }
+        
+        // 2. 检查单个关键词
+        if (ruleKeywords.keywords.length > 0) {
+            int matchedCount = 0;
+            for (int keywordId : ruleKeywords.keywords) {
+                if (profile.hasKeyword(keywordId)) {
+                    matchedCount++;
+                }
+            }
+            
+            if (matchedCount > 0) {
+                double ratio = (double) matchedCount / ruleKeywords.keywords.length;
+                maxScore = Math.max(maxScore, 0.7 + (ratio * 0.15));
+            }
+        }
+        
+        if (maxScore > 0) {
+            log.debug("关键词匹配: '{}' -> {}, 得分: {}", profile.getColumnName(), rule.getFieldName(), maxScore);
+        }
+        return maxScore;
+    }
+    
+    /**
+     * 模糊匹配（基于规则索引）
+     * 候选先按长度差和二元组重叠数过滤，剩下的才计算编辑距离；
+     * 距离上限由0.6阈值和当前最佳相似度共同决定，超过上限即提前结束
+     * 
+     * @param profile 列名分析结果
+     * @param rule 映射规则
+     * @return 相似度得分（0-1），0表示完全不相似
+     */
+    public double fuzzyMatch(MappingRuleIndex.ColumnProfile profile, FieldMappingRule rule) {
+        if (rule == null) {
+            return 0.0;
+        }
+        
+        MappingRuleIndex.FuzzyCandidate[] candidates = profile.getIndex().getFuzzyCandidates(rule.getFieldName());
+        if (candidates == null) {
+            return fuzzyMatch(profile.getColumnName(), rule);
+        }
+        
+        String column = profile.getNormalized();
+        double maxSimilarity = 0.0;
+        for (MappingRuleIndex.FuzzyCandidate candidate : candidates) {
+            String text = candidate.text;
+            if (column.equals(text)) {
+                return toFuzzyScore(1.0);
+            }
+            
+            int maxLength = Math.max(column.length(), text.length());
+            int maxDistance = maxDistance(maxLength, Math.max(MIN_FUZZY_SIMILARITY, maxSimilarity));
+            if (maxDistance < 0 || Math.abs(column.length() - text.length()) > maxDistance) {
+                continue;
+            }
+            
+            // q-gram引理：距离不超过k时，二元组交集至少为 maxLength - 1 - 2k
+            int requiredBigrams = maxLength - 1 - 2 * maxDistance;
+            if (requiredBigrams > 0 && sharedBigrams(profile.getBigrams(), candidate.bigrams) < requiredBigrams) {
+                continue;
+            }
+            
+            int distance = boundedDistance(column, text, maxDistance,
+                profile.getPreviousRow(), profile.getCurrentRow());
+            if (distance <= maxDistance) {
+                maxSimilarity = Math.max(maxSimilarity, 1.0 - ((double) distance / maxLength));
+            }
+        }
+        return toFuzzyScore(maxSimilarity);
+    }
+    
+    /**
+     * 相似度不低于目标值时允许的最大编辑距离，无法达到时返回-1
+     * 与calculateSimilarity使用同一公式判断，保证边界一致
+     */
+    private static int maxDistance(int maxLength, double targetSimilarity) {
+        int distance = (int) ((1.0 - targetSimilarity) * maxLength) + 1;
+        while (distance >= 0 && 1.0 - ((double) distance / maxLength) < targetSimilarity) {
+            distance--;
+        }
+        return distance;
+    }
+    
+    /**
+     * 统计两个已排序二元组数组的交集大小（按多重集计）
+     */
+    private static int sharedBigrams(int[] a, int[] b) {
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return shared;
+    }
+    
     /**
      * 标准化字符串
-     * 去除空格、标点、括号等特殊字符，转换为小写
+     * 去除空格、标点、括号等特殊字符，转换为小写；逐字符扫描，不经过正则
      * 
      * @param str 原始字符串
      * @return 标准化后的字符串
      */
-    private String normalizeString(String str) {
+    public static String normalize(String str) {
         if (str == null) {
             return "";
         }
         
-        // 去除所有空白字符
-        String normalized = str.replaceAll("\\s+", "");
-        
-        // 去除常见标点符号和括号
-        normalized = normalized.replaceAll("[()（）\\[\\]【】{}「」『』<>《》、，。；：！？*]", "");
+        StringBuilder builder = null;
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (isIgnorable(c)) {
+                if (builder == null) {
+                    builder = new StringBuilder(str.length());
+                    builder.append(str, 0, i);
+                }
+            } else if (builder != null) {
+                builder.append(c);
+            }
+        }
         
         // 转换为小写（对英文有效）
-        normalized = normalized.toLowerCase();
-        
-        return normalized;
+        return (builder != null ? builder.toString() : str).toLowerCase();
+    }
+    
+    /**
+     * 是否为标准化时去除的字符（空白、常见标点符号和括号）
+     */
+    private static boolean isIgnorable(char c) {
+        switch (c) {
+            case ' ': case '\t': case '\n': case '\013': case '\f': case '\r':
+            case '(': case ')': case '（': case '）': case '[': case ']': case '【': case '】':
+            case '{': case '}': case '「': case '」': case '『': case '』': case '<': case '>':
+            case '《': case '》': case '、': case '，': case '。': case '；': case '：':
+            case '！': case '？': case '*':
+                return true;
+            default:
+                return false;
+        }
     }
     
     /**
@@ -234,54 +426,71 @@ public class SemanticMatcher {
             return 1.0;
         }
         
-        int distance = levenshteinDistance(s1, s2);
         int maxLength = Math.max(s1.length(), s2.length());
-        
-        if (maxLength == 0) {
-            return 1.0;
-        }
+        int distance = boundedDistance(s1, s2, maxLength, new int[s2.length() + 1], new int[s2.length() + 1]);
         
         return 1.0 - ((double) distance / maxLength);
     }
     
     /**
-     * 计算Levenshtein距离
-     * 表示将一个字符串转换为另一个字符串所需的最少编辑操作次数
+     * 计算有上限的Levenshtein距离
+     * 只保留两行滚动数组，并且只计算对角线两侧maxDistance宽的带状区域；
+     * 某一行的最小值已超过上限时提前返回
      * 
      * @param s1 字符串1
      * @param s2 字符串2
-     * @return 编辑距离
+     * @param maxDistance 距离上限
+     * @param previousRow 滚动行（长度不小于s2.length()+1）
+     * @param currentRow 滚动行（长度不小于s2.length()+1）
+     * @return 编辑距离，超过上限时返回maxDistance+1
      */
-    private int levenshteinDistance(String s1, String s2) {
+    static int boundedDistance(String s1, String s2, int maxDistance, int[] previousRow, int[] currentRow) {
         int len1 = s1.length();
         int len2 = s2.length();
-        
-        // 创建距离矩阵
-        int[][] dp = new int[len1 + 1][len2 + 1];
-        
-        // 初始化第一行和第一列
-        for (int i = 0; i <= len1; i++) {
-            dp[i][0] = i;
+        int exceeded = maxDistance + 1;
+        if (Math.abs(len1 - len2) > maxDistance) {
+            return exceeded;
         }
+        
+        // 带外单元格视为无穷大，取值足够大但加一不会溢出
+        int infinity = exceeded + 1;
+        int[] previous = previousRow;
+        int[] current = currentRow;
         for (int j = 0; j <= len2; j++) {
-            dp[0][j] = j;
+            previous[j] = j <= maxDistance ? j : infinity;
         }
         
-        // 动态规划计算距离
         for (int i = 1; i <= len1; i++) {
-            for (int j = 1; j <= len2; j++) {
-                int cost = (s1.charAt(i - 1) == s2.charAt(j - 1)) ? 0 : 1;
-                
-                dp[i][j] = Math.min(
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(len2, i + maxDistance);
+            current[from - 1] = from == 1 && i <= maxDistance ? i : infinity;
+            int rowMin = current[from - 1];
+            
+            char c1 = s1.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int cost = c1 == s2.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(
                     Math.min(
-                        dp[i - 1][j] + 1,      // 删除
-                        dp[i][j - 1] + 1       // 插入
+                        previous[j] + 1,       // 删除
+                        current[j - 1] + 1     // 插入
                     ),
-                    dp[i - 1][j - 1] + cost    // 替换
+                    previous[j - 1] + cost     // 替换
                 );
+                current[j] = Math.min(value, infinity);
+                rowMin = Math.min(rowMin, current[j]);
             }
+            if (to < len2) {
+                current[to + 1] = infinity;
+            }
+            if (rowMin > maxDistance) {
+                return exceeded;
+            }
+            
+            int[] swap = previous;
+            previous = current;
+            current = swap;
         }
         
-        return dp[len1][len2];
+        return Math.min(previous[len2], exceeded);
     }
 }
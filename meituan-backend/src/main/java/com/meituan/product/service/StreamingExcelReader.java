@@ -0,0 +1,375 @@
+package com.meituan.product.service;
+
+import com.meituan.product.exception.FileFormatException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.springframework.stereotype.Component;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * xlsx流式读取器
+ * 基于POI事件模型（XSSFReader + SAX）逐行读取第一个工作表，
+ * 不构建完整的XSSFWorkbook对象，内存占用与文件行数无关
+ */
+@Slf4j
+@Component
+public class StreamingExcelReader {
+
+    /**
+     * 行处理器
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+
+        /**
+         * 处理一行数据
+         *
+         * @param rowIndex 行索引（从0开始）
+         * @param values 行数据（下标即列索引，空单元格为null）
+         */
+        void handleRow(int rowIndex, String[] values);
+
+        /**
+         * 读取到工作表尺寸（dimension）时回调，可用于估算总行数
+         *
+         * @param lastRowIndex 最后一行的行索引（从0开始）
+         */
+        default void onDimension(int lastRowIndex) {
+        }
+    }
+
+    /**
+     * 流式读取输入流中的xlsx文件
+     * 输入流会先落盘到临时文件，避免OPCPackage把整个压缩包解压到内存
+     *
+     * @param inputStream xlsx输入流
+     * @param handler 行处理器
+     */
+    public void read(InputStream inputStream, RowHandler handler) {
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile("excel-import-", ".xlsx");
+            Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            read(tempFile.toFile(), handler);
+        } catch (IOException e) {
+            log.error("缓存Excel文件失败", e);
+            throw new FileFormatException("读取Excel文件失败：" + e.getMessage(), e);
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    log.warn("删除临时文件失败：{}", tempFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * 流式读取xlsx文件的第一个工作表
+     *
+     * @param file xlsx文件
+     * @param handler 行处理器
+     */
+    public void read(File file, RowHandler handler) {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new FileFormatException("Excel文件中没有工作表");
+            }
+
+            try (InputStream sheetStream = sheets.next()) {
+                XMLReader xmlReader = XMLHelper.newXMLReader();
+                xmlReader.setContentHandler(new SheetHandler(sharedStrings, styles, handler));
+                xmlReader.parse(new InputSource(sheetStream));
+            }
+        } catch (FileFormatException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // 行处理器抛出的业务异常原样抛出
+            throw e;
+        } catch (Exception e) {
+            log.error("流式解析Excel文件失败", e);
+            throw new FileFormatException("解析Excel文件失败：" + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 工作表SAX处理器
+     * 按行收集单元格值，行结束时回调RowHandler
+     */
+    private static class SheetHandler extends DefaultHandler {
+
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final StylesTable styles;
+        private final RowHandler rowHandler;
+
+        private final StringBuilder text = new StringBuilder();
+        private String[] rowValues = new String[64];
+        private int rowIndex = -1;
+        private int lastColumn = -1;
+        private int nextColumn = 0;
+
+        private int columnIndex;
+        private String cellType;
+        private String cellStyle;
+        private boolean inValue;
+
+        /**
+         * 样式是否为日期格式的缓存（0未知，1是，-1否）
+         */
+        private byte[] dateStyleCache = new byte[64];
+
+        SheetHandler(ReadOnlySharedStringsTable sharedStrings, StylesTable styles, RowHandler rowHandler) {
+            this.sharedStrings = sharedStrings;
+            this.styles = styles;
+            this.rowHandler = rowHandler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "dimension":
+                    notifyDimension(attributes.getValue("ref"));
+                    break;
+                case "row":
+                    String rowRef = attributes.getValue("r");
+                    rowIndex = rowRef != null ? Integer.parseInt(rowRef) - 1 : rowIndex + 1;
+                    Arrays.fill(rowValues, 0, lastColumn + 1, null);
+                    lastColumn = -1;
+                    nextColumn = 0;
+                    break;
+                case "c":
+                    String cellRef = attributes.getValue("r");
+                    columnIndex = cellRef != null ? parseColumnIndex(cellRef) : nextColumn;
+                    nextColumn = columnIndex + 1;
+                    cellType = attributes.getValue("t");
+                    cellStyle = attributes.getValue("s");
+                    text.setLength(0);
+                    break;
+                case "v":
+                case "t":
+                    inValue = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                case "t":
+                    inValue = false;
+                    break;
+                case "c":
+                    String value = convertCellValue();
+                    if (value != null) {
+                        ensureCapacity(columnIndex);
+                        rowValues[columnIndex] = value;
+                        lastColumn = Math.max(lastColumn, columnIndex);
+                    }
+                    break;
+                case "row":
+                    rowHandler.handleRow(rowIndex, Arrays.copyOf(rowValues, lastColumn + 1));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        /**
+         * 从单元格引用（如"AB12"）中解析列索引，避免为每个单元格创建CellReference
+         */
+        private static int parseColumnIndex(String cellRef) {
+            int column = 0;
+            for (int i = 0; i < cellRef.length(); i++) {
+                char c = cellRef.charAt(i);
+                if (c >= 'A' && c <= 'Z') {
+                    column = column * 26 + (c - 'A' + 1);
+                } else if (c >= 'a' && c <= 'z') {
+                    column = column * 26 + (c - 'a' + 1);
+                } else if (c != '$') {
+                    break;
+                }
+            }
+            return column - 1;
+        }
+
+        private void notifyDimension(String ref) {
+            if (ref == null) {
+                return;
+            }
+            String lastCell = ref.substring(ref.indexOf(':') + 1);
+            try {
+                rowHandler.onDimension(new CellReference(lastCell).getRow());
+            } catch (IllegalArgumentException e) {
+                log.debug("无法解析工作表尺寸：{}", ref);
+            }
+        }
+
+        /**
+         * 当前单元格是否为日期格式（按样式索引缓存判断结果）
+         */
+        private boolean isDateStyle() {
+            if (cellStyle == null || styles == null) {
+                return false;
+            }
+
+            int styleIndex = Integer.parseInt(cellStyle);
+            if (styleIndex >= dateStyleCache.length) {
+                dateStyleCache = Arrays.copyOf(dateStyleCache, Math.max(styleIndex + 1, dateStyleCache.length * 2));
+            }
+            if (dateStyleCache[styleIndex] == 0) {
+                XSSFCellStyle style = styles.getStyleAt(styleIndex);
+                boolean date = style != null
+                        && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+                dateStyleCache[styleIndex] = (byte) (date ? 1 : -1);
+            }
+            return dateStyleCache[styleIndex] > 0;
+        }
+
+        /**
+         * 是否为不带前导零的整数原文（最多15位，保证与经double转换后的结果一致）
+         */
+        private static boolean isPlainInteger(String raw) {
+            int start = raw.charAt(0) == '-' ? 1 : 0;
+            int length = raw.length() - start;
+            if (length <= 0 || length > 15 || (raw.charAt(start) == '0' && length > 1)) {
+                return false;
+            }
+            for (int i = start; i < raw.length(); i++) {
+                char c = raw.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+            }
+            return !"-0".equals(raw);
+        }
+
+        /**
+         * 是否为普通记数法的小数原文，且与经double转换后的结果一致：
+         * 最多15位有效数字、整数部分不超过7位且无前导零、小数部分不以0结尾、绝对值不小于0.001
+         * （Double.toString在此范围外改用科学计数法）
+         */
+        private static boolean isPlainDecimal(String raw) {
+            int start = raw.charAt(0) == '-' ? 1 : 0;
+            int point = raw.indexOf('.', start);
+            int end = raw.length();
+            if (point <= start || point > start + 7 || point == end - 1 || raw.charAt(end - 1) == '0'
+                    || (raw.charAt(start) == '0' && point > start + 1)) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                char c = raw.charAt(i);
+                if (i != point && (c < '0' || c > '9')) {
+                    return false;
+                }
+            }
+
+            int significant = end - start - 1;
+            if (raw.charAt(start) == '0') {
+                int firstNonZero = point + 1;
+                while (raw.charAt(firstNonZero) == '0') {
+                    firstNonZero++;
+                }
+                if (firstNonZero - point > 3) {
+                    return false;
+                }
+                significant = end - firstNonZero;
+            }
+            return significant <= 15;
+        }
+
+        private void ensureCapacity(int column) {
+            if (column >= rowValues.length) {
+                rowValues = Arrays.copyOf(rowValues, Math.max(column + 1, rowValues.length * 2));
+            }
+        }
+
+        /**
+         * 转换单元格原始值
+         * 与PoiRowAccessor.getCellValueAsString的规则保持一致
+         */
+        private String convertCellValue() {
+            if (text.length() == 0) {
+                return null;
+            }
+
+            String raw = text.toString();
+            if (cellType == null || "n".equals(cellType)) {
+                return convertNumeric(raw);
+            }
+
+            switch (cellType) {
+                case "s":
+                    return sharedStrings.getItemAt(Integer.parseInt(raw)).getString();
+                case "inlineStr":
+                case "str":
+                    return raw;
+                case "b":
+                    return "1".equals(raw) ? "true" : "false";
+                default:
+                    // e（错误值）等类型视为空
+                    return null;
+            }
+        }
+
+        private String convertNumeric(String raw) {
+            boolean dateStyle = isDateStyle();
+            if (!dateStyle && (isPlainInteger(raw) || isPlainDecimal(raw))) {
+                // 整数和普通小数的原文即为最终结果，无需经过double再转回字符串
+                return raw;
+            }
+
+            double numericValue;
+            try {
+                numericValue = Double.parseDouble(raw);
+            } catch (NumberFormatException e) {
+                return raw;
+            }
+
+            if (dateStyle && DateUtil.isValidExcelDate(numericValue)) {
+                return DateUtil.getJavaDate(numericValue).toString();
+            }
+
+            // 避免科学计数法，整数返回整数字符串
+            if (numericValue == (long) numericValue) {
+                return String.valueOf((long) numericValue);
+            }
+            return String.valueOf(numericValue);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.meituan.product.service;
+
+import com.meituan.product.dto.TemplateCacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 商家模板缓存
+ * 按模板ID缓存模板文件原始字节、表头和列写入计划，条目带文件ETag，ETag不一致视为未命中；
+ * 条目数有上限，按最近最少使用淘汰。模板上传或删除时由TemplateService主动失效
+ */
+@Slf4j
+@Component
+public class TemplateCache {
+
+    @Value("${meituan.export.template-cache-size:16}")
+    private int cacheSize;
+
+    // 模板ID -> 缓存的模板（访问顺序，用于LRU淘汰）
+    private final LinkedHashMap<Long, CachedTemplate> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * 获取缓存的模板
+     *
+     * @param templateId 模板ID
+     * @param etag 模板文件当前的ETag
+     * @return 缓存的模板，未命中或文件已变化时返回null
+     */
+    public CachedTemplate get(Long templateId, String etag) {
+        if (cacheSize <= 0) {
+            misses.incrementAndGet();
+            return null;
+        }
+        synchronized (cache) {
+            CachedTemplate cached = cache.get(templateId);
+            if (cached != null && !cached.etag.equals(etag)) {
+                // 对象被覆盖，旧内容作废
+                cache.remove(templateId);
+                evictions.incrementAndGet();
+                log.info("模板文件已变化，模板ID：{}，ETag：{} -> {}", templateId, cached.etag, etag);
+                cached = null;
+            }
+            if (cached == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return cached;
+        }
+    }
+
+    /**
+     * 放入缓存（超出容量时淘汰最久未使用的条目）
+     *
+     * @param template 模板
+     */
+    public void put(CachedTemplate template) {
+        if (cacheSize <= 0) {
+            return;
+        }
+        synchronized (cache) {
+            cache.put(template.templateId, template);
+            evictions.addAndGet(LruEviction.evictEldest(cache, cacheSize));
+        }
+    }
+
+    /**
+     * 使指定模板失效
+     *
+     * @param templateId 模板ID
+     */
+    public void invalidate(Long templateId) {
+        synchronized (cache) {
+            if (cache.remove(templateId) != null) {
+                evictions.incrementAndGet();
+                log.info("模板缓存已失效，模板ID：{}", templateId);
+            }
+        }
+    }
+
+    /**
+     * 使商家的全部模板失效（商家上传新模板后旧模板不再使用）
+     *
+     * @param merchantId 商家ID
+     */
+    public void invalidateMerchant(Long merchantId) {
+        synchronized (cache) {
+            Iterator<CachedTemplate> iterator = cache.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().merchantId.equals(merchantId)) {
+                    iterator.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+        log.info("模板缓存已清空");
+    }
+
+    /**
+     * 获取缓存统计
+     *
+     * @return 缓存统计
+     */
+    public TemplateCacheStats getStats() {
+        TemplateCacheStats stats = new TemplateCacheStats();
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        stats.setHits(hitCount);
+        stats.setMisses(missCount);
+        stats.setHitRate(hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0.0);
+        stats.setEvictions(evictions.get());
+        synchronized (cache) {
+            stats.setSize(cache.size());
+            stats.setTotalBytes(cache.values().stream().mapToLong(t -> t.content.length).sum());
+        }
+        stats.setCapacity(cacheSize);
+        return stats;
+    }
+
+    /**
+     * 缓存的模板（不可变，多个导出任务共享）
+     */
+    public static final class CachedTemplate {
+
+        private final Long templateId;
+        private final Long merchantId;
+        private final String etag;
+        private final byte[] content;
+        private final List<String> headers;
+        private final MeituanColumnPlan columnPlan;
+
+        public CachedTemplate(Long templateId, Long merchantId, String etag, byte[] content, List<String> headers) {
+            this.templateId = templateId;
+            this.merchantId = merchantId;
+            this.etag = etag;
+            this.content = content;
+            this.headers = Collections.unmodifiableList(headers);
+            this.columnPlan = MeituanColumnPlan.compile(headers);
+        }
+
+        public Long getTemplateId() {
+            return templateId;
+        }
+
+        /**
+         * 打开模板文件内容（每次调用返回新的流，各自解析出独立的工作簿）
+         */
+        public InputStream openContent() {
+            return new ByteArrayInputStream(content);
+        }
+
+        public List<String> getHeaders() {
+            return headers;
+        }
+
+        public MeituanColumnPlan getColumnPlan() {
+            return columnPlan;
+        }
+    }
+}
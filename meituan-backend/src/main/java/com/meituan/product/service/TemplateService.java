@@ -35,6 +35,7 @@ public class TemplateService {
     private final TemplateMapper templateMapper;
     private final MinioService minioService;
     private final OperationLogMapper operationLogMapper;
+    private final TemplateCache templateCache;
     
     /**
      * 获取商家的所有模板
@@ -170,6 +171,9 @@ public class TemplateService {
             
             templateMapper.insert(template);
             
+            // 商家换了新模板，旧模板的缓存不再需要
+            templateCache.invalidateMerchant(merchantId);
+            
             long duration = System.currentTimeMillis() - startTime;
             
             log.info("模板上传成功，模板ID：{}，耗时：{}ms", template.getId(), duration);
@@ -258,6 +262,7 @@ public class TemplateService {
             
             // 逻辑删除数据库记录
             templateMapper.deleteById(id);
+            templateCache.invalidate(id);
             
             long duration = System.currentTimeMillis() - startTime;
             
@@ -0,0 +1,78 @@
+package com.meituan.product.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶限流器（线程安全）
+ * 令牌按固定速率补充，桶满时最多允许burst个请求连续通过；令牌不足时预约下一个令牌并在锁外等待，
+ * 多个线程按预约顺序依次放行，整体速率不超过设定值
+ */
+public final class TokenBucket {
+
+    private double permitsPerSecond;
+    private final double burst;
+
+    // 当前令牌数（可以为负，表示已被预约的令牌）
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param permitsPerSecond 每秒令牌数（小于等于0表示不限流）
+     * @param burst 桶容量
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 获取一个令牌，令牌不足时阻塞等待
+     *
+     * @throws InterruptedException 等待期间线程被中断
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private synchronized long reserve() {
+        if (permitsPerSecond <= 0) {
+            return 0;
+        }
+        refill();
+        tokens -= 1;
+        if (tokens >= 0) {
+            return 0;
+        }
+        return (long) (-tokens / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * permitsPerSecond / TimeUnit.SECONDS.toNanos(1));
+        lastRefillNanos = now;
+    }
+
+    /**
+     * 调整速率（已预约的令牌按新速率补充）
+     *
+     * @param permitsPerSecond 每秒令牌数（小于等于0表示不限流）
+     */
+    public synchronized void setRate(double permitsPerSecond) {
+        if (this.permitsPerSecond > 0) {
+            refill();
+        } else {
+            tokens = burst;
+            lastRefillNanos = System.nanoTime();
+        }
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    public synchronized double getRate() {
+        return permitsPerSecond;
+    }
+}
@@ -0,0 +1,129 @@
+package com.meituan.product.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meituan.product.config.MeituanHttpClientConfig;
+import com.meituan.product.dto.ProductDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批量上传请求体gzip压缩测试
+ * 请求发往本机的美团API桩服务，桩服务按Content-Encoding解压后应得到与未压缩时相同的JSON；
+ * 压缩默认关闭，开启后小于阈值的请求体原样发送
+ */
+class MeituanApiClientGzipTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MeituanApiStub stub;
+    private volatile String contentEncoding;
+    private volatile byte[] rawBody;
+
+    @BeforeEach
+    void setUp() {
+        stub = MeituanApiStub.start().handle("/products/batch-upload", exchange -> {
+            contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            try (InputStream in = exchange.getRequestBody()) {
+                rawBody = in.readAllBytes();
+            }
+            MeituanApiStub.respond(exchange, 200, MeituanApiStub.SUCCESS_BODY);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void testUpload_WithGzipEnabled_ShouldSendDecodableGzipBody() throws IOException {
+        // Given
+        MeituanApiClient client = stub.createClient(MeituanApiStub.guard(guard -> { }), true);
+        List<ProductDTO> products = products(200);
+
+        // When
+        client.uploadProducts(products, "token");
+
+        // Then
+        assertEquals("gzip", contentEncoding);
+        String json = gunzip(rawBody);
+        assertTrue(rawBody.length < json.getBytes(StandardCharsets.UTF_8).length / 2,
+            "压缩后" + rawBody.length + "字节，原始" + json.length() + "字符");
+        assertProducts(products, json);
+    }
+
+    @Test
+    void testUpload_WithSmallBody_ShouldNotCompress() throws IOException {
+        // Given
+        MeituanApiClient client = stub.createClient(MeituanApiStub.guard(guard -> { }), true);
+        List<ProductDTO> products = products(1);
+
+        // When
+        client.uploadProducts(products, "token");
+
+        // Then
+        assertNull(contentEncoding);
+        assertProducts(products, new String(rawBody, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testUpload_WithDefaultConfig_ShouldNotCompress() throws Exception {
+        // Given: 未配置meituan.api.gzip.enabled时使用注解中的默认值
+        Value value = MeituanHttpClientConfig.class.getDeclaredField("gzipEnabled").getAnnotation(Value.class);
+        boolean defaultEnabled = Boolean.parseBoolean(
+            value.value().substring(value.value().indexOf(':') + 1, value.value().length() - 1));
+        assertFalse(defaultEnabled, "gzip压缩应默认关闭");
+        MeituanApiClient client = stub.createClient(MeituanApiStub.guard(guard -> { }), defaultEnabled);
+        List<ProductDTO> products = products(200);
+
+        // When
+        client.uploadProducts(products, "token");
+
+        // Then
+        assertNull(contentEncoding);
+        assertProducts(products, new String(rawBody, StandardCharsets.UTF_8));
+    }
+
+    private static List<ProductDTO> products(int count) {
+        List<ProductDTO> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ProductDTO dto = new ProductDTO();
+            dto.setProductName("测试商品" + i);
+            dto.setCategoryId("2001" + i % 10);
+            dto.setPrice(new BigDecimal("9.99"));
+            dto.setStock(i);
+            dto.setDescription("商品描述" + i);
+            dto.setImageUrl("https://img.example.com/" + i + ".jpg");
+            products.add(dto);
+        }
+        return products;
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void assertProducts(List<ProductDTO> expected, String json) throws IOException {
+        JsonNode products = objectMapper.readTree(json).get("products");
+        assertEquals(expected.size(), products.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getProductName(), products.get(i).get("productName").asText());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.meituan.product.client;
+
+import com.meituan.product.dto.MeituanApiResilienceStats;
+import com.meituan.product.enums.CircuitBreakerState;
+import com.meituan.product.exception.MeituanApiException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 美团API调用保护测试
+ * 熔断器状态转换（关闭 -> 打开 -> 半开 -> 关闭）、重试预算耗尽，以及调用抛出非预期异常时不泄漏半开探测名额
+ */
+class MeituanApiGuardTest {
+
+    private static final long OPEN_MILLIS = 100;
+
+    @Test
+    void testCircuitBreaker_ShouldTransitionClosedOpenHalfOpenClosed() throws InterruptedException {
+        // Given: 最近4次调用中一半失败即打开，半开时放行2个探测请求
+        MeituanCircuitBreaker breaker = new MeituanCircuitBreaker(4, 2, 0.5, OPEN_MILLIS, 2);
+
+        // When & Then: 关闭 -> 打开
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1, breaker.getRejectedCount());
+
+        // 打开 -> 半开：只放行探测名额内的请求
+        Thread.sleep(OPEN_MILLIS + 50);
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreakerState.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        // 半开 -> 关闭：探测请求全部成功
+        breaker.onSuccess();
+        assertEquals(CircuitBreakerState.HALF_OPEN, breaker.getState());
+        breaker.onSuccess();
+        assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getWindowCalls());
+        assertEquals(1, breaker.getOpenedCount());
+    }
+
+    @Test
+    void testCircuitBreaker_WhenProbeFails_ShouldReopen() throws InterruptedException {
+        // Given
+        MeituanCircuitBreaker breaker = new MeituanCircuitBreaker(4, 1, 0.5, OPEN_MILLIS, 2);
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        Thread.sleep(OPEN_MILLIS + 50);
+
+        // When
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        // Then
+        assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+        assertEquals(2, breaker.getOpenedCount());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void testExecute_WhenHalfOpenProbeThrowsUnexpectedException_ShouldNotWedgeBreaker() throws InterruptedException {
+        // Given: 连续两次服务不可用后打开
+        MeituanApiGuard guard = guard(3, 0.2, 1);
+        for (int i = 0; i < 2; i++) {
+            assertThrows(MeituanApiException.class, () -> guard.execute("测试", 1, () -> {
+                throw new MeituanApiException("系统繁忙", "SYSTEM_BUSY");
+            }));
+        }
+        assertEquals(CircuitBreakerState.OPEN, guard.getStats().getState());
+        Thread.sleep(OPEN_MILLIS + 50);
+
+        // When: 半开探测请求抛出非MeituanApiException的异常
+        assertThrows(IllegalStateException.class, () -> guard.execute("测试", () -> {
+            throw new IllegalStateException("响应解析失败");
+        }));
+
+        // Then: 探测失败重新打开，之后的探测成功即可恢复
+        assertEquals(CircuitBreakerState.OPEN, guard.getStats().getState());
+        Thread.sleep(OPEN_MILLIS + 50);
+        assertEquals("ok", guard.execute("测试", () -> "ok"));
+        assertEquals(CircuitBreakerState.CLOSED, guard.getStats().getState());
+    }
+
+    @Test
+    void testExecute_WhenCallThrowsError_ShouldRecordFailure() {
+        // Given
+        MeituanApiGuard guard = guard(3, 0.2, 1);
+
+        // When
+        for (int i = 0; i < 2; i++) {
+            assertThrows(StackOverflowError.class, () -> guard.execute("测试", () -> {
+                throw new StackOverflowError();
+            }));
+        }
+
+        // Then
+        assertEquals(CircuitBreakerState.OPEN, guard.getStats().getState());
+    }
+
+    @Test
+    void testExecute_WhenRetryBudgetExhausted_ShouldStopRetrying() {
+        // Given: 不按请求量和时间补充预算，初始10次重试
+        MeituanApiGuard guard = guard(3, 0, 0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When: 每次调用都被限流，前5次调用各重试2次，第6次调用预算不足
+        for (int i = 0; i < 6; i++) {
+            MeituanApiException e = assertThrows(MeituanApiException.class, () -> guard.execute("测试", () -> {
+                attempts.incrementAndGet();
+                throw new MeituanApiException("请求过于频繁", "429");
+            }));
+            assertTrue(e.isThrottled());
+        }
+
+        // Then
+        MeituanApiResilienceStats stats = guard.getStats();
+        assertEquals(16, attempts.get());
+        assertEquals(10, stats.getRetriedCount());
+        assertEquals(1, stats.getBudgetExhaustedCount());
+        assertEquals(CircuitBreakerState.CLOSED, stats.getState(), "限流说明美团正常响应，不应熔断");
+    }
+
+    @Test
+    void testRetryBudget_ShouldRefillByRequestRatio() {
+        // Given
+        RetryBudget budget = new RetryBudget(0.5, 0, 2);
+
+        // When & Then
+        assertTrue(budget.tryRetry());
+        assertTrue(budget.tryRetry());
+        assertFalse(budget.tryRetry());
+        budget.onRequest();
+        assertFalse(budget.tryRetry());
+        budget.onRequest();
+        assertTrue(budget.tryRetry());
+        assertEquals(3, budget.getRetriedCount());
+        assertEquals(2, budget.getExhaustedCount());
+    }
+
+    /**
+     * 最近4次调用中一半失败即打开，打开100ms后放行1个探测请求，退避1ms
+     */
+    private static MeituanApiGuard guard(int maxAttempts, double budgetRatio, double budgetMinPerSecond) {
+        MeituanApiGuard guard = new MeituanApiGuard();
+        ReflectionTestUtils.setField(guard, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(guard, "backoffMillis", 1L);
+        ReflectionTestUtils.setField(guard, "maxBackoffMillis", 1L);
+        ReflectionTestUtils.setField(guard, "budgetRatio", budgetRatio);
+        ReflectionTestUtils.setField(guard, "budgetMinPerSecond", budgetMinPerSecond);
+        ReflectionTestUtils.setField(guard, "windowSize", 4);
+        ReflectionTestUtils.setField(guard, "minimumCalls", 2);
+        ReflectionTestUtils.setField(guard, "failureRateThreshold", 0.5);
+        ReflectionTestUtils.setField(guard, "openDurationMillis", OPEN_MILLIS);
+        ReflectionTestUtils.setField(guard, "halfOpenProbes", 1);
+        guard.init();
+        return guard;
+    }
+}
@@ -0,0 +1,144 @@
+package com.meituan.product.client;
+
+import com.meituan.product.config.MeituanHttpClientConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 美团API桩服务
+ * 在本机随机端口启动com.sun.net.httpserver服务（多线程处理请求），
+ * 按MeituanHttpClientConfig的连接池和拦截器配置创建指向该服务的MeituanApiClient
+ */
+public final class MeituanApiStub implements AutoCloseable {
+
+    public static final String SUCCESS_BODY = "{\"code\":\"0\",\"message\":\"success\"}";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    private MeituanApiStub(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    public static MeituanApiStub start() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            ExecutorService executor = Executors.newCachedThreadPool();
+            server.setExecutor(executor);
+            server.start();
+            return new MeituanApiStub(server, executor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 注册请求处理器
+     *
+     * @param path 请求路径（如 /products/batch-upload）
+     * @param handler 处理器
+     */
+    public MeituanApiStub handle(String path, HttpHandler handler) {
+        server.createContext(path, handler);
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * 按application.yml的默认值创建调用保护（退避时间缩短），customizer可在初始化前覆盖字段
+     */
+    public static MeituanApiGuard guard(Consumer<MeituanApiGuard> customizer) {
+        MeituanApiGuard guard = new MeituanApiGuard();
+        ReflectionTestUtils.setField(guard, "maxAttempts", 3);
+        ReflectionTestUtils.setField(guard, "backoffMillis", 20L);
+        ReflectionTestUtils.setField(guard, "maxBackoffMillis", 100L);
+        ReflectionTestUtils.setField(guard, "budgetRatio", 0.2);
+        ReflectionTestUtils.setField(guard, "budgetMinPerSecond", 1.0);
+        ReflectionTestUtils.setField(guard, "windowSize", 50);
+        ReflectionTestUtils.setField(guard, "minimumCalls", 10);
+        ReflectionTestUtils.setField(guard, "failureRateThreshold", 0.5);
+        ReflectionTestUtils.setField(guard, "openDurationMillis", 30000L);
+        ReflectionTestUtils.setField(guard, "halfOpenProbes", 3);
+        customizer.accept(guard);
+        guard.init();
+        return guard;
+    }
+
+    /**
+     * 创建指向桩服务的美团API客户端
+     *
+     * @param guard 调用保护
+     * @param gzipEnabled 是否开启批量上传请求体压缩
+     */
+    public MeituanApiClient createClient(MeituanApiGuard guard, boolean gzipEnabled) {
+        MeituanHttpClientConfig config = new MeituanHttpClientConfig();
+        ReflectionTestUtils.setField(config, "connectTimeout", 2000);
+        ReflectionTestUtils.setField(config, "readTimeout", 10000);
+        ReflectionTestUtils.setField(config, "maxTotal", 50);
+        ReflectionTestUtils.setField(config, "maxPerRoute", 20);
+        ReflectionTestUtils.setField(config, "acquireTimeout", 5000);
+        ReflectionTestUtils.setField(config, "idleTimeout", 30000);
+        ReflectionTestUtils.setField(config, "gzipEnabled", gzipEnabled);
+        ReflectionTestUtils.setField(config, "gzipMinBytes", 2048);
+
+        connectionManager = config.meituanConnectionManager();
+        RestTemplate restTemplate = config.meituanRestTemplate(config.meituanHttpClient(connectionManager));
+        MeituanApiClient client = new MeituanApiClient(restTemplate, connectionManager, guard);
+        ReflectionTestUtils.setField(client, "baseUrl", getBaseUrl());
+        return client;
+    }
+
+    /**
+     * 读取请求体，Content-Encoding为gzip时先解压
+     */
+    public static String readBody(HttpExchange exchange) throws IOException {
+        InputStream body = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            body = new GZIPInputStream(body);
+        }
+        try (InputStream in = body) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 返回JSON响应
+     */
+    public static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (connectionManager != null) {
+            connectionManager.close();
+        }
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,77 @@
+package com.meituan.product.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.SocketTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 美团API异常分类测试
+ * 限流（429）、服务不可用（网络异常、5xx、系统繁忙错误码）和业务错误的判断，决定是否重试以及是否计入熔断
+ */
+class MeituanApiExceptionTest {
+
+    @Test
+    void testClassification_WithThrottledResponses_ShouldBeThrottledOnly() {
+        MeituanApiException[] throttled = {
+            new MeituanApiException("请求过于频繁", "429"),
+            new MeituanApiException("请求过于频繁", "RATE_LIMITED"),
+            new MeituanApiException("调用美团API失败", "NETWORK_ERROR",
+                HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", null, null, null))
+        };
+        for (MeituanApiException e : throttled) {
+            assertTrue(e.isThrottled(), e.getApiErrorCode());
+            assertFalse(e.isTransient(), "限流不计入熔断：" + e.getApiErrorCode());
+            assertTrue(e.isRetryable());
+            assertFalse(e.isCircuitOpen());
+        }
+    }
+
+    @Test
+    void testClassification_WithUnavailableService_ShouldBeTransientOnly() {
+        MeituanApiException[] unavailable = {
+            new MeituanApiException("系统繁忙", "SYSTEM_BUSY"),
+            new MeituanApiException("美团API调用失败：未知错误", "UNKNOWN"),
+            new MeituanApiException("调用美团API失败", "NETWORK_ERROR",
+                HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", null, null, null)),
+            new MeituanApiException("调用美团API失败", "NETWORK_ERROR",
+                new ResourceAccessException("Read timed out", new SocketTimeoutException()))
+        };
+        for (MeituanApiException e : unavailable) {
+            assertTrue(e.isTransient(), e.getMessage());
+            assertFalse(e.isThrottled(), e.getMessage());
+            assertTrue(e.isRetryable());
+        }
+    }
+
+    @Test
+    void testClassification_WithBusinessErrors_ShouldNotRetry() {
+        MeituanApiException[] businessErrors = {
+            new MeituanApiException("参数错误", "INVALID_PARAM"),
+            new MeituanApiException("调用美团API失败", "NETWORK_ERROR",
+                HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request", null, null, null)),
+            // HTTP状态码优先于错误码判断
+            new MeituanApiException("调用美团API失败", "500",
+                HttpClientErrorException.create(HttpStatus.UNAUTHORIZED, "Unauthorized", null, null, null)),
+            new MeituanApiException("调用美团API失败", null)
+        };
+        for (MeituanApiException e : businessErrors) {
+            assertFalse(e.isTransient(), e.getMessage());
+            assertFalse(e.isThrottled(), e.getMessage());
+            assertFalse(e.isRetryable(), e.getMessage());
+        }
+    }
+
+    @Test
+    void testClassification_WithCircuitOpen_ShouldNotRetry() {
+        MeituanApiException e = new MeituanApiException("美团API暂时不可用（熔断中）", MeituanApiException.CIRCUIT_OPEN);
+
+        assertTrue(e.isCircuitOpen());
+        assertFalse(e.isRetryable());
+    }
+}
@@ -0,0 +1,99 @@
+package com.meituan.product.mapper;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.config.GlobalConfig;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import com.meituan.product.config.MybatisPlusConfig;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+/**
+ * H2内存库上的MyBatis-Plus测试环境
+ * 加载生产环境的mapper XML和MyBatis-Plus配置（分页插件、自动填充），不启动Spring容器
+ */
+public final class H2MapperSupport implements AutoCloseable {
+
+    private final JdbcDataSource dataSource;
+    private final SqlSessionFactory sqlSessionFactory;
+    private final SqlSessionTemplate sqlSessionTemplate;
+
+    private H2MapperSupport(JdbcDataSource dataSource, SqlSessionFactory sqlSessionFactory) {
+        this.dataSource = dataSource;
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.sqlSessionTemplate = new SqlSessionTemplate(sqlSessionFactory);
+    }
+
+    /**
+     * 创建独立的内存库并初始化表结构
+     */
+    public static H2MapperSupport create() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID().toString().replace("-", "")
+            + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("schema-h2.sql")).execute(dataSource);
+
+        try {
+            MybatisPlusConfig plusConfig = new MybatisPlusConfig();
+            MybatisConfiguration configuration = new MybatisConfiguration();
+            configuration.setMapUnderscoreToCamelCase(true);
+
+            GlobalConfig globalConfig = GlobalConfigUtils.defaults();
+            globalConfig.setMetaObjectHandler(plusConfig.metaObjectHandler());
+
+            MybatisSqlSessionFactoryBean factoryBean = new MybatisSqlSessionFactoryBean();
+            factoryBean.setDataSource(dataSource);
+            factoryBean.setConfiguration(configuration);
+            factoryBean.setGlobalConfig(globalConfig);
+            factoryBean.setPlugins(plusConfig.mybatisPlusInterceptor());
+            factoryBean.setMapperLocations(
+                new PathMatchingResourcePatternResolver().getResources("classpath:mapper/*.xml"));
+            return new H2MapperSupport(dataSource, factoryBean.getObject());
+        } catch (Exception e) {
+            throw new IllegalStateException("初始化H2测试库失败", e);
+        }
+    }
+
+    /**
+     * 获取Mapper，没有XML映射文件的Mapper（只用注解和BaseMapper）首次获取时注册
+     */
+    public <T> T getMapper(Class<T> mapperType) {
+        synchronized (sqlSessionFactory) {
+            if (!sqlSessionFactory.getConfiguration().hasMapper(mapperType)) {
+                sqlSessionFactory.getConfiguration().addMapper(mapperType);
+            }
+        }
+        return sqlSessionTemplate.getMapper(mapperType);
+    }
+
+    public SqlSessionFactory getSqlSessionFactory() {
+        return sqlSessionFactory;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(dataSource);
+    }
+
+    public TransactionTemplate transactionTemplate() {
+        return new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Override
+    public void close() {
+        jdbcTemplate().execute("SHUTDOWN");
+    }
+}
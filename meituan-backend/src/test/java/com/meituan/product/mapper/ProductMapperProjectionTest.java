@@ -0,0 +1,265 @@
+package com.meituan.product.mapper;
+
+import com.meituan.product.dto.ProductImageSource;
+import com.meituan.product.entity.Product;
+import com.meituan.product.service.MeituanColumnPlan;
+import com.meituan.product.service.MeituanUploadEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.Invocation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.spy;
+
+/**
+ * 商品查询投影测试（H2）
+ * 导出、上传、图片导出只查询需要的列，这里校验下游实际读取的每个getter都能从投影中取到值，
+ * 并输出各投影与 SELECT * 的结果集字节数和查询耗时
+ */
+@Slf4j
+class ProductMapperProjectionTest {
+
+    private static final long MERCHANT_ID = 7L;
+    private static final int PRODUCT_COUNT = 1000;
+    private static final String NAMESPACE = ProductMapper.class.getName() + ".";
+
+    /**
+     * 美团模板表头（覆盖列写入计划的全部写入器）
+     */
+    private static final List<String> MEITUAN_HEADERS = Arrays.asList(
+        "SKU ID", "条形码(upc/ean等)", "商品类目名称", "商品类目ID", "APP SPU编码", "商品名称*",
+        "商品图片", "封面视频URL", "规格图URL", "店内分类", "所处店内分类数量", "规格名称", "店内码/货号",
+        "价格(元)*", "库存", "售卖状态", "月售数量", "重量", "重量单位", "品牌", "商品类目属性",
+        "起购数", "货架码/位置码", "商品卖点", "卖点展示期", "文字详情", "生产日期", "到期日期",
+        "是否临期", "是否过期", "发货模式", "预售的可配送时间", "可售时间", "力荐", "无理由退货", "参与的组合商品",
+        "是否四轮配送", "合规状态", "违规下架", "必填信息缺失", "审核状态", "商品描述", "图片URL"
+    );
+
+    private H2MapperSupport database;
+    private ProductMapper productMapper;
+    private List<Long> productIds;
+
+    @BeforeEach
+    void setUp() {
+        database = H2MapperSupport.create();
+        productMapper = database.getMapper(ProductMapper.class);
+
+        List<Product> products = TestProducts.create(MERCHANT_ID, PRODUCT_COUNT);
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            if (i % 2 == 0) {
+                // 无理由退货标签为空时，导出按noReasonReturn回退
+                product.setNoReasonReturnTagId(null);
+            }
+            // 列表和导出不读取的大字段，按真实数据的量级填充
+            product.setImageDetail("https://img.example.com/detail.jpg,".repeat(20));
+            product.setBrandImageDetail("https://img.example.com/brand.jpg,".repeat(10));
+            product.setComboProducts("组合商品SKU,".repeat(20));
+            product.setProductAttributes("品牌：测试品牌。产地：中国。规格：500g。".repeat(5));
+        }
+        productMapper.batchInsert(products);
+        database.jdbcTemplate().update("UPDATE t_product SET product_images = ?, meituan_product_id = CONCAT('MT-', id)",
+            "https://img.example.com/1.jpg,https://img.example.com/2.jpg");
+        productIds = database.jdbcTemplate().queryForList(
+            "SELECT id FROM t_product WHERE merchant_id = ? ORDER BY id", Long.class, MERCHANT_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    @Test
+    void testExportColumns_ShouldPopulateEveryGetterReadByColumnPlan() {
+        // Given
+        Set<String> getters = gettersReadBy(product -> {
+            try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+                MeituanColumnPlan.compile(MEITUAN_HEADERS).writeRow(workbook.createSheet().createRow(0), product);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            // 生成模板时按第一个商品确定商家，键集分页按ID翻页
+            product.getMerchantId();
+            product.getId();
+        });
+        assertTrue(getters.contains("getNoReasonReturn"), "应覆盖无理由退货的回退字段");
+
+        // When
+        List<Product> byIds = productMapper.selectForExportByIds(productIds.subList(0, 50));
+        List<Product> page = productMapper.selectPageBeforeId(MERCHANT_ID, Long.MAX_VALUE, 0L, 50);
+
+        // Then
+        assertEquals(50, byIds.size());
+        assertEquals(50, page.size());
+        assertGettersPopulated(byIds, getters, "exportColumns");
+        assertGettersPopulated(page, getters, "exportColumns");
+    }
+
+    @Test
+    void testUploadColumns_ShouldPopulateEveryGetterReadByUploadEngine() {
+        // Given
+        MeituanUploadEngine engine = new MeituanUploadEngine(null, null, null);
+        Set<String> getters = gettersReadBy(product -> {
+            ReflectionTestUtils.invokeMethod(engine, "convertToDTO", product);
+            // 上传后按ID更新状态
+            product.getId();
+        });
+
+        // When
+        List<Product> products = productMapper.selectForUploadByIds(productIds.subList(0, 50));
+
+        // Then
+        assertEquals(50, products.size());
+        assertGettersPopulated(products, getters, "uploadColumns");
+    }
+
+    @Test
+    void testImageColumns_ShouldPopulateImageSource() {
+        // When
+        List<ProductImageSource> sources = productMapper.selectImageSources(MERCHANT_ID, productIds.subList(0, 10));
+
+        // Then
+        assertEquals(10, sources.size());
+        for (ProductImageSource source : sources) {
+            assertNotNull(source.getId());
+            assertNotNull(source.getProductName());
+            assertNotNull(source.getUpcEan());
+            assertNotNull(source.getStoreCode());
+            assertNotNull(source.getProductImages());
+        }
+    }
+
+    @Test
+    void testProjections_ShouldReadFewerBytesThanSelectAll() {
+        // Given
+        Map<String, Object> byIds = new HashMap<>();
+        byIds.put("ids", productIds);
+        Map<String, Object> recent = new HashMap<>();
+        recent.put("merchantId", MERCHANT_ID);
+        recent.put("limit", PRODUCT_COUNT);
+        Map<String, Object> images = new HashMap<>(recent);
+        images.put("ids", productIds);
+
+        // When & Then
+        List<String> report = new ArrayList<>();
+        report.add(measure("selectRecent (listColumns)", "selectRecent", recent));
+        report.add(measure("selectForExportByIds (exportColumns)", "selectForExportByIds", byIds));
+        report.add(measure("selectForUploadByIds (uploadColumns)", "selectForUploadByIds", byIds));
+        report.add(measure("selectImageSources (imageColumns)", "selectImageSources", images));
+        log.info("投影与SELECT *对比（{}条商品，H2内存库，耗时为20次查询的中位数）：\n{}",
+            PRODUCT_COUNT, String.join("\n", report));
+    }
+
+    /**
+     * 用spy记录下游读取了Product的哪些getter
+     */
+    private static Set<String> gettersReadBy(Consumer<Product> consumer) {
+        Product source = TestProducts.create(MERCHANT_ID, "spy", 1);
+        source.setNoReasonReturnTagId(null);
+        Product product = spy(source);
+        consumer.accept(product);
+        return mockingDetails(product).getInvocations().stream()
+            .map(Invocation::getMethod)
+            .map(Method::getName)
+            .filter(name -> name.startsWith("get"))
+            .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    /**
+     * 投影结果中下游读取的每个getter，都应与完整实体（BaseMapper按ID查询全部列）的值相同
+     */
+    private void assertGettersPopulated(List<Product> products, Set<String> getters, String projection) {
+        Map<Long, Product> fullRows = productMapper.selectBatchIds(
+                products.stream().map(Product::getId).collect(Collectors.toList()))
+            .stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (Product product : products) {
+            Product full = fullRows.get(product.getId());
+            for (String getter : getters) {
+                Object expected = ReflectionTestUtils.invokeMethod(full, getter);
+                assertEquals(expected, ReflectionTestUtils.invokeMethod(product, getter),
+                    projection + "缺少 " + getter + " 对应的列");
+            }
+        }
+    }
+
+    /**
+     * 执行投影语句和把列表替换为*的同一语句，比较结果集字节数（按UTF-8计算各列文本）和耗时
+     */
+    private String measure(String label, String statementId, Map<String, Object> parameters) {
+        BoundSql boundSql = database.getSqlSessionFactory().getConfiguration()
+            .getMappedStatement(NAMESPACE + statementId).getBoundSql(parameters);
+        Object[] args = boundSql.getParameterMappings().stream()
+            .map(ParameterMapping::getProperty)
+            .map(property -> boundSql.hasAdditionalParameter(property)
+                ? boundSql.getAdditionalParameter(property) : parameters.get(property))
+            .toArray();
+        String projected = boundSql.getSql();
+        String selectAll = projected.replaceFirst("(?s)SELECT\\s+.*?\\s+FROM t_product", "SELECT * FROM t_product");
+
+        long[] result = run(projected, selectAll, args);
+        assertTrue(result[0] < result[2], label + "读取的字节数应少于SELECT *");
+        return String.format("  %-40s %,10d 字节 %6.2fms | SELECT * %,10d 字节 %6.2fms | 字节减少 %.0f%%",
+            label, result[0], result[1] / 1e6, result[2], result[3] / 1e6, 100.0 * (result[2] - result[0]) / result[2]);
+    }
+
+    /**
+     * 交替执行两条语句（避免先后顺序带来的预热偏差），
+     * 返回 {投影字节数, 投影耗时中位数, SELECT *字节数, SELECT *耗时中位数}，耗时单位为纳秒
+     */
+    private long[] run(String projected, String selectAll, Object[] args) {
+        long[] result = new long[4];
+        long[][] nanos = new long[2][20];
+        for (int i = -1; i < 20; i++) {
+            for (int k = 0; k < 2; k++) {
+                long start = System.nanoTime();
+                result[k * 2] = database.jdbcTemplate().query(k == 0 ? projected : selectAll, this::resultBytes, args);
+                // 第一轮为预热
+                if (i >= 0) {
+                    nanos[k][i] = System.nanoTime() - start;
+                }
+            }
+        }
+        for (int k = 0; k < 2; k++) {
+            Arrays.sort(nanos[k]);
+            result[k * 2 + 1] = nanos[k][nanos[k].length / 2];
+        }
+        return result;
+    }
+
+    private long resultBytes(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        long bytes = 0;
+        while (resultSet.next()) {
+            for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                String value = resultSet.getString(column);
+                if (value != null) {
+                    bytes += value.getBytes(StandardCharsets.UTF_8).length;
+                }
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,81 @@
+package com.meituan.product.mapper;
+
+import com.meituan.product.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 测试商品数据
+ * 所有可导入字段都有值，便于校验写入和查询投影没有遗漏字段
+ */
+public final class TestProducts {
+
+    private TestProducts() {
+    }
+
+    public static List<Product> create(Long merchantId, int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(create(merchantId, "T" + merchantId + "-" + i, i));
+        }
+        return products;
+    }
+
+    public static Product create(Long merchantId, String code, int seq) {
+        Product product = new Product();
+        product.setMerchantId(merchantId);
+        product.setProductName("测试商品" + code);
+        product.setCategoryId("2001" + seq % 10);
+        product.setPrice(new BigDecimal(seq % 1000 + 1).add(new BigDecimal("0.99")));
+        product.setStock(seq % 500);
+        product.setDescription("商品描述" + code);
+        product.setImageUrl("https://img.example.com/" + code + ".jpg");
+        product.setStatus(0);
+        product.setSkuId("SKU-" + code);
+        product.setUpcEan("69" + String.format("%011d", seq));
+        product.setCategoryName("零食/饼干");
+        product.setAppSpuCode("SPU-" + code);
+        product.setProductImage("https://img.example.com/" + code + "-main.jpg");
+        product.setCoverVideo("https://video.example.com/" + code + ".mp4");
+        product.setSpecImage("https://img.example.com/" + code + "-spec.jpg");
+        product.setSpecImageUrl("https://img.example.com/" + code + "-spec-url.jpg");
+        product.setStoreCategory("休闲零食");
+        product.setStoreCategoryCount(1);
+        product.setSpecName(seq % 3 + 1 + "袋装");
+        product.setStoreCode("A-" + code);
+        product.setSaleStatus("上架");
+        product.setMonthlySales(seq % 100);
+        product.setWeight(new BigDecimal("0.25"));
+        product.setWeightUnit("千克(kg)");
+        product.setBrand("测试品牌");
+        product.setMinPurchase(1);
+        product.setShelfCode("S" + seq % 20);
+        product.setSellingPoint("好吃不贵");
+        product.setSellingPointPeriod("长期");
+        product.setTextDetail("文字详情" + code);
+        product.setImageDetail("https://img.example.com/" + code + "-detail.jpg");
+        product.setBrandImageDetail("https://img.example.com/" + code + "-brand.jpg");
+        product.setProductionDate(LocalDate.of(2024, 1, 1).plusDays(seq % 300));
+        product.setExpiryDate(LocalDate.of(2025, 1, 1).plusDays(seq % 300));
+        product.setIsNearExpiry(seq % 2);
+        product.setIsExpired(0);
+        product.setDeliveryMode("即时配送");
+        product.setPresaleDeliveryTime("下单后3天");
+        product.setAvailableTime("周一至周日 00:00-23:59");
+        product.setProductAttributes("品牌：测试品牌。产地：中国");
+        product.setIsRecommended(seq % 2);
+        product.setNoReasonReturn(1);
+        product.setNoReasonReturnTagId("7");
+        product.setIsCombo(0);
+        product.setComboProducts("组合" + code);
+        product.setIsFourWheelDelivery(0);
+        product.setComplianceStatus("合规");
+        product.setViolationOffline(0);
+        product.setMissingRequiredInfo(0);
+        product.setAuditStatus("已通过");
+        return product;
+    }
+}
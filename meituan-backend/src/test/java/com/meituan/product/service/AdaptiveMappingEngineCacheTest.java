@@ -0,0 +1,144 @@
+package com.meituan.product.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meituan.product.dto.MappingCacheStats;
+import com.meituan.product.dto.MappingMemoryStats;
+import com.meituan.product.dto.MappingResult;
+import com.meituan.product.enums.FormatType;
+import com.meituan.product.enums.MatchType;
+import com.meituan.product.mapper.H2MapperSupport;
+import com.meituan.product.mapper.MappingMemoryMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 映射结果缓存测试
+ * 按表头指纹（格式、规则版本、记忆版本、表头）缓存映射结果：命中时不再计入记忆/匹配级联列数，
+ * 规则重新加载或商家记忆变化后旧结果失效，超出容量时按LRU淘汰
+ */
+class AdaptiveMappingEngineCacheTest {
+
+    private static final long MERCHANT_ID = 15L;
+    private static final List<String> HEADERS = Arrays.asList("商品名称", "类目ID", "价格", "库存");
+
+    private H2MapperSupport database;
+    private MappingRuleRepository repository;
+    private MappingMemoryService memoryService;
+    private AdaptiveMappingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        database = H2MapperSupport.create();
+        memoryService = new MappingMemoryService(database.getMapper(MappingMemoryMapper.class));
+        ReflectionTestUtils.setField(memoryService, "enabled", true);
+        ReflectionTestUtils.setField(memoryService, "minConfidence", 0.9);
+
+        repository = new MappingRuleRepository(new ObjectMapper());
+        repository.loadRules();
+        engine = new AdaptiveMappingEngine(repository, new SemanticMatcher(), new ConfidenceCalculator(), memoryService);
+        ReflectionTestUtils.setField(engine, "cacheSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    @Test
+    void testBuildMapping_OnCacheHit_ShouldNotCountColumnsAgain() {
+        // Given
+        MappingResult first = engine.buildMapping(HEADERS, FormatType.MEITUAN, MERCHANT_ID);
+        MappingMemoryStats computed = engine.getMemoryStats();
+        assertEquals(HEADERS.size(), computed.getCascadeColumns());
+
+        // When
+        MappingResult second = engine.buildMapping(HEADERS, FormatType.MEITUAN, MERCHANT_ID);
+        second.getMappings().clear();
+        MappingResult third = engine.buildMapping(HEADERS, FormatType.MEITUAN, MERCHANT_ID);
+
+        // Then: 命中缓存不重新匹配，返回的副本被修改也不影响缓存
+        MappingMemoryStats afterHits = engine.getMemoryStats();
+        assertEquals(computed.getCascadeColumns(), afterHits.getCascadeColumns());
+        assertEquals(computed.getMemoryResolvedColumns(), afterHits.getMemoryResolvedColumns());
+        assertEquals(2, engine.getCacheStats().getHits());
+        assertEquals(1, engine.getCacheStats().getMisses());
+        assertEquals(first.getMappings().keySet(), third.getMappings().keySet());
+    }
+
+    @Test
+    void testBuildMapping_WhenRulesReloaded_ShouldInvalidateCachedMappings() {
+        // Given
+        engine.buildMapping(HEADERS, FormatType.MEITUAN, MERCHANT_ID);
+        engine.buildMapping(HEADERS, FormatType.MEITUAN, MERCHANT_ID);
+        long rulesVersion = engine.getCacheStats().getRulesVersion();
+
+        // When: 规则内容不变也视为新版本
+        repository.reloadRules();
+        engine.buildMapping(HEADERS, FormatType.MEITUAN, MERCHANT_ID);
+
+        // Then
+        MappingCacheStats stats = engine.getCacheStats();
+        assertEquals(rulesVersion + 1, stats.getRulesVersion());
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getSize(), "旧版本的条目应整体清空");
+        assertEquals(2L * HEADERS.size(), engine.getMemoryStats().getCascadeColumns());
+    }
+
+    @Test
+    void testBuildMapping_WhenMemoryChanges_ShouldInvalidateCachedMappings() {
+        // Given
+        List<String> headers = Arrays.asList("商品名称", "类目ID", "价格", "货品库存");
+        engine.buildMapping(headers, FormatType.MEITUAN, MERCHANT_ID);
+        engine.buildMapping(headers, FormatType.MEITUAN, MERCHANT_ID);
+        assertEquals(0, engine.getMemoryStats().getMemoryResolvedColumns());
+
+        // When
+        memoryService.confirmMappings(MERCHANT_ID, Map.of("货品库存", "stock"));
+        MappingResult confirmed = engine.buildMapping(headers, FormatType.MEITUAN, MERCHANT_ID);
+        engine.buildMapping(headers, FormatType.MEITUAN, MERCHANT_ID);
+
+        // Then: 记忆版本变化后重新计算一次，记忆命中的列只在重新计算时计入
+        assertEquals(MatchType.HISTORY, confirmed.getMappings().get("stock").getMatchType());
+        assertEquals(2, engine.getCacheStats().getHits());
+        assertEquals(2, engine.getCacheStats().getMisses());
+        assertEquals(1, engine.getMemoryStats().getMemoryResolvedColumns());
+        assertEquals(2L * headers.size() - 1, engine.getMemoryStats().getCascadeColumns());
+
+        // 其他商家不受影响，仍命中没有记忆时的条目
+        engine.buildMapping(headers, FormatType.MEITUAN, MERCHANT_ID + 1);
+        assertEquals(3, engine.getCacheStats().getHits());
+    }
+
+    @Test
+    void testBuildMapping_WhenCacheFull_ShouldEvictLeastRecentlyUsed() {
+        // Given: 容量为2
+        List<String> first = Arrays.asList("商品名称", "类目ID", "价格");
+        List<String> second = Arrays.asList("商品名称", "类目ID", "价格", "库存");
+        List<String> third = Arrays.asList("商品名称", "类目ID", "价格", "重量");
+        engine.buildMapping(first, FormatType.MEITUAN);
+        engine.buildMapping(second, FormatType.MEITUAN);
+        engine.buildMapping(first, FormatType.MEITUAN);
+
+        // When
+        engine.buildMapping(third, FormatType.MEITUAN);
+
+        // Then: 最近使用过的first保留，second被淘汰
+        engine.buildMapping(first, FormatType.MEITUAN);
+        assertEquals(2, engine.getCacheStats().getHits());
+        engine.buildMapping(second, FormatType.MEITUAN);
+        MappingCacheStats stats = engine.getCacheStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(4, stats.getMisses());
+        assertEquals(2, stats.getSize());
+        assertEquals(2, stats.getCapacity());
+    }
+}
@@ -0,0 +1,285 @@
+package com.meituan.product.service;
+
+import com.meituan.product.dto.ErrorDetail;
+import com.meituan.product.dto.ExcelParseSummary;
+import com.meituan.product.entity.Product;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Excel流式解析测试
+ * 同一份xlsx分别走SAX流式路径（并行解析开/关）和POI用户模型路径，
+ * 解析出的商品、错误行号和预估行数应完全一致
+ */
+class ExcelServiceStreamingTest {
+
+    private static final String BAD_ROW_NAME = "解析失败商品";
+
+    private static final String[] MEITUAN_HEADERS = {
+        "SKU ID", "商品名称", "商品类目ID", "价格", "库存", "条形码", "生产日期",
+        "力荐", "是否临期", "重量", "店内码", "商品描述", "无理由退货", "类目属性"
+    };
+
+    private static final String[] STANDARD_HEADERS = {
+        "商品名称*", "类目ID*", "价格(元)*", "库存", "商品描述", "图片URL"
+    };
+
+    private FormatDetector formatDetector;
+    private MeituanFormatParser meituanFormatParser;
+    private final List<ParallelRowParser> parallelParsers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        formatDetector = new FormatDetector();
+        ReflectionTestUtils.setField(formatDetector, "adaptiveMappingEnabled", false);
+
+        // 商品名称为BAD_ROW_NAME的行解析失败，用于比较两条路径的错误行号
+        meituanFormatParser = spy(new MeituanFormatParser());
+        doAnswer(invocation -> {
+            Product product = (Product) invocation.callRealMethod();
+            if (BAD_ROW_NAME.equals(product.getProductName())) {
+                throw new IllegalArgumentException("模拟解析失败");
+            }
+            return product;
+        }).when(meituanFormatParser).parseRow(any(RowValueAccessor.class), any(MeituanFormatParser.RowPlan.class),
+            anyInt(), any(ImportDiagnostics.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelParsers.forEach(ParallelRowParser::destroy);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testStreamExcel_MeituanSharedStrings_ShouldMatchWorkbookPath(boolean parallel) throws IOException {
+        // Given
+        byte[] xlsx = buildMeituanWorkbook(new XSSFWorkbook());
+
+        // When
+        ParseOutcome dom = parse(createService(false, false), xlsx);
+        ParseOutcome sax = parse(createService(true, parallel), xlsx);
+
+        // Then
+        assertSameOutcome(dom, sax);
+        assertEquals(List.of(12, 29), errorRows(dom), "坏行的行号应为Excel中的行号（从1开始）");
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testStreamExcel_MeituanInlineStrings_ShouldMatchWorkbookPath(boolean parallel) throws IOException {
+        // Given: SXSSF以inlineStr写出字符串
+        SXSSFWorkbook workbook = new SXSSFWorkbook();
+        byte[] xlsx;
+        try {
+            xlsx = buildMeituanWorkbook(workbook);
+        } finally {
+            workbook.dispose();
+        }
+
+        // When
+        ParseOutcome dom = parse(createService(false, false), xlsx);
+        ParseOutcome sax = parse(createService(true, parallel), xlsx);
+
+        // Then
+        assertSameOutcome(dom, sax);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testStreamExcel_StandardFormat_ShouldMatchWorkbookPath(boolean parallel) throws IOException {
+        // Given
+        byte[] xlsx;
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("商品");
+            writeRow(sheet.createRow(0), (Object[]) STANDARD_HEADERS);
+            for (int i = 1; i <= 25; i++) {
+                if (i == 7) {
+                    // 中间的空行
+                    continue;
+                }
+                Row row = sheet.createRow(i);
+                writeRow(row, "标准商品" + i, i % 2 == 0 ? "1001" : 2002, i * 1.25, i % 3 == 0 ? "12" : i,
+                    i % 4 == 0 ? null : "描述" + i, "https://img.example.com/" + i + ".jpg");
+            }
+            xlsx = toBytes(workbook);
+        }
+
+        // When
+        ParseOutcome dom = parse(createService(false, false), xlsx);
+        ParseOutcome sax = parse(createService(true, parallel), xlsx);
+
+        // Then
+        assertSameOutcome(dom, sax);
+        assertEquals(24, sax.products.size());
+    }
+
+    @Test
+    void testStreamExcel_TrailingRowAfterGap_ShouldBeParsedByBothPaths() throws IOException {
+        // Given: 第4行为空行（文件中没有该行），之后还有数据
+        byte[] xlsx;
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("商品");
+            writeRow(sheet.createRow(0), (Object[]) STANDARD_HEADERS);
+            writeRow(sheet.createRow(1), "商品A", "1001", 10, 1, null, null);
+            writeRow(sheet.createRow(2), "商品B", "1001", 20, 2, null, null);
+            writeRow(sheet.createRow(4), "商品C", "1001", 30, 3, null, null);
+            xlsx = toBytes(workbook);
+        }
+
+        // When
+        ParseOutcome dom = parse(createService(false, false), xlsx);
+        ParseOutcome sax = parse(createService(true, false), xlsx);
+
+        // Then
+        assertEquals(List.of("商品A", "商品B", "商品C"),
+            dom.products.stream().map(Product::getProductName).collect(Collectors.toList()));
+        assertSameOutcome(dom, sax);
+    }
+
+    private ExcelService createService(boolean streaming, boolean parallel) {
+        ParallelRowParser parallelRowParser = new ParallelRowParser();
+        ReflectionTestUtils.setField(parallelRowParser, "enabled", parallel);
+        ReflectionTestUtils.setField(parallelRowParser, "parallelism", 3);
+        // 小分块，保证多个块同时在途
+        ReflectionTestUtils.setField(parallelRowParser, "chunkSize", 4);
+        parallelRowParser.init();
+        parallelParsers.add(parallelRowParser);
+
+        ExcelService excelService = new ExcelService(null, formatDetector, meituanFormatParser, null, null,
+            new StreamingExcelReader(), parallelRowParser, null);
+        ReflectionTestUtils.setField(excelService, "streamingImport", streaming);
+        return excelService;
+    }
+
+    private ParseOutcome parse(ExcelService excelService, byte[] xlsx) {
+        ParseOutcome outcome = new ParseOutcome();
+        outcome.summary = excelService.streamExcel(new ByteArrayInputStream(xlsx), "xlsx", outcome.products::add,
+            rows -> outcome.rowCountHint = rows, new ImportDiagnostics(false));
+        return outcome;
+    }
+
+    private void assertSameOutcome(ParseOutcome expected, ParseOutcome actual) {
+        assertEquals(expected.summary.getFormatType(), actual.summary.getFormatType());
+        assertEquals(expected.summary.getColumnMapping(), actual.summary.getColumnMapping());
+        assertEquals(expected.products.size(), actual.products.size(), "商品数量不一致");
+        for (int i = 0; i < expected.products.size(); i++) {
+            assertEquals(expected.products.get(i), actual.products.get(i), "第" + (i + 1) + "个商品不一致");
+        }
+        assertEquals(errorRows(expected), errorRows(actual), "错误行号不一致");
+        assertEquals(expected.summary.getParsedCount(), actual.summary.getParsedCount());
+        assertEquals(expected.rowCountHint, actual.rowCountHint, "预估行数不一致");
+    }
+
+    private static List<Integer> errorRows(ParseOutcome outcome) {
+        return outcome.summary.getErrorDetails().stream().map(ErrorDetail::getRowNum).collect(Collectors.toList());
+    }
+
+    /**
+     * 构造美团格式工作表：共享/内联字符串、布尔、日期、整数与小数、稀疏列、空行和解析失败行
+     */
+    private static byte[] buildMeituanWorkbook(Workbook workbook) throws IOException {
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+
+        Sheet sheet = workbook.createSheet("商品");
+        writeRow(sheet.createRow(0), (Object[]) MEITUAN_HEADERS);
+        writeRow(sheet.createRow(1), "选填", "必填", "必填", "必填，单位元", "选填");
+
+        for (int i = 2; i <= 40; i++) {
+            if (i % 9 == 0) {
+                // 空行：文件中没有该行
+                continue;
+            }
+            Row row = sheet.createRow(i);
+            if (i % 13 == 0) {
+                // 只有空白内容的行
+                writeRow(row, "  ", null, " ");
+                continue;
+            }
+
+            String name = i == 11 || i == 28 ? BAD_ROW_NAME : "商品" + i;
+            Object sku = i % 2 == 0 ? "SKU-" + i : 690123456789L + i;
+            Object price = i % 5 == 0 ? "19.90" : i + 0.5;
+            Object stock = i % 3 == 0 ? String.valueOf(i * 10) : i * 10;
+            Object upc = i % 4 == 0 ? 6901234567890123L : "06901234" + i;
+            Object recommended = i % 2 == 0 ? Boolean.TRUE : "否";
+            Object nearExpiry = i % 3 == 0 ? "是" : 0;
+            Object weight = i % 6 == 0 ? null : 0.25 * i;
+            Object returnTag = i % 7 == 0 ? "7天无理由退货" : null;
+            Object attributes = i % 2 == 0 ? "品牌：测试品牌" + i + "。产地：中国" : null;
+            writeRow(row, sku, name, "2001" + (i % 3), price, stock, upc, null,
+                recommended, nearExpiry, weight, i % 5 == 0 ? null : "A-" + i, "描述" + i, returnTag, attributes);
+
+            // 日期单元格（日期样式的数值）与文本日期交替出现
+            Cell dateCell = row.createCell(6);
+            if (i % 2 == 0) {
+                LocalDate date = LocalDate.of(2024, 1, 1).plusDays(i);
+                dateCell.setCellValue(Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+                dateCell.setCellStyle(dateStyle);
+            } else {
+                dateCell.setCellValue("2024-03-" + (10 + i % 10));
+            }
+        }
+        return toBytes(workbook);
+    }
+
+    /**
+     * 按顺序写入单元格，null表示该列没有单元格（稀疏列）
+     */
+    private static void writeRow(Row row, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            Cell cell = row.createCell(i);
+            if (value instanceof Number) {
+                cell.setCellValue(((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                cell.setCellValue((Boolean) value);
+            } else {
+                cell.setCellValue(value.toString());
+            }
+        }
+    }
+
+    private static byte[] toBytes(Workbook workbook) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workbook.write(out);
+        return out.toByteArray();
+    }
+
+    private static class ParseOutcome {
+        private final List<Product> products = new ArrayList<>();
+        private ExcelParseSummary summary;
+        private Integer rowCountHint;
+    }
+}
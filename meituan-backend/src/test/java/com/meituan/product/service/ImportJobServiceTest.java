@@ -0,0 +1,88 @@
+package com.meituan.product.service;
+
+import com.meituan.product.dto.ImportJobStatus;
+import com.meituan.product.dto.ImportResult;
+import com.meituan.product.exception.TooManyJobsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+/**
+ * 异步导入任务服务测试
+ */
+@ExtendWith(MockitoExtension.class)
+class ImportJobServiceTest {
+
+    @Mock
+    private ExcelService excelService;
+
+    @Mock
+    private ProductImportPipeline productImportPipeline;
+
+    private ImportJobService importJobService;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(excelService.isValidExcelFile(any())).thenReturn(true);
+        when(excelService.getFileExtension(any())).thenReturn("xlsx");
+        // 导入一直阻塞，直到测试放行
+        lenient().when(productImportPipeline.run(any(), anyString(), anyLong(), any(), any())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return new ImportResult();
+        });
+
+        importJobService = new ImportJobService(excelService, productImportPipeline);
+        ReflectionTestUtils.setField(importJobService, "maxConcurrentJobs", 1);
+        ReflectionTestUtils.setField(importJobService, "jobQueueCapacity", 1);
+        ReflectionTestUtils.setField(importJobService, "retentionMinutes", 30);
+        importJobService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        importJobService.destroy();
+    }
+
+    @Test
+    void testSubmit_WhenPoolIsFull_ShouldThrowTooManyJobs() {
+        // Given: 一个执行中，一个排队
+        importJobService.submit(file(), 1L, false);
+        importJobService.submit(file(), 1L, false);
+
+        // When & Then
+        assertThrows(TooManyJobsException.class, () -> importJobService.submit(file(), 1L, false));
+    }
+
+    @Test
+    void testGetStatus_WithOtherMerchant_ShouldReturnNull() {
+        // Given
+        ImportJobStatus submitted = importJobService.submit(file(), 1L, false);
+
+        // When & Then
+        assertNotNull(importJobService.getStatus(submitted.getJobId(), 1L));
+        assertNull(importJobService.getStatus(submitted.getJobId(), 2L), "不能查询其他商家的导入任务");
+        assertNull(importJobService.getStatus("not-exist", 1L));
+    }
+
+    private static MockMultipartFile file() {
+        return new MockMultipartFile("file", "products.xlsx",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", new byte[]{1, 2, 3});
+    }
+}
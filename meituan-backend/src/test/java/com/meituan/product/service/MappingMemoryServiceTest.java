@@ -0,0 +1,175 @@
+package com.meituan.product.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meituan.product.dto.ColumnMapping;
+import com.meituan.product.dto.MappingResult;
+import com.meituan.product.enums.FormatType;
+import com.meituan.product.enums.MatchType;
+import com.meituan.product.mapper.H2MapperSupport;
+import com.meituan.product.mapper.MappingMemoryMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 映射记忆测试
+ * 映射记忆写入H2：只记住可靠的匹配、记住后下次导入直接命中、精确匹配推翻错误的记忆，
+ * 以及记忆变化（确认、删除、清空）后按表头指纹缓存的映射结果失效
+ */
+class MappingMemoryServiceTest {
+
+    private static final long MERCHANT_ID = 12L;
+    private static final List<String> HEADERS = Arrays.asList("商品名称", "类目ID", "价格", "库存");
+
+    private H2MapperSupport database;
+    private MappingMemoryService memoryService;
+    private AdaptiveMappingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        database = H2MapperSupport.create();
+        memoryService = new MappingMemoryService(database.getMapper(MappingMemoryMapper.class));
+        ReflectionTestUtils.setField(memoryService, "enabled", true);
+        ReflectionTestUtils.setField(memoryService, "minConfidence", 0.9);
+
+        MappingRuleRepository repository = new MappingRuleRepository(new ObjectMapper());
+        repository.loadRules();
+        engine = new AdaptiveMappingEngine(repository, new SemanticMatcher(), new ConfidenceCalculator(), memoryService);
+        ReflectionTestUtils.setField(engine, "cacheSize", 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    @Test
+    void testRecordMappings_WithGuessedMatches_ShouldOnlyRememberReliableOnes() {
+        // Given
+        MappingResult result = new MappingResult(FormatType.MEITUAN);
+        result.addMapping(new ColumnMapping("productName", "商品名称", 0, 1.0, MatchType.EXACT, true));
+        result.addMapping(new ColumnMapping("categoryId", "类目 ID", 1, 0.95, MatchType.NORMALIZED, true));
+        result.addMapping(new ColumnMapping("price", "参考价格", 2, 0.93, MatchType.KEYWORD, true));
+        result.addMapping(new ColumnMapping("stock", "库存说明", 3, 0.72, MatchType.KEYWORD, false));
+        result.addMapping(new ColumnMapping("brand", "品派", 4, 0.6, MatchType.FUZZY, false));
+
+        // When
+        memoryService.recordMappings(MERCHANT_ID, result);
+
+        // Then
+        Map<String, String> remembered = rememberedColumns();
+        assertEquals(Map.of("商品名称", "productName", "类目 ID", "categoryId", "参考价格", "price"), remembered);
+    }
+
+    @Test
+    void testRecordMappings_WithFixedMappingFallback_ShouldRememberNothing() {
+        // When: 回退到固定映射时没有自适应映射结果
+        memoryService.recordMappings(MERCHANT_ID, null);
+
+        // Then
+        assertTrue(rememberedColumns().isEmpty());
+        assertTrue(memoryService.getMemory(MERCHANT_ID).isEmpty());
+    }
+
+    @Test
+    void testBuildMapping_AfterRecord_ShouldRecallFromMemory() {
+        // Given
+        MappingResult first = engine.buildMapping(HEADERS, FormatType.MEITUAN, MERCHANT_ID);
+        assertTrue(first.isValid());
+        assertEquals(0, engine.getMemoryStats().getMemoryResolvedColumns());
+
+        // When
+        memoryService.recordMappings(MERCHANT_ID, first);
+        MappingResult second = engine.buildMapping(HEADERS, FormatType.MEITUAN, MERCHANT_ID);
+
+        // Then: 每列只记住置信度最高的字段，关键词猜出的附带映射（如商品名称 -> 规格名称）不再出现
+        assertTrue(second.isValid());
+        assertEquals(HEADERS.size(), second.getMappings().size());
+        for (ColumnMapping mapping : second.getMappings().values()) {
+            assertEquals(MatchType.HISTORY, mapping.getMatchType(), mapping.getColumnName());
+            assertEquals(first.getMappings().get(mapping.getFieldName()).getColumnIndex(), mapping.getColumnIndex());
+        }
+        assertEquals(HEADERS.size(), engine.getMemoryStats().getMemoryResolvedColumns());
+    }
+
+    @Test
+    void testBuildMapping_WithMemoryContradictingExactMatch_ShouldUseExactMatch() {
+        // Given: 早先把"价格"错记成库存，"品名（中文）"由用户确认为商品名称
+        memoryService.confirmMappings(MERCHANT_ID, Map.of("价格", "stock", "品名（中文）", "productName"));
+        List<String> headers = Arrays.asList("品名（中文）", "类目ID", "价格");
+
+        // When
+        MappingResult result = engine.buildMapping(headers, FormatType.MEITUAN, MERCHANT_ID);
+
+        // Then: 精确匹配推翻错误记忆，没有精确匹配的列仍使用记忆
+        assertTrue(result.isValid());
+        ColumnMapping price = result.getMappings().get("price");
+        assertEquals(2, price.getColumnIndex());
+        assertEquals(MatchType.EXACT, price.getMatchType());
+        assertFalse(result.getMappings().containsKey("stock"));
+        assertEquals(MatchType.HISTORY, result.getMappings().get("productName").getMatchType());
+
+        // 本次导入成功后记住修正后的映射
+        memoryService.recordMappings(MERCHANT_ID, result);
+        assertEquals("price", rememberedColumns().get("价格"));
+    }
+
+    @Test
+    void testBuildMapping_WhenMemoryVersionChanges_ShouldInvalidateCachedMapping() {
+        // Given
+        List<String> headers = Arrays.asList("商品名称", "类目ID", "价格", "货品库存");
+        engine.buildMapping(headers, FormatType.MEITUAN, MERCHANT_ID);
+        engine.buildMapping(headers, FormatType.MEITUAN, MERCHANT_ID);
+        assertEquals(1, engine.getCacheStats().getHits());
+        assertEquals(1, engine.getCacheStats().getMisses());
+
+        // When & Then: 确认新映射后重新计算
+        memoryService.confirmMappings(MERCHANT_ID, Map.of("货品库存", "stock"));
+        MappingResult confirmed = engine.buildMapping(headers, FormatType.MEITUAN, MERCHANT_ID);
+        assertEquals(2, engine.getCacheStats().getMisses());
+        assertEquals(MatchType.HISTORY, confirmed.getMappings().get("stock").getMatchType());
+
+        // 内容不变的记录保留原版本，缓存继续命中
+        memoryService.confirmMappings(MERCHANT_ID, Map.of("货品库存", "stock"));
+        engine.buildMapping(headers, FormatType.MEITUAN, MERCHANT_ID);
+        assertEquals(2, engine.getCacheStats().getHits());
+
+        // 删除一列的记忆后重新计算
+        memoryService.confirmMappings(MERCHANT_ID, Map.of("商品名称", "productName"));
+        assertEquals(1, memoryService.forgetColumn(MERCHANT_ID, "货品库存"));
+        MappingResult forgotten = engine.buildMapping(headers, FormatType.MEITUAN, MERCHANT_ID);
+        assertEquals(3, engine.getCacheStats().getMisses());
+        assertNotEquals(MatchType.HISTORY, matchType(forgotten, "stock"));
+        assertEquals(MatchType.HISTORY, forgotten.getMappings().get("productName").getMatchType());
+
+        // 清空后与没有记忆的商家共用缓存条目
+        assertEquals(1, memoryService.resetMemory(MERCHANT_ID));
+        assertTrue(rememberedColumns().isEmpty());
+        assertTrue(memoryService.getMemory(MERCHANT_ID).isEmpty());
+        MappingResult reset = engine.buildMapping(headers, FormatType.MEITUAN, MERCHANT_ID);
+        assertEquals(3, engine.getCacheStats().getHits());
+        assertNotEquals(MatchType.HISTORY, reset.getMappings().get("productName").getMatchType());
+    }
+
+    private static MatchType matchType(MappingResult result, String fieldName) {
+        ColumnMapping mapping = result.getMappings().get(fieldName);
+        return mapping != null ? mapping.getMatchType() : null;
+    }
+
+    private Map<String, String> rememberedColumns() {
+        Map<String, String> remembered = new HashMap<>();
+        database.jdbcTemplate().query("SELECT column_name, field_name FROM t_mapping_memory WHERE merchant_id = ?",
+            rs -> {
+                remembered.put(rs.getString(1), rs.getString(2));
+            }, MERCHANT_ID);
+        return remembered;
+    }
+}
@@ -0,0 +1,262 @@
+package com.meituan.product.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meituan.product.dto.FieldMappingRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 映射规则索引测试
+ * 基于mapping-rules.json，规则索引（哈希查表 + Aho-Corasick自动机）与原先逐条规则用正则标准化后
+ * 比较的匹配结果应完全一致，覆盖精确匹配、同义词、单个关键词和关键词组合
+ */
+class MappingRuleIndexTest {
+
+    private Map<String, FieldMappingRule> rules;
+    private MappingRuleIndex index;
+    private final SemanticMatcher semanticMatcher = new SemanticMatcher();
+
+    @BeforeEach
+    void setUp() {
+        MappingRuleRepository repository = new MappingRuleRepository(new ObjectMapper());
+        rules = repository.loadRules();
+        index = repository.getRuleIndex();
+    }
+
+    @Test
+    void testProfile_WithRuleDerivedColumnNames_ShouldMatchRegexMatching() {
+        // Given
+        assertTrue(rules.size() >= 20, "应加载mapping-rules.json中的规则，而不是默认规则");
+        Set<String> columnNames = columnNames();
+
+        int keywordHits = 0;
+        int combinationHits = 0;
+        for (String columnName : columnNames) {
+            // When
+            MappingRuleIndex.ColumnProfile profile = index.profile(columnName);
+
+            // Then
+            assertEquals(BaselineMatcher.normalize(columnName), profile.getNormalized(), "标准化结果不一致：" + columnName);
+            for (FieldMappingRule rule : rules.values()) {
+                String message = "列名[" + columnName + "]，规则[" + rule.getFieldName() + "]";
+                assertEquals(BaselineMatcher.exactMatch(columnName, rule),
+                    semanticMatcher.exactMatch(profile, rule), message + "精确匹配不一致");
+                assertEquals(BaselineMatcher.normalizedMatch(columnName, rule),
+                    semanticMatcher.normalizedMatch(profile, rule), message + "标准化匹配不一致");
+
+                double expectedKeywordScore = BaselineMatcher.keywordMatch(columnName, rule);
+                assertEquals(expectedKeywordScore, semanticMatcher.keywordMatch(profile, rule),
+                    message + "关键词得分不一致");
+                assertEquals(BaselineMatcher.fuzzyMatch(columnName, rule),
+                    semanticMatcher.fuzzyMatch(profile, rule), message + "模糊匹配得分不一致");
+
+                if (expectedKeywordScore > 0) {
+                    keywordHits++;
+                }
+                if (expectedKeywordScore >= 0.85 && rule.getKeywordCombinations() != null) {
+                    combinationHits++;
+                }
+            }
+        }
+
+        // 确认样本确实覆盖了关键词和关键词组合命中
+        assertTrue(keywordHits > 1000, "关键词命中过少：" + keywordHits);
+        assertTrue(combinationHits > 100, "关键词组合命中过少：" + combinationHits);
+    }
+
+    @Test
+    void testNormalize_WithPunctuationAndWhitespace_ShouldMatchRegexNormalize() {
+        // Given
+        String[] samples = {
+            null, "", " ", "商品名称*", " 价格 (元) ", "价格（元）", "【必填】商品\t名称", "条形码(UPC/EAN等)",
+            "SKU\nID", "a\u000bb\fc\rd", "《品牌》、「系列」『型号』", "{尺寸}<规格>[颜色]", "是否临期？！", "卖点；展示期：",
+            "全角　空格", "Mixed Case Header", "no-change"
+        };
+
+        for (String sample : samples) {
+            // When & Then
+            assertEquals(BaselineMatcher.normalize(sample), SemanticMatcher.normalize(sample), "标准化结果不一致：" + sample);
+        }
+    }
+
+    /**
+     * 由规则派生的列名：规则中的全部字符串及其变体、关键词组合的各种拼接，以及随机拼接的关键词
+     */
+    private Set<String> columnNames() {
+        List<String> words = new ArrayList<>();
+        List<List<String>> combinations = new ArrayList<>();
+        for (FieldMappingRule rule : rules.values()) {
+            addAll(words, rule.getExactMatches());
+            addAll(words, rule.getSynonyms());
+            addAll(words, rule.getKeywords());
+            if (rule.getKeywordCombinations() != null) {
+                combinations.addAll(rule.getKeywordCombinations());
+            }
+        }
+
+        Set<String> columnNames = new LinkedHashSet<>();
+        for (String word : words) {
+            columnNames.add(word);
+            columnNames.add(" " + word + " ");
+            columnNames.add(word + "*");
+            columnNames.add("【必填】" + word);
+            columnNames.add(word + "（选填）");
+            columnNames.add(word.toUpperCase());
+            columnNames.add("商品" + word);
+            columnNames.add(word + "信息");
+            if (word.length() > 2) {
+                // 缺一个字、多一个字，用于模糊匹配
+                columnNames.add(word.substring(1));
+                columnNames.add(word.substring(0, word.length() / 2) + "的" + word.substring(word.length() / 2));
+            }
+        }
+        for (List<String> combination : combinations) {
+            columnNames.add(String.join("", combination));
+            columnNames.add(String.join(" / ", combination));
+            List<String> reversed = new ArrayList<>(combination);
+            Collections.reverse(reversed);
+            columnNames.add(String.join("（", reversed) + "）");
+            columnNames.add("商品" + String.join("的", combination) + "*");
+        }
+
+        Random random = new Random(10L);
+        for (int i = 0; i < 2000; i++) {
+            columnNames.add(words.get(random.nextInt(words.size())) + words.get(random.nextInt(words.size())));
+        }
+        columnNames.add("");
+        columnNames.add("备注");
+        columnNames.add("完全无关的列");
+        return columnNames;
+    }
+
+    private static void addAll(List<String> target, List<String> values) {
+        if (values != null) {
+            values.stream().filter(value -> value != null && !value.isEmpty()).forEach(target::add);
+        }
+    }
+
+    /**
+     * 优化前的匹配逻辑（每次比较都用正则标准化规则字符串，完整矩阵计算编辑距离），作为比较基准
+     */
+    private static final class BaselineMatcher {
+
+        static String normalize(String str) {
+            if (str == null) {
+                return "";
+            }
+            String normalized = str.replaceAll("\\s+", "");
+            normalized = normalized.replaceAll("[()（）\\[\\]【】{}「」『』<>《》、，。；：！？*]", "");
+            return normalized.toLowerCase();
+        }
+
+        static boolean exactMatch(String columnName, FieldMappingRule rule) {
+            return rule.getExactMatches() != null && rule.getExactMatches().contains(columnName);
+        }
+
+        static boolean normalizedMatch(String columnName, FieldMappingRule rule) {
+            String column = normalize(columnName);
+            if (rule.getExactMatches() != null) {
+                for (String exactMatch : rule.getExactMatches()) {
+                    if (column.equals(normalize(exactMatch))) {
+                        return true;
+                    }
+                }
+            }
+            if (rule.getSynonyms() != null) {
+                for (String synonym : rule.getSynonyms()) {
+                    if (column.equals(normalize(synonym))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        static double keywordMatch(String columnName, FieldMappingRule rule) {
+            String column = normalize(columnName);
+            double maxScore = 0.0;
+            if (rule.getKeywordCombinations() != null) {
+                for (List<String> combination : rule.getKeywordCombinations()) {
+                    boolean allMatch = true;
+                    for (String keyword : combination) {
+                        if (!column.contains(normalize(keyword))) {
+                            allMatch = false;
+                            break;
+                        }
+                    }
+                    if (allMatch) {
+                        double score = 0.8 + (combination.size() * 0.05);
+                        maxScore = Math.max(maxScore, Math.min(score, 0.95));
+                    }
+                }
+            }
+            if (rule.getKeywords() != null && !rule.getKeywords().isEmpty()) {
+                int matchedCount = 0;
+                for (String keyword : rule.getKeywords()) {
+                    if (column.contains(normalize(keyword))) {
+                        matchedCount++;
+                    }
+                }
+                if (matchedCount > 0) {
+                    double ratio = (double) matchedCount / rule.getKeywords().size();
+                    maxScore = Math.max(maxScore, 0.7 + (ratio * 0.15));
+                }
+            }
+            return maxScore;
+        }
+
+        static double fuzzyMatch(String columnName, FieldMappingRule rule) {
+            String column = normalize(columnName);
+            double maxSimilarity = 0.0;
+            List<String> candidates = new ArrayList<>();
+            if (rule.getExactMatches() != null) {
+                candidates.addAll(rule.getExactMatches());
+            }
+            if (rule.getSynonyms() != null) {
+                candidates.addAll(rule.getSynonyms());
+            }
+            for (String candidate : candidates) {
+                maxSimilarity = Math.max(maxSimilarity, similarity(column, normalize(candidate)));
+            }
+            if (maxSimilarity >= 0.6) {
+                return Math.min(0.5 + (maxSimilarity - 0.6) * 0.75, 0.8);
+            }
+            return 0.0;
+        }
+
+        private static double similarity(String s1, String s2) {
+            if (s1.equals(s2)) {
+                return 1.0;
+            }
+            int maxLength = Math.max(s1.length(), s2.length());
+            return 1.0 - ((double) levenshteinDistance(s1, s2) / maxLength);
+        }
+
+        private static int levenshteinDistance(String s1, String s2) {
+            int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+            for (int i = 0; i <= s1.length(); i++) {
+                dp[i][0] = i;
+            }
+            for (int j = 0; j <= s2.length(); j++) {
+                dp[0][j] = j;
+            }
+            for (int i = 1; i <= s1.length(); i++) {
+                for (int j = 1; j <= s2.length(); j++) {
+                    int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+                    dp[i][j] = Math.min(Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1), dp[i - 1][j - 1] + cost);
+                }
+            }
+            return dp[s1.length()][s2.length()];
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.meituan.product.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.meituan.product.dto.ColumnMapping;
+import com.meituan.product.dto.MappingResult;
+import com.meituan.product.enums.FormatType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 映射规则仓库测试
+ * 重新加载时整体替换规则快照并递增版本号、配置文件损坏时保留原快照、
+ * 文件监听合并短时间内的多次变更，以及重新加载与映射构建并发时每次构建只看到一份快照
+ */
+class MappingRuleRepositoryTest {
+
+    private static final long DEBOUNCE_MILLIS =
+        (long) ReflectionTestUtils.getField(MappingRuleRepository.class, "WATCH_DEBOUNCE_MILLIS");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<MappingRuleRepository> repositories = new ArrayList<>();
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        repositories.forEach(MappingRuleRepository::destroy);
+    }
+
+    @Test
+    void testReloadRules_ShouldSwapSnapshotAndBumpVersion() throws IOException {
+        // Given
+        Path file = writeRules(tempDir.resolve("rules.json"), Map.of("productName", "商品名称"));
+        MappingRuleRepository repository = createRepository(file, false);
+        MappingRuleRepository.RuleSnapshot before = repository.getSnapshot();
+
+        // When
+        writeRules(file, Map.of("productName", "商品名称", "price", "价格"));
+        MappingRuleRepository.RuleSnapshot after = repository.reloadRules();
+
+        // Then: 新快照整体替换，旧快照的规则和索引保持不变
+        assertNotSame(before, after);
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertEquals(after.getVersion(), repository.getRulesVersion());
+        assertEquals(1, before.getRules().size());
+        assertTrue(before.getIndex().profile("价格").getExactFields().isEmpty());
+        assertEquals(2, after.getRules().size());
+        assertTrue(after.getIndex().profile("价格").getExactFields().contains("price"));
+        assertSame(after.getIndex(), repository.getRuleIndex());
+        assertThrows(UnsupportedOperationException.class, () -> after.getRules().clear());
+    }
+
+    @Test
+    void testReloadRules_WithMalformedFile_ShouldKeepPreviousSnapshot() throws IOException {
+        // Given
+        Path file = writeRules(tempDir.resolve("rules.json"), Map.of("productName", "商品名称"));
+        MappingRuleRepository repository = createRepository(file, false);
+        MappingRuleRepository.RuleSnapshot loaded = repository.getSnapshot();
+
+        // When & Then: JSON语法错误、缺少rules节点、文件被删除时都继续使用原快照，版本号不变
+        Files.writeString(file, "{\"rules\": {\"productName\": ");
+        assertSame(loaded, repository.reloadRules());
+        Files.writeString(file, "{\"version\": \"2.0\"}");
+        assertSame(loaded, repository.reloadRules());
+        Files.delete(file);
+        assertSame(loaded, repository.reloadRules());
+        assertEquals(loaded.getVersion(), repository.getRulesVersion());
+        assertNotNull(repository.getRule("productName"));
+
+        // 文件恢复后版本号接着递增
+        writeRules(file, Map.of("productName", "商品名称", "price", "价格"));
+        assertEquals(loaded.getVersion() + 1, repository.reloadRules().getVersion());
+    }
+
+    @Test
+    void testWatcher_WithBurstOfWrites_ShouldReloadOnceAfterDebounce() throws Exception {
+        // Given
+        Path file = writeRules(tempDir.resolve("rules.json"), Map.of("productName", "商品名称"));
+        MappingRuleRepository repository = createRepository(file, true);
+        long initialVersion = repository.getRulesVersion();
+
+        // When: 编辑器保存时短时间内多次写入
+        long firstWrite = System.currentTimeMillis();
+        writeRules(file, Map.of("productName", "商品名称", "price", "价格"));
+        writeRules(file, Map.of("productName", "商品名称", "price", "价格", "stock", "库存"));
+        writeRules(file, Map.of("productName", "商品名称", "price", "价格", "stock", "库存", "brand", "品牌"));
+
+        // Then: 等待期内不重新加载，之后只加载一次且读到最后一次写入的内容
+        Thread.sleep(DEBOUNCE_MILLIS / 2);
+        assertEquals(initialVersion, repository.getRulesVersion(), "去抖等待期内不应重新加载");
+        long deadline = firstWrite + 10_000;
+        while (repository.getRulesVersion() == initialVersion && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        long reloadedAfter = System.currentTimeMillis() - firstWrite;
+        assertEquals(initialVersion + 1, repository.getRulesVersion(), "文件变更后应自动重新加载");
+        assertTrue(reloadedAfter >= DEBOUNCE_MILLIS, "重新加载耗时" + reloadedAfter + "ms");
+        assertEquals(4, repository.getAllRules().size());
+
+        Thread.sleep(DEBOUNCE_MILLIS * 2);
+        assertEquals(initialVersion + 1, repository.getRulesVersion(), "同一批写入只应重新加载一次");
+    }
+
+    @Test
+    void testBuildMapping_WhileReloading_ShouldSeeOneSnapshotPerCall() throws Exception {
+        // Given: 两份规则把两列映射到相反的字段
+        Path first = writeRules(tempDir.resolve("first.json"), swappedRules("skuId", "storeCode"));
+        Path second = writeRules(tempDir.resolve("second.json"), swappedRules("storeCode", "skuId"));
+        MappingRuleRepository repository = createRepository(first, false);
+        AdaptiveMappingEngine engine = new AdaptiveMappingEngine(repository, new SemanticMatcher(),
+            new ConfidenceCalculator(), new MappingMemoryService(null));
+        ReflectionTestUtils.setField(engine, "cacheSize", 0);
+        List<String> headers = List.of("商品名称", "类目ID", "价格", "编码甲", "编码乙");
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> reloadFailure = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(1);
+        Thread reloader = new Thread(() -> {
+            try {
+                for (int i = 0; running.get(); i++) {
+                    repository.setConfigPath("file:" + (i % 2 == 0 ? second : first));
+                    repository.reloadRules();
+                    started.countDown();
+                }
+            } catch (Throwable e) {
+                reloadFailure.set(e);
+                started.countDown();
+            }
+        }, "rules-reloader");
+        reloader.start();
+        started.await();
+
+        // When
+        int firstCount = 0;
+        int secondCount = 0;
+        long startVersion = repository.getRulesVersion();
+        try {
+            for (int i = 0; i < 300; i++) {
+                MappingResult result = engine.buildMapping(headers, FormatType.MEITUAN);
+
+                // Then: 两列要么都按第一份规则映射，要么都按第二份规则映射
+                int skuColumn = columnIndex(result, "skuId");
+                int storeCodeColumn = columnIndex(result, "storeCode");
+                if (skuColumn == 3 && storeCodeColumn == 4) {
+                    firstCount++;
+                } else if (skuColumn == 4 && storeCodeColumn == 3) {
+                    secondCount++;
+                } else {
+                    fail("第" + (i + 1) + "次构建混用了两份规则：skuId -> " + skuColumn + "，storeCode -> " + storeCodeColumn);
+                }
+                assertTrue(result.isValid(), result.getErrors().toString());
+            }
+        } finally {
+            running.set(false);
+            reloader.join();
+        }
+        assertNull(reloadFailure.get());
+        assertTrue(repository.getRulesVersion() > startVersion + 1, "构建期间应发生多次重新加载");
+        assertEquals(300, firstCount + secondCount);
+    }
+
+    private MappingRuleRepository createRepository(Path file, boolean watch) {
+        MappingRuleRepository repository = new MappingRuleRepository(objectMapper);
+        repository.setConfigPath("file:" + file);
+        ReflectionTestUtils.setField(repository, "watchEnabled", watch);
+        repository.init();
+        repositories.add(repository);
+        return repository;
+    }
+
+    /**
+     * 必需字段按常规表头精确匹配，"编码甲"和"编码乙"分别精确匹配给定的两个字段
+     */
+    private static Map<String, String> swappedRules(String firstCodeField, String secondCodeField) {
+        Map<String, String> rules = new LinkedHashMap<>();
+        rules.put("productName", "商品名称");
+        rules.put("categoryId", "类目ID");
+        rules.put("price", "价格");
+        rules.put(firstCodeField, "编码甲");
+        rules.put(secondCodeField, "编码乙");
+        return rules;
+    }
+
+    /**
+     * 写入规则文件，每个字段只有一个精确匹配的列名；商品名称、类目ID、价格为必需字段
+     */
+    private Path writeRules(Path file, Map<String, String> exactMatches) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode rules = root.putObject("rules");
+        exactMatches.forEach((fieldName, columnName) -> {
+            ObjectNode rule = rules.putObject(fieldName);
+            rule.put("displayName", columnName);
+            rule.put("required", List.of("productName", "categoryId", "price").contains(fieldName));
+            rule.putArray("exactMatches").add(columnName);
+        });
+        Files.writeString(file, objectMapper.writeValueAsString(root));
+        return file;
+    }
+
+    private static int columnIndex(MappingResult result, String fieldName) {
+        ColumnMapping mapping = result.getMappings().get(fieldName);
+        return mapping != null ? mapping.getColumnIndex() : -1;
+    }
+}
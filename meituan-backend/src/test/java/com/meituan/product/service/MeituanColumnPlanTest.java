@@ -0,0 +1,291 @@
+package com.meituan.product.service;
+
+import com.meituan.product.entity.Product;
+import com.meituan.product.mapper.TestProducts;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 美团模板列写入计划测试
+ * 编译后的列写入器与原先逐单元格按表头文字匹配（fillCellByHeaderName）写出的单元格应完全一致
+ */
+class MeituanColumnPlanTest {
+
+    /**
+     * 美团模板表头，以及自定义模板中常见的变体、空表头和无法识别的表头
+     */
+    private static final List<String> HEADERS = Arrays.asList(
+        "SKU ID", "条形码(upc/ean等)", "商品类目名称", "商品类目ID", "APP SPU编码", "商品名称*",
+        "商品图片", "封面视频URL", "规格图URL", "店内分类", "所处店内分类数量", "规格名称", "店内码/货号",
+        "价格(元)*", "库存", "售卖状态", "月售数量", "重量", "重量单位", "品牌", "品牌商图片详情", "商品类目属性",
+        "起购数", "货架码/位置码", "商品卖点", "卖点展示期", "文字详情", "图片详情", "生产日期", "到期日期",
+        "是否临期", "是否过期", "发货模式", "预售的可配送时间", "可售时间", "力荐", "无理由退货", "参与的组合商品",
+        "是否四轮配送", "合规状态", "违规下架", "必填信息缺失", "审核状态", "商品描述", "图片URL",
+        "sku_id", "UPC", "category_id", "productName", "price", "stock", "毛重", "毛重单位", "销售状态",
+        "商品属性", "说明", "image_url", "description", " 价格 ", "备注", "", "   ", null
+    );
+
+    private static final String[] SALE_STATUSES = {null, "0", "1", "上架", "在售", "下架", "停售", "已下架", " 下架 ", "未知"};
+
+    private static final String[] AVAILABLE_TIMES = {
+        null, "", "全天", "营业全时段可售", "09:00", "9:00", "24:00", "09:00-22:00", "09:00-25:00",
+        "09:00-12:00,14:00-18:00；周一,周二", "周末;", "随时"
+    };
+
+    @Test
+    void testWriteRow_WithTemplateHeaders_ShouldMatchHeaderNameMatching() throws IOException {
+        // Given
+        MeituanColumnPlan plan = MeituanColumnPlan.compile(HEADERS);
+        List<Product> products = products();
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet planSheet = workbook.createSheet("plan");
+            Sheet baselineSheet = workbook.createSheet("baseline");
+
+            for (int i = 0; i < products.size(); i++) {
+                Product product = products.get(i);
+
+                // When
+                Row planRow = planSheet.createRow(i);
+                plan.writeRow(planRow, product);
+
+                Row baselineRow = baselineSheet.createRow(i);
+                for (int j = 0; j < HEADERS.size(); j++) {
+                    BaselineCellFiller.fill(baselineRow.createCell(j), product, HEADERS.get(j));
+                }
+
+                // Then
+                assertEquals(HEADERS.size(), plan.getColumnCount());
+                for (int j = 0; j < HEADERS.size(); j++) {
+                    assertSameCell(baselineRow.getCell(j), planRow.getCell(j),
+                        "第" + (i + 1) + "个商品，表头[" + HEADERS.get(j) + "]");
+                }
+            }
+        }
+    }
+
+    private static void assertSameCell(Cell expected, Cell actual, String message) {
+        assertEquals(expected.getCellType(), actual.getCellType(), message + "单元格类型不一致");
+        if (expected.getCellType() == CellType.NUMERIC) {
+            assertEquals(expected.getNumericCellValue(), actual.getNumericCellValue(), message);
+        } else if (expected.getCellType() == CellType.STRING) {
+            assertEquals(expected.getStringCellValue(), actual.getStringCellValue(), message);
+        }
+    }
+
+    /**
+     * 完整商品、全空商品，以及覆盖各特殊规则（售卖状态、可售时间、默认值等）的随机商品
+     */
+    private static List<Product> products() {
+        List<Product> products = new ArrayList<>(TestProducts.create(1L, 20));
+        products.add(new Product());
+
+        Random random = new Random(18L);
+        for (int i = 0; i < 300; i++) {
+            Product product = random.nextBoolean() ? TestProducts.create(1L, "R" + i, i) : new Product();
+            product.setSaleStatus(SALE_STATUSES[random.nextInt(SALE_STATUSES.length)]);
+            product.setAvailableTime(AVAILABLE_TIMES[random.nextInt(AVAILABLE_TIMES.length)]);
+            product.setUpcEan(random.nextInt(3) == 0 ? (random.nextBoolean() ? null : " ") : product.getUpcEan());
+            product.setWeight(random.nextInt(3) == 0 ? null : new BigDecimal(random.nextInt(5000)).movePointLeft(2));
+            product.setWeightUnit(random.nextInt(3) == 0 ? (random.nextBoolean() ? null : "") : product.getWeightUnit());
+            product.setNoReasonReturnTagId(random.nextInt(3) == 0 ? (random.nextBoolean() ? null : "") : "1300030903");
+            product.setNoReasonReturn(random.nextInt(3) - 1 == 0 ? null : random.nextInt(2));
+            product.setIsNearExpiry(random.nextInt(4) == 0 ? null : random.nextInt(3));
+            product.setIsRecommended(random.nextInt(4) == 0 ? null : random.nextInt(3));
+            product.setProductAttributes(random.nextBoolean() ? "品牌: 测试" + i + " 。产地：中国" : "类型：饼干");
+            product.setProductionDate(random.nextBoolean() ? null : LocalDate.of(2024, 1, 1).plusDays(i));
+            product.setStock(random.nextBoolean() ? null : random.nextInt(1000));
+            product.setSkuId(random.nextInt(5) == 0 ? "" : product.getSkuId());
+            products.add(product);
+        }
+        return products;
+    }
+
+    /**
+     * 优化前逐单元格按表头文字匹配的写入逻辑，作为比较基准
+     */
+    private static final class BaselineCellFiller {
+
+        static void fill(Cell cell, Product product, String headerName) {
+            if (headerName == null || headerName.trim().isEmpty()) {
+                return;
+            }
+
+            String header = headerName.trim();
+
+            if (header.contains("SKU") || header.contains("sku")) {
+                setString(cell, product.getSkuId());
+            } else if (header.contains("条形码") || header.contains("UPC") || header.contains("EAN")) {
+                String upcEan = product.getUpcEan();
+                cell.setCellValue(upcEan == null || upcEan.trim().isEmpty() ? "无条形码" : upcEan);
+            } else if (header.contains("商品类目名称") || header.contains("类目名称")) {
+                setString(cell, product.getCategoryName());
+            } else if (header.contains("商品类目ID") || header.contains("类目ID") || header.contains("类目") || header.contains("分类") || header.equalsIgnoreCase("category_id") || header.equalsIgnoreCase("categoryId")) {
+                setString(cell, product.getCategoryId());
+            } else if (header.contains("APP") && header.contains("SPU")) {
+                setString(cell, product.getAppSpuCode());
+            } else if (header.contains("商品名称") || (header.contains("名称") && !header.contains("类目") && !header.contains("规格")) || header.equalsIgnoreCase("product_name") || header.equalsIgnoreCase("productName")) {
+                setString(cell, product.getProductName());
+            } else if (header.contains("商品图片") || (header.contains("图片") && !header.contains("规格"))) {
+                setString(cell, product.getProductImage());
+            } else if (header.contains("封面视频")) {
+                setString(cell, product.getCoverVideo());
+            } else if (header.contains("规格图")) {
+                setString(cell, product.getSpecImage());
+            } else if (header.contains("店内分类") && !header.contains("数量")) {
+                setString(cell, product.getStoreCategory());
+            } else if (header.contains("店内分类数量")) {
+                setInteger(cell, product.getStoreCategoryCount());
+            } else if (header.contains("规格名称")) {
+                setString(cell, product.getSpecName());
+            } else if (header.contains("店内码") || header.contains("货号")) {
+                setString(cell, product.getStoreCode());
+            } else if (header.contains("价格") || header.equalsIgnoreCase("price")) {
+                setDecimal(cell, product.getPrice());
+            } else if (header.contains("库存") || header.equalsIgnoreCase("stock")) {
+                setInteger(cell, product.getStock());
+            } else if (header.contains("售卖状态") || header.contains("销售状态")) {
+                String statusValue = "0";
+                if (product.getSaleStatus() != null) {
+                    String status = product.getSaleStatus().trim();
+                    if ("1".equals(status) || "下架".equals(status) || "停售".equals(status) || "已下架".equals(status)) {
+                        statusValue = "1";
+                    }
+                }
+                cell.setCellValue(statusValue);
+            } else if (header.contains("月售")) {
+                setInteger(cell, product.getMonthlySales());
+            } else if ((header.contains("重量") || header.contains("毛重")) && !header.contains("单位")) {
+                if (product.getWeight() != null) {
+                    setDecimal(cell, product.getWeight());
+                } else {
+                    cell.setCellValue("1000");
+                }
+            } else if (header.contains("重量单位") || header.contains("毛重单位")) {
+                if (product.getWeightUnit() != null && !product.getWeightUnit().trim().isEmpty()) {
+                    setString(cell, product.getWeightUnit());
+                } else {
+                    cell.setCellValue("g");
+                }
+            } else if (header.contains("品牌") && !header.contains("图片")) {
+                setString(cell, extractBrand(product.getProductAttributes()));
+            } else if (header.contains("商品属性") || header.contains("类目属性")) {
+                setString(cell, product.getProductAttributes());
+            } else if (header.contains("起购数")) {
+                setInteger(cell, product.getMinPurchase());
+            } else if (header.contains("货架码") || header.contains("位置码")) {
+                setString(cell, product.getShelfCode());
+            } else if (header.contains("商品卖点") || header.contains("卖点") && !header.contains("展示期")) {
+                setString(cell, product.getSellingPoint());
+            } else if (header.contains("卖点展示期")) {
+                setString(cell, product.getSellingPointPeriod());
+            } else if (header.contains("文字详情") || (header.contains("详情") && !header.contains("图片"))) {
+                setString(cell, product.getTextDetail());
+            } else if (header.contains("生产日期")) {
+                setDate(cell, product.getProductionDate());
+            } else if (header.contains("到期日期")) {
+                setDate(cell, product.getExpiryDate());
+            } else if (header.contains("是否临期")) {
+                cell.setCellValue(product.getIsNearExpiry() != null && product.getIsNearExpiry() == 1 ? "临期" : "非临期");
+            } else if (header.contains("是否过期")) {
+                setFlag(cell, product.getIsExpired());
+            } else if (header.contains("发货模式")) {
+                setString(cell, product.getDeliveryMode());
+            } else if (header.contains("预售配送时间")) {
+                setString(cell, product.getPresaleDeliveryTime());
+            } else if (header.contains("可售时间")) {
+                String timeValue = "营业全时段可售";
+                if (product.getAvailableTime() != null && !product.getAvailableTime().trim().isEmpty()) {
+                    String time = product.getAvailableTime().trim();
+                    if ("全天".equals(time) || "营业全时段可售".equals(time)) {
+                        timeValue = "营业全时段可售";
+                    } else if (time.matches("^(0?[0-9]|1[0-9]|2[0-3]):([0-5][0-9])$")) {
+                        timeValue = time;
+                    } else if (time.matches("^(0?[0-9]|1[0-9]|2[0-3]):([0-5][0-9])-(0?[0-9]|1[0-9]|2[0-3]):([0-5][0-9])$")) {
+                        timeValue = time;
+                    } else if (time.contains("；") || time.contains(";")) {
+                        timeValue = time;
+                    }
+                }
+                cell.setCellValue(timeValue);
+            } else if (header.contains("力荐")) {
+                setFlag(cell, product.getIsRecommended());
+            } else if (header.contains("无理由退货")) {
+                String tagId = product.getNoReasonReturnTagId();
+                if (tagId == null || tagId.trim().isEmpty()) {
+                    tagId = product.getNoReasonReturn() != null && product.getNoReasonReturn() == 1
+                        ? "1300030901" : "1300030895";
+                }
+                cell.setCellValue(tagId);
+            } else if (header.contains("组合商品")) {
+                setFlag(cell, product.getIsCombo());
+            } else if (header.contains("四轮配送")) {
+                setFlag(cell, product.getIsFourWheelDelivery());
+            } else if (header.contains("合规状态")) {
+                setString(cell, product.getComplianceStatus());
+            } else if (header.contains("违规下架")) {
+                setFlag(cell, product.getViolationOffline());
+            } else if (header.contains("必填信息缺失")) {
+                setFlag(cell, product.getMissingRequiredInfo());
+            } else if (header.contains("审核状态")) {
+                setString(cell, product.getAuditStatus());
+            } else if (header.contains("描述") || header.contains("说明") || header.equalsIgnoreCase("description")) {
+                setString(cell, product.getDescription());
+            } else if (header.contains("URL") || header.equalsIgnoreCase("image_url") || header.equalsIgnoreCase("imageUrl")) {
+                setString(cell, product.getImageUrl());
+            } else {
+                cell.setCellValue("");
+            }
+        }
+
+        private static void setString(Cell cell, String value) {
+            cell.setCellValue(value != null && !value.isEmpty() ? value : "");
+        }
+
+        private static void setInteger(Cell cell, Integer value) {
+            if (value != null) {
+                cell.setCellValue(value);
+            } else {
+                cell.setCellValue("");
+            }
+        }
+
+        private static void setDecimal(Cell cell, BigDecimal value) {
+            if (value != null) {
+                cell.setCellValue(value.doubleValue());
+            } else {
+                cell.setCellValue("");
+            }
+        }
+
+        private static void setDate(Cell cell, LocalDate value) {
+            cell.setCellValue(value != null ? value.toString() : "");
+        }
+
+        private static void setFlag(Cell cell, Integer value) {
+            cell.setCellValue(value != null && value == 1 ? "1" : "0");
+        }
+
+        private static String extractBrand(String productAttributes) {
+            if (productAttributes == null || productAttributes.trim().isEmpty()) {
+                return null;
+            }
+            java.util.regex.Matcher matcher = java.util.regex.Pattern.compile("品牌[：:]([^。]+)").matcher(productAttributes);
+            return matcher.find() ? matcher.group(1).trim() : null;
+        }
+    }
+}
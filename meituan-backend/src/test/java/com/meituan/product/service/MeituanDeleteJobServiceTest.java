@@ -0,0 +1,245 @@
+package com.meituan.product.service;
+
+import com.meituan.product.client.MeituanApiClient;
+import com.meituan.product.client.MeituanApiGuard;
+import com.meituan.product.client.MeituanApiStub;
+import com.meituan.product.dto.MeituanDeleteStatus;
+import com.meituan.product.entity.Product;
+import com.meituan.product.enums.MeituanDeleteState;
+import com.meituan.product.mapper.H2MapperSupport;
+import com.meituan.product.mapper.MeituanDeleteProgressMapper;
+import com.meituan.product.mapper.ProductMapper;
+import com.meituan.product.mapper.TestProducts;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 美团商品删除任务测试
+ * 删除请求发往本机的美团API桩服务（超过设定速率返回429），任务进度和商品状态写入H2：
+ * 校验收到限流响应后降速、熔断时终止任务并保留本页已删除商品的状态，以及重启后从断点继续
+ */
+@Slf4j
+class MeituanDeleteJobServiceTest {
+
+    private static final long MERCHANT_ID = 23L;
+    private static final int PRODUCT_COUNT = 60;
+    private static final int PAGE_SIZE = 20;
+    private static final String ACCESS_TOKEN = "admin123";
+    private static final Pattern APP_FOOD_CODE = Pattern.compile("\"app_food_code\"\\s*:\\s*\"([^\"]+)\"");
+
+    private H2MapperSupport database;
+    private ProductMapper productMapper;
+    private MeituanDeleteProgressMapper progressMapper;
+    private MeituanApiStub stub;
+    private final List<MeituanDeleteJobService> services = new ArrayList<>();
+
+    // 桩服务行为：每秒允许的请求数（<=0不限流），成功删除多少次后开始返回503（<0表示不返回）
+    private volatile double allowedRate;
+    private volatile int failAfter = -1;
+    private double allowance;
+    private long lastCheckNanos = System.nanoTime();
+
+    private final Set<String> deletedCodes = ConcurrentHashMap.newKeySet();
+    private final List<String> requestedCodes = new ArrayList<>();
+    private final AtomicInteger throttledResponses = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        database = H2MapperSupport.create();
+        productMapper = database.getMapper(ProductMapper.class);
+        progressMapper = database.getMapper(MeituanDeleteProgressMapper.class);
+        productMapper.batchInsert(TestProducts.create(MERCHANT_ID, PRODUCT_COUNT));
+        // 删除前商品都已上传到美团
+        database.jdbcTemplate().update("UPDATE t_product SET status = ?", Product.Status.UPLOADED.getCode());
+
+        stub = MeituanApiStub.start().handle("/product/delete", exchange -> {
+            Matcher matcher = APP_FOOD_CODE.matcher(MeituanApiStub.readBody(exchange));
+            String code = matcher.find() ? matcher.group(1) : "";
+            synchronized (requestedCodes) {
+                requestedCodes.add(code);
+            }
+            if (!allow()) {
+                throttledResponses.incrementAndGet();
+                MeituanApiStub.respond(exchange, 429, "{\"code\":\"429\",\"message\":\"请求过于频繁\"}");
+            } else if (failAfter >= 0 && deletedCodes.size() >= failAfter) {
+                MeituanApiStub.respond(exchange, 503, "{\"code\":\"503\",\"message\":\"服务暂时不可用\"}");
+            } else {
+                deletedCodes.add(code);
+                MeituanApiStub.respond(exchange, 200, MeituanApiStub.SUCCESS_BODY);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(MeituanDeleteJobService::destroy);
+        stub.close();
+        database.close();
+    }
+
+    @Test
+    void testDelete_WhenThrottled_ShouldBackOffAndComplete() {
+        // Given: 桩服务每秒只允许8次请求，任务初始速率20次/秒
+        allowedRate = 8;
+        MeituanDeleteJobService service = createService(20, MeituanApiStub.guard(guard -> { }));
+
+        // When
+        service.submit(MERCHANT_ID, ACCESS_TOKEN, false);
+        MeituanDeleteStatus status = service.awaitCompletion(MERCHANT_ID);
+
+        // Then: 收到限流响应后降速，所有商品都处理完
+        log.info("限流删除：请求{}次，429响应{}次，成功{}，失败{}，最终速率{}次/秒",
+            requestedCodes.size(), throttledResponses.get(), status.getDeletedCount(), status.getFailedCount(),
+            status.getCurrentRate());
+        assertEquals(MeituanDeleteState.COMPLETED, status.getState());
+        assertEquals(PRODUCT_COUNT, status.getProcessedCount());
+        assertEquals(PRODUCT_COUNT, status.getDeletedCount() + status.getFailedCount());
+        assertTrue(throttledResponses.get() > 0, "桩服务应返回过429");
+        assertTrue(status.getThrottledCount() > 0);
+        assertTrue(status.getCurrentRate() < 20, "收到限流响应后应降速");
+        assertTrue(throttledResponses.get() < PRODUCT_COUNT, "降速后429响应应明显少于请求数");
+        assertEquals(deletedCodes.size(), status.getDeletedCount().intValue());
+        assertPendingExactly(deletedCodes);
+    }
+
+    @Test
+    void testDelete_WhenCircuitOpens_ShouldKeepCursorAndResetDeletedProductsOnPage() {
+        // Given: 成功删除30个商品（第1页20个 + 第2页10个）后美团返回503
+        failAfter = 30;
+        MeituanDeleteJobService service = createService(50, breakerGuard());
+
+        // When
+        service.submit(MERCHANT_ID, ACCESS_TOKEN, false);
+        MeituanDeleteStatus status = service.awaitCompletion(MERCHANT_ID);
+
+        // Then: 任务因熔断失败，游标停在第1页末尾
+        List<Long> ids = productIds();
+        assertEquals(MeituanDeleteState.FAILED, status.getState());
+        assertTrue(status.getErrorMessage().contains("熔断"), status.getErrorMessage());
+        assertEquals(ids.get(PAGE_SIZE - 1), status.getLastProductId());
+        assertEquals(PAGE_SIZE, status.getProcessedCount());
+        assertEquals(PAGE_SIZE, status.getDeletedCount());
+        // 熔断后本页剩余的请求不再发送
+        assertTrue(requestedCodes.size() < 2 * PAGE_SIZE, "熔断后仍发送了" + requestedCodes.size() + "个请求");
+        // 第2页已删除的商品同样恢复为待上传
+        assertEquals(30, deletedCodes.size());
+        assertPendingExactly(deletedCodes);
+    }
+
+    @Test
+    void testDelete_AfterRestart_ShouldResumeFromCursor() {
+        // Given: 第一次运行因熔断终止
+        failAfter = 30;
+        MeituanDeleteJobService first = createService(50, breakerGuard());
+        first.submit(MERCHANT_ID, ACCESS_TOKEN, false);
+        MeituanDeleteStatus interrupted = first.awaitCompletion(MERCHANT_ID);
+        first.destroy();
+        services.remove(first);
+        long cursor = interrupted.getLastProductId();
+
+        // When: 美团恢复后重新创建服务（模拟重启），再次提交不从头开始
+        failAfter = -1;
+        synchronized (requestedCodes) {
+            requestedCodes.clear();
+        }
+        MeituanDeleteJobService second = createService(50, breakerGuard());
+        assertEquals(MeituanDeleteState.FAILED, second.getStatus(MERCHANT_ID).getState());
+        second.submit(MERCHANT_ID, ACCESS_TOKEN, false);
+        MeituanDeleteStatus status = second.awaitCompletion(MERCHANT_ID);
+
+        // Then: 只处理游标之后的商品，计数接着上次累加
+        List<Long> ids = productIds();
+        List<String> resumedCodes = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) > cursor) {
+                resumedCodes.add(code(i));
+            }
+        }
+        assertEquals(PRODUCT_COUNT - PAGE_SIZE, requestedCodes.size());
+        assertTrue(resumedCodes.containsAll(requestedCodes), "重启后删除了游标之前的商品");
+        assertEquals(MeituanDeleteState.COMPLETED, status.getState());
+        assertEquals(PRODUCT_COUNT, status.getProcessedCount());
+        assertEquals(PRODUCT_COUNT, status.getDeletedCount());
+        assertEquals(ids.get(ids.size() - 1), status.getLastProductId());
+        assertEquals(PRODUCT_COUNT, database.jdbcTemplate().queryForObject(
+            "SELECT COUNT(*) FROM t_product WHERE status = ?", Integer.class, Product.Status.PENDING.getCode()));
+    }
+
+    /**
+     * 熔断器：最近10次调用中至少5次失败时打开，打开后30秒内不进入半开状态
+     */
+    private static MeituanApiGuard breakerGuard() {
+        return MeituanApiStub.guard(guard -> {
+            ReflectionTestUtils.setField(guard, "windowSize", 10);
+            ReflectionTestUtils.setField(guard, "minimumCalls", 5);
+        });
+    }
+
+    private MeituanDeleteJobService createService(double rate, MeituanApiGuard guard) {
+        MeituanApiClient client = stub.createClient(guard, false);
+        ProductStatusUpdater updater = new ProductStatusUpdater(productMapper);
+        ReflectionTestUtils.setField(updater, "chunkSize", 1000);
+        MeituanDeleteJobService service = new MeituanDeleteJobService(productMapper, client, updater, progressMapper);
+        ReflectionTestUtils.setField(service, "concurrency", 2);
+        ReflectionTestUtils.setField(service, "initialRate", rate);
+        ReflectionTestUtils.setField(service, "minRate", 1.0);
+        ReflectionTestUtils.setField(service, "maxRate", rate);
+        ReflectionTestUtils.setField(service, "pageSize", PAGE_SIZE);
+        ReflectionTestUtils.setField(service, "maxConcurrentJobs", 1);
+        service.init();
+        services.add(service);
+        return service;
+    }
+
+    /**
+     * 桩服务限流：按allowedRate补充配额，最多累积2次
+     */
+    private synchronized boolean allow() {
+        if (allowedRate <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        allowance = Math.min(2, allowance + (now - lastCheckNanos) / 1e9 * allowedRate);
+        lastCheckNanos = now;
+        if (allowance < 1) {
+            return false;
+        }
+        allowance -= 1;
+        return true;
+    }
+
+    private List<Long> productIds() {
+        return database.jdbcTemplate().queryForList(
+            "SELECT id FROM t_product WHERE merchant_id = ? ORDER BY id", Long.class, MERCHANT_ID);
+    }
+
+    /**
+     * 按ID升序第i个商品的美团标识（TestProducts的skuId）
+     */
+    private static String code(int i) {
+        return TestProducts.create(MERCHANT_ID, "T" + MERCHANT_ID + "-" + i, i).getSkuId();
+    }
+
+    /**
+     * 恰好是美团上已删除的商品恢复为待上传
+     */
+    private void assertPendingExactly(Set<String> codes) {
+        List<String> pending = database.jdbcTemplate().queryForList(
+            "SELECT sku_id FROM t_product WHERE status = ?", String.class, Product.Status.PENDING.getCode());
+        assertEquals(codes.size(), pending.size());
+        assertTrue(codes.containsAll(pending), "待上传的商品与美团上已删除的商品不一致");
+    }
+}
@@ -0,0 +1,449 @@
+package com.meituan.product.service;
+
+import com.meituan.product.entity.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 美团格式解析器测试
+ * 编译后的解析计划（按列索引、类型化取值）与原先按字段名查映射、经字符串转换的解析结果应完全一致，
+ * 并输出整行解析吞吐和品牌提取（每行编译正则与共用预编译正则）的耗时
+ */
+@Slf4j
+class MeituanFormatParserTest {
+
+    private static final int ROW_COUNT = 2000;
+    private static final int COLUMN_COUNT = 60;
+
+    private static final String[] FIELD_NAMES = {
+        "skuId", "upcEan", "categoryName", "categoryId", "appSpuCode", "productName",
+        "productImage", "coverVideo", "specImage", "specImageUrl", "imageUrl",
+        "storeCategory", "storeCategoryCount", "specName", "storeCode", "price", "stock", "saleStatus",
+        "monthlySales", "weight", "weightUnit", "brand", "minPurchase", "shelfCode",
+        "description", "sellingPoint", "sellingPointPeriod", "textDetail", "imageDetail", "brandImageDetail",
+        "productionDate", "expiryDate", "isNearExpiry", "isExpired",
+        "deliveryMode", "presaleDeliveryTime", "availableTime", "productAttributes",
+        "isRecommended", "noReasonReturnTagId", "isCombo", "comboProducts", "isFourWheelDelivery",
+        "complianceStatus", "violationOffline", "missingRequiredInfo", "auditStatus"
+    };
+
+    private static final String[] VALUES = {
+        null, "", "   ", "商品A", " 带空白的文本 ", "12", " 7 ", "-3", "0", "1", "12.50", "0.1", "-0.5",
+        "1e3", "abc", "999999999", "3000000000", "+5", "-", "007",
+        "2024-01-05", "2024/01/05", "2024年01月05日", "20240105", "2024-13-01", "2024-1-5",
+        "是", "否", "TRUE", "false", "yes", "Yes", "无",
+        "1300030902", "7天无理由退货（激活后不支持）", "七天无理由退货", "一次性包装破损不支持", "不支持7天无理由退货",
+        "品牌：测试品牌。产地：中国", "品牌:ABC", "类型：饼干"
+    };
+
+    private final MeituanFormatParser parser = new MeituanFormatParser();
+
+    @Test
+    void testParseRow_WithCompiledPlan_ShouldMatchMapBasedParsing() throws IOException {
+        // Given
+        Random random = new Random(20240105L);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("商品");
+            for (int rowNum = 0; rowNum < ROW_COUNT; rowNum++) {
+                Map<String, Integer> mapping = randomMapping(random);
+                String[] values = randomValues(random);
+                Row row = writeRow(sheet.createRow(rowNum), values, random);
+                MeituanFormatParser.RowPlan plan = parser.compile(mapping);
+
+                // When
+                Product fromStrings = parser.parseRow(RowValueAccessor.of(values), plan, rowNum,
+                    new ImportDiagnostics(false));
+                Product fromCells = parser.parseRow(row, plan, rowNum, new ImportDiagnostics(false));
+
+                // Then
+                Product expectedFromStrings = BaselineParser.parse(RowValueAccessor.of(values), mapping);
+                Product expectedFromCells = BaselineParser.parse(
+                    columnIndex -> PoiRowAccessor.getCellValueAsString(row.getCell(columnIndex)), mapping);
+                assertEquals(expectedFromStrings, fromStrings, "字符串行解析不一致：" + describe(values, mapping));
+                assertEquals(expectedFromCells, fromCells, "单元格行解析不一致：" + describe(values, mapping));
+            }
+        }
+    }
+
+    @Test
+    void testCompile_WithSharedPlan_ShouldMatchPerRowCompile() {
+        // Given: 同一文件的所有行共用一个解析计划
+        Random random = new Random(42L);
+        Map<String, Integer> mapping = randomMapping(random);
+        MeituanFormatParser.RowPlan plan = parser.compile(mapping);
+
+        for (int rowNum = 0; rowNum < 200; rowNum++) {
+            RowValueAccessor row = RowValueAccessor.of(randomValues(random));
+
+            // When & Then
+            assertEquals(parser.parseRow(row, mapping, rowNum),
+                parser.parseRow(row, plan, rowNum, new ImportDiagnostics(false)));
+        }
+    }
+
+    @Test
+    void testCompile_WithEmptyMapping_ShouldUseDefaults() {
+        // Given
+        String[] values = new String[COLUMN_COUNT];
+        values[50] = "品牌：备选品牌。产地：中国";
+
+        // When
+        Product product = parser.parseRow(RowValueAccessor.of(values), parser.compile(Map.of()), 3,
+            new ImportDiagnostics(false));
+
+        // Then: 未映射的字段取默认值，类目属性回退到第51列
+        assertEquals(BaselineParser.parse(RowValueAccessor.of(values), Map.of()), product);
+        assertEquals(BigDecimal.ZERO, product.getPrice());
+        assertEquals(0, product.getStock());
+        assertEquals("备选品牌", product.getBrand());
+        assertEquals("1300030895", product.getNoReasonReturnTagId());
+    }
+
+    @Test
+    void testParseRow_WithBrandAttributes_ShouldReportRowsPerSecond() {
+        // Given: 每个字段映射到同序号的列，每行都是格式正确的商品且带类目属性
+        int rowCount = 20_000;
+        Map<String, Integer> mapping = new HashMap<>();
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            mapping.put(FIELD_NAMES[i], i);
+        }
+        Map<String, String> typedValues = Map.of(
+            "price", "12.50", "stock", "7", "storeCategoryCount", "1", "monthlySales", "3", "weight", "0.25",
+            "minPurchase", "1", "productionDate", "2024-01-05", "expiryDate", "2025-01-05",
+            "noReasonReturnTagId", "1300030902");
+        List<RowValueAccessor> rows = new ArrayList<>(rowCount);
+        String[] attributes = new String[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            String[] values = new String[FIELD_NAMES.length];
+            for (int column = 0; column < values.length; column++) {
+                values[column] = typedValues.getOrDefault(FIELD_NAMES[column], "商品" + i);
+            }
+            attributes[i] = "品牌：测试品牌" + i % 50 + "。产地：中国。规格：500g";
+            values[mapping.get("productAttributes")] = attributes[i];
+            rows.add(RowValueAccessor.of(values));
+        }
+        MeituanFormatParser.RowPlan plan = parser.compile(mapping);
+        ImportDiagnostics diagnostics = new ImportDiagnostics(false);
+
+        // 预热
+        for (int round = 0; round < 2; round++) {
+            parseAll(rows, plan, diagnostics);
+            compileEachRow(attributes);
+            sharedPattern(attributes);
+        }
+
+        // When
+        long parseStart = System.nanoTime();
+        List<Product> products = parseAll(rows, plan, diagnostics);
+        long parseNanos = System.nanoTime() - parseStart;
+        long compileStart = System.nanoTime();
+        int compiledHits = compileEachRow(attributes);
+        long compileNanos = System.nanoTime() - compileStart;
+        long sharedStart = System.nanoTime();
+        int sharedHits = sharedPattern(attributes);
+        long sharedNanos = System.nanoTime() - sharedStart;
+        log.info("解析{}行：{}行/秒；品牌提取：每行编译正则 {}ns/行，共用预编译正则 {}ns/行",
+            rowCount, Math.round(rowCount * 1e9 / parseNanos),
+            compileNanos / rowCount, sharedNanos / rowCount);
+
+        // Then
+        assertEquals(rowCount, compiledHits);
+        assertEquals(rowCount, sharedHits);
+        for (int i = 0; i < rowCount; i++) {
+            assertEquals("测试品牌" + i % 50, products.get(i).getBrand());
+        }
+    }
+
+    private List<Product> parseAll(List<RowValueAccessor> rows, MeituanFormatParser.RowPlan plan,
+                                   ImportDiagnostics diagnostics) {
+        List<Product> products = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            products.add(parser.parseRow(rows.get(i), plan, i + 3, diagnostics));
+        }
+        return products;
+    }
+
+    /**
+     * 优化前的品牌提取：每行重新编译正则
+     */
+    private static int compileEachRow(String[] attributes) {
+        int hits = 0;
+        for (String value : attributes) {
+            Matcher matcher = Pattern.compile("品牌[：:]([^。]+)").matcher(value);
+            if (matcher.find() && !matcher.group(1).trim().isEmpty()) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    private static int sharedPattern(String[] attributes) {
+        int hits = 0;
+        for (String value : attributes) {
+            if (MeituanColumnPlan.extractBrandFromAttributes(value) != null) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * 随机列映射：部分字段不映射，部分字段映射到超出行宽的列
+     */
+    private static Map<String, Integer> randomMapping(Random random) {
+        List<Integer> columns = new ArrayList<>();
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            columns.add(i);
+        }
+        Collections.shuffle(columns, random);
+
+        Map<String, Integer> mapping = new HashMap<>();
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            int dice = random.nextInt(20);
+            if (dice < 3) {
+                continue;
+            }
+            mapping.put(FIELD_NAMES[i], dice == 3 ? COLUMN_COUNT + 10 : columns.get(i));
+        }
+        return mapping;
+    }
+
+    private static String[] randomValues(Random random) {
+        String[] values = new String[COLUMN_COUNT];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = VALUES[random.nextInt(VALUES.length)];
+        }
+        return values;
+    }
+
+    /**
+     * 写入POI行：数值文本随机写为数值单元格，true/false随机写为布尔单元格
+     */
+    private static Row writeRow(Row row, String[] values, Random random) {
+        for (int i = 0; i < values.length; i++) {
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            Cell cell = row.createCell(i);
+            if (random.nextBoolean() && isNumber(value)) {
+                cell.setCellValue(Double.parseDouble(value));
+            } else if (random.nextBoolean() && ("TRUE".equals(value) || "false".equals(value))) {
+                cell.setCellValue(Boolean.parseBoolean(value));
+            } else {
+                cell.setCellValue(value);
+            }
+        }
+        return row;
+    }
+
+    private static boolean isNumber(String value) {
+        try {
+            Double.parseDouble(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static String describe(String[] values, Map<String, Integer> mapping) {
+        StringBuilder builder = new StringBuilder();
+        mapping.forEach((field, column) -> builder.append(field).append('=')
+            .append(column < values.length ? values[column] : null).append("; "));
+        return builder.toString();
+    }
+
+    /**
+     * 优化前的解析逻辑（按字段名查找列映射，所有值先取字符串再转换），作为比较基准
+     */
+    private static final class BaselineParser {
+
+        private static final String[] DATE_PATTERNS = {"yyyy-MM-dd", "yyyy/MM/dd", "yyyy年MM月dd日", "yyyyMMdd"};
+
+        static Product parse(RowValueAccessor row, Map<String, Integer> mapping) {
+            Product product = new Product();
+            product.setSkuId(field(row, "skuId", mapping));
+            product.setUpcEan(field(row, "upcEan", mapping));
+            product.setCategoryName(field(row, "categoryName", mapping));
+            product.setCategoryId(field(row, "categoryId", mapping));
+            product.setAppSpuCode(field(row, "appSpuCode", mapping));
+            product.setProductName(field(row, "productName", mapping));
+            product.setProductImage(field(row, "productImage", mapping));
+            product.setCoverVideo(field(row, "coverVideo", mapping));
+            product.setSpecImage(field(row, "specImage", mapping));
+            product.setSpecImageUrl(field(row, "specImageUrl", mapping));
+            product.setImageUrl(field(row, "imageUrl", mapping));
+            product.setStoreCategory(field(row, "storeCategory", mapping));
+            product.setStoreCategoryCount(parseInteger(field(row, "storeCategoryCount", mapping)));
+            product.setSpecName(field(row, "specName", mapping));
+            product.setStoreCode(field(row, "storeCode", mapping));
+            product.setPrice(parsePrice(field(row, "price", mapping)));
+            Integer stock = parseInteger(field(row, "stock", mapping));
+            product.setStock(stock != null ? stock : 0);
+            product.setSaleStatus(field(row, "saleStatus", mapping));
+            product.setMonthlySales(parseInteger(field(row, "monthlySales", mapping)));
+            product.setWeight(parseDecimal(field(row, "weight", mapping)));
+            product.setWeightUnit(field(row, "weightUnit", mapping));
+            product.setBrand(field(row, "brand", mapping));
+            product.setMinPurchase(parseInteger(field(row, "minPurchase", mapping)));
+            product.setShelfCode(field(row, "shelfCode", mapping));
+            product.setDescription(field(row, "description", mapping));
+            product.setSellingPoint(field(row, "sellingPoint", mapping));
+            product.setSellingPointPeriod(field(row, "sellingPointPeriod", mapping));
+            product.setTextDetail(field(row, "textDetail", mapping));
+            product.setImageDetail(field(row, "imageDetail", mapping));
+            product.setBrandImageDetail(field(row, "brandImageDetail", mapping));
+            product.setProductionDate(parseDate(field(row, "productionDate", mapping)));
+            product.setExpiryDate(parseDate(field(row, "expiryDate", mapping)));
+            product.setIsNearExpiry(parseBoolean(field(row, "isNearExpiry", mapping)));
+            product.setIsExpired(parseBoolean(field(row, "isExpired", mapping)));
+            product.setDeliveryMode(field(row, "deliveryMode", mapping));
+            product.setPresaleDeliveryTime(field(row, "presaleDeliveryTime", mapping));
+            product.setAvailableTime(field(row, "availableTime", mapping));
+
+            String productAttrs = field(row, "productAttributes", mapping);
+            if (productAttrs == null || productAttrs.trim().isEmpty()) {
+                productAttrs = row.getString(50);
+            }
+            product.setProductAttributes(productAttrs);
+
+            String extractedBrand = extractBrand(productAttrs);
+            if (extractedBrand != null && !extractedBrand.isEmpty()) {
+                product.setBrand(extractedBrand);
+            } else {
+                String brandColumn = field(row, "brand", mapping);
+                if (brandColumn != null && !brandColumn.trim().isEmpty() && !"无".equals(brandColumn)) {
+                    product.setBrand(brandColumn);
+                }
+            }
+
+            product.setIsRecommended(parseBoolean(field(row, "isRecommended", mapping)));
+            String tagId = parseNoReasonReturnTagId(field(row, "noReasonReturnTagId", mapping));
+            product.setNoReasonReturnTagId(tagId);
+            product.setNoReasonReturn("1300030901".equals(tagId) ? 1 : 0);
+            product.setIsCombo(parseBoolean(field(row, "isCombo", mapping)));
+            product.setComboProducts(field(row, "comboProducts", mapping));
+            product.setIsFourWheelDelivery(parseBoolean(field(row, "isFourWheelDelivery", mapping)));
+            product.setComplianceStatus(field(row, "complianceStatus", mapping));
+            product.setViolationOffline(parseBoolean(field(row, "violationOffline", mapping)));
+            product.setMissingRequiredInfo(parseBoolean(field(row, "missingRequiredInfo", mapping)));
+            product.setAuditStatus(field(row, "auditStatus", mapping));
+            product.setStatus(Product.Status.PENDING.getCode());
+            return product;
+        }
+
+        private static String field(RowValueAccessor row, String fieldName, Map<String, Integer> mapping) {
+            Integer columnIndex = mapping.get(fieldName);
+            return columnIndex == null ? null : row.getString(columnIndex);
+        }
+
+        private static BigDecimal parsePrice(String str) {
+            BigDecimal price = parseDecimal(str);
+            return price != null ? price : BigDecimal.ZERO;
+        }
+
+        private static Integer parseInteger(String str) {
+            if (str == null || str.trim().isEmpty()) {
+                return null;
+            }
+            try {
+                return (int) Double.parseDouble(str.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static BigDecimal parseDecimal(String str) {
+            if (str == null || str.trim().isEmpty()) {
+                return null;
+            }
+            try {
+                return new BigDecimal(str.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static Integer parseBoolean(String str) {
+            if (str == null || str.trim().isEmpty()) {
+                return 0;
+            }
+            String value = str.trim().toLowerCase();
+            return "是".equals(value) || "true".equals(value) || "1".equals(value) || "yes".equals(value) ? 1 : 0;
+        }
+
+        private static LocalDate parseDate(String str) {
+            if (str == null || str.trim().isEmpty()) {
+                return null;
+            }
+            for (String pattern : DATE_PATTERNS) {
+                try {
+                    return LocalDate.parse(str.trim(), DateTimeFormatter.ofPattern(pattern));
+                } catch (Exception e) {
+                    // 继续尝试下一个格式
+                }
+            }
+            return null;
+        }
+
+        private static String extractBrand(String productAttributes) {
+            if (productAttributes == null || productAttributes.trim().isEmpty()) {
+                return null;
+            }
+            java.util.regex.Matcher matcher = java.util.regex.Pattern.compile("品牌[：:]([^。]+)").matcher(productAttributes);
+            return matcher.find() ? matcher.group(1).trim() : null;
+        }
+
+        private static String parseNoReasonReturnTagId(String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return "1300030895";
+            }
+            String v = value.trim();
+            if (v.matches("^13\\d{8}$")) {
+                return v;
+            }
+            if (v.contains("一次性包装破损") && v.contains("不支持")) {
+                return "1300030902";
+            }
+            if (v.contains("激活后") && v.contains("不支持")) {
+                return "1300030903";
+            }
+            if (v.contains("使用后") && v.contains("不支持")) {
+                return "1300030904";
+            }
+            if (v.contains("安装后") && v.contains("不支持")) {
+                return "1300030905";
+            }
+            if (v.contains("定制类") && v.contains("不支持")) {
+                return "1300030906";
+            }
+            if (v.contains("7天无理由退货") || v.contains("七天无理由退货")) {
+                return "1300030901";
+            }
+            if (v.equals("1") || v.equalsIgnoreCase("true") || v.equals("是")) {
+                return "1300030901";
+            }
+            return "1300030895";
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.meituan.product.service;
+
+import com.meituan.product.client.MeituanApiClient;
+import com.meituan.product.client.MeituanApiStub;
+import com.meituan.product.dto.UploadResult;
+import com.meituan.product.entity.Product;
+import com.meituan.product.mapper.H2MapperSupport;
+import com.meituan.product.mapper.ProductMapper;
+import com.meituan.product.mapper.TestProducts;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 美团批量上传引擎测试
+ * 上传请求发往本机的美团API桩服务，商品状态写入H2：校验在途批次数不超过配置值、请求速率不超过令牌桶速率，
+ * 以及单个批次上传失败或状态写回失败只影响该批次
+ */
+@Slf4j
+class MeituanUploadEngineTest {
+
+    private static final long MERCHANT_ID = 21L;
+    private static final int MAX_IN_FLIGHT = 3;
+    private static final double RATE_LIMIT = 10;
+    private static final int BATCH_SIZE = 2;
+
+    private H2MapperSupport database;
+    private ProductMapper productMapper;
+    private MeituanApiStub stub;
+    private MeituanUploadEngine engine;
+    private List<Long> productIds;
+
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private final List<Long> arrivals = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        database = H2MapperSupport.create();
+        productMapper = database.getMapper(ProductMapper.class);
+        productMapper.batchInsert(TestProducts.create(MERCHANT_ID, 60));
+        productIds = database.jdbcTemplate().queryForList(
+            "SELECT id FROM t_product WHERE merchant_id = ? ORDER BY id", Long.class, MERCHANT_ID);
+
+        stub = MeituanApiStub.start().handle("/products/batch-upload", exchange -> {
+            arrivals.add(System.nanoTime());
+            int current = concurrent.incrementAndGet();
+            maxConcurrent.accumulateAndGet(current, Math::max);
+            try {
+                String body = MeituanApiStub.readBody(exchange);
+                Thread.sleep(30);
+                if (body.contains("FAIL")) {
+                    MeituanApiStub.respond(exchange, 200, "{\"code\":\"INVALID_PARAM\",\"message\":\"商品名称不合法\"}");
+                } else {
+                    MeituanApiStub.respond(exchange, 200, MeituanApiStub.SUCCESS_BODY);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.destroy();
+        }
+        stub.close();
+        database.close();
+    }
+
+    @Test
+    void testUpload_WithStubServer_ShouldRespectInFlightLimitAndRate() {
+        // Given: 第5批的商品名称会被桩服务拒绝
+        database.jdbcTemplate().update("UPDATE t_product SET product_name = 'FAIL-商品' WHERE id = ?", productIds.get(8));
+        engine = createEngine(statusUpdater());
+
+        // When
+        long start = System.nanoTime();
+        UploadResult result = engine.upload(batches(), "token");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then: 并发和速率
+        int batchCount = productIds.size() / BATCH_SIZE;
+        assertEquals(batchCount, arrivals.size());
+        assertTrue(maxConcurrent.get() <= MAX_IN_FLIGHT, "在途批次数超过上限：" + maxConcurrent.get());
+        assertTrue(maxConcurrent.get() > 1, "批次应并发上传");
+        assertRateWithinTokenBucket();
+        log.info("上传{}批，最大在途：{}，耗时：{}ms（限流{}次/秒）", batchCount, maxConcurrent.get(), elapsedMillis, RATE_LIMIT);
+
+        // Then: 只有失败批次的商品标记为失败
+        List<Long> failedBatch = productIds.subList(8, 10);
+        assertEquals(productIds.size(), result.getTotalCount());
+        assertEquals(productIds.size() - BATCH_SIZE, result.getSuccessCount());
+        assertEquals(BATCH_SIZE, result.getFailedCount());
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("第5批上传失败"), result.getErrors().get(0));
+        Map<Long, Integer> statuses = statuses();
+        for (Long id : productIds) {
+            Product.Status expected = failedBatch.contains(id) ? Product.Status.FAILED : Product.Status.UPLOADED;
+            assertEquals(expected.getCode(), statuses.get(id), "商品" + id + "状态不正确");
+        }
+    }
+
+    @Test
+    void testUpload_WhenStatusUpdateFails_ShouldReportErrorAndContinueOtherBatches() {
+        // Given: 第3批状态写回时数据库异常
+        Long brokenId = productIds.get(4);
+        engine = createEngine(new ProductStatusUpdater(productMapper) {
+            @Override
+            public int updateStatus(List<Long> ids, Product.Status status) {
+                if (ids.contains(brokenId)) {
+                    throw new DataAccessResourceFailureException("数据库连接已断开");
+                }
+                return super.updateStatus(ids, status);
+            }
+        });
+
+        // When
+        UploadResult result = engine.upload(batches(), "token");
+
+        // Then: 已上传到美团的批次仍计为成功，错误信息中报告状态写回失败
+        assertEquals(productIds.size(), result.getTotalCount());
+        assertEquals(productIds.size(), result.getSuccessCount());
+        assertEquals(0, result.getFailedCount());
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("第3批状态更新失败"), result.getErrors().get(0));
+
+        Map<Long, Integer> statuses = statuses();
+        List<Long> brokenBatch = productIds.subList(4, 6);
+        for (Long id : productIds) {
+            Integer expected = brokenBatch.contains(id) ? 0 : Product.Status.UPLOADED.getCode();
+            assertEquals(expected, statuses.get(id), "商品" + id + "状态不正确");
+        }
+    }
+
+    private MeituanUploadEngine createEngine(ProductStatusUpdater updater) {
+        MeituanApiClient client = stub.createClient(MeituanApiStub.guard(guard -> { }), false);
+        MeituanUploadEngine uploadEngine = new MeituanUploadEngine(client, updater, database.transactionTemplate());
+        ReflectionTestUtils.setField(uploadEngine, "maxInFlight", MAX_IN_FLIGHT);
+        ReflectionTestUtils.setField(uploadEngine, "rateLimit", RATE_LIMIT);
+        uploadEngine.init();
+        return uploadEngine;
+    }
+
+    private ProductStatusUpdater statusUpdater() {
+        ProductStatusUpdater updater = new ProductStatusUpdater(productMapper);
+        ReflectionTestUtils.setField(updater, "chunkSize", 1000);
+        return updater;
+    }
+
+    private List<List<Product>> batches() {
+        List<Product> products = productMapper.selectForUploadByIds(productIds);
+        products.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        List<List<Product>> batches = new ArrayList<>();
+        for (int from = 0; from < products.size(); from += BATCH_SIZE) {
+            batches.add(new ArrayList<>(products.subList(from, Math.min(from + BATCH_SIZE, products.size()))));
+        }
+        return batches;
+    }
+
+    private Map<Long, Integer> statuses() {
+        Map<Long, Integer> statuses = new HashMap<>();
+        database.jdbcTemplate().query("SELECT id, status FROM t_product WHERE merchant_id = ?",
+            resultSet -> {
+                statuses.put(resultSet.getLong("id"), resultSet.getInt("status"));
+            }, MERCHANT_ID);
+        return statuses;
+    }
+
+    /**
+     * 令牌桶容量为ceil(速率)：任意时间段T内到达的请求数不超过 容量 + 速率 × T（允许1个请求的时间抖动）
+     */
+    private void assertRateWithinTokenBucket() {
+        List<Long> sorted = new ArrayList<>(arrivals);
+        Collections.sort(sorted);
+        double burst = Math.ceil(RATE_LIMIT);
+        for (int i = 0; i < sorted.size(); i++) {
+            for (int j = i; j < sorted.size(); j++) {
+                double seconds = (sorted.get(j) - sorted.get(i)) / 1e9;
+                int requests = j - i + 1;
+                assertTrue(requests <= burst + RATE_LIMIT * seconds + 1,
+                    String.format("%.3f秒内到达%d个请求，超过令牌桶速率", seconds, requests));
+            }
+        }
+        double totalSeconds = (sorted.get(sorted.size() - 1) - sorted.get(0)) / 1e9;
+        assertTrue(totalSeconds >= (sorted.size() - burst - 1) / RATE_LIMIT,
+            "限流未生效，" + sorted.size() + "个请求只用了" + totalSeconds + "秒");
+    }
+}
@@ -0,0 +1,169 @@
+package com.meituan.product.service;
+
+import com.meituan.product.entity.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 并行行解析器测试
+ * 块在线程池中乱序完成时，结果仍须按提交顺序回到提交线程
+ */
+class ParallelRowParserTest {
+
+    private ParallelRowParser parallelRowParser;
+
+    @BeforeEach
+    void setUp() {
+        parallelRowParser = new ParallelRowParser();
+        ReflectionTestUtils.setField(parallelRowParser, "enabled", true);
+        ReflectionTestUtils.setField(parallelRowParser, "parallelism", 4);
+        ReflectionTestUtils.setField(parallelRowParser, "chunkSize", 7);
+        parallelRowParser.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelRowParser.destroy();
+    }
+
+    @Test
+    void testSession_WithRandomDelays_ShouldEmitInSubmitOrder() {
+        // Given: 每行随机耗时，块完成顺序与提交顺序不同；行号不连续（跳过空行）
+        List<Integer> emitted = new ArrayList<>();
+        List<Integer> failed = new ArrayList<>();
+        Thread submitter = Thread.currentThread();
+        ParallelRowParser.Session session = parallelRowParser.openSession(
+            (rowIndex, values) -> {
+                sleepRandomly();
+                if (rowIndex % 17 == 0) {
+                    throw new IllegalArgumentException("第" + rowIndex + "行格式错误");
+                }
+                Product product = new Product();
+                product.setProductName(values[0]);
+                return product;
+            },
+            new ParallelRowParser.ResultHandler() {
+                @Override
+                public void onProduct(int rowIndex, Product product) {
+                    assertSame(submitter, Thread.currentThread(), "结果应在提交线程中回调");
+                    assertEquals("商品" + rowIndex, product.getProductName());
+                    emitted.add(rowIndex);
+                }
+
+                @Override
+                public void onError(int rowIndex, Exception e) {
+                    assertSame(submitter, Thread.currentThread(), "结果应在提交线程中回调");
+                    emitted.add(rowIndex);
+                    failed.add(rowIndex);
+                }
+            });
+
+        // When
+        List<Integer> submitted = new ArrayList<>();
+        for (int rowIndex = 2; rowIndex < 500; rowIndex++) {
+            if (rowIndex % 11 == 0) {
+                continue;
+            }
+            submitted.add(rowIndex);
+            session.submit(rowIndex, new String[]{"商品" + rowIndex});
+        }
+        session.finish();
+
+        // Then
+        assertEquals(submitted, emitted, "结果顺序应与提交顺序一致");
+        List<Integer> expectedFailures = new ArrayList<>();
+        for (int rowIndex : submitted) {
+            if (rowIndex % 17 == 0) {
+                expectedFailures.add(rowIndex);
+            }
+        }
+        assertEquals(expectedFailures, failed);
+    }
+
+    @Test
+    void testSession_WithSlowParser_ShouldBoundChunksInFlight() {
+        // Given: 解析很慢，提交线程必须在在途块达到上限时等待
+        AtomicInteger parsing = new AtomicInteger();
+        AtomicInteger maxSubmittedAhead = new AtomicInteger();
+        AtomicInteger emittedCount = new AtomicInteger();
+        int chunkSize = 7;
+        int maxInFlightChunks = 4 * 2;
+
+        ParallelRowParser.Session session = parallelRowParser.openSession(
+            (rowIndex, values) -> {
+                parsing.incrementAndGet();
+                sleepRandomly();
+                return new Product();
+            },
+            new ParallelRowParser.ResultHandler() {
+                @Override
+                public void onProduct(int rowIndex, Product product) {
+                    emittedCount.incrementAndGet();
+                }
+
+                @Override
+                public void onError(int rowIndex, Exception e) {
+                    fail("不应出现解析错误");
+                }
+            });
+
+        // When
+        for (int rowIndex = 0; rowIndex < 400; rowIndex++) {
+            session.submit(rowIndex, new String[0]);
+            maxSubmittedAhead.accumulateAndGet(rowIndex + 1 - emittedCount.get(), Math::max);
+        }
+        session.finish();
+
+        // Then: 未输出的行不超过 (上限 + 当前块) 个块
+        assertEquals(400, emittedCount.get());
+        assertEquals(400, parsing.get());
+        assertTrue(maxSubmittedAhead.get() <= (maxInFlightChunks + 1) * chunkSize,
+            "在途行数超过上限：" + maxSubmittedAhead.get());
+    }
+
+    @Test
+    void testSession_WithPartialChunk_ShouldEmitRemainderOnFinish() {
+        // Given
+        List<Integer> emitted = new ArrayList<>();
+        ParallelRowParser.Session session = parallelRowParser.openSession(
+            (rowIndex, values) -> new Product(),
+            new ParallelRowParser.ResultHandler() {
+                @Override
+                public void onProduct(int rowIndex, Product product) {
+                    emitted.add(rowIndex);
+                }
+
+                @Override
+                public void onError(int rowIndex, Exception e) {
+                    fail("不应出现解析错误");
+                }
+            });
+
+        // When: 3行不足一个块
+        session.submit(5, new String[0]);
+        session.submit(6, new String[0]);
+        session.submit(8, new String[0]);
+        assertTrue(emitted.isEmpty(), "不足一个块时不应提前输出");
+        session.finish();
+
+        // Then
+        assertEquals(List.of(5, 6, 8), emitted);
+    }
+
+    private static void sleepRandomly() {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
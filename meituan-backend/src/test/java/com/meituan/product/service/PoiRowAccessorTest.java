@@ -0,0 +1,149 @@
+package com.meituan.product.service;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * POI行数据访问器测试
+ * 直接读取单元格数值的类型化取值，应与“单元格 -> 字符串 -> 数值”的往返转换结果一致
+ */
+class PoiRowAccessorTest {
+
+    private XSSFWorkbook workbook;
+    private Sheet sheet;
+
+    @BeforeEach
+    void setUp() {
+        workbook = new XSSFWorkbook();
+        sheet = workbook.createSheet("商品");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        workbook.close();
+    }
+
+    @Test
+    void testTypedValues_WithTypicalCells_ShouldMatchStringConversion() {
+        // Given
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+        Row row = sheet.createRow(0);
+        Object[] values = {
+            0.0, -0.0, 1.0, 2.0, -3.0, 12.5, 0.1, 19.9, 1e-7, 123456789.0, 3e9, -3e9, 1.5e7 + 0.5, 6901234567890123.0,
+            "12", " 7 ", "12.50", "-0.5", "1e3", "+5", "-", "007", "abc", "", "   ",
+            "是", "否", "TRUE", "yes", "1", "0", true, false
+        };
+        int column = 0;
+        for (Object value : values) {
+            Cell cell = row.createCell(column++);
+            if (value instanceof Double) {
+                cell.setCellValue((Double) value);
+            } else if (value instanceof Boolean) {
+                cell.setCellValue((Boolean) value);
+            } else {
+                cell.setCellValue((String) value);
+            }
+        }
+        Cell dateCell = row.createCell(column++);
+        dateCell.setCellValue(new Date(0));
+        dateCell.setCellStyle(dateStyle);
+        Cell formulaCell = row.createCell(column++);
+        formulaCell.setCellFormula("1+1");
+
+        // When & Then: 额外多比较一个不存在的列和负数列索引
+        assertSameAsStringConversion(row, column + 1);
+        assertNull(new PoiRowAccessor(row).getDecimal(-1));
+    }
+
+    @Test
+    void testTypedValues_WithRandomNumbers_ShouldMatchStringConversion() {
+        // Given
+        Random random = new Random(7L);
+        Row row = sheet.createRow(0);
+        int columnCount = 5000;
+        for (int i = 0; i < columnCount; i++) {
+            double value;
+            switch (random.nextInt(4)) {
+                case 0:
+                    value = random.nextInt(2_000_000) - 1_000_000;
+                    break;
+                case 1:
+                    value = Math.round(random.nextDouble() * 100_000) / 100.0;
+                    break;
+                case 2:
+                    value = random.nextDouble() * Math.pow(10, random.nextInt(20) - 5);
+                    break;
+                default:
+                    value = random.nextInt(3);
+                    break;
+            }
+            row.createCell(i).setCellValue(value);
+        }
+
+        // When & Then
+        assertSameAsStringConversion(row, columnCount);
+    }
+
+    /**
+     * 逐列比较类型化取值与优化前的字符串转换结果
+     */
+    private static void assertSameAsStringConversion(Row row, int columnCount) {
+        PoiRowAccessor accessor = new PoiRowAccessor(row);
+        for (int i = 0; i < columnCount; i++) {
+            String text = PoiRowAccessor.getCellValueAsString(row.getCell(i));
+            assertEquals(text, accessor.getString(i));
+            assertEquals(baselineDecimal(text), accessor.getDecimal(i), "第" + i + "列小数不一致：" + text);
+            assertEquals(baselineInteger(text), accessor.getInteger(i), "第" + i + "列整数不一致：" + text);
+            assertEquals(baselineFlag(text), accessor.getFlag(i), "第" + i + "列标记不一致：" + text);
+
+            // 字符串实现（SAX流式读取）的默认方法同样与往返转换一致
+            RowValueAccessor strings = RowValueAccessor.of(new String[]{text});
+            assertEquals(baselineDecimal(text), strings.getDecimal(0));
+            assertEquals(baselineInteger(text), strings.getInteger(0));
+            assertEquals(baselineFlag(text), strings.getFlag(0));
+        }
+    }
+
+    private static BigDecimal baselineDecimal(String str) {
+        if (str == null || str.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(str.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Integer baselineInteger(String str) {
+        if (str == null || str.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return (int) Double.parseDouble(str.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int baselineFlag(String str) {
+        if (str == null || str.trim().isEmpty()) {
+            return 0;
+        }
+        String value = str.trim().toLowerCase();
+        return "是".equals(value) || "true".equals(value) || "1".equals(value) || "yes".equals(value) ? 1 : 0;
+    }
+}
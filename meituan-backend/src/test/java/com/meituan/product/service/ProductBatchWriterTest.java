@@ -0,0 +1,137 @@
+package com.meituan.product.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.meituan.product.entity.Product;
+import com.meituan.product.mapper.H2MapperSupport;
+import com.meituan.product.mapper.ProductMapper;
+import com.meituan.product.mapper.TestProducts;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 商品批量写入器测试（H2）
+ * multi-values 与 jdbc-batch 两种插入方式写入的数据应完全一致，并输出两者耗时；
+ * 10万条的用例耗时较长，默认跳过，使用 -Dlarge-tests=true 运行
+ */
+@Slf4j
+class ProductBatchWriterTest {
+
+    private static final long MERCHANT_ID = 1L;
+    private static final int BATCH_SIZE = 500;
+
+    private final List<H2MapperSupport> databases = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        databases.forEach(H2MapperSupport::close);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5_000, 10_000})
+    void testInsert_MultiValuesAndJdbcBatch_ShouldWriteIdenticalRows(int productCount) {
+        assertIdenticalRows(productCount);
+    }
+
+    @Test
+    @Tag("large")
+    @EnabledIfSystemProperty(named = "large-tests", matches = "true")
+    void testInsert_With100kProducts_ShouldWriteIdenticalRows() {
+        assertIdenticalRows(100_000);
+    }
+
+    @Test
+    void testInit_WithUnknownMode_ShouldThrowException() {
+        // Given
+        ProductBatchWriter writer = new ProductBatchWriter(null, null);
+        ReflectionTestUtils.setField(writer, "insertMode", "load-data");
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, writer::init);
+    }
+
+    /**
+     * 两种插入方式各写入productCount条商品，比较写入结果并输出耗时
+     */
+    private void assertIdenticalRows(int productCount) {
+        // Given
+        List<Product> products = TestProducts.create(MERCHANT_ID, productCount);
+        H2MapperSupport multiValuesDb = createDatabase();
+        H2MapperSupport jdbcBatchDb = createDatabase();
+        ProductBatchWriter multiValuesWriter = createWriter(multiValuesDb, ProductBatchWriter.MODE_MULTI_VALUES);
+        ProductBatchWriter jdbcBatchWriter = createWriter(jdbcBatchDb, ProductBatchWriter.MODE_JDBC_BATCH);
+
+        // When
+        long multiValuesMillis = insertAll(multiValuesWriter, products);
+        long jdbcBatchMillis = insertAll(jdbcBatchWriter, products);
+        log.info("写入{}条商品（每批{}条）：multi-values {}ms，jdbc-batch {}ms",
+            productCount, BATCH_SIZE, multiValuesMillis, jdbcBatchMillis);
+
+        // Then
+        List<Product> multiValuesRows = loadRows(multiValuesDb);
+        List<Product> jdbcBatchRows = loadRows(jdbcBatchDb);
+        assertEquals(productCount, multiValuesRows.size());
+        assertEquals(productCount, jdbcBatchRows.size());
+        for (int i = 0; i < productCount; i++) {
+            assertEquals(multiValuesRows.get(i), jdbcBatchRows.get(i), "第" + (i + 1) + "行不一致");
+        }
+        assertEquals(products.get(0).getProductName(), jdbcBatchRows.get(0).getProductName());
+        assertEquals(products.get(0).getExpiryDate(), jdbcBatchRows.get(0).getExpiryDate());
+        assertEquals(0, products.get(0).getPrice().compareTo(jdbcBatchRows.get(0).getPrice()));
+    }
+
+    private H2MapperSupport createDatabase() {
+        H2MapperSupport database = H2MapperSupport.create();
+        databases.add(database);
+        return database;
+    }
+
+    private static ProductBatchWriter createWriter(H2MapperSupport database, String mode) {
+        ProductBatchWriter writer = new ProductBatchWriter(database.getMapper(ProductMapper.class),
+            database.getSqlSessionFactory());
+        ReflectionTestUtils.setField(writer, "insertMode", mode);
+        writer.init();
+        return writer;
+    }
+
+    /**
+     * 按导入流水线的批大小分批写入，返回耗时（毫秒）
+     */
+    private static long insertAll(ProductBatchWriter writer, List<Product> products) {
+        // 预热一批，避免首批的语句解析和JIT计入耗时
+        writer.insert(TestProducts.create(MERCHANT_ID + 1, BATCH_SIZE));
+
+        long start = System.nanoTime();
+        int inserted = 0;
+        for (int i = 0; i < products.size(); i += BATCH_SIZE) {
+            inserted += writer.insert(products.subList(i, Math.min(i + BATCH_SIZE, products.size())));
+        }
+        assertEquals(products.size(), inserted, "返回的插入条数不正确");
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * 读取商家的全部商品，忽略自增ID和时间戳
+     */
+    private static List<Product> loadRows(H2MapperSupport database) {
+        List<Product> rows = database.getMapper(ProductMapper.class).selectList(new LambdaQueryWrapper<Product>()
+            .eq(Product::getMerchantId, MERCHANT_ID)
+            .orderByAsc(Product::getId));
+        for (Product row : rows) {
+            row.setId(null);
+            row.setCreatedTime(null);
+            row.setUpdatedTime(null);
+        }
+        return rows;
+    }
+}
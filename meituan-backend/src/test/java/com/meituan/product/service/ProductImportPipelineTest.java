@@ -0,0 +1,237 @@
+package com.meituan.product.service;
+
+import com.meituan.product.dto.ErrorDetail;
+import com.meituan.product.dto.ExcelParseSummary;
+import com.meituan.product.dto.ImportResult;
+import com.meituan.product.entity.Product;
+import com.meituan.product.enums.FormatType;
+import com.meituan.product.exception.FileFormatException;
+import com.meituan.product.mapper.H2MapperSupport;
+import com.meituan.product.mapper.ProductMapper;
+import com.meituan.product.mapper.TestProducts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjIntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 商品导入流水线测试（H2）
+ * 解析在中途失败时回滚已写入的批次、单个批次写入失败时记录其Excel行号范围并继续导入，
+ * 以及插入变慢时解析线程被阻塞，内存中的批次数不超过 queue-capacity + insert-threads
+ */
+class ProductImportPipelineTest {
+
+    private static final long MERCHANT_ID = 2L;
+    private static final int BATCH_SIZE = 100;
+    private static final int INSERT_THREADS = 2;
+    private static final int QUEUE_CAPACITY = 2;
+    // 美团格式第1行表头、第2行说明，数据从第3行开始
+    private static final int FIRST_DATA_ROW = 3;
+
+    private H2MapperSupport database;
+    private ProductMapper productMapper;
+    private final ExcelService excelService = mock(ExcelService.class);
+    private ProductImportPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        database = H2MapperSupport.create();
+        productMapper = database.getMapper(ProductMapper.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.destroy();
+        }
+        database.close();
+    }
+
+    @Test
+    void testRun_WhenParsingFailsMidway_ShouldRollBackInsertedBatches() {
+        // Given: 解析出1050行后文件损坏，此时已有10个批次投递
+        pipeline = createPipeline(new SlowWriter(productMapper, 5));
+        streamProducts(1050, new FileFormatException("解析Excel文件失败：文件已损坏"));
+        ImportProgress progress = new ImportProgress();
+
+        // When
+        FileFormatException e = assertThrows(FileFormatException.class,
+            () -> pipeline.run(new ByteArrayInputStream(new byte[0]), "xlsx", MERCHANT_ID, progress));
+
+        // Then: 已写入的批次全部删除，重试不会重复导入
+        assertTrue(e.getMessage().contains("文件已损坏"));
+        assertEquals(0, productCount());
+        assertEquals(1050, progress.getRowsParsed());
+        assertEquals(0, progress.getRowsInserted());
+    }
+
+    @Test
+    void testRun_WhenRollbackFails_ShouldReportInsertedCount() {
+        // Given
+        SlowWriter writer = new SlowWriter(productMapper, 0) {
+            @Override
+            public int delete(List<Long> ids) {
+                throw new IllegalStateException("数据库连接已断开");
+            }
+        };
+        pipeline = createPipeline(writer);
+        streamProducts(1050, new FileFormatException("解析Excel文件失败：文件已损坏"));
+        ImportProgress progress = new ImportProgress();
+
+        // When
+        assertThrows(FileFormatException.class,
+            () -> pipeline.run(new ByteArrayInputStream(new byte[0]), "xlsx", MERCHANT_ID, progress));
+
+        // Then: 解析失败前投递的10个批次都已写入，进度中如实体现
+        assertEquals(1000, productCount());
+        assertEquals(1000, progress.getRowsInserted());
+    }
+
+    @Test
+    void testRun_WhenBatchInsertFails_ShouldReportRowRangeAndContinue() {
+        // Given: 第3批（第203-302行）写入失败
+        SlowWriter writer = new SlowWriter(productMapper, 0) {
+            @Override
+            public int insert(List<Product> products) {
+                if (products.get(0).getProductName().equals(productName(2 * BATCH_SIZE))) {
+                    throw new IllegalStateException("Duplicate entry");
+                }
+                return super.insert(products);
+            }
+        };
+        pipeline = createPipeline(writer);
+        streamProducts(1000, null);
+
+        // When
+        ImportResult result = pipeline.run(new ByteArrayInputStream(new byte[0]), "xlsx", MERCHANT_ID);
+
+        // Then
+        assertEquals(1000, result.getTotalCount());
+        assertEquals(900, result.getSuccessCount());
+        assertEquals(100, result.getFailedCount());
+        assertEquals(900, productCount());
+        assertEquals(1, result.getErrorDetails().size());
+        ErrorDetail error = result.getErrorDetails().get(0);
+        int firstRow = FIRST_DATA_ROW + 2 * BATCH_SIZE;
+        assertEquals(firstRow, error.getRowNum());
+        assertEquals("批次3", error.getFieldName());
+        assertTrue(error.getErrorMessage().contains("第" + firstRow + "-" + (firstRow + BATCH_SIZE - 1) + "行"),
+            error.getErrorMessage());
+        assertTrue(error.getErrorMessage().contains("Duplicate entry"));
+    }
+
+    @Test
+    void testRun_WithSlowInserts_ShouldBoundBatchesInMemory() {
+        // Given: 每批写入耗时20ms，解析不受限时会一次投递全部30个批次
+        SlowWriter writer = new SlowWriter(productMapper, 20);
+        pipeline = createPipeline(writer);
+        AtomicInteger maxOutstanding = new AtomicInteger();
+        int total = 30 * BATCH_SIZE;
+        when(excelService.streamExcelRows(any(), anyString(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            ObjIntConsumer<Product> sink = invocation.getArgument(2);
+            for (int i = 0; i < total; i++) {
+                sink.accept(product(i), FIRST_DATA_ROW + i);
+                // 已交给流水线但尚未写完的批次数
+                int outstanding = (i + 1) / BATCH_SIZE - writer.finished.get();
+                maxOutstanding.accumulateAndGet(outstanding, Math::max);
+            }
+            return summary(total);
+        });
+        ImportProgress progress = new ImportProgress();
+
+        // When
+        ImportResult result = pipeline.run(new ByteArrayInputStream(new byte[0]), "xlsx", MERCHANT_ID, progress);
+
+        // Then
+        assertEquals(total, result.getSuccessCount());
+        assertEquals(total, productCount());
+        assertTrue(maxOutstanding.get() <= QUEUE_CAPACITY + INSERT_THREADS,
+            "内存中最多" + maxOutstanding.get() + "个批次");
+        assertTrue(progress.getStageTimings().getOrDefault(ImportProgress.STAGE_BACKPRESSURE, 0L) > 0,
+            "解析线程应因队列已满而阻塞");
+    }
+
+    /**
+     * 解析出count行商品，之后抛出failure（为null时正常结束）
+     */
+    private void streamProducts(int count, RuntimeException failure) {
+        when(excelService.streamExcelRows(any(), anyString(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            ObjIntConsumer<Product> sink = invocation.getArgument(2);
+            for (int i = 0; i < count; i++) {
+                sink.accept(product(i), FIRST_DATA_ROW + i);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return summary(count);
+        });
+    }
+
+    private ProductImportPipeline createPipeline(ProductBatchWriter writer) {
+        ProductImportPipeline importPipeline = new ProductImportPipeline(excelService, writer,
+            mock(MappingMemoryService.class));
+        ReflectionTestUtils.setField(importPipeline, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(importPipeline, "insertThreads", INSERT_THREADS);
+        ReflectionTestUtils.setField(importPipeline, "queueCapacity", QUEUE_CAPACITY);
+        importPipeline.init();
+        return importPipeline;
+    }
+
+    private static ExcelParseSummary summary(int parsedCount) {
+        ExcelParseSummary summary = new ExcelParseSummary();
+        summary.setFormatType(FormatType.MEITUAN);
+        summary.setParsedCount(parsedCount);
+        return summary;
+    }
+
+    private static Product product(int i) {
+        return TestProducts.create(MERCHANT_ID, "P" + i, i);
+    }
+
+    private static String productName(int i) {
+        return product(i).getProductName();
+    }
+
+    private int productCount() {
+        return database.jdbcTemplate().queryForObject("SELECT COUNT(*) FROM t_product", Integer.class);
+    }
+
+    /**
+     * 每批写入前等待固定时间的写入器，记录已写完的批次数
+     */
+    private static class SlowWriter extends ProductBatchWriter {
+
+        private final long delayMillis;
+        private final AtomicInteger finished = new AtomicInteger();
+
+        SlowWriter(ProductMapper productMapper, long delayMillis) {
+            super(productMapper, null);
+            this.delayMillis = delayMillis;
+            ReflectionTestUtils.setField(this, "insertMode", MODE_MULTI_VALUES);
+        }
+
+        @Override
+        public int insert(List<Product> products) {
+            try {
+                Thread.sleep(delayMillis);
+                return super.insert(products);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                finished.incrementAndGet();
+            }
+        }
+    }
+}
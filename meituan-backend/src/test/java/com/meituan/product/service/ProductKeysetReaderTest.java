@@ -0,0 +1,188 @@
+package com.meituan.product.service;
+
+import com.meituan.product.entity.Product;
+import com.meituan.product.mapper.H2MapperSupport;
+import com.meituan.product.mapper.ProductMapper;
+import com.meituan.product.mapper.TestProducts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 商品键集分页读取测试（H2）
+ * 按ZIP导出的方式把倒序的商品ID切分成多个批次，各批次按 id &lt; beforeId AND id &gt;= minId 倒序分页读取，
+ * 在批次边界、最后一页为空、ID不连续以及导出过程中插入新商品时，所有批次读到的商品应不重不漏
+ */
+class ProductKeysetReaderTest {
+
+    private static final long MERCHANT_ID = 31L;
+    private static final long OTHER_MERCHANT_ID = 32L;
+
+    private H2MapperSupport database;
+    private ProductMapper productMapper;
+
+    @BeforeEach
+    void setUp() {
+        database = H2MapperSupport.create();
+        productMapper = database.getMapper(ProductMapper.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    @Test
+    void testRead_WithIdGaps_ShouldReadEveryIdOnceAcrossParts() {
+        // Given: 两个商家交替写入，再逻辑删除和物理删除部分商品，使ID在页和批次边界处不连续
+        insertInterleaved(1050, 37);
+        database.jdbcTemplate().update("UPDATE t_product SET deleted = 1 WHERE merchant_id = ? AND MOD(id, 7) = 0",
+            MERCHANT_ID);
+        database.jdbcTemplate().update("DELETE FROM t_product WHERE merchant_id = ? AND id BETWEEN ? AND ?",
+            MERCHANT_ID, 400, 520);
+        List<Long> ids = productMapper.selectIdsByMerchantId(MERCHANT_ID, null);
+
+        // When: 每个批次200条，每页64条
+        List<ProductKeysetReader> readers = partition(ids, 200, 64);
+        List<List<Long>> parts = readAll(readers);
+
+        // Then
+        assertReadOnce(ids, parts, 200);
+        for (List<Long> part : parts) {
+            for (int i = 1; i < part.size(); i++) {
+                assertTrue(part.get(i) < part.get(i - 1), "批次内应按ID倒序");
+            }
+        }
+    }
+
+    @Test
+    void testRead_WhenPartSizeIsMultipleOfPageSize_ShouldEndWithEmptyPage() {
+        // Given
+        insertInterleaved(100, 100);
+        List<Long> ids = productMapper.selectIdsByMerchantId(MERCHANT_ID, null);
+
+        // When: 每个批次50条，每页25条，读满两页后还需一次查询确认没有更多数据
+        List<ProductKeysetReader> readers = partition(ids, 50, 25);
+        List<List<Long>> parts = readAll(readers);
+
+        // Then
+        assertReadOnce(ids, parts, 50);
+        for (ProductKeysetReader reader : readers) {
+            assertEquals(3, reader.getQueryCount());
+        }
+    }
+
+    @Test
+    void testRead_WithSinglePagePerPart_ShouldStopAfterShortPage() {
+        // Given: 最后一个批次只有1条
+        insertInterleaved(41, 41);
+        List<Long> ids = productMapper.selectIdsByMerchantId(MERCHANT_ID, null);
+
+        // When
+        List<ProductKeysetReader> readers = partition(ids, 20, 64);
+        List<List<Long>> parts = readAll(readers);
+
+        // Then
+        assertReadOnce(ids, parts, 20);
+        assertEquals(List.of(20, 20, 1), parts.stream().map(List::size).collect(Collectors.toList()));
+        for (ProductKeysetReader reader : readers) {
+            assertEquals(1, reader.getQueryCount());
+        }
+    }
+
+    @Test
+    void testRead_WithRowsInsertedDuringExport_ShouldOnlyReadPreparedIds() {
+        // Given: 准备导出时查询的ID
+        insertInterleaved(300, 50);
+        List<Long> ids = productMapper.selectIdsByMerchantId(MERCHANT_ID, null);
+        List<ProductKeysetReader> readers = partition(ids, 100, 30);
+
+        // When: 第一个批次读完第一页后，两个商家都插入新商品
+        List<List<Long>> parts = new ArrayList<>();
+        Iterator<Product> first = readers.get(0).iterator();
+        List<Long> firstPart = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            firstPart.add(first.next().getId());
+        }
+        productMapper.batchInsert(TestProducts.create(MERCHANT_ID, 80));
+        productMapper.batchInsert(TestProducts.create(OTHER_MERCHANT_ID, 80));
+        first.forEachRemaining(product -> firstPart.add(product.getId()));
+        parts.add(firstPart);
+        parts.addAll(readAll(readers.subList(1, readers.size())));
+
+        // Then: 新商品的ID大于准备时的最大ID，不会混入任何批次
+        assertReadOnce(ids, parts, 100);
+        assertEquals(380, productMapper.selectIdsByMerchantId(MERCHANT_ID, null).size());
+    }
+
+    /**
+     * 与ProductService的ZIP导出相同：倒序ID按rowsPerPart切分，每个批次读取 [最后一个ID, 第一个ID] 范围
+     */
+    private List<ProductKeysetReader> partition(List<Long> ids, int rowsPerPart, int pageSize) {
+        List<ProductKeysetReader> readers = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += rowsPerPart) {
+            int to = Math.min(from + rowsPerPart, ids.size());
+            readers.add(new ProductKeysetReader(productMapper, MERCHANT_ID, ids.get(from), ids.get(to - 1),
+                pageSize));
+        }
+        return readers;
+    }
+
+    private static List<List<Long>> readAll(List<ProductKeysetReader> readers) {
+        List<List<Long>> parts = new ArrayList<>();
+        for (ProductKeysetReader reader : readers) {
+            List<Long> part = new ArrayList<>();
+            for (Product product : reader) {
+                assertEquals(MERCHANT_ID, product.getMerchantId());
+                part.add(product.getId());
+            }
+            parts.add(part);
+        }
+        return parts;
+    }
+
+    /**
+     * 各批次依次拼接后应与准备时的ID完全一致，且除最后一个批次外都是满批
+     */
+    private static void assertReadOnce(List<Long> ids, List<List<Long>> parts, int rowsPerPart) {
+        List<Long> all = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < parts.size(); i++) {
+            List<Long> part = parts.get(i);
+            if (i < parts.size() - 1) {
+                assertEquals(rowsPerPart, part.size(), "第" + (i + 1) + "个批次数量不正确");
+            }
+            for (Long id : part) {
+                assertTrue(seen.add(id), "ID " + id + " 在多个批次中重复");
+            }
+            all.addAll(part);
+        }
+        assertEquals(ids, all, "批次拼接后与导出的ID不一致");
+    }
+
+    /**
+     * 两个商家每次各写入chunk条，交替进行，直到当前商家写满count条
+     */
+    private void insertInterleaved(int count, int chunk) {
+        int inserted = 0;
+        while (inserted < count) {
+            int size = Math.min(chunk, count - inserted);
+            List<Product> products = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                products.add(TestProducts.create(MERCHANT_ID, "K" + (inserted + i), inserted + i));
+            }
+            productMapper.batchInsert(products);
+            productMapper.batchInsert(TestProducts.create(OTHER_MERCHANT_ID, size));
+            inserted += size;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.meituan.product.service;
+
+import com.meituan.product.dto.ProductStats;
+import com.meituan.product.mapper.ProductMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 分批导出准备测试
+ * 文件数按实际查询到的商品ID计算，统计总数过期时也不会漏掉部分ID（生成后会按全部ID更新状态）
+ */
+class ProductServiceZipExportTest {
+
+    private static final long MERCHANT_ID = 9L;
+
+    private final ProductMapper productMapper = mock(ProductMapper.class);
+    private final ProductService productService = new ProductService(mock(ExcelService.class), productMapper,
+        null, null, null, null, null, null, null);
+
+    @Test
+    void testPrepareZipExport_WithStaleStats_ShouldCoverEveryProductId() {
+        // Given: 统计时只有1500个商品，查询ID前又导入了3000个
+        ReflectionTestUtils.setField(productService, "maxRowsPerFile", 2000);
+        ProductStats stats = new ProductStats();
+        stats.setTotalCount(1500L);
+        when(productMapper.getStats(MERCHANT_ID)).thenReturn(stats);
+        when(productMapper.selectIdsByMerchantId(eq(MERCHANT_ID), any())).thenReturn(ids(4500));
+
+        // When
+        ProductService.ZipExport export = productService.prepareProductsZipExport(MERCHANT_ID, null);
+
+        // Then
+        assertEquals(4500, export.getProductCount());
+        assertEquals(3, export.getFileCount());
+    }
+
+    @Test
+    void testPrepareZipExport_WithTestLimit_ShouldCountFilesByLimitedIds() {
+        // Given
+        ReflectionTestUtils.setField(productService, "maxRowsPerFile", 2000);
+        ProductStats stats = new ProductStats();
+        stats.setTotalCount(10000L);
+        when(productMapper.getStats(MERCHANT_ID)).thenReturn(stats);
+        when(productMapper.selectIdsByMerchantId(MERCHANT_ID, 100)).thenReturn(ids(100));
+
+        // When
+        ProductService.ZipExport export = productService.prepareProductsZipExport(MERCHANT_ID, 100);
+
+        // Then
+        assertEquals(100, export.getProductCount());
+        assertEquals(1, export.getFileCount());
+    }
+
+    private static List<Long> ids(int count) {
+        return LongStream.rangeClosed(1, count).map(id -> count + 1 - id).boxed().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,98 @@
+package com.meituan.product.service;
+
+import com.meituan.product.entity.Product;
+import com.meituan.product.mapper.H2MapperSupport;
+import com.meituan.product.mapper.ProductMapper;
+import com.meituan.product.mapper.TestProducts;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 商品状态批量更新测试（H2）
+ * 10000个商品按ID分块更新状态，与优化前逐个商品updateById写回整行的结果应一致，并输出两者耗时
+ */
+@Slf4j
+class ProductStatusUpdaterTest {
+
+    private static final long MERCHANT_ID = 22L;
+    private static final int PRODUCT_COUNT = 10000;
+    private static final int CHUNK_SIZE = 1000;
+
+    private final List<H2MapperSupport> databases = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        databases.forEach(H2MapperSupport::close);
+    }
+
+    @Test
+    void testUpdateStatus_With10kProducts_ShouldMatchPerRowUpdateById() {
+        // Given
+        H2MapperSupport perRowDb = createDatabase();
+        H2MapperSupport chunkedDb = createDatabase();
+        ProductMapper perRowMapper = perRowDb.getMapper(ProductMapper.class);
+        ProductMapper chunkedMapper = chunkedDb.getMapper(ProductMapper.class);
+        List<Long> ids = chunkedDb.jdbcTemplate().queryForList(
+            "SELECT id FROM t_product WHERE merchant_id = ? ORDER BY id", Long.class, MERCHANT_ID);
+        List<Product> products = perRowMapper.selectForUploadByIds(ids);
+        ProductStatusUpdater updater = new ProductStatusUpdater(chunkedMapper);
+        ReflectionTestUtils.setField(updater, "chunkSize", CHUNK_SIZE);
+
+        // When: 优化前逐个商品updateById，优化后按ID分块更新（两者都在一个事务中执行）
+        LocalDateTime before = LocalDateTime.now().minusSeconds(1);
+        long perRowStart = System.currentTimeMillis();
+        perRowDb.transactionTemplate().executeWithoutResult(tx -> {
+            for (Product product : products) {
+                product.setStatus(Product.Status.UPLOADED.getCode());
+                perRowMapper.updateById(product);
+            }
+        });
+        long perRowMillis = System.currentTimeMillis() - perRowStart;
+
+        long chunkedStart = System.currentTimeMillis();
+        int updated = chunkedDb.transactionTemplate().execute(
+            tx -> updater.updateStatus(ids, Product.Status.UPLOADED));
+        long chunkedMillis = System.currentTimeMillis() - chunkedStart;
+        log.info("更新{}个商品状态：逐个updateById {}ms（{}条语句），按ID分块 {}ms（{}条语句）",
+            PRODUCT_COUNT, perRowMillis, PRODUCT_COUNT, chunkedMillis, PRODUCT_COUNT / CHUNK_SIZE);
+
+        // Then
+        assertEquals(PRODUCT_COUNT, updated);
+        for (H2MapperSupport database : databases) {
+            assertEquals(PRODUCT_COUNT, database.jdbcTemplate().queryForObject(
+                "SELECT COUNT(*) FROM t_product WHERE status = ? AND updated_time >= ?",
+                Integer.class, Product.Status.UPLOADED.getCode(), before));
+        }
+    }
+
+    @Test
+    void testUpdateStatus_WithEmptyIds_ShouldNotTouchDatabase() {
+        // Given
+        ProductStatusUpdater updater = new ProductStatusUpdater(null);
+
+        // When & Then
+        assertEquals(0, updater.updateStatus(null, Product.Status.UPLOADED));
+        assertEquals(0, updater.updateStatus(List.of(), Product.Status.UPLOADED));
+    }
+
+    private H2MapperSupport createDatabase() {
+        H2MapperSupport database = H2MapperSupport.create();
+        databases.add(database);
+        ProductMapper productMapper = database.getMapper(ProductMapper.class);
+        List<Product> products = TestProducts.create(MERCHANT_ID, PRODUCT_COUNT);
+        for (int from = 0; from < PRODUCT_COUNT; from += CHUNK_SIZE) {
+            productMapper.batchInsert(products.subList(from, from + CHUNK_SIZE));
+        }
+        database.jdbcTemplate().update("UPDATE t_product SET updated_time = ?",
+            LocalDateTime.now().minusDays(1));
+        return database;
+    }
+}
@@ -0,0 +1,106 @@
+package com.meituan.product.service;
+
+import com.meituan.product.dto.FieldMappingRule;
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.From;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 语义匹配器属性测试
+ * 带状、有上限的编辑距离以及二元组预过滤，与完整矩阵的Levenshtein距离结果应一致
+ */
+class SemanticMatcherPropertyTest {
+
+    private final SemanticMatcher semanticMatcher = new SemanticMatcher();
+
+    @Property(tries = 2000)
+    void boundedDistance_ShouldMatchFullMatrixWithinBound(@ForAll("texts") String s1, @ForAll("texts") String s2,
+                                                          @ForAll @IntRange(min = 0, max = 16) int maxDistance) {
+        // Given
+        int expected = fullMatrixDistance(s1, s2);
+        int[] previousRow = new int[s2.length() + 1];
+        int[] currentRow = new int[s2.length() + 1];
+
+        // When
+        int actual = SemanticMatcher.boundedDistance(s1, s2, maxDistance, previousRow, currentRow);
+
+        // Then: 不超过上限时返回准确距离，超过时返回上限加一
+        assertEquals(expected <= maxDistance ? expected : maxDistance + 1, actual,
+            "'" + s1 + "' vs '" + s2 + "'，上限" + maxDistance);
+    }
+
+    @Property(tries = 1000)
+    void fuzzyMatch_WithRuleIndex_ShouldMatchFullMatrixScore(@ForAll("texts") String columnName,
+                                                             @ForAll @Size(max = 5) List<@From("texts") String> exactMatches,
+                                                             @ForAll @Size(max = 5) List<@From("texts") String> synonyms) {
+        // Given
+        FieldMappingRule rule = new FieldMappingRule();
+        rule.setFieldName("field");
+        rule.setExactMatches(exactMatches);
+        rule.setSynonyms(synonyms);
+        MappingRuleIndex index = new MappingRuleIndex(Map.of("field", rule));
+
+        // When
+        double indexed = semanticMatcher.fuzzyMatch(index.profile(columnName), rule);
+        double direct = semanticMatcher.fuzzyMatch(columnName, rule);
+
+        // Then
+        double expected = fullMatrixFuzzyScore(columnName, rule);
+        assertEquals(expected, indexed, "列名'" + columnName + "'，候选" + exactMatches + synonyms);
+        assertEquals(expected, direct, "列名'" + columnName + "'，候选" + exactMatches + synonyms);
+    }
+
+    /**
+     * 小字符集（含中文和会被标准化去除的符号），使随机字符串之间经常只差几个字符
+     */
+    @Provide
+    Arbitrary<String> texts() {
+        return Arbitraries.strings()
+            .withChars('商', '品', '名', '称', '类', '目', 'I', 'D', 'a', 'b', ' ', '（', '*')
+            .ofMaxLength(14);
+    }
+
+    /**
+     * 优化前的模糊匹配得分：完整矩阵计算每个候选的相似度
+     */
+    private static double fullMatrixFuzzyScore(String columnName, FieldMappingRule rule) {
+        String column = SemanticMatcher.normalize(columnName);
+        double maxSimilarity = 0.0;
+        for (List<String> candidates : List.of(rule.getExactMatches(), rule.getSynonyms())) {
+            for (String candidate : candidates) {
+                String text = SemanticMatcher.normalize(candidate);
+                double similarity = column.equals(text) ? 1.0
+                    : 1.0 - ((double) fullMatrixDistance(column, text) / Math.max(column.length(), text.length()));
+                maxSimilarity = Math.max(maxSimilarity, similarity);
+            }
+        }
+        return maxSimilarity >= 0.6 ? Math.min(0.5 + (maxSimilarity - 0.6) * 0.75, 0.8) : 0.0;
+    }
+
+    private static int fullMatrixDistance(String s1, String s2) {
+        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+        for (int i = 0; i <= s1.length(); i++) {
+            dp[i][0] = i;
+        }
+        for (int j = 0; j <= s2.length(); j++) {
+            dp[0][j] = j;
+        }
+        for (int i = 1; i <= s1.length(); i++) {
+            for (int j = 1; j <= s2.length(); j++) {
+                int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+                dp[i][j] = Math.min(Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1), dp[i - 1][j - 1] + cost);
+            }
+        }
+        return dp[s1.length()][s2.length()];
+    }
+}
@@ -0,0 +1,129 @@
+package com.meituan.product.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * xlsx流式读取器测试
+ * 数值单元格的转换结果与POI用户模型路径一致，且普通小数的原文直接返回，不再经过double转换产生额外分配
+ */
+@Slf4j
+class StreamingExcelReaderTest {
+
+    private static final double[] DECIMALS = {
+        12.5, 19.9, 0.1, 0.1 + 0.2, -0.25, 0.001, 0.0001, 123456.789, 9999999.5, 12345678.5, 1.5e-7, 3.0, 1e20
+    };
+
+    private final StreamingExcelReader reader = new StreamingExcelReader();
+
+    @Test
+    void testRead_WithNumericCells_ShouldMatchWorkbookPath() throws IOException {
+        // Given
+        byte[] xlsx;
+        List<String> expected = new ArrayList<>();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Row row = workbook.createSheet("商品").createRow(0);
+            for (int i = 0; i < DECIMALS.length; i++) {
+                row.createCell(i).setCellValue(DECIMALS[i]);
+                expected.add(PoiRowAccessor.getCellValueAsString(row.getCell(i)));
+            }
+            xlsx = toBytes(workbook);
+        }
+
+        // When
+        List<String[]> rows = readAll(xlsx);
+
+        // Then
+        assertEquals(1, rows.size());
+        assertEquals(expected, List.of(rows.get(0)));
+    }
+
+    @Test
+    void testRead_WithDecimalCells_ShouldAllocateNoMoreThanIntegerCells() throws IOException {
+        // Given: 等长的整数和小数原文（如"12345"和"12.45"），整数原文早已直接返回
+        int rowCount = 1000;
+        int columnCount = 20;
+        byte[] integers = numericWorkbook(rowCount, columnCount, false);
+        byte[] decimals = numericWorkbook(rowCount, columnCount, true);
+        for (int round = 0; round < 2; round++) {
+            readAll(integers);
+            readAll(decimals);
+        }
+
+        // When
+        long integerBytes = allocatedBytes(() -> readAll(integers));
+        long decimalBytes = allocatedBytes(() -> readAll(decimals));
+        long legacyBytes = allocatedBytes(() -> convertLikeBefore(rowCount, columnCount));
+
+        // Then: 小数与整数的分配量相当，远小于逐个经double转换的额外分配
+        int cells = rowCount * columnCount;
+        long extraPerCell = (decimalBytes - integerBytes) / cells;
+        log.info("每个单元格分配：整数{}字节，小数{}字节；原先小数经double转换额外分配{}字节",
+            integerBytes / cells, decimalBytes / cells, legacyBytes / cells);
+        assertTrue(extraPerCell < legacyBytes / cells / 2,
+            "小数比整数每个单元格多分配" + extraPerCell + "字节");
+    }
+
+    private List<String[]> readAll(byte[] xlsx) {
+        List<String[]> rows = new ArrayList<>();
+        reader.read(new ByteArrayInputStream(xlsx), (rowIndex, values) -> rows.add(values));
+        return rows;
+    }
+
+    /**
+     * 原先的小数转换：Double.parseDouble后再String.valueOf
+     */
+    private static void convertLikeBefore(int rowCount, int columnCount) {
+        long checksum = 0;
+        for (int i = 0; i < rowCount * columnCount; i++) {
+            checksum += String.valueOf(Double.parseDouble(decimalText(i))).length();
+        }
+        assertTrue(checksum > 0);
+    }
+
+    private static String decimalText(int i) {
+        return String.valueOf(10 + i % 90) + "." + (11 + i % 89);
+    }
+
+    private static byte[] numericWorkbook(int rowCount, int columnCount, boolean decimal) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("商品");
+            for (int r = 0; r < rowCount; r++) {
+                Row row = sheet.createRow(r);
+                for (int c = 0; c < columnCount; c++) {
+                    int i = r * columnCount + c;
+                    String text = decimal ? decimalText(i) : String.valueOf(10000 + i % 89999);
+                    row.createCell(c).setCellValue(Double.parseDouble(text));
+                }
+            }
+            return toBytes(workbook);
+        }
+    }
+
+    private static long allocatedBytes(Runnable action) {
+        com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        action.run();
+        return threadBean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static byte[] toBytes(XSSFWorkbook workbook) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workbook.write(out);
+        return out.toByteArray();
+    }
+}
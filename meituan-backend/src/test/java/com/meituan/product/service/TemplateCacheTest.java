@@ -0,0 +1,216 @@
+package com.meituan.product.service;
+
+import com.meituan.product.common.ApiResponse;
+import com.meituan.product.controller.TemplateController;
+import com.meituan.product.dto.TemplateCacheStats;
+import com.meituan.product.entity.Template;
+import com.meituan.product.mapper.OperationLogMapper;
+import com.meituan.product.mapper.TemplateMapper;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 商家模板缓存测试
+ * 按ETag重新校验模板文件、超出容量时按LRU淘汰、上传和删除模板时主动失效，
+ * 以及缓存统计和清空缓存接口
+ */
+class TemplateCacheTest {
+
+    private static final long MERCHANT_ID = 7L;
+    private static final long OTHER_MERCHANT_ID = 8L;
+    private static final List<String> HEADERS = List.of("SKU ID", "商品名称", "价格", "库存");
+
+    private final TemplateMapper templateMapper = mock(TemplateMapper.class);
+    private final MinioService minioService = mock(MinioService.class);
+    private TemplateCache templateCache;
+
+    @BeforeEach
+    void setUp() {
+        templateCache = createCache(2);
+    }
+
+    @Test
+    void testLoadTemplate_WhenEtagChanges_ShouldDownloadAgain() throws Exception {
+        // Given
+        Template template = template(1L, MERCHANT_ID);
+        when(templateMapper.selectOne(any())).thenReturn(template);
+        byte[] content = templateFile();
+        when(minioService.downloadFile(anyString())).thenAnswer(invocation -> new ByteArrayInputStream(content));
+        when(minioService.getFileEtag(anyString())).thenReturn("etag-1", "etag-1", "etag-2");
+        ExcelService excelService = new ExcelService(null, null, null, templateMapper, minioService, null, null,
+            templateCache);
+
+        // When & Then: 首次加载下载文件，ETag不变时命中缓存
+        excelService.preloadMeituanTemplate(MERCHANT_ID);
+        excelService.preloadMeituanTemplate(MERCHANT_ID);
+        verify(minioService, times(1)).downloadFile(anyString());
+        assertEquals(1, templateCache.getStats().getHits());
+
+        // 模板文件被覆盖后ETag变化，旧条目作废并重新下载
+        excelService.preloadMeituanTemplate(MERCHANT_ID);
+        verify(minioService, times(2)).downloadFile(anyString());
+        TemplateCacheStats stats = templateCache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getEvictions());
+        assertEquals(1, stats.getSize());
+        assertEquals(HEADERS, templateCache.get(1L, "etag-2").getHeaders());
+    }
+
+    @Test
+    void testPut_WhenFull_ShouldEvictLeastRecentlyUsed() {
+        // Given
+        templateCache.put(cached(1L, MERCHANT_ID));
+        templateCache.put(cached(2L, MERCHANT_ID));
+        assertNotNull(templateCache.get(1L, etag(1L)));
+
+        // When
+        templateCache.put(cached(3L, OTHER_MERCHANT_ID));
+
+        // Then: 最近访问过的模板1保留，模板2被淘汰
+        assertNotNull(templateCache.get(1L, etag(1L)));
+        assertNull(templateCache.get(2L, etag(2L)));
+        assertNotNull(templateCache.get(3L, etag(3L)));
+        TemplateCacheStats stats = templateCache.getStats();
+        assertEquals(2, stats.getSize());
+        assertEquals(2, stats.getCapacity());
+        assertEquals(1, stats.getEvictions());
+        assertEquals(2L * cachedContent().length, stats.getTotalBytes());
+    }
+
+    @Test
+    void testPut_WithZeroCapacity_ShouldNotCache() {
+        // Given
+        TemplateCache disabled = createCache(0);
+
+        // When
+        disabled.put(cached(1L, MERCHANT_ID));
+
+        // Then
+        assertNull(disabled.get(1L, etag(1L)));
+        assertEquals(0, disabled.getStats().getSize());
+        assertEquals(1, disabled.getStats().getMisses());
+    }
+
+    @Test
+    void testUploadTemplate_ShouldInvalidateMerchantTemplates() throws Exception {
+        // Given
+        templateCache = createCache(4);
+        templateCache.put(cached(1L, MERCHANT_ID));
+        templateCache.put(cached(2L, MERCHANT_ID));
+        templateCache.put(cached(3L, OTHER_MERCHANT_ID));
+        when(minioService.uploadFile(any(), anyString()))
+            .thenReturn("http://localhost:9000/meituan-files/templates/new.xlsx?X-Amz-Expires=604800");
+        TemplateService templateService = new TemplateService(templateMapper, minioService,
+            mock(OperationLogMapper.class), templateCache);
+        MockMultipartFile file = new MockMultipartFile("file", "new.xlsx",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", templateFile());
+
+        // When
+        templateService.uploadTemplate(file, "新模板", "MEITUAN", MERCHANT_ID);
+
+        // Then: 只失效上传模板的商家
+        assertNull(templateCache.get(1L, etag(1L)));
+        assertNull(templateCache.get(2L, etag(2L)));
+        assertNotNull(templateCache.get(3L, etag(3L)));
+        assertEquals(2, templateCache.getStats().getEvictions());
+    }
+
+    @Test
+    void testDeleteTemplate_ShouldInvalidateTemplate() {
+        // Given
+        templateCache.put(cached(1L, MERCHANT_ID));
+        templateCache.put(cached(2L, MERCHANT_ID));
+        when(templateMapper.selectById(1L)).thenReturn(template(1L, MERCHANT_ID));
+        TemplateService templateService = new TemplateService(templateMapper, minioService,
+            mock(OperationLogMapper.class), templateCache);
+
+        // When
+        templateService.deleteTemplate(1L, MERCHANT_ID);
+
+        // Then
+        assertNull(templateCache.get(1L, etag(1L)));
+        assertNotNull(templateCache.get(2L, etag(2L)));
+        assertEquals(1, templateCache.getStats().getEvictions());
+    }
+
+    @Test
+    void testCacheEndpoints_ShouldReportStatsAndClearCache() {
+        // Given
+        templateCache.put(cached(1L, MERCHANT_ID));
+        templateCache.get(1L, etag(1L));
+        templateCache.get(2L, etag(2L));
+        TemplateController controller = new TemplateController(mock(TemplateService.class), templateCache);
+
+        // When
+        ApiResponse<TemplateCacheStats> stats = controller.getCacheStats();
+        ApiResponse<String> cleared = controller.clearCache();
+
+        // Then
+        assertEquals(200, stats.getCode());
+        assertEquals(1, stats.getData().getHits());
+        assertEquals(1, stats.getData().getMisses());
+        assertEquals(0.5, stats.getData().getHitRate());
+        assertEquals(1, stats.getData().getSize());
+        assertEquals(200, cleared.getCode());
+        assertEquals(0, controller.getCacheStats().getData().getSize());
+        assertNull(templateCache.get(1L, etag(1L)));
+    }
+
+    private static TemplateCache createCache(int cacheSize) {
+        TemplateCache cache = new TemplateCache();
+        ReflectionTestUtils.setField(cache, "cacheSize", cacheSize);
+        return cache;
+    }
+
+    private static TemplateCache.CachedTemplate cached(Long templateId, Long merchantId) {
+        return new TemplateCache.CachedTemplate(templateId, merchantId, etag(templateId), cachedContent(), HEADERS);
+    }
+
+    private static byte[] cachedContent() {
+        return new byte[128];
+    }
+
+    private static String etag(Long templateId) {
+        return "etag-" + templateId;
+    }
+
+    private static Template template(Long id, Long merchantId) {
+        Template template = new Template();
+        template.setId(id);
+        template.setMerchantId(merchantId);
+        template.setTemplateName("美团模板");
+        template.setTemplateType("MEITUAN");
+        template.setFilePath("templates/meituan-" + id + ".xlsx");
+        return template;
+    }
+
+    private static byte[] templateFile() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Row header = workbook.createSheet("商品").createRow(0);
+            for (int i = 0; i < HEADERS.size(); i++) {
+                header.createCell(i).setCellValue(HEADERS.get(i));
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            workbook.write(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+-- 单元测试用H2表结构（MySQL兼容模式），字段与生产库 t_product 一致
+
+CREATE TABLE IF NOT EXISTS t_product (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    merchant_id BIGINT NOT NULL,
+    sku_id VARCHAR(100),
+    upc_ean VARCHAR(100),
+    category_name VARCHAR(255),
+    product_name VARCHAR(255) NOT NULL,
+    category_id VARCHAR(200),
+    app_spu_code VARCHAR(100),
+    product_image VARCHAR(1000),
+    cover_video VARCHAR(500),
+    spec_image VARCHAR(500),
+    spec_image_url VARCHAR(500),
+    image_url VARCHAR(500),
+    product_images TEXT,
+    store_category VARCHAR(255),
+    store_category_count INT,
+    spec_name VARCHAR(255),
+    store_code VARCHAR(100),
+    price DECIMAL(10, 2),
+    stock INT DEFAULT 0,
+    sale_status VARCHAR(50),
+    monthly_sales INT,
+    weight DECIMAL(10, 2),
+    weight_unit VARCHAR(20),
+    brand VARCHAR(255),
+    min_purchase INT,
+    shelf_code VARCHAR(100),
+    description TEXT,
+    selling_point VARCHAR(500),
+    selling_point_period VARCHAR(255),
+    text_detail TEXT,
+    image_detail TEXT,
+    brand_image_detail TEXT,
+    production_date DATE,
+    expiry_date DATE,
+    is_near_expiry TINYINT,
+    is_expired TINYINT,
+    delivery_mode VARCHAR(100),
+    presale_delivery_time VARCHAR(255),
+    available_time VARCHAR(500),
+    product_attributes TEXT,
+    is_recommended TINYINT,
+    no_reason_return TINYINT,
+    no_reason_return_tag_id VARCHAR(50),
+    is_combo TINYINT,
+    combo_products VARCHAR(1000),
+    is_four_wheel_delivery TINYINT,
+    compliance_status VARCHAR(50),
+    violation_offline TINYINT,
+    missing_required_info TINYINT,
+    audit_status VARCHAR(50),
+    status TINYINT DEFAULT 0,
+    meituan_product_id VARCHAR(100),
+    created_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    updated_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    deleted TINYINT DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_merchant_id ON t_product (merchant_id);
+
+CREATE TABLE IF NOT EXISTS t_meituan_delete_progress (
+    merchant_id BIGINT NOT NULL PRIMARY KEY,
+    state VARCHAR(20) NOT NULL,
+    total_count INT NOT NULL DEFAULT 0,
+    processed_count INT NOT NULL DEFAULT 0,
+    deleted_count INT NOT NULL DEFAULT 0,
+    failed_count INT NOT NULL DEFAULT 0,
+    skipped_count INT NOT NULL DEFAULT 0,
+    last_product_id BIGINT NOT NULL DEFAULT 0,
+    error_message VARCHAR(500),
+    started_time DATETIME,
+    finished_time DATETIME,
+    updated_time DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS t_mapping_memory (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    merchant_id BIGINT NOT NULL,
+    column_name VARCHAR(255) NOT NULL,
+    field_name VARCHAR(100) NOT NULL,
+    hit_count INT NOT NULL DEFAULT 1,
+    created_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    updated_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (merchant_id, column_name)
+);